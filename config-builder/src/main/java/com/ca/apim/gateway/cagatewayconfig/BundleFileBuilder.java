@@ -15,14 +15,18 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleArtifacts;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleDefinedEntities;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.StreamedDeleteBundleBuilder;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoader;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.SourceModelCache;
 import com.ca.apim.gateway.cagatewayconfig.environment.BundleCache;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.w3c.dom.Document;
+import org.w3c.dom.Element;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
@@ -45,25 +49,74 @@ public class BundleFileBuilder {
     private final BundleEntityBuilder bundleEntityBuilder;
     private final BundleCache cache;
     private final DocumentTools documentTools;
+    private final StreamedDeleteBundleBuilder streamedDeleteBundleBuilder;
+    private final SourceModelCache sourceModelCache;
 
     private static final Logger LOGGER = Logger.getLogger(BundleFileBuilder.class.getName());
 
-    @Inject
     public BundleFileBuilder(final DocumentTools documentTools,
                              final DocumentFileUtils documentFileUtils,
                              final JsonFileUtils jsonFileUtils,
                              final EntityLoaderRegistry entityLoaderRegistry,
                              final BundleEntityBuilder bundleEntityBuilder,
                              final BundleCache cache) {
+        this(documentTools, documentFileUtils, jsonFileUtils, entityLoaderRegistry, bundleEntityBuilder, cache, new StreamedDeleteBundleBuilder());
+    }
+
+    public BundleFileBuilder(final DocumentTools documentTools,
+                             final DocumentFileUtils documentFileUtils,
+                             final JsonFileUtils jsonFileUtils,
+                             final EntityLoaderRegistry entityLoaderRegistry,
+                             final BundleEntityBuilder bundleEntityBuilder,
+                             final BundleCache cache,
+                             final StreamedDeleteBundleBuilder streamedDeleteBundleBuilder) {
+        this(documentTools, documentFileUtils, jsonFileUtils, entityLoaderRegistry, bundleEntityBuilder, cache, streamedDeleteBundleBuilder, new SourceModelCache());
+    }
+
+    @Inject
+    public BundleFileBuilder(final DocumentTools documentTools,
+                             final DocumentFileUtils documentFileUtils,
+                             final JsonFileUtils jsonFileUtils,
+                             final EntityLoaderRegistry entityLoaderRegistry,
+                             final BundleEntityBuilder bundleEntityBuilder,
+                             final BundleCache cache,
+                             final StreamedDeleteBundleBuilder streamedDeleteBundleBuilder,
+                             final SourceModelCache sourceModelCache) {
         this.documentFileUtils = documentFileUtils;
         this.jsonFileUtils = jsonFileUtils;
         this.documentTools = documentTools;
         this.entityLoaderRegistry = entityLoaderRegistry;
         this.bundleEntityBuilder = bundleEntityBuilder;
         this.cache = cache;
+        this.streamedDeleteBundleBuilder = streamedDeleteBundleBuilder;
+        this.sourceModelCache = sourceModelCache;
+    }
+
+    /**
+     * Builds the deployment bundles of the source files and writes them to the output directory.
+     *
+     * @param rootDir      the source directory, null if the project has no sources
+     * @param outputDir    the directory the bundles are written to
+     * @param dependencies the bundles the project depends on
+     * @param projectInfo  the project the bundles are built for
+     * @return the built bundles, by bundle name
+     */
+    public Map<String, BundleArtifacts> buildBundle(File rootDir, File outputDir, List<DependentBundle> dependencies, ProjectInfo projectInfo) {
+        return buildBundle(rootDir, outputDir, dependencies, projectInfo, SourceModelCache.isEnabled());
     }
 
-    public void buildBundle(File rootDir, File outputDir, List<DependentBundle> dependencies, ProjectInfo projectInfo) {
+    /**
+     * Builds the deployment bundles of the source files and writes them to the output directory.
+     *
+     * @param rootDir           the source directory, null if the project has no sources
+     * @param outputDir         the directory the bundles are written to
+     * @param dependencies      the bundles the project depends on
+     * @param projectInfo       the project the bundles are built for
+     * @param reuseSourceModel  whether to reuse the entities loaded by earlier builds from the files that did not change
+     * @return the built bundles, by bundle name
+     */
+    public Map<String, BundleArtifacts> buildBundle(File rootDir, File outputDir, List<DependentBundle> dependencies, ProjectInfo projectInfo,
+                                                    boolean reuseSourceModel) {
         final DocumentBuilder documentBuilder = documentTools.getDocumentBuilder();
         final Document document = documentBuilder.newDocument();
 
@@ -71,11 +124,18 @@ public class BundleFileBuilder {
 
         if (rootDir != null) {
             // Load the entities to build a deployment bundle
-            final Collection<EntityLoader> entityLoaders = entityLoaderRegistry.getEntityLoaders();
-            entityLoaders.parallelStream().forEach(e -> e.load(bundle, rootDir));
+            BuildProfiler.phase("load-entities", () -> {
+                final Collection<EntityLoader> entityLoaders = entityLoaderRegistry.getEntityLoaders();
+                if (reuseSourceModel) {
+                    sourceModelCache.load(bundle, rootDir, entityLoaders);
+                } else {
+                    entityLoaders.parallelStream().forEach(e -> e.load(bundle, rootDir));
+                }
 
-            // create the folder tree
-            FolderLoaderUtils.createFolders(bundle, rootDir, bundle.getServices());
+                // create the folder tree
+                FolderLoaderUtils.createFolders(bundle, rootDir, bundle.getServices());
+            });
+            BuildProfiler.countEntities(bundle);
 
             //Load metadata Dependencies
             final Set<Bundle> dependencyBundles = new HashSet<>();
@@ -124,13 +184,18 @@ public class BundleFileBuilder {
         //Zip
         final Map<String, BundleArtifacts> bundleElementMap = bundleEntityBuilder.build(bundle,
                 EntityBuilder.BundleType.DEPLOYMENT, document, projectInfo);
-        bundleElementMap.forEach((k, v) -> writeBundleArtifacts(k, v, outputDir));
+        BuildProfiler.phase("write-bundles", () -> bundleElementMap.forEach((k, v) -> writeBundleArtifacts(k, v, outputDir)));
+        return bundleElementMap;
     }
 
     private void writeBundleArtifacts(final String bundleName, final BundleArtifacts bundleArtifacts, File outputDir) {
-        documentFileUtils.createFile(bundleArtifacts.getBundle(), new File(outputDir,
-                bundleArtifacts.getBundleFileName()).toPath());
-        documentFileUtils.createFile(bundleArtifacts.getDeleteBundle(), new File(outputDir,
+        final File bundleFile = new File(outputDir, bundleArtifacts.getBundleFileName());
+        documentFileUtils.createFile(bundleArtifacts.getBundle(), bundleFile.toPath());
+        Element deleteBundle = bundleArtifacts.getDeleteBundle();
+        if (deleteBundle == null) {
+            deleteBundle = streamedDeleteBundleBuilder.build(bundleFile, documentTools.getDocumentBuilder().newDocument());
+        }
+        documentFileUtils.createFile(deleteBundle, new File(outputDir,
                 bundleArtifacts.getDeleteBundleFileName()).toPath());
         jsonFileUtils.createBundleMetadataFile(bundleArtifacts.getBundleMetadata(), bundleName, outputDir);
     }
@@ -8,7 +8,11 @@ package com.ca.apim.gateway.cagatewayconfig;
 
 import org.apache.commons.lang3.StringUtils;
 
-public class ProjectInfo {
+import java.io.Serializable;
+
+public class ProjectInfo implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     private final String name;
     private final String groupName;
     private final String version;
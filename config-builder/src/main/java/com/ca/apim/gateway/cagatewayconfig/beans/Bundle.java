@@ -8,6 +8,7 @@ package com.ca.apim.gateway.cagatewayconfig.beans;
 
 import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityOverlay;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadingOperation;
 import com.ca.apim.gateway.cagatewayconfig.util.file.SupplierWithIO;
 import org.apache.commons.lang3.StringUtils;
@@ -16,6 +17,7 @@ import org.jetbrains.annotations.NotNull;
 import java.io.InputStream;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 
@@ -24,17 +26,23 @@ public class Bundle {
     private static final String DISABLE_ENVIRONMENT_ENTITY_UNIQUE_NAMING = "com.ca.apim.build.disableEnvironmentEntityUniqueNaming";
 
     // simple map of entities to avoid having to add here a new map for each entity
-    private final Map<Class, Map<String, ?>> entities = new ConcurrentHashMap<>();
+    // entity loaders run in parallel, so both levels are concurrent maps
+    private final Map<Class<?>, Map<String, ?>> entities = new ConcurrentHashMap<>();
 
     // some special things need their own maps
-    private final Map<String, SupplierWithIO<InputStream>> certificateFiles = new HashMap<>();
+    private final Map<String, SupplierWithIO<InputStream>> certificateFiles = new EntityMap<>();
     private Set<Bundle> dependencies;
     private FolderTree folderTree;
     private Map<Dependency, List<Dependency>> dependencyMap;
     private BundleLoadingOperation loadingMode;
     private DependentBundle dependentBundleFrom;
-    private List<DependentBundle> dependentBundles = new ArrayList<>();
+    private List<DependentBundle> dependentBundles = new CopyOnWriteArrayList<>();
     private ProjectInfo projectInfo;
+    // what builders give to entities while generating this bundle, the entities themselves are left unchanged
+    private final EntityOverlay entityOverlay = new EntityOverlay();
+    private ElementStore elementStore = ElementStore.IN_MEMORY;
+    // folder of the deployment bundles an environment bundle is built for
+    private String templatizedBundlesFolderPath;
     private static final String UNIQUE_NAME_SEPARATOR = "::";
     private static final Pattern VARIABLE_NAME_PATTERN = Pattern.compile("^[a-zA-Z_][a-zA-Z0-9._\\-]*$");
 
@@ -44,6 +52,61 @@ public class Bundle {
 
     public Bundle(){}
 
+    /**
+     * Copies the bundle for a build to use, so what the build sets on it, like the dependency it comes from, is not seen
+     * by other builds. The copy has its own entity maps, the entities themselves are shared and builders leave them
+     * unchanged. Nothing generated for the bundle, like the entity overlay, is copied.
+     *
+     * @return the copy of the bundle
+     */
+    public Bundle copy() {
+        final Bundle copy = new Bundle(projectInfo);
+        entities.forEach((type, entityMap) -> copy.entities.put(type, copyEntityMap(type, entityMap)));
+        copy.certificateFiles.putAll(certificateFiles);
+        copy.dependencies = dependencies == null ? null : new HashSet<>(dependencies);
+        copy.folderTree = folderTree;
+        copy.dependencyMap = dependencyMap == null ? null : new HashMap<>(dependencyMap);
+        copy.loadingMode = loadingMode;
+        copy.dependentBundleFrom = dependentBundleFrom;
+        copy.dependentBundles.addAll(dependentBundles);
+        copy.elementStore = elementStore;
+        copy.templatizedBundlesFolderPath = templatizedBundlesFolderPath;
+        return copy;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Map<String, ?> copyEntityMap(Class<?> entityType, Map<String, ?> entityMap) {
+        final Map<String, Object> copy = (Map<String, Object>) newEntityMap(entityType);
+        copy.putAll(entityMap);
+        return copy;
+    }
+
+    /**
+     * Adds what was loaded into the other bundle, like the entities a single loader loaded into a bundle of its own.
+     * The entities themselves are shared, entities already in the bundle with the same name are replaced.
+     *
+     * @param loaded the bundle the entities were loaded into
+     * @return the names of the entities that replaced a different entity already in the bundle, by entity type
+     */
+    @SuppressWarnings("unchecked")
+    public Map<Class<?>, Set<String>> putAllLoaded(Bundle loaded) {
+        final Map<Class<?>, Set<String>> duplicates = new LinkedHashMap<>();
+        loaded.entities.forEach((type, loadedEntityMap) -> {
+            final Map<String, Object> entityMap = (Map<String, Object>) entities.computeIfAbsent(type, Bundle::newEntityMap);
+            loadedEntityMap.forEach((name, entity) -> {
+                final Object previous = entityMap.put(name, entity);
+                if (previous != null && previous != entity) {
+                    duplicates.computeIfAbsent(type, t -> new TreeSet<>()).add(name);
+                }
+            });
+        });
+        certificateFiles.putAll(loaded.certificateFiles);
+        if (loaded.dependencyMap != null) {
+            dependencyMap = loaded.dependencyMap;
+        }
+        return duplicates;
+    }
+
     public ProjectInfo getProjectInfo() {
         return projectInfo;
     }
@@ -60,6 +123,10 @@ public class Bundle {
         return dependentBundles;
     }
 
+    public EntityOverlay getEntityOverlay() {
+        return entityOverlay;
+    }
+
     public DependentBundle getDependentBundleFrom() {
         return dependentBundleFrom;
     }
@@ -70,7 +137,40 @@ public class Bundle {
 
     @SuppressWarnings("unchecked")
     public <E extends GatewayEntity> Map<String, E> getEntities(Class<E> entityType) {
-        return (Map<String, E>) entities.computeIfAbsent(entityType, (Function<Class, Map<String, E>>) aClass -> new HashMap<>());
+        return (Map<String, E>) entities.computeIfAbsent(entityType, (Function<Class<?>, Map<String, ?>>) Bundle::newEntityMap);
+    }
+
+    /**
+     * Adds the entities to the bundle. Each entity is added atomically, so loaders can add entities of the same type
+     * concurrently without losing any. Entities already in the bundle with the same name are replaced.
+     *
+     * @param entityType    the type of the entities
+     * @param entitiesToAdd the entities to add, by name
+     * @return the names of the entities that replaced a different entity already in the bundle
+     */
+    public <E extends GatewayEntity> Set<String> putAllEntities(Class<E> entityType, Map<String, ? extends E> entitiesToAdd) {
+        final Map<String, E> entityMap = getEntities(entityType);
+        final Set<String> duplicates = new TreeSet<>();
+        entitiesToAdd.forEach((name, entity) -> {
+            final E previous = entityMap.put(name, entity);
+            if (previous != null && previous != entity) {
+                duplicates.add(name);
+            }
+        });
+        return duplicates;
+    }
+
+    /**
+     * @return the number of entities in the bundle for each entity type held, by type name
+     */
+    public SortedMap<String, Integer> countEntitiesByType() {
+        final SortedMap<String, Integer> counts = new TreeMap<>();
+        entities.forEach((type, entityMap) -> {
+            if (!entityMap.isEmpty()) {
+                counts.put(type.getSimpleName(), entityMap.size());
+            }
+        });
+        return counts;
     }
 
     @SuppressWarnings("unchecked")
@@ -103,10 +203,11 @@ public class Bundle {
         return getEntities(Policy.class);
     }
 
-    public synchronized void putAllPolicies(@NotNull Map<String, Policy> policies) {
+    public void putAllPolicies(@NotNull Map<String, Policy> policies) {
         // Some loaders will partially load a policy entity
         // and the main loader will fully load,
         // so we merge the information in order to get the complete policy entity
+        // merge is atomic for each policy, so loaders can do it concurrently
         final Map<String, Policy> policyMap = this.getPolicies();
         policies.forEach((path, p) -> policyMap.merge(path, p, Policy::merge));
     }
@@ -125,7 +226,22 @@ public class Bundle {
 
     @SuppressWarnings("unchecked")
     public Map<String, Folder> getFolders() {
-        return (Map<String, Folder>) entities.computeIfAbsent(Folder.class, (Function<Class, Map<String, Folder>>) aClass -> new ConcurrentHashMap<>());
+        return (Map<String, Folder>) entities.computeIfAbsent(Folder.class, (Function<Class<?>, Map<String, ?>>) Bundle::newEntityMap);
+    }
+
+    /**
+     * Finds the folders with the given id using the folder id index, without scanning all the folders.
+     *
+     * @param folderId the folder id
+     * @return the folders with the given id, more than one only if the bundle has duplicated folder ids
+     */
+    public List<Folder> getFoldersById(String folderId) {
+        return ((FolderMap) getFolders()).getById(folderId);
+    }
+
+    private static Map<String, ?> newEntityMap(Class<?> entityType) {
+        // folders are indexed by id as they are added, loaders look them up by id for every folderable entity
+        return entityType == Folder.class ? new FolderMap() : new EntityMap<>();
     }
 
     public void putAllEncasses(@NotNull Map<String, Encass> encasses) {
@@ -296,6 +412,29 @@ public class Bundle {
         this.dependencyMap = dependencyMap;
     }
 
+    /**
+     * @return where entities loaded into this bundle keep their xml elements
+     */
+    public ElementStore getElementStore() {
+        return elementStore;
+    }
+
+    public void setElementStore(ElementStore elementStore) {
+        this.elementStore = elementStore;
+    }
+
+    /**
+     * @return folder of the deployment bundles this environment bundle is built for, where services referenced by
+     * environment entities are looked up
+     */
+    public String getTemplatizedBundlesFolderPath() {
+        return templatizedBundlesFolderPath;
+    }
+
+    public void setTemplatizedBundlesFolderPath(String templatizedBundlesFolderPath) {
+        this.templatizedBundlesFolderPath = templatizedBundlesFolderPath;
+    }
+
     public BundleLoadingOperation getLoadingMode() {
         return loadingMode;
     }
@@ -0,0 +1,83 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.beans;
+
+import com.google.common.collect.Interner;
+import com.google.common.collect.Interners;
+
+import java.util.function.Supplier;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * Compact model mode, for projects too large to keep in memory as they are loaded. It is enabled with the
+ * com.ca.apim.build.compactModel system property, and makes the loaded entities:
+ * <ul>
+ * <li>share one instance of equal paths, names, ids and guids</li>
+ * <li>keep policy bodies as UTF-8 bytes, parsed only when the policy is built</li>
+ * <li>read SOAP resources from disk only when the service using them is built</li>
+ * </ul>
+ */
+public class CompactModel {
+
+    public static final String COMPACT_MODEL = "com.ca.apim.build.compactModel";
+
+    // weak, so the strings of a project are not kept by a long running build daemon once the project is gone
+    private static final Interner<String> STRINGS = Interners.newWeakInterner();
+
+    private CompactModel() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(COMPACT_MODEL);
+    }
+
+    /**
+     * @param value a string to be held by an entity
+     * @return the shared instance of the string in compact model mode, otherwise the string itself
+     */
+    public static String intern(String value) {
+        return value != null && isEnabled() ? STRINGS.intern(value) : value;
+    }
+
+    /**
+     * @param value text to be held by an entity
+     * @return a supplier of the text, keeping it as UTF-8 bytes in compact model mode. Null if the text is null.
+     */
+    public static Supplier<String> text(String value) {
+        if (value == null) {
+            return null;
+        }
+        return isEnabled() ? new Utf8Text(value.getBytes(UTF_8)) : new PlainText(value);
+    }
+
+    private static class PlainText implements Supplier<String> {
+        private final String value;
+
+        private PlainText(String value) {
+            this.value = value;
+        }
+
+        @Override
+        public String get() {
+            return value;
+        }
+    }
+
+    private static class Utf8Text implements Supplier<String> {
+        private final byte[] bytes;
+
+        private Utf8Text(byte[] bytes) {
+            this.bytes = bytes;
+        }
+
+        @Override
+        public String get() {
+            return new String(bytes, UTF_8);
+        }
+    }
+}
@@ -34,10 +34,10 @@ public class Dependency {
     }
 
     public Dependency(String id, Class<? extends GatewayEntity> typeClass, String name, String type) {
-        this.id = id;
+        this.id = CompactModel.intern(id);
         this.typeClass = typeClass;
-        this.name = name;
-        this.type = type;
+        this.name = CompactModel.intern(name);
+        this.type = CompactModel.intern(type);
     }
 
     public String getId() {
@@ -68,7 +68,7 @@ public class Dependency {
     }
 
     public void setId(String id) {
-        this.id = id;
+        this.id = CompactModel.intern(id);
     }
 
     public void setTypeClass(Class<? extends GatewayEntity> typeClass) {
@@ -76,11 +76,11 @@ public class Dependency {
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name = CompactModel.intern(name);
     }
 
     public void setType(String type) {
-        this.type = type;
+        this.type = CompactModel.intern(type);
     }
 
     @Override
@@ -6,8 +6,11 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonPropertyOrder;
 
 import java.io.File;
+import java.io.Serializable;
 @JsonPropertyOrder({"type", "name", "groupName", "version"})
-public class DependentBundle implements Metadata {
+public class DependentBundle implements Metadata, Serializable {
+    private static final long serialVersionUID = 1L;
+
     private String type;
     private String name;
     private String groupName;
@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.beans;
+
+import org.w3c.dom.Element;
+
+import java.util.function.Supplier;
+
+/**
+ * Keeps the xml elements that loaded entities hold on to. Bundles keep them in memory by default, a store can keep
+ * them elsewhere so that bundles too large for the heap can still be loaded.
+ */
+public interface ElementStore {
+
+    ElementStore IN_MEMORY = new ElementStore() {
+        @Override
+        public Supplier<Element> keep(Element element) {
+            return () -> element;
+        }
+
+        @Override
+        public boolean keepsInMemory() {
+            return true;
+        }
+    };
+
+    /**
+     * Keeps the element. Elements kept outside of memory are read back each time the supplier is called, so changes
+     * made to a supplied element are not kept unless the element is kept again.
+     *
+     * @param element the element to keep
+     * @return a supplier of the element
+     */
+    Supplier<Element> keep(Element element);
+
+    /**
+     * @return true if kept elements are held in memory, as they are
+     */
+    boolean keepsInMemory();
+}
@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayconfig.beans;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.*;
 import com.ca.apim.gateway.cagatewayconfig.config.spec.BundleGeneration;
 import com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile;
@@ -36,7 +37,10 @@ import static java.util.stream.Collectors.toCollection;
 public class Encass extends GatewayEntity implements AnnotableEntity {
 
     private String policy;
+    // kept in the order of the source file, the arguments are numbered in that order
+    @JsonDeserialize(as = LinkedHashSet.class)
     private Set<EncassArgument> arguments;
+    @JsonDeserialize(as = LinkedHashSet.class)
     private Set<EncassResult> results;
     private Map<String, Object> properties = new HashMap<>();
     @JsonDeserialize(using = AnnotationDeserializer.class)
@@ -49,10 +53,6 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
     private String path;
     @JsonIgnore
     private AnnotatedEntity<? extends GatewayEntity> annotatedEntity;
-
-    /* Set to true if any Parent (Policy or Encass) in hierarchy is annotated with @shared */
-    @JsonIgnore
-    private boolean parentEntityShared;
     @JsonIgnore
     private String uniqueEntityName;
 
@@ -109,7 +109,7 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
     }
 
     public void setGuid(String guid) {
-        this.guid = guid;
+        this.guid = CompactModel.intern(guid);
     }
 
     public String getPolicy() {
@@ -117,7 +117,7 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
     }
 
     public void setPolicy(String policy) {
-        this.policy = policy;
+        this.policy = CompactModel.intern(policy);
     }
 
     public String getPolicyId() {
@@ -133,15 +133,7 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
     }
 
     public void setPath(String path) {
-        this.path = path;
-    }
-
-    public boolean isParentEntityShared() {
-        return parentEntityShared;
-    }
-
-    public void setParentEntityShared(boolean parentEntityShared) {
-        this.parentEntityShared = parentEntityShared;
+        this.path = CompactModel.intern(path);
     }
 
     public String getUniqueEntityName() {
@@ -154,8 +146,9 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
 
     @Override
     public void postLoad(String entityKey, Bundle bundle, File rootFolder, IdGenerator idGenerator) {
-        setGuid(idGenerator.generateGuid());
-        setId(idGenerator.generate());
+        final ProjectInfo projectInfo = bundle != null ? bundle.getProjectInfo() : null;
+        setGuid(idGenerator.generateGuid(projectInfo, getEntityType(), entityKey));
+        setId(idGenerator.generate(projectInfo, getEntityType(), entityKey));
         setName(entityKey);
     }
 
@@ -167,6 +160,11 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
     @JsonIgnore
     @Override
     public Metadata getMetadata() {
+        return getMetadata(EntityOverlay.EMPTY);
+    }
+
+    @Override
+    public Metadata getMetadata(EntityOverlay overlay) {
         return new Metadata() {
             @Override
             public String getType() {
@@ -175,6 +173,10 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
 
             @Override
             public String getName() {
+                String uniqueName = overlay.getUniqueName(Encass.this);
+                if (StringUtils.isNotBlank(uniqueName)) {
+                    return uniqueName;
+                }
                 if (StringUtils.isNotBlank(getUniqueEntityName())) {
                     return getUniqueEntityName();
                 }
@@ -187,7 +189,7 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
                 if (annotatedEntity != null && StringUtils.isNotBlank(annotatedEntity.getId())) {
                     return annotatedEntity.getId();
                 }
-                return Encass.this.getId();
+                return overlay.getId(Encass.this);
             }
 
             @Override
@@ -196,7 +198,7 @@ public class Encass extends GatewayEntity implements AnnotableEntity {
                 if (annotatedEntity != null && StringUtils.isNotBlank(annotatedEntity.getGuid())) {
                     return annotatedEntity.getGuid();
                 }
-                return Encass.this.getGuid();
+                return overlay.getGuid(Encass.this);
             }
 
             public Set<EncassArgument> getArguments() {
@@ -0,0 +1,182 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.beans;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * Concurrent map of bundle entities by name, safe to be filled by loaders running in parallel. Like the hash maps used
+ * before, it takes a null name, as entities without a name or id are still added to bundles. The null name is kept
+ * under a sentinel key in the backing concurrent map.
+ *
+ * @param <V> type of the entities
+ */
+class EntityMap<V> extends AbstractMap<String, V> implements ConcurrentMap<String, V> {
+
+    private static final Object NULL_KEY = new Object();
+
+    private final ConcurrentHashMap<Object, V> entities = new ConcurrentHashMap<>();
+
+    @Override
+    public int size() {
+        return entities.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return entities.isEmpty();
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return entities.containsKey(mask(key));
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        return value != null && entities.containsValue(value);
+    }
+
+    @Override
+    public V get(Object key) {
+        return entities.get(mask(key));
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        return entities.getOrDefault(mask(key), defaultValue);
+    }
+
+    @Override
+    public V put(String key, V value) {
+        return entities.put(mask(key), value);
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends V> map) {
+        // a single put all sizes the backing map once for all the entities
+        final Map<Object, V> masked = new LinkedHashMap<>();
+        map.forEach((key, value) -> masked.put(mask(key), value));
+        entities.putAll(masked);
+    }
+
+    @Override
+    public V putIfAbsent(String key, V value) {
+        return entities.putIfAbsent(mask(key), value);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return entities.remove(mask(key));
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        return entities.remove(mask(key), value);
+    }
+
+    @Override
+    public boolean replace(String key, V oldValue, V newValue) {
+        return entities.replace(mask(key), oldValue, newValue);
+    }
+
+    @Override
+    public V replace(String key, V value) {
+        return entities.replace(mask(key), value);
+    }
+
+    @Override
+    public V computeIfAbsent(String key, Function<? super String, ? extends V> mappingFunction) {
+        return entities.computeIfAbsent(mask(key), k -> mappingFunction.apply(key));
+    }
+
+    @Override
+    public V computeIfPresent(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+        return entities.computeIfPresent(mask(key), (k, v) -> remappingFunction.apply(key, v));
+    }
+
+    @Override
+    public V compute(String key, BiFunction<? super String, ? super V, ? extends V> remappingFunction) {
+        return entities.compute(mask(key), (k, v) -> remappingFunction.apply(key, v));
+    }
+
+    @Override
+    public V merge(String key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        return entities.merge(mask(key), value, remappingFunction);
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super String, ? super V> action) {
+        entities.forEach((k, v) -> action.accept(unmask(k), v));
+    }
+
+    @Override
+    public void clear() {
+        entities.clear();
+    }
+
+    @Override
+    public Set<Entry<String, V>> entrySet() {
+        return new AbstractSet<Entry<String, V>>() {
+            @Override
+            public Iterator<Entry<String, V>> iterator() {
+                final Iterator<Entry<Object, V>> iterator = entities.entrySet().iterator();
+                return new Iterator<Entry<String, V>>() {
+                    @Override
+                    public boolean hasNext() {
+                        return iterator.hasNext();
+                    }
+
+                    @Override
+                    public Entry<String, V> next() {
+                        final Entry<Object, V> entry = iterator.next();
+                        return new SimpleEntry<String, V>(unmask(entry.getKey()), entry.getValue()) {
+                            @Override
+                            public V setValue(V value) {
+                                super.setValue(value);
+                                return entry.setValue(value);
+                            }
+                        };
+                    }
+
+                    @Override
+                    public void remove() {
+                        iterator.remove();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return entities.size();
+            }
+
+            @Override
+            public void clear() {
+                entities.clear();
+            }
+        };
+    }
+
+    private static Object mask(Object key) {
+        return key == null ? NULL_KEY : key;
+    }
+
+    private static String unmask(Object key) {
+        return key == NULL_KEY ? null : (String) key;
+    }
+}
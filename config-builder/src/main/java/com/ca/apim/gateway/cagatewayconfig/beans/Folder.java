@@ -6,7 +6,11 @@
 
 package com.ca.apim.gateway.cagatewayconfig.beans;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import javax.inject.Named;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 
@@ -17,6 +21,9 @@ public class Folder extends Folderable {
     public static final String ROOT_FOLDER_NAME = "Root Node";
     public static final Folder ROOT_FOLDER = new Folder(ROOT_FOLDER_ID, ROOT_FOLDER_NAME);
 
+    @JsonIgnore
+    private Path resolvedPath;
+
     public Folder() {}
 
     public Folder(String id, String name) {
@@ -25,4 +32,23 @@ public class Folder extends Folderable {
         super.setPath(EMPTY);
     }
 
+    @Override
+    public void setPath(String path) {
+        super.setPath(path);
+        this.resolvedPath = null;
+    }
+
+    /**
+     * @return the folder path as a {@link Path}, resolved once and kept until the path changes
+     */
+    @JsonIgnore
+    public Path getResolvedPath() {
+        Path path = resolvedPath;
+        if (path == null) {
+            path = Paths.get(getPath());
+            resolvedPath = path;
+        }
+        return path;
+    }
+
 }
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.beans;
+
+import com.google.common.collect.ForwardingMap;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Folders of a bundle, keyed as the loaders put them, with an index of the folders by id maintained as folders are
+ * added and removed. Loaders look up parent folders by id for every folderable entity they read, so this avoids
+ * scanning all folders for each of them.
+ */
+class FolderMap extends ForwardingMap<String, Folder> {
+
+    private final Map<String, Folder> folders = new EntityMap<>();
+    // entries are immutable lists of (key, folder), more than one entry means the bundle has duplicated folder ids
+    private final Map<String, List<Map.Entry<String, Folder>>> foldersById = new ConcurrentHashMap<>();
+
+    @Override
+    protected Map<String, Folder> delegate() {
+        return folders;
+    }
+
+    @Override
+    public Folder put(String key, Folder folder) {
+        final Folder previous = folders.put(key, folder);
+        unindex(key, previous);
+        index(key, folder);
+        return previous;
+    }
+
+    @Override
+    public Folder putIfAbsent(String key, Folder folder) {
+        final Folder previous = folders.putIfAbsent(key, folder);
+        if (previous == null) {
+            index(key, folder);
+        }
+        return previous;
+    }
+
+    @Override
+    public Folder computeIfAbsent(String key, Function<? super String, ? extends Folder> mappingFunction) {
+        final boolean[] computed = {false};
+        final Folder folder = folders.computeIfAbsent(key, k -> {
+            computed[0] = true;
+            return mappingFunction.apply(k);
+        });
+        if (computed[0] && folder != null) {
+            index(key, folder);
+        }
+        return folder;
+    }
+
+    @Override
+    public void putAll(Map<? extends String, ? extends Folder> map) {
+        standardPutAll(map);
+    }
+
+    @Override
+    public Folder remove(Object key) {
+        final Folder previous = folders.remove(key);
+        unindex((String) key, previous);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        folders.clear();
+        foldersById.clear();
+    }
+
+    /**
+     * Finds the folders with the given id. Folders whose id was set after they were added are found by scanning all
+     * of them, so the result is the same as filtering all the folders by id.
+     *
+     * @param folderId the folder id
+     * @return the folders with the id, usually none or one
+     */
+    List<Folder> getById(String folderId) {
+        final List<Folder> indexed = foldersById.getOrDefault(folderId, Collections.emptyList()).stream()
+                .filter(e -> e.getValue() == folders.get(e.getKey()) && folderId.equals(e.getValue().getId()))
+                .map(Map.Entry::getValue)
+                .collect(toList());
+        if (!indexed.isEmpty()) {
+            return indexed;
+        }
+        return folders.values().stream().filter(f -> folderId.equals(f.getId())).collect(toList());
+    }
+
+    private void index(String key, Folder folder) {
+        if (folder == null || folder.getId() == null) {
+            return;
+        }
+        foldersById.merge(folder.getId(), Collections.singletonList(new AbstractMap.SimpleImmutableEntry<>(key, folder)), (current, added) -> {
+            final List<Map.Entry<String, Folder>> merged = new ArrayList<>(current);
+            merged.addAll(added);
+            return Collections.unmodifiableList(merged);
+        });
+    }
+
+    private void unindex(String key, Folder folder) {
+        if (folder == null || folder.getId() == null) {
+            return;
+        }
+        foldersById.computeIfPresent(folder.getId(), (id, current) -> {
+            final List<Map.Entry<String, Folder>> remaining = current.stream()
+                    .filter(e -> !(Objects.equals(e.getKey(), key) && e.getValue() == folder))
+                    .collect(toList());
+            return remaining.isEmpty() ? null : Collections.unmodifiableList(remaining);
+        });
+    }
+}
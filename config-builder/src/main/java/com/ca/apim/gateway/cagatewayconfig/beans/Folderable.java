@@ -32,7 +32,7 @@ public abstract class Folderable extends GatewayEntity {
     }
 
     public void setPath(String path) {
-        this.path = path;
+        this.path = CompactModel.intern(path);
     }
 
 }
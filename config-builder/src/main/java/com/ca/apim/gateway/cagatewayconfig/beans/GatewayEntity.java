@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayconfig.beans;
 
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityOverlay;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.Metadata;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
@@ -26,7 +27,7 @@ public class GatewayEntity {
     }
 
     public void setId(String id) {
-        this.id = id;
+        this.id = CompactModel.intern(id);
     }
 
     public String getName() {
@@ -34,7 +35,7 @@ public class GatewayEntity {
     }
 
     public void setName(String name) {
-        this.name = name;
+        this.name = CompactModel.intern(name);
     }
 
     /**
@@ -71,4 +72,14 @@ public class GatewayEntity {
         return null;
     }
 
+    /**
+     * Override this method for entities given names or ids while generating bundles.
+     *
+     * @param overlay what was given to the entities in the bundle being generated
+     * @return the metadata of this entity in that bundle
+     */
+    public Metadata getMetadata(EntityOverlay overlay) {
+        return getMetadata();
+    }
+
 }
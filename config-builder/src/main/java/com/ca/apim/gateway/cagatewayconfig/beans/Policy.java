@@ -8,6 +8,7 @@ package com.ca.apim.gateway.cagatewayconfig.beans;
 
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.AnnotableEntity;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.AnnotatedEntity;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityOverlay;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.Metadata;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.ConfigLoadException;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
@@ -23,6 +24,7 @@ import org.w3c.dom.Element;
 import javax.inject.Named;
 import java.io.File;
 import java.util.*;
+import java.util.function.Supplier;
 import java.util.stream.Collectors;
 
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_EMPTY;
@@ -35,16 +37,15 @@ import static org.apache.commons.lang3.ObjectUtils.firstNonNull;
 @Named("POLICY")
 public class Policy extends Folderable implements AnnotableEntity {
 
+    // kept compact in compact model mode, see CompactModel
     @JsonIgnore
-    private String policyXML;
+    private Supplier<String> policyXML;
     @JsonIgnore
     private String guid;
     @JsonIgnore
-    private Element policyDocument;
+    private Supplier<Element> policyDocument;
     @JsonIgnore
     private Set<Annotation> annotations = new HashSet<>();
-    @JsonIgnore
-    private final Set<Policy> dependencies = new HashSet<>();
     private String tag;
     @JsonIgnore
     private String subtag;
@@ -56,9 +57,6 @@ public class Policy extends Folderable implements AnnotableEntity {
     private AnnotatedEntity<? extends GatewayEntity> annotatedEntity;
 
     private boolean hasRouting;
-    /* Set to true if any Parent (Policy or Encass) in hierarchy is annotated with @shared */
-    @JsonIgnore
-    private boolean parentEntityShared;
 
     public Policy() {
     }
@@ -66,8 +64,8 @@ public class Policy extends Folderable implements AnnotableEntity {
     public Policy(final Builder builder) {
         setName(builder.name);
         setId(builder.id);
-        this.guid = builder.guid;
-        this.policyXML = builder.policy;
+        setGuid(builder.guid);
+        setPolicyXML(builder.policy);
         this.tag = builder.tag;
         this.subtag = builder.subtag;
         setParentFolder(builder.parentFolderId != null ? new Folder(builder.parentFolderId, null) : null);
@@ -87,15 +85,25 @@ public class Policy extends Folderable implements AnnotableEntity {
     }
 
     public String getPolicyXML() {
-        return policyXML;
+        return policyXML != null ? policyXML.get() : null;
     }
 
     public void setPolicyXML(String policyXML) {
-        this.policyXML = policyXML;
+        this.policyXML = CompactModel.text(policyXML);
+    }
+
+    /**
+     * Sets the policy xml to be read from where it is already kept, so it is not held twice.
+     *
+     * @param policyXMLSource supplier of the policy xml
+     */
+    @JsonIgnore
+    public void setPolicyXMLSource(Supplier<String> policyXMLSource) {
+        this.policyXML = policyXMLSource;
     }
 
     public void setGuid(String guid) {
-        this.guid = guid;
+        this.guid = CompactModel.intern(guid);
     }
 
     public String getGuid() {
@@ -103,15 +111,21 @@ public class Policy extends Folderable implements AnnotableEntity {
     }
 
     public void setPolicyDocument(Element policyDocument) {
-        this.policyDocument = policyDocument;
+        this.policyDocument = policyDocument != null ? () -> policyDocument : null;
     }
 
-    public Element getPolicyDocument() {
-        return policyDocument;
+    /**
+     * Sets the policy document to be read from an {@link ElementStore}.
+     *
+     * @param policyDocumentSource supplier of the policy document
+     */
+    @JsonIgnore
+    public void setPolicyDocumentSource(Supplier<Element> policyDocumentSource) {
+        this.policyDocument = policyDocumentSource;
     }
 
-    public Set<Policy> getDependencies() {
-        return dependencies;
+    public Element getPolicyDocument() {
+        return policyDocument != null ? policyDocument.get() : null;
     }
 
     public String getTag() {
@@ -155,14 +169,6 @@ public class Policy extends Folderable implements AnnotableEntity {
         this.hasRouting = hasRouting;
     }
 
-    public boolean isParentEntityShared() {
-        return parentEntityShared;
-    }
-
-    public void setParentEntityShared(boolean parentEntityShared) {
-        this.parentEntityShared = parentEntityShared;
-    }
-
     Policy merge(Policy otherPolicy) {
         this.policyXML = firstNonNull(otherPolicy.policyXML, this.policyXML);
         this.setPath(firstNonNull(otherPolicy.getPath(), this.getPath()));
@@ -170,7 +176,6 @@ public class Policy extends Folderable implements AnnotableEntity {
         this.setParentFolder(firstNonNull(otherPolicy.getParentFolder(), this.getParentFolder()));
         this.guid = firstNonNull(otherPolicy.guid, this.guid);
         this.policyDocument = firstNonNull(otherPolicy.policyDocument, this.policyDocument);
-        this.dependencies.addAll(firstNonNull(otherPolicy.dependencies, Collections.emptySet()));
         this.setId(firstNonNull(otherPolicy.getId(), this.getId()));
         this.tag = firstNonNull(otherPolicy.tag, this.tag);
         this.subtag = firstNonNull(otherPolicy.subtag, this.subtag);
@@ -280,6 +285,11 @@ public class Policy extends Folderable implements AnnotableEntity {
     @JsonIgnore
     @Override
     public Metadata getMetadata() {
+        return getMetadata(EntityOverlay.EMPTY);
+    }
+
+    @Override
+    public Metadata getMetadata(EntityOverlay overlay) {
         return new Metadata() {
             @Override
             public String getType() {
@@ -293,12 +303,12 @@ public class Policy extends Folderable implements AnnotableEntity {
 
             @Override
             public String getId() {
-                return Policy.this.getId();
+                return overlay.getId(Policy.this);
             }
 
             @Override
             public String getGuid() {
-                return Policy.this.getGuid();
+                return overlay.getGuid(Policy.this);
             }
 
         };
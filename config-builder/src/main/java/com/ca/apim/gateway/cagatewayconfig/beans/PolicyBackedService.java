@@ -8,8 +8,10 @@ package com.ca.apim.gateway.cagatewayconfig.beans;
 
 import com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile;
 import com.ca.apim.gateway.cagatewayconfig.config.spec.EnvironmentType;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
 
 import javax.inject.Named;
+import java.util.LinkedHashSet;
 import java.util.Set;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.FileType.JSON_YAML;
@@ -19,6 +21,7 @@ import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.
 @EnvironmentType("POLICY_BACKED_SERVICE")
 public class PolicyBackedService extends GatewayEntity {
     private String interfaceName;
+    @JsonDeserialize(as = LinkedHashSet.class)
     private Set<PolicyBackedServiceOperation> operations;
 
     public String getInterfaceName() {
@@ -6,9 +6,11 @@
 
 package com.ca.apim.gateway.cagatewayconfig.beans;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.AnnotableEntity;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.AnnotatedEntity;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.AnnotationDeserializer;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityOverlay;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.Metadata;
 import com.ca.apim.gateway.cagatewayconfig.config.spec.BundleGeneration;
 import com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile;
@@ -29,6 +31,7 @@ import java.io.File;
 import java.util.LinkedHashSet;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Supplier;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.FileType.JSON_YAML;
 
@@ -41,15 +44,15 @@ public class Service extends Folderable implements AnnotableEntity {
 
     private String guid;
     private String url;
-    private String policy;
+    private Supplier<String> policy;
     private Set<String> httpMethods;
     private Map<String,Object> properties;
     @JsonDeserialize(using = AnnotationDeserializer.class)
     private Set<Annotation> annotations;
     @JsonIgnore
-    private Element serviceDetailsElement;
+    private Supplier<Element> serviceDetailsElement;
     @JsonIgnore
-    private Element policyXML;
+    private Supplier<Element> policyXML;
     private Set<SoapResource> soapResources;
     private String soapVersion;
     private boolean wssProcessingEnabled;
@@ -73,7 +76,7 @@ public class Service extends Folderable implements AnnotableEntity {
     }
 
     public void setGuid(String guid) {
-        this.guid = guid;
+        this.guid = CompactModel.intern(guid);
     }
 
     public String getUrl() {
@@ -85,11 +88,23 @@ public class Service extends Folderable implements AnnotableEntity {
     }
 
     public String getPolicy() {
-        return policy;
+        return policy != null ? policy.get() : null;
     }
 
     public void setPolicy(String policy) {
-        this.policy = policy;
+        final String internedPolicy = CompactModel.intern(policy);
+        this.policy = policy != null ? () -> internedPolicy : null;
+    }
+
+    /**
+     * Sets the policy to be read when needed, for services loaded from bundles where the policy is the whole policy
+     * xml.
+     *
+     * @param policySource supplier of the policy
+     */
+    @JsonIgnore
+    public void setPolicySource(Supplier<String> policySource) {
+        this.policy = policySource;
     }
 
     public Set<String> getHttpMethods() {
@@ -105,19 +120,39 @@ public class Service extends Folderable implements AnnotableEntity {
     public void setProperties(Map<String,Object> properties){ this.properties = properties;}
 
     public Element getServiceDetailsElement() {
-        return serviceDetailsElement;
+        return serviceDetailsElement != null ? serviceDetailsElement.get() : null;
     }
 
     public void setServiceDetailsElement(Element serviceDetailsElement) {
-        this.serviceDetailsElement = serviceDetailsElement;
+        this.serviceDetailsElement = serviceDetailsElement != null ? () -> serviceDetailsElement : null;
+    }
+
+    /**
+     * Sets the service details element to be read from an {@link ElementStore}.
+     *
+     * @param serviceDetailsElementSource supplier of the service details element
+     */
+    @JsonIgnore
+    public void setServiceDetailsElementSource(Supplier<Element> serviceDetailsElementSource) {
+        this.serviceDetailsElement = serviceDetailsElementSource;
     }
 
     public Element getPolicyXML() {
-        return policyXML;
+        return policyXML != null ? policyXML.get() : null;
     }
 
     public void setPolicyXML(Element policyXML) {
-        this.policyXML = policyXML;
+        this.policyXML = policyXML != null ? () -> policyXML : null;
+    }
+
+    /**
+     * Sets the policy xml to be read from an {@link ElementStore}.
+     *
+     * @param policyXMLSource supplier of the policy xml
+     */
+    @JsonIgnore
+    public void setPolicyXMLSource(Supplier<Element> policyXMLSource) {
+        this.policyXML = policyXMLSource;
     }
 
     @Override
@@ -202,6 +237,11 @@ public class Service extends Folderable implements AnnotableEntity {
     @JsonIgnore
     @Override
     public Metadata getMetadata() {
+        return getMetadata(EntityOverlay.EMPTY);
+    }
+
+    @Override
+    public Metadata getMetadata(EntityOverlay overlay) {
         return new Metadata() {
             public String getType() {
                 return EntityTypes.SERVICE_TYPE;
@@ -209,7 +249,8 @@ public class Service extends Folderable implements AnnotableEntity {
 
             @Override
             public String getName() {
-                return Service.this.getName();
+                String uniqueName = overlay.getUniqueName(Service.this);
+                return uniqueName != null ? uniqueName : Service.this.getName();
             }
 
             @Override
@@ -218,7 +259,7 @@ public class Service extends Folderable implements AnnotableEntity {
                 if (annotatedEntity != null && StringUtils.isNotBlank(annotatedEntity.getId())) {
                     return annotatedEntity.getId();
                 }
-                return Service.this.getId();
+                return overlay.getId(Service.this);
             }
 
             @Override
@@ -247,8 +288,9 @@ public class Service extends Folderable implements AnnotableEntity {
 
     @Override
     public void postLoad(String entityKey, Bundle bundle, File rootFolder, IdGenerator idGenerator) {
-        setGuid(idGenerator.generateGuid());
-        setId(idGenerator.generate());
+        final ProjectInfo projectInfo = bundle != null ? bundle.getProjectInfo() : null;
+        setGuid(idGenerator.generateGuid(projectInfo, getEntityType(), entityKey));
+        setId(idGenerator.generate(projectInfo, getEntityType(), entityKey));
         setName(entityKey);
     }
 }
@@ -5,6 +5,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import org.apache.commons.io.FilenameUtils;
 
 import javax.inject.Named;
+import java.util.function.Supplier;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.SoapResourceType.WSDL;
 import static com.ca.apim.gateway.cagatewayconfig.beans.SoapResourceType.XMLSCHEMA;
@@ -20,7 +21,7 @@ public class SoapResource extends Folderable {
     private String rootUrl;
     private String type;
     @JsonIgnore
-    private String content;
+    private Supplier<String> content;
 
     public String getRootUrl() {
         return rootUrl;
@@ -31,11 +32,21 @@ public class SoapResource extends Folderable {
     }
 
     public String getContent() {
-        return content;
+        return content != null ? content.get() : null;
     }
 
     public void setContent(String content) {
-        this.content = content;
+        this.content = content != null ? () -> content : null;
+    }
+
+    /**
+     * Sets the content to be read when needed instead of being kept with the resource.
+     *
+     * @param contentSource supplier of the content, called each time the content is needed
+     */
+    @JsonIgnore
+    public void setContentSource(Supplier<String> contentSource) {
+        this.content = contentSource;
     }
 
     public String getType() {
@@ -7,6 +7,7 @@ import com.fasterxml.jackson.annotation.JsonInclude;
 import org.w3c.dom.Element;
 
 import javax.inject.Named;
+import java.util.function.Supplier;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.spec.ConfigurationFile.FileType.JSON_YAML;
 import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
@@ -19,7 +20,7 @@ public class UnsupportedGatewayEntity extends GatewayEntity {
     private String type;
     private String id;
     @JsonIgnore
-    private Element element;
+    private Supplier<Element> element;
 
     public String getType() {
         return type;
@@ -38,10 +39,20 @@ public class UnsupportedGatewayEntity extends GatewayEntity {
     }
 
     public Element getElement() {
-        return element;
+        return element != null ? element.get() : null;
     }
 
     public void setElement(Element element) {
-        this.element = element;
+        this.element = element != null ? () -> element : null;
+    }
+
+    /**
+     * Sets the element to be read from an {@link ElementStore}.
+     *
+     * @param elementSource supplier of the element
+     */
+    @JsonIgnore
+    public void setElementSource(Supplier<Element> elementSource) {
+        this.element = elementSource;
     }
 }
@@ -29,6 +29,10 @@ public class BundleArtifacts {
         return bundle;
     }
 
+    /**
+     * @return the DELETE bundle, or null for a deployment bundle whose DELETE bundle is built from the deployment
+     * bundle file once written, with {@link StreamedDeleteBundleBuilder}
+     */
     public Element getDeleteBundle() {
         return deleteBundle;
     }
@@ -12,6 +12,7 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleTy
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
 import com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.google.common.annotations.VisibleForTesting;
 import org.apache.commons.lang3.StringUtils;
 import org.w3c.dom.Document;
@@ -20,6 +21,8 @@ import org.w3c.dom.Element;
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -36,6 +39,8 @@ import static java.util.Collections.unmodifiableSet;
 @Singleton
 public class BundleEntityBuilder {
     private static final Logger LOGGER = Logger.getLogger(BundleEntityBuilder.class.getName());
+    public static final String PARALLEL_ENTITY_BUILDERS = "com.ca.apim.build.parallelEntityBuilders";
+    public static final String STREAM_DELETE_BUNDLES = "com.ca.apim.build.streamDeleteBundles";
     private final Set<EntityBuilder> entityBuilders;
     private final BundleDocumentBuilder bundleDocumentBuilder;
     private final BundleMetadataBuilder bundleMetadataBuilder;
@@ -59,14 +64,18 @@ public class BundleEntityBuilder {
 
     public Map<String, BundleArtifacts> build(Bundle bundle, BundleType bundleType,
                                               Document document, ProjectInfo projectInfo, boolean generateMetadata) {
+        return BuildProfiler.phase("build-bundle-entities", () -> buildArtifacts(bundle, bundleType, document, projectInfo, generateMetadata));
+    }
+
+    private Map<String, BundleArtifacts> buildArtifacts(Bundle bundle, BundleType bundleType,
+                                                        Document document, ProjectInfo projectInfo, boolean generateMetadata) {
         if (Bundle.isEnvironmentEntityUniqueNamingDisabled()) {
             LOGGER.log(Level.WARNING, "Environment entity unique-naming is disabled");
         }
 
         Map<String, BundleArtifacts> artifacts = buildAnnotatedEntities(bundleType, bundle, document, projectInfo);
         if (artifacts.isEmpty()) {
-            List<Entity> entities = new ArrayList<>();
-            entityBuilders.forEach(builder -> entities.addAll(builder.build(bundle, bundleType, document)));
+            List<Entity> entities = buildEntities(bundle, bundleType, document);
             final Element fullBundle = bundleDocumentBuilder.build(document, entities);
             BundleMetadata bundleMetadata = null;
             Element deleteBundleElement = null;
@@ -111,19 +120,15 @@ public class BundleEntityBuilder {
                 bundle.getEntities(entityInfo.getEntityClass()).values().stream()
                         .filter(entity -> entity instanceof AnnotableEntity && ((AnnotableEntity) entity).isBundle())
                         .forEach(gatewayEntity -> {
-                            AnnotatedEntity<GatewayEntity> annotatedEntity;
-                            if (gatewayEntity instanceof Encass) { // encass bundle - make copy and get AnnotatedEntity
-                                annotatedEntity = new Encass((Encass) gatewayEntity).getAnnotatedEntity();
-                            } else { // Service bundle - no need for copy
-                                annotatedEntity = ((AnnotableEntity) gatewayEntity).getAnnotatedEntity();
-                            }
-                            List<Entity> entities = new ArrayList<>();
+                            // no copies needed, what is specific to this bundle goes to its entity overlay
+                            AnnotatedEntity<GatewayEntity> annotatedEntity = ((AnnotableEntity) gatewayEntity).getAnnotatedEntity();
                             AnnotatedBundle annotatedBundle = new AnnotatedBundle(bundle, annotatedEntity, projectInfo);
                             Map bundleEntities = annotatedBundle.getEntities(annotatedEntity.getEntity().getClass());
                             bundleEntities.put(annotatedEntity.getEntityName(), annotatedEntity.getEntity());
+                            loadFolderDependencies(annotatedBundle, annotatedEntity.getEntity());
                             loadPolicyDependenciesByPolicyName(annotatedEntity.getPolicyName(), annotatedBundle,
                                     bundle, false, false);
-                            entityBuilders.forEach(builder -> entities.addAll(builder.build(annotatedBundle, bundleType, document)));
+                            List<Entity> entities = buildEntities(annotatedBundle, bundleType, document);
 
                             // Create deployment bundle
                             final Element bundleElement = bundleDocumentBuilder.build(document, entities);
@@ -158,6 +163,50 @@ public class BundleEntityBuilder {
         return annotatedElements;
     }
 
+    /**
+     * Runs all entity builders, returning the built entities in the builders order.
+     *
+     * @param bundle     Bundle to build the entities from
+     * @param bundleType Type of the bundle being built
+     * @param document   Document the entities xml is created in
+     * @return Built entities in the order they have to appear in the bundle
+     */
+    private List<Entity> buildEntities(final Bundle bundle, final BundleType bundleType, final Document document) {
+        if (!isParallelEntityBuildersEnabled()) {
+            final List<Entity> entities = new ArrayList<>();
+            entityBuilders.forEach(builder -> entities.addAll(builder.build(bundle, bundleType, document)));
+            return entities;
+        }
+
+        // builders other builders depend on run first and in order, the remaining ones are independent of each other
+        // and run concurrently, each one with its own document so no document is touched by more than one thread
+        final Map<EntityBuilder, List<Entity>> dependencyEntities = new HashMap<>();
+        entityBuilders.stream().filter(EntityBuilder::hasDependentBuilders)
+                .forEach(builder -> dependencyEntities.put(builder, builder.build(bundle, bundleType, document)));
+
+        final Map<EntityBuilder, ForkJoinTask<List<Entity>>> independentBuilds = new HashMap<>();
+        entityBuilders.stream().filter(builder -> !builder.hasDependentBuilders()).forEach(builder -> {
+            final Document fragment = document.getImplementation().createDocument(null, null, null);
+            independentBuilds.put(builder, ForkJoinPool.commonPool().submit(() -> builder.build(bundle, bundleType, fragment)));
+        });
+
+        // concatenate in the builders order, same as the sequential build
+        final List<Entity> entities = new ArrayList<>();
+        entityBuilders.forEach(builder -> {
+            final List<Entity> built = builder.hasDependentBuilders() ? dependencyEntities.get(builder) : independentBuilds.get(builder).join();
+            built.forEach(entity -> entities.add(entity.importInto(document)));
+        });
+        return entities;
+    }
+
+    private static boolean isParallelEntityBuildersEnabled() {
+        return Boolean.getBoolean(PARALLEL_ENTITY_BUILDERS);
+    }
+
+    public static boolean isStreamDeleteBundlesEnabled() {
+        return Boolean.getBoolean(STREAM_DELETE_BUNDLES);
+    }
+
     /**
      * Creates the DELETE bundle element.
      *
@@ -165,10 +214,16 @@ public class BundleEntityBuilder {
      * @param entities        Entities packaged in the deployment bundle
      * @param bundle          Bundle containing all the Gateway entities
      * @param annotatedEntity Annotated Bundle for which bundle is being created.
-     * @return Delete bundle Element for the Annotated Bundle
+     * @return Delete bundle Element for the Annotated Bundle, or NULL if it is to be built from the deployment bundle
+     * file by {@link StreamedDeleteBundleBuilder}
      */
     private Element createDeleteBundle(final Document document, List<Entity> entities, final Bundle bundle,
                                        final AnnotatedEntity<GatewayEntity> annotatedEntity, ProjectInfo projectInfo) {
+        // Without shared entities to leave out, the DELETE bundle only needs the mappings of the deployment bundle
+        if (isStreamDeleteBundlesEnabled() && (annotatedEntity == null || annotatedEntity.isRedeployable())) {
+            return null;
+        }
+
         List<Entity> deleteBundleEntities = copyFilteredEntitiesForDeleteBundle(entities, FILTER_NON_ENV_ENTITIES);
 
         // If @redeployable annotation is added, we can blindly include all the dependencies in the DELETE bundle.
@@ -259,16 +314,15 @@ public class BundleEntityBuilder {
             return;
         }
 
-        Policy policyCopy = new Policy(policy);
-        loadFolderDependencies(annotatedBundle, policyCopy);
+        loadFolderDependencies(annotatedBundle, policy);
 
-        isParentShared = isParentShared || policyCopy.isShared();
-        policyCopy.setParentEntityShared(isParentShared);
+        isParentShared = isParentShared || policy.isShared();
+        annotatedBundle.getEntityOverlay().setParentEntityShared(policy, isParentShared);
 
         Map<String, Policy> annotatedPolicyMap = annotatedBundle.getEntities(Policy.class);
-        annotatedPolicyMap.put(policyCopy.getPath(), policyCopy);
+        annotatedPolicyMap.put(policy.getPath(), policy);
 
-        Set<Dependency> dependencies = policyCopy.getUsedEntities();
+        Set<Dependency> dependencies = policy.getUsedEntities();
         if (dependencies != null) {
             for (Dependency dependency : dependencies) {
                 switch (dependency.getType()) {
@@ -299,12 +353,11 @@ public class BundleEntityBuilder {
     private void loadEncassDependencies(Encass encass, AnnotatedBundle annotatedBundle, Bundle rawBundle,
                                         boolean excludeShared, boolean isParentShared) {
         if (encass != null && !excludeGatewayEntity(Encass.class, encass, annotatedBundle, excludeShared)) {
-            Encass encassCopy = new Encass(encass);
             isParentShared = isParentShared || encass.isShared();
-            encassCopy.setParentEntityShared(isParentShared);
+            annotatedBundle.getEntityOverlay().setParentEntityShared(encass, isParentShared);
 
-            annotatedBundle.getEncasses().put(encass.getName(), encassCopy);
-            loadPolicyDependenciesByPolicyName(encassCopy.getPolicy(), annotatedBundle, rawBundle, excludeShared, isParentShared);
+            annotatedBundle.getEncasses().put(encass.getName(), encass);
+            loadPolicyDependenciesByPolicyName(encass.getPolicy(), annotatedBundle, rawBundle, excludeShared, isParentShared);
         }
     }
 
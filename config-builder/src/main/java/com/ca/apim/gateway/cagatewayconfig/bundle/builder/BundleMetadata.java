@@ -17,12 +17,15 @@ import java.util.LinkedList;
 @JsonPropertyOrder({"metaVersion", "name", "groupName", "moduleName", "version", "timestamp", "type", "tags",
                     "description", "l7Template", "redeployable", "hasRouting", "definedEntities", "referencedEntities", "dependencies"})
 public class BundleMetadata implements Metadata {
+    // seconds since the epoch that the metadata gives as its timestamp instead of the build time, for builds that have to give the same files
+    public static final String BUNDLE_TIMESTAMP = "com.ca.apim.build.bundleTimestamp";
+
     @SuppressWarnings({"unused", "java:S1170"}) // Suppress IntelliJ warnings for this field
     private final String metaVersion = "1.0";
     private final String type;
     private final String name;
     private final String version;
-    private final long timestamp = Instant.now().getEpochSecond();
+    private final long timestamp = Long.getLong(BUNDLE_TIMESTAMP, Instant.now().getEpochSecond());
     private final String moduleName;
     private final String groupName;
     private String description;
@@ -67,7 +67,7 @@ public class BundleMetadataBuilder {
             builder.hasRouting(hasRoutingAssertion(dependentEntities));
 
             final List<Metadata> definedEntities = new ArrayList<>();
-            definedEntities.add(annotatedEntity.getEntity().getMetadata());
+            definedEntities.add(annotatedEntity.getEntity().getMetadata(annotatedBundle.getEntityOverlay()));
 
             return builder.definedEntities(definedEntities).build();
         } else {
@@ -123,7 +123,7 @@ public class BundleMetadataBuilder {
             bundle.getDependentBundles().add(generateDependentEnvBundleFromProject(projectInfo));
         }
         builder.dependencies(bundle.getDependentBundles());
-        builder.definedEntities(getDefinedEntitiesMetadata(entities));
+        builder.definedEntities(getDefinedEntitiesMetadata(entities, bundle.getEntityOverlay()));
 
         return builder.build();
     }
@@ -133,14 +133,15 @@ public class BundleMetadataBuilder {
                         .map(Entity::getMetadata).collect(Collectors.toList());
     }
 
-    private Collection<Metadata> getDefinedEntitiesMetadata(final List<Entity> definedEntities) {
+    private Collection<Metadata> getDefinedEntitiesMetadata(final List<Entity> definedEntities, final EntityOverlay overlay) {
         return definedEntities.stream().filter(FILTER_NON_ENV_ENTITIES_EXCLUDING_FOLDER)
-                .map(e -> ((GatewayEntity)e.getGatewayEntity()).getMetadata()).collect(Collectors.toList());
+                .map(e -> ((GatewayEntity)e.getGatewayEntity()).getMetadata(overlay)).collect(Collectors.toList());
     }
 
     private boolean isBundleContainsSharedEntity (final AnnotatedBundle annotatedBundle) {
-        return annotatedBundle.getEncasses().values().stream().anyMatch(Encass::isParentEntityShared)
-               || annotatedBundle.getPolicies().values().stream().anyMatch(Policy::isParentEntityShared);
+        final EntityOverlay overlay = annotatedBundle.getEntityOverlay();
+        return annotatedBundle.getEncasses().values().stream().anyMatch(overlay::isParentEntityShared)
+               || annotatedBundle.getPolicies().values().stream().anyMatch(overlay::isParentEntityShared);
     }
 
     private boolean hasRoutingAssertion(final List<Entity> dependentEntities) {
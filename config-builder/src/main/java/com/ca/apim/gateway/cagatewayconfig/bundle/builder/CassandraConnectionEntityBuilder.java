@@ -46,7 +46,10 @@ public class CassandraConnectionEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return entities.entrySet().stream()
-                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(CASSANDRA_CONNECTION_TYPE, bundle.applyUniqueName(e.getKey(), BundleType.ENVIRONMENT), generateId((CassandraConnection) e.getValue())))
+                        .map(e -> {
+                            final String name = bundle.applyUniqueName(e.getKey(), BundleType.ENVIRONMENT);
+                            return EntityBuilderHelper.getEntityWithOnlyMapping(CASSANDRA_CONNECTION_TYPE, name, generateId(bundle, name, (CassandraConnection) e.getValue()));
+                        })
                         .collect(Collectors.toList());
             case ENVIRONMENT:
                 return entities.entrySet().stream().map(e ->
@@ -70,7 +73,7 @@ public class CassandraConnectionEntityBuilder implements EntityBuilder {
 
     @VisibleForTesting
     Entity buildEntity(Bundle bundle, String name, CassandraConnection connection, Document document) {
-        String id = generateId(connection);
+        String id = generateId(bundle, name, connection);
         Element cassandraElement = createElementWithAttributesAndChildren(
                 document,
                 CASSANDRA_CONNECTION,
@@ -102,12 +105,12 @@ public class CassandraConnectionEntityBuilder implements EntityBuilder {
         return EntityBuilderHelper.getEntityWithNameMapping(CASSANDRA_CONNECTION_TYPE, name, id, cassandraElement);
     }
 
-    private String generateId(CassandraConnection cassandraConnection) {
+    private String generateId(Bundle bundle, String name, CassandraConnection cassandraConnection) {
         if (cassandraConnection != null && cassandraConnection.getAnnotatedEntity() != null
                 && StringUtils.isNotBlank(cassandraConnection.getAnnotatedEntity().getId())) {
             return cassandraConnection.getAnnotatedEntity().getId();
         }
-        return idGenerator.generate();
+        return idGenerator.generate(bundle.getProjectInfo(), CASSANDRA_CONNECTION_TYPE, name);
     }
 
     @Override
@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.beans.*;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import org.jetbrains.annotations.NotNull;
@@ -38,7 +39,7 @@ public class ClusterPropertyEntityBuilder implements EntityBuilder {
         this.idGenerator = idGenerator;
     }
 
-    private List<Entity> buildEntities(Map<String, ?> globalProperties, Map<String, ?> clusterProperties, BundleType bundleType, Document document){
+    private List<Entity> buildEntities(Map<String, ?> globalProperties, Map<String, ?> clusterProperties, ProjectInfo projectInfo, BundleType bundleType, Document document){
         Stream.Builder<Entity> streamBuilder = Stream.builder();
         switch (bundleType) {
             case DEPLOYMENT:
@@ -46,18 +47,19 @@ public class ClusterPropertyEntityBuilder implements EntityBuilder {
                         if (globalProperties.containsKey(PREFIX_GATEWAY + propertyEntry.getKey())) {
                             throw new EntityBuilderException("The Cluster property: '" + propertyEntry.getKey() + "' is defined in both static.properties and env.properties");
                         }
-                        return buildClusterPropertyEntity(propertyEntry.getKey(), (ClusterProperty)propertyEntry.getValue(), document);
+                        return buildClusterPropertyEntity(projectInfo, propertyEntry.getKey(), (ClusterProperty)propertyEntry.getValue(), document);
                 }).forEach(streamBuilder);
                 globalProperties.keySet().stream()
                         .filter(o -> o.startsWith(PREFIX_GATEWAY))
-                        .map(o -> EntityBuilderHelper.getEntityWithOnlyMapping(CLUSTER_PROPERTY_TYPE, o.substring(PREFIX_GATEWAY.length()), idGenerator.generate()))
+                        .map(o -> o.substring(PREFIX_GATEWAY.length()))
+                        .map(name -> EntityBuilderHelper.getEntityWithOnlyMapping(CLUSTER_PROPERTY_TYPE, name, idGenerator.generate(projectInfo, CLUSTER_PROPERTY_TYPE, name)))
                         .forEach(streamBuilder);
                 break;
             case ENVIRONMENT:
                 globalProperties.entrySet().stream()
                         .filter(propertyEntry -> propertyEntry.getKey().startsWith(PREFIX_GATEWAY))
                         .map(propertyEntry ->
-                                buildClusterPropertyEntity(propertyEntry.getKey().substring(PREFIX_GATEWAY.length()),
+                                buildClusterPropertyEntity(projectInfo, propertyEntry.getKey().substring(PREFIX_GATEWAY.length()),
                                         (GlobalEnvironmentProperty) propertyEntry.getValue(), document))
                         .forEach(streamBuilder);
                 break;
@@ -70,7 +72,7 @@ public class ClusterPropertyEntityBuilder implements EntityBuilder {
     public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
         Map<String, GlobalEnvironmentProperty> globalEnvironmentProperties = Optional.ofNullable(bundle.getGlobalEnvironmentProperties()).orElse(Collections.emptyMap());
         Map<String, ClusterProperty> clusterPropertyMap = Optional.ofNullable(bundle.getStaticProperties()).orElse(Collections.emptyMap());
-        return buildEntities(globalEnvironmentProperties, clusterPropertyMap, bundleType, document);
+        return buildEntities(globalEnvironmentProperties, clusterPropertyMap, bundle.getProjectInfo(), bundleType, document);
     }
 
     @Override
@@ -78,8 +80,8 @@ public class ClusterPropertyEntityBuilder implements EntityBuilder {
         return ORDER;
     }
 
-    private Entity buildClusterPropertyEntity(String name, PropertiesEntity value, Document document) {
-        String id = idGenerator.generate();
+    private Entity buildClusterPropertyEntity(ProjectInfo projectInfo, String name, PropertiesEntity value, Document document) {
+        String id = idGenerator.generate(projectInfo, CLUSTER_PROPERTY_TYPE, name);
         return EntityBuilderHelper.getEntityWithNameMapping(CLUSTER_PROPERTY_TYPE, name, id, buildClusterPropertyElement(name, id, value.getValue(), document));
     }
 
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.deploy.BundleItem;
+import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.*;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.FOLDER_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.DELETE_BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.INSTALL_BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BuilderUtils.mapPropertiesElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
+
+/**
+ * Builds the bundle that updates a gateway from one version of a deployment bundle to the next, with only the items
+ * that are new or changed in the current version.
+ * <p>
+ * Every build generates new ids for the entities, so the items of the two versions are matched by their type and by the
+ * name or path the gateway maps them to, and compared ignoring the generated ids (see {@link BundleItem}). The changed
+ * items are mapped NewOrUpdate. The unchanged entities they reference only keep a NewOrExisting mapping, so they are
+ * mapped to the entities the previous version installed. The items are in the order of the current bundle, so the same
+ * two versions always give the same delta bundle.
+ * <p>
+ * The DELETE bundle deletes the items of the previous version that are not in the current one, except folders, in the
+ * reverse order of the previous bundle.
+ */
+@Singleton
+public class DeltaBundleBuilder {
+
+    private final BundleDocumentBuilder bundleDocumentBuilder;
+    private final DocumentTools documentTools;
+
+    @Inject
+    public DeltaBundleBuilder(final BundleDocumentBuilder bundleDocumentBuilder, final DocumentTools documentTools) {
+        this.bundleDocumentBuilder = bundleDocumentBuilder;
+        this.documentTools = documentTools;
+    }
+
+    /**
+     * Builds the delta bundle and the DELETE bundle of the removed items.
+     *
+     * @param previousBundle the bundle of the previous version
+     * @param currentBundle  the bundle of the current version
+     * @param bundleName     the name the bundle files are named after
+     * @param document       the document to build the bundles in
+     * @return the delta bundle, and the DELETE bundle or null if no item was removed. They have no metadata.
+     */
+    public BundleArtifacts build(final Element previousBundle, final Element currentBundle, final String bundleName, final Document document) {
+        final Map<String, BundleItem> previousItems = BundleItem.index(previousBundle, documentTools);
+        final Map<String, BundleItem> currentItems = BundleItem.index(currentBundle, documentTools);
+
+        // the changed items, and the keys of the entities they need a mapping for
+        final Set<String> changedKeys = new HashSet<>();
+        final Set<String> referencedKeys = new HashSet<>();
+        currentItems.values().forEach(currentItem -> {
+            final BundleItem previousItem = previousItems.get(currentItem.getKey());
+            if (currentItem.getItem() != null && (previousItem == null || !previousItem.getDigest().equals(currentItem.getDigest()))) {
+                changedKeys.add(currentItem.getKey());
+                referencedKeys.addAll(currentItem.getReferencedKeys());
+            }
+        });
+
+        final List<Entity> entities = new ArrayList<>();
+        currentItems.values().forEach(currentItem -> {
+            if (changedKeys.contains(currentItem.getKey())) {
+                entities.add(buildEntity(currentItem, MappingActions.NEW_OR_UPDATE, document));
+            } else if (referencedKeys.contains(currentItem.getKey())) {
+                entities.add(buildEntity(currentItem, currentItem.getItem() != null ? MappingActions.NEW_OR_EXISTING : currentItem.getMapping().getAttribute(ATTRIBUTE_ACTION), null));
+            }
+        });
+
+        final List<Entity> removedEntities = new ArrayList<>();
+        previousItems.values().forEach(previousItem -> {
+            if (previousItem.getItem() != null && !FOLDER_TYPE.equals(previousItem.getType()) && !currentItems.containsKey(previousItem.getKey())) {
+                removedEntities.add(0, buildEntity(previousItem, MappingActions.DELETE, null));
+            }
+        });
+
+        return new BundleArtifacts(
+                bundleDocumentBuilder.build(document, entities),
+                removedEntities.isEmpty() ? null : bundleDocumentBuilder.build(document, removedEntities),
+                null,
+                bundleName + INSTALL_BUNDLE_EXTENSION,
+                bundleName + DELETE_BUNDLE_EXTENSION);
+    }
+
+    // the entity of the item, with its resource imported into the document if given, or only its mapping
+    private static Entity buildEntity(final BundleItem bundleItem, final String mappingAction, @Nullable final Document document) {
+        final Element item = bundleItem.getItem();
+        final Entity entity = new Entity(
+                bundleItem.getType(),
+                item != null ? getSingleChildElementTextContent(item, NAME) : null,
+                bundleItem.getSrcId(),
+                document != null ? (Element) document.importNode(getResource(item), true) : null,
+                null);
+        entity.setMappingAction(mappingAction);
+        mapPropertiesElements(getSingleChildElement(bundleItem.getMapping(), PROPERTIES, true), PROPERTIES)
+                .forEach(entity::setMappingProperty);
+        return entity;
+    }
+
+    private static Element getResource(final Element item) {
+        final Element resource = getSingleChildElement(item, RESOURCE);
+        for (Node node = resource.getFirstChild(); node != null; node = node.getNextSibling()) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                return (Element) node;
+            }
+        }
+        throw new EntityBuilderException("Item " + getSingleChildElementTextContent(item, NAME) + " has no resource");
+    }
+}
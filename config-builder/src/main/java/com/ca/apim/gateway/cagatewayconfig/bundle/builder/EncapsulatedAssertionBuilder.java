@@ -1,5 +1,6 @@
 package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.beans.*;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.IdValidator;
@@ -13,6 +14,7 @@ import java.util.concurrent.atomic.AtomicReference;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.ENCAPSULATED_ASSERTION_TYPE;
 import static com.ca.apim.gateway.cagatewayconfig.util.policy.PolicyXMLElements.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.createElementWithAttribute;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
@@ -32,7 +34,7 @@ public class EncapsulatedAssertionBuilder implements PolicyAssertionBuilder {
         if (encapsulatedAssertionElement.hasAttribute(ENCASS_NAME)) {
             final String encassName = encapsulatedAssertionElement.getAttribute(ENCASS_NAME);
             Encass encass = getEncass(bundle, encassName, annotatedBundle);
-            final String guid = findEncassReferencedGuid(policy, encass, encapsulatedAssertionElement, encassName);
+            final String guid = findEncassReferencedGuid(policyBuilderContext.getEntityOverlay(), policy, encass, encapsulatedAssertionElement, encassName);
             updateEncapsulatedAssertion(policyBuilderContext, encapsulatedAssertionElement, encass, encassName, guid);
         } else if (!isNoOpIfConfigMissing(encapsulatedAssertionElement)) {
             Element guidElement = getSingleChildElement(encapsulatedAssertionElement, ENCAPSULATED_ASSERTION_CONFIG_GUID, true);
@@ -94,7 +96,7 @@ public class EncapsulatedAssertionBuilder implements PolicyAssertionBuilder {
         return missingEncass;
     }
 
-    private static String findEncassReferencedGuid(Policy policy, Encass encass, Element encapsulatedAssertionElement, String name) {
+    private static String findEncassReferencedGuid(EntityOverlay overlay, Policy policy, Encass encass, Element encapsulatedAssertionElement, String name) {
         final String guid;
         if (encass == null) {
             if (isNoOpIfConfigMissing(encapsulatedAssertionElement)) {
@@ -104,7 +106,7 @@ public class EncapsulatedAssertionBuilder implements PolicyAssertionBuilder {
                 throw new EntityBuilderException("Could not find referenced encass with name: '" + name + "'. In policy: " + policy.getPath());
             }
         } else {
-            guid = encass.getGuid();
+            guid = overlay.getGuid(encass);
         }
         return guid;
     }
@@ -115,33 +117,36 @@ public class EncapsulatedAssertionBuilder implements PolicyAssertionBuilder {
         String encassGuid = guid;
         final IdGenerator idGenerator = policyBuilderContext.getIdGenerator();
         final AnnotatedBundle annotatedBundle = policyBuilderContext.getAnnotatedBundle();
+        final EntityOverlay overlay = policyBuilderContext.getEntityOverlay();
         AnnotatedEntity annotatedEntity = annotatedBundle != null ? annotatedBundle.getAnnotatedEntity() : null;
         if (encass != null && !encass.isExcluded() && annotatedEntity != null) {
             AnnotatedEntity annotatedEncassEntity = encass.getAnnotatedEntity();
-            if (encass.isParentEntityShared()) {
+            if (overlay.isParentEntityShared(encass)) {
                 if (annotatedEncassEntity != null) {
                     if (annotatedEncassEntity.getGuid() != null) {
                         if (IdValidator.isValidGuid(annotatedEncassEntity.getGuid())) {
                             encassGuid = annotatedEncassEntity.getGuid();
-                            encass.setGuid(encassGuid);
+                            overlay.setGuid(encass, encassGuid);
                         } else {
                             LOGGER.log(Level.WARNING, "ignoring given invalid guid {0} for entity {1}", new String[]{annotatedEncassEntity.getGuid(), name});
                         }
                     }
                     if (annotatedEncassEntity.getId() != null) {
                         if (IdValidator.isValidGoid(annotatedEncassEntity.getId())) {
-                            encass.setId(annotatedEncassEntity.getId());
+                            overlay.setId(encass, annotatedEncassEntity.getId());
                         } else {
                             LOGGER.log(Level.WARNING, "ignoring given invalid goid {0} for entity {1}", new String[]{annotatedEncassEntity.getId(), name});
                         }
                     }
                 }
             } else {
-                encassGuid = idGenerator.generateGuid();
-                encass.setGuid(encassGuid);
-                encass.setId(idGenerator.generate());
+                final ProjectInfo projectInfo = policyBuilderContext.getBundle().getProjectInfo();
+                final String encassKey = annotatedBundle.getBundleName() + "/" + name;
+                encassGuid = idGenerator.generateGuid(projectInfo, ENCAPSULATED_ASSERTION_TYPE, encassKey);
+                overlay.setGuid(encass, encassGuid);
+                overlay.setId(encass, idGenerator.generate(projectInfo, ENCAPSULATED_ASSERTION_TYPE, encassKey));
             }
-            encassName = annotatedBundle.applyUniqueName(encassName, EntityBuilder.BundleType.DEPLOYMENT, encass.isParentEntityShared());
+            encassName = annotatedBundle.applyUniqueName(encassName, EntityBuilder.BundleType.DEPLOYMENT, overlay.isParentEntityShared(encass));
         }
         Element encapsulatedAssertionConfigNameElement = createElementWithAttribute(
                 policyBuilderContext.getPolicyDocument(),
@@ -79,6 +79,11 @@ public class EncassEntityBuilder implements EntityBuilder {
         return ORDER;
     }
 
+    @Override
+    public boolean hasDependentBuilders() {
+        return true;
+    }
+
     private String getPolicyId(String policyWithPath, Bundle bundle, AnnotatedBundle annotatedBundle) {
         final AtomicReference<Policy> includedPolicy;
         if (annotatedBundle != null) {
@@ -123,14 +128,15 @@ public class EncassEntityBuilder implements EntityBuilder {
             }
         }
 
-        return includedPolicy.get().getId();
+        return EntityOverlay.of(bundle, annotatedBundle).getId(includedPolicy.get());
     }
 
     private Entity buildEncassEntity(AnnotatedBundle annotatedBundle, Bundle bundle, String name, Encass encass, Document document) {
         String policyId = getPolicyId(encass.getPolicy(), bundle, annotatedBundle);
+        EntityOverlay overlay = EntityOverlay.of(bundle, annotatedBundle);
         String uniqueEncassName = name;
-        String guid = encass.getGuid();
-        String id = encass.getId();
+        String guid = overlay.getGuid(encass);
+        String id = overlay.getId(encass);
         AnnotatedEntity annotatedEncassEntity = null;
 
         AnnotatedEntity annotatedEntity = annotatedBundle != null ? annotatedBundle.getAnnotatedEntity() : null;
@@ -138,7 +144,7 @@ public class EncassEntityBuilder implements EntityBuilder {
         boolean isShared = false;
         if (annotatedEntity != null) {
             isRedeployableBundle = annotatedEntity.isRedeployable();
-            isShared = encass.isParentEntityShared();
+            isShared = overlay.isParentEntityShared(encass);
             annotatedEncassEntity = encass.getAnnotatedEntity();
             if (isShared) {
                 //use the id and guid defined at bundle-hints annotation (if its annotated bundle)
@@ -164,7 +170,7 @@ public class EncassEntityBuilder implements EntityBuilder {
             }
             uniqueEncassName = annotatedBundle.applyUniqueName(name, BundleType.DEPLOYMENT, isShared);
         }
-        encass.setUniqueEntityName(uniqueEncassName);
+        overlay.setUniqueName(encass, uniqueEncassName);
         Element encassAssertionElement = createElementWithAttributesAndChildren(
                 document,
                 ENCAPSULATED_ASSERTION,
@@ -176,7 +182,8 @@ public class EncassEntityBuilder implements EntityBuilder {
                 buildResults(encass, document)
         );
 
-        final Map<String, Object> properties = Optional.ofNullable(encass.getProperties()).orElse(new HashMap<>());
+        // copied, the encass is shared by all the bundles built from the project
+        final Map<String, Object> properties = new HashMap<>(Optional.ofNullable(encass.getProperties()).orElse(Collections.emptyMap()));
         properties.putIfAbsent(PALETTE_FOLDER, DEFAULT_PALETTE_FOLDER_LOCATION);
         buildAndAppendPropertiesElement(properties, document, encassAssertionElement);
 
@@ -10,6 +10,7 @@ import com.ca.apim.gateway.cagatewayconfig.beans.GatewayEntity;
 import com.fasterxml.jackson.annotation.JsonIgnore;
 import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.ObjectUtils;
+import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import java.util.HashMap;
@@ -126,4 +127,21 @@ public class Entity {
     public GatewayEntity getGatewayEntity() {
         return gatewayEntity;
     }
+
+    /**
+     * Returns this entity with its xml owned by the given document, copying it if the xml was built in another one.
+     *
+     * @param document the document the xml has to belong to
+     * @return this entity if its xml is already owned by the document, a copy with the xml imported otherwise
+     */
+    Entity importInto(Document document) {
+        if (xml == null || xml.getOwnerDocument() == document) {
+            return this;
+        }
+        final Entity entity = new Entity(type, originalName, id, (Element) document.importNode(xml, true), gatewayEntity);
+        entity.properties.putAll(properties);
+        entity.mappingAction = mappingAction;
+        entity.mappingProperties.putAll(mappingProperties);
+        return entity;
+    }
 }
@@ -44,6 +44,16 @@ public interface EntityBuilder extends Comparable<EntityBuilder> {
     @NotNull
     Integer getOrder();
 
+    /**
+     * Builders assigning ids or names that are referenced by entities of other builders have to run before the other
+     * ones when builders are run concurrently.
+     *
+     * @return true if entities built by other builders depend on the entities built by this one
+     */
+    default boolean hasDependentBuilders() {
+        return false;
+    }
+
     @Override
     default int compareTo(@NotNull EntityBuilder o) {
         return this.getOrder().compareTo(o.getOrder());
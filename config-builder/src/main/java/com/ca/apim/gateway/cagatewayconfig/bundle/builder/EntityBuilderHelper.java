@@ -112,13 +112,20 @@ class EntityBuilderHelper {
     }
 
     static String getPath(Folder folder, String name) {
-        return PathUtils.unixPath(getPath(folder).toString(), name);
+        return getPath(folder, name, EntityOverlay.EMPTY);
     }
 
-    static Path getPath(Folder folder) {
+    /**
+     * @return the path of the name in the folder, with the folders standing in for others in the bundle of the overlay
+     */
+    static String getPath(Folder folder, String name, EntityOverlay overlay) {
+        return PathUtils.unixPath(getPath(overlay.getFolder(folder), overlay).toString(), name);
+    }
+
+    private static Path getPath(Folder folder, EntityOverlay overlay) {
         if (folder.getParentFolder() == null) {
             return Paths.get("");
         }
-        return getPath(folder.getParentFolder()).resolve(folder.getName());
+        return getPath(overlay.getFolder(folder.getParentFolder()), overlay).resolve(folder.getName());
     }
 }
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.Encass;
+import com.ca.apim.gateway.cagatewayconfig.beans.Folder;
+import com.ca.apim.gateway.cagatewayconfig.beans.Folderable;
+import com.ca.apim.gateway.cagatewayconfig.beans.GatewayEntity;
+import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Element;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+/**
+ * Names, ids and other attributes given to entities while generating one bundle. The loaded entities are shared by
+ * all the bundles generated from a project, so builders record here what is specific to the bundle being generated
+ * instead of changing the entities. Entities are matched by identity, anything not recorded falls back to the value
+ * in the entity itself.
+ */
+public class EntityOverlay {
+
+    /**
+     * Overlay with nothing recorded, for reading entities outside of bundle generation.
+     */
+    public static final EntityOverlay EMPTY = new EntityOverlay(Collections.emptyMap());
+
+    private final Map<GatewayEntity, Attributes> attributes;
+
+    public EntityOverlay() {
+        this(Collections.synchronizedMap(new IdentityHashMap<>()));
+    }
+
+    private EntityOverlay(Map<GatewayEntity, Attributes> attributes) {
+        this.attributes = attributes;
+    }
+
+    /**
+     * @param bundle the bundle being built
+     * @param annotatedBundle the annotated bundle being built from it, if any
+     * @return the overlay of the annotated bundle if there is one, otherwise the overlay of the bundle
+     */
+    public static EntityOverlay of(Bundle bundle, @Nullable AnnotatedBundle annotatedBundle) {
+        return annotatedBundle != null ? annotatedBundle.getEntityOverlay() : bundle.getEntityOverlay();
+    }
+
+    /**
+     * @return the unique name given to the entity in this bundle, null if none was given
+     */
+    @Nullable
+    public String getUniqueName(GatewayEntity entity) {
+        return find(entity, a -> a.uniqueName);
+    }
+
+    public void setUniqueName(GatewayEntity entity, String uniqueName) {
+        attributes(entity).uniqueName = uniqueName;
+    }
+
+    public String getId(GatewayEntity entity) {
+        final String id = find(entity, a -> a.id);
+        return id != null ? id : entity.getId();
+    }
+
+    public void setId(GatewayEntity entity, String id) {
+        attributes(entity).id = id;
+    }
+
+    public String getGuid(Policy policy) {
+        final String guid = find(policy, a -> a.guid);
+        return guid != null ? guid : policy.getGuid();
+    }
+
+    public String getGuid(Encass encass) {
+        final String guid = find(encass, a -> a.guid);
+        return guid != null ? guid : encass.getGuid();
+    }
+
+    public void setGuid(GatewayEntity entity, String guid) {
+        attributes(entity).guid = guid;
+    }
+
+    /**
+     * @return the folder standing in for the given folder in this bundle, the folder itself if none does
+     */
+    @Nullable
+    public Folder getFolder(@Nullable Folder folder) {
+        final Folder replacement = find(folder, a -> a.folder);
+        return replacement != null ? replacement : folder;
+    }
+
+    public void setFolder(Folder folder, Folder replacement) {
+        attributes(folder).folder = replacement;
+    }
+
+    /**
+     * @return the id of the folder the entity is placed in this bundle, null if it has no folder
+     */
+    @Nullable
+    public String getParentFolderId(Folderable entity) {
+        final Folder parentFolder = getFolder(entity.getParentFolder());
+        return parentFolder != null ? getId(parentFolder) : null;
+    }
+
+    /**
+     * @return true if any parent (policy or encass) of the entity in this bundle is annotated with @shared
+     */
+    public boolean isParentEntityShared(GatewayEntity entity) {
+        return Boolean.TRUE.equals(find(entity, a -> a.parentEntityShared));
+    }
+
+    public void setParentEntityShared(GatewayEntity entity, boolean parentEntityShared) {
+        attributes(entity).parentEntityShared = parentEntityShared;
+    }
+
+    /**
+     * @return the policy document built for the policy in this bundle, or the one loaded with it if not built yet
+     */
+    public Element getPolicyDocument(Policy policy) {
+        final Element policyDocument = find(policy, a -> a.policyDocument);
+        return policyDocument != null ? policyDocument : policy.getPolicyDocument();
+    }
+
+    public void setPolicyDocument(Policy policy, Element policyDocument) {
+        attributes(policy).policyDocument = policyDocument;
+    }
+
+    /**
+     * @return the policies included by the policy in this bundle, can be added to
+     */
+    public Set<Policy> getDependencies(Policy policy) {
+        return attributes(policy).dependencies;
+    }
+
+    @Nullable
+    private <T> T find(GatewayEntity entity, Function<Attributes, T> attribute) {
+        final Attributes entityAttributes = attributes.get(entity);
+        return entityAttributes != null ? attribute.apply(entityAttributes) : null;
+    }
+
+    private Attributes attributes(GatewayEntity entity) {
+        return attributes.computeIfAbsent(entity, e -> new Attributes());
+    }
+
+    private static class Attributes {
+        private volatile String uniqueName;
+        private volatile String id;
+        private volatile String guid;
+        private volatile Boolean parentEntityShared;
+        private volatile Element policyDocument;
+        private volatile Folder folder;
+        private final Set<Policy> dependencies = ConcurrentHashMap.newKeySet();
+    }
+}
@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.Folder;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
@@ -40,13 +41,13 @@ public class FolderEntityBuilder implements EntityBuilder {
         this.idGenerator = idGenerator;
     }
 
-    private Entity buildFolderEntity(Folder folder, String id, String parentFolderId, Document document) {
+    private Entity buildFolderEntity(Folder folder, String id, String parentFolderId, EntityOverlay overlay, Document document) {
         Element folderElement = createElementWithAttribute(document, FOLDER, ATTRIBUTE_ID, id);
 
         if (parentFolderId != null) {
             folderElement.setAttribute(ATTRIBUTE_FOLDER_ID, parentFolderId);
         }
-        String folderName = folder.getName();
+        String folderName = parentFolderId == null ? Folder.ROOT_FOLDER_NAME : folder.getName();
         folderName = CharacterBlacklistUtil.decodeName(folderName);
         folderElement.appendChild(createElementWithTextContent(document, NAME, folderName));
         final Entity entity;
@@ -54,7 +55,7 @@ public class FolderEntityBuilder implements EntityBuilder {
             //No need to map root folder by name
             entity = new Entity(FOLDER_TYPE, folderName, id, folderElement, folder);
         } else {
-            String filteredPathName = EntityBuilderHelper.getPath(folder.getParentFolder(), folder.getName());
+            String filteredPathName = EntityBuilderHelper.getPath(folder.getParentFolder(), folder.getName(), overlay);
             filteredPathName = CharacterBlacklistUtil.decodePath(filteredPathName);
             entity = EntityBuilderHelper.getEntityWithPathMapping(FOLDER_TYPE, filteredPathName, filteredPathName, id
                     , folderElement, false, folder);
@@ -64,48 +65,44 @@ public class FolderEntityBuilder implements EntityBuilder {
         return entity;
     }
 
-    private List<Entity> buildEntities(Map<String, Folder> entities, BundleType bundleType, Document document, String targetFolderPath) {
+    private List<Entity> buildEntities(Map<String, Folder> entities, BundleType bundleType, Document document, String targetFolderPath, ProjectInfo projectInfo, EntityOverlay overlay) {
         // no folder has to be added to environment bundle
         if ((entities.isEmpty() && StringUtils.isBlank(targetFolderPath)) || bundleType == ENVIRONMENT) {
             return Collections.emptyList();
         }
-        Map<Folder, Collection<Folder>> folderChildrenMap = new HashMap<>();
-        Folder rootFolder = entities.remove("");
+        Folder rootFolder = entities.get("");
         if (rootFolder == null) {
             throw new EntityBuilderException("Could not locate root folder.");
         }
 
+        // the loaded folders are shared by all the bundles built from the project, the ids and the target folder are
+        // recorded in the overlay of this bundle
         if (StringUtils.isNotBlank(targetFolderPath) && rootFolder != Folder.ROOT_FOLDER) {
-            Folder bundleTargetFolder = rootFolder;
-            bundleTargetFolder.setId(idGenerator.generate());
-            bundleTargetFolder.setName(targetFolderPath);
+            Folder bundleTargetFolder = new Folder(idGenerator.generate(projectInfo, FOLDER_TYPE, targetFolderPath + "/"), targetFolderPath);
             bundleTargetFolder.setParentFolder(Folder.ROOT_FOLDER);
             bundleTargetFolder.setPath(targetFolderPath + "/");
-            entities.put(bundleTargetFolder.getPath() , bundleTargetFolder);
+            overlay.setFolder(rootFolder, bundleTargetFolder);
             rootFolder = Folder.ROOT_FOLDER;
-            entities.put("", rootFolder);
         } else {
-            rootFolder.setId(Folder.ROOT_FOLDER_ID);
-            rootFolder.setName(Folder.ROOT_FOLDER_NAME);
-            entities.put("", rootFolder);
+            overlay.setId(rootFolder, Folder.ROOT_FOLDER_ID);
         }
 
-        entities.values().forEach(folder -> addFolder(folder, folderChildrenMap));
+        Map<Folder, Collection<Folder>> folderChildrenMap = new HashMap<>();
+        entities.values().forEach(folder -> addFolder(overlay.getFolder(folder), overlay, folderChildrenMap));
         Stream<Folder> folderStream = Stream.of(rootFolder).flatMap(f -> expand(f, folderChildrenMap));
 
         return folderStream.map(f -> {
-            if (f.getId() == null) {
-                f.setId(idGenerator.generate());
+            if (overlay.getId(f) == null) {
+                overlay.setId(f, idGenerator.generate(projectInfo, FOLDER_TYPE, f.getPath()));
             }
-            String parentFolderId = f.getParentFolder() != null ? f.getParentFolder().getId() : null;
-            return buildFolderEntity(f, f.getId(), parentFolderId, document);
+            return buildFolderEntity(f, overlay.getId(f), overlay.getParentFolderId(f), overlay, document);
         })
                 .collect(Collectors.toList());
     }
 
     public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
         Map<String, Folder> folderMap = Optional.ofNullable(bundle.getFolders()).orElse(Collections.emptyMap());
-        return buildEntities(folderMap, bundleType, document, bundle.getTargetFolderPath());
+        return buildEntities(folderMap, bundleType, document, bundle.getTargetFolderPath(), bundle.getProjectInfo(), bundle.getEntityOverlay());
     }
 
     @Override
@@ -113,13 +110,18 @@ public class FolderEntityBuilder implements EntityBuilder {
         return ORDER;
     }
 
+    @Override
+    public boolean hasDependentBuilders() {
+        return true;
+    }
+
     private Stream<Folder> expand(final Folder folder, Map<Folder, Collection<Folder>> folderChildrenMap) {
         return Stream.of(folder).flatMap(f -> Stream.concat(Stream.of(f), folderChildrenMap.getOrDefault(f, Collections.emptySet()).stream().flatMap(f2 -> expand(f2, folderChildrenMap))));
     }
 
-    private void addFolder(Folder folder, Map<Folder, Collection<Folder>> folderChildrenMap) {
+    private void addFolder(Folder folder, EntityOverlay overlay, Map<Folder, Collection<Folder>> folderChildrenMap) {
         if (folder.getParentFolder() != null) {
-            folderChildrenMap.compute(folder.getParentFolder(), (k, v) -> {
+            folderChildrenMap.compute(overlay.getFolder(folder.getParentFolder()), (k, v) -> {
                 if (v == null) {
                     return new HashSet<>(Collections.singleton(folder));
                 } else {
@@ -41,20 +41,22 @@ public class GenericEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return genericEntities.entrySet().stream()
-                        .map(entry -> getEntityWithOnlyMapping(EntityTypes.GENERIC_TYPE, bundle.applyUniqueName(entry.getKey(), BundleType.ENVIRONMENT),
-                                generateId(entry.getValue())))
+                        .map(entry -> {
+                            final String name = bundle.applyUniqueName(entry.getKey(), BundleType.ENVIRONMENT);
+                            return getEntityWithOnlyMapping(EntityTypes.GENERIC_TYPE, name, generateId(bundle, name, entry.getValue()));
+                        })
                         .collect(Collectors.toList());
             case ENVIRONMENT:
                 return genericEntities.entrySet().stream()
-                        .map(e -> buildGenericEntity(bundle.applyUniqueName(e.getKey(), bundleType), e.getValue(), document))
+                        .map(e -> buildGenericEntity(bundle, bundle.applyUniqueName(e.getKey(), bundleType), e.getValue(), document))
                         .collect(Collectors.toList());
             default:
                 throw new EntityBuilderException("Unknown bundle type: " + bundleType);
         }
     }
 
-    private Entity buildGenericEntity(String name, GenericEntity genericEntity, Document document) {
-        String id = generateId(genericEntity);
+    private Entity buildGenericEntity(Bundle bundle, String name, GenericEntity genericEntity, Document document) {
+        String id = generateId(bundle, name, genericEntity);
         Element genericEntityElement = createElementWithAttributesAndChildren(
                 document,
                 GENERIC_ENTITY,
@@ -70,12 +72,12 @@ public class GenericEntityBuilder implements EntityBuilder {
         return EntityBuilderHelper.getEntityWithNameMapping(EntityTypes.GENERIC_TYPE, name, id, genericEntityElement);
     }
 
-    private String generateId(GenericEntity genericEntity) {
+    private String generateId(Bundle bundle, String name, GenericEntity genericEntity) {
         if (genericEntity != null && genericEntity.getAnnotatedEntity() != null
                 && StringUtils.isNotBlank(genericEntity.getAnnotatedEntity().getId())) {
             return genericEntity.getAnnotatedEntity().getId();
         }
-        return idGenerator.generate();
+        return idGenerator.generate(bundle.getProjectInfo(), EntityTypes.GENERIC_TYPE, name);
     }
 
     @Override
@@ -126,7 +126,7 @@ public class IdentityProviderEntityBuilder implements EntityBuilder {
                     if (cert == null) {
                         throw new EntityBuilderException("Certificate Reference with name: " + certName + " not found.");
                     }
-                    certReferencesElem.appendChild(createElementWithAttribute(document, REFERENCE, ATTRIBUTE_ID, cert.getId()));
+                    certReferencesElem.appendChild(createElementWithAttribute(document, REFERENCE, ATTRIBUTE_ID, bundle.getEntityOverlay().getId(cert)));
                 }
         );
         identityProviderElement.appendChild(extensionElement);
@@ -42,7 +42,7 @@ public class IncludeAssertionBuilder implements PolicyAssertionBuilder {
             includedPolicy = new AtomicReference<>(bundle.getPolicies().get(policyPath));
         }
         if (includedPolicy.get() != null) {
-            policy.getDependencies().add(includedPolicy.get());
+            policyBuilderContext.getEntityOverlay().getDependencies(policy).add(includedPolicy.get());
         } else {
             //check policy dependency in bundle dependencies
             bundle.getDependencies().forEach(b -> {
@@ -77,7 +77,7 @@ public class IncludeAssertionBuilder implements PolicyAssertionBuilder {
         if (includedPolicy.get() == null) {
             throw new EntityBuilderException("Could not find referenced policy include with path: " + policyPath);
         }
-        policyGuidElement.setAttribute(STRING_VALUE, includedPolicy.get().getGuid());
+        policyGuidElement.setAttribute(STRING_VALUE, policyBuilderContext.getEntityOverlay().getGuid(includedPolicy.get()));
         policyGuidElement.removeAttribute(POLICY_PATH);
     }
 
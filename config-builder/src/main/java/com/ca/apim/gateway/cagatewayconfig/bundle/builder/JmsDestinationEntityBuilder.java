@@ -71,7 +71,10 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return entities.entrySet().stream()
-                        .map(e -> EntityBuilderHelper.getEntityWithOnlyMapping(JMS_DESTINATION_TYPE, bundle.applyUniqueName(e.getKey(), BundleType.ENVIRONMENT), generateId((JmsDestination)e.getValue())))
+                        .map(e -> {
+                            final String name = bundle.applyUniqueName(e.getKey(), BundleType.ENVIRONMENT);
+                            return EntityBuilderHelper.getEntityWithOnlyMapping(JMS_DESTINATION_TYPE, name, generateId(bundle, name, (JmsDestination)e.getValue()));
+                        })
                         .collect(Collectors.toList());
             case ENVIRONMENT:
                 return entities.entrySet().stream().map(e ->
@@ -88,7 +91,7 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
     }
 
     private Entity buildEntity(Bundle bundle, String name, JmsDestination jmsDestination, Document document) {
-        String id = generateId(jmsDestination);
+        String id = generateId(bundle, name, jmsDestination);
         boolean isInbound = jmsDestination.getInboundDetail() != null;
 
         // Build JMS Destination element.
@@ -130,7 +133,7 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
         buildAndAppendPropertiesElement(jmsDestinationDetailProps, document, jmsDestinationDetailEle);
 
         // Build JMS Connection element.
-        String jmsConnectionEleId = idGenerator.generate();
+        String jmsConnectionEleId = idGenerator.generate(bundle.getProjectInfo(), JMS_CONNECTION, name);
         Element jmsConnectionEle = createElementWithAttributesAndChildren(
                 document,
                 JMS_CONNECTION,
@@ -235,7 +238,7 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
                 Service service = bundle.getServices().get(serviceRef);
 
                 if (service == null) {
-                    service = getDeploymentBundle().getServices().get(serviceRef);
+                    service = getDeploymentBundle(bundle).getServices().get(serviceRef);
                 }
 
                 if (service == null) {
@@ -341,12 +344,12 @@ public class JmsDestinationEntityBuilder implements EntityBuilder {
         }
     }
 
-    private String generateId(JmsDestination jmsDestination) {
+    private String generateId(Bundle bundle, String name, JmsDestination jmsDestination) {
         if (jmsDestination != null && jmsDestination.getAnnotatedEntity() != null
                 && StringUtils.isNotBlank(jmsDestination.getAnnotatedEntity().getId())) {
             return jmsDestination.getAnnotatedEntity().getId();
         }
-        return idGenerator.generate();
+        return idGenerator.generate(bundle.getProjectInfo(), JMS_DESTINATION_TYPE, name);
     }
 
     private static void putToMapIfValueIsNotNull(
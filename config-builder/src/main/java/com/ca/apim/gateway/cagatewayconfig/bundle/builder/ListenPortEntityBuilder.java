@@ -85,7 +85,7 @@ public class ListenPortEntityBuilder implements EntityBuilder {
     Entity buildListenPortEntity(Bundle bundle, String name, ListenPort listenPort, Document document) {
         Element listenPortElement = document.createElement(LISTEN_PORT);
 
-        String id = idGenerator.generate();
+        String id = idGenerator.generate(bundle.getProjectInfo(), LISTEN_PORT_TYPE, name);
         listenPortElement.setAttribute(ATTRIBUTE_ID, id);
         listenPortElement.appendChild(createElementWithTextContent(document, NAME, name));
         listenPortElement.appendChild(createElementWithTextContent(document, ENABLED, TRUE.toString())); // people should not bootstrap a disabled listen port.
@@ -114,7 +114,7 @@ public class ListenPortEntityBuilder implements EntityBuilder {
         Service service = bundle.getServices().get(targetServiceReference);
 
         if (service == null || service.getId() == null) {
-            service = getDeploymentBundle().getServices().get(targetServiceReference);
+            service = getDeploymentBundle(bundle).getServices().get(targetServiceReference);
         }
 
         if (service == null) {
@@ -6,6 +6,7 @@ import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import org.w3c.dom.Element;
 
 import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleType.ENVIRONMENT;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.SSG_ACTIVE_CONNECTOR;
 import static com.ca.apim.gateway.cagatewayconfig.util.policy.PolicyXMLElements.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.createElementWithAttribute;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
@@ -21,7 +22,7 @@ public class MQRoutingAssertionBuilder implements PolicyAssertionBuilder {
             activeConnectorNameElement.setAttribute(STRING_VALUE, bundle.applyUniqueName(activeConnectorName, ENVIRONMENT));
             final SsgActiveConnector ssgActiveConnector = bundle.getSsgActiveConnectors().get(activeConnectorName);
             final String id = ssgActiveConnector != null && ssgActiveConnector.getAnnotatedEntity() != null && ssgActiveConnector.getAnnotatedEntity().getId() != null ?
-                    ssgActiveConnector.getAnnotatedEntity().getId() : idGenerator.generate();
+                    ssgActiveConnector.getAnnotatedEntity().getId() : idGenerator.generate(bundle.getProjectInfo(), SSG_ACTIVE_CONNECTOR, bundle.applyUniqueName(activeConnectorName, ENVIRONMENT));
             Element activeConnectorGoidElement = createElementWithAttribute(
                     policyBuilderContext.getPolicyDocument(),
                     ACTIVE_CONNECTOR_GOID,
@@ -2,7 +2,6 @@ package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.GatewayEntity;
-import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import org.apache.commons.text.StringEscapeUtils;
 import org.w3c.dom.*;
@@ -32,20 +31,22 @@ public interface PolicyAssertionBuilder {
     String getAssertionTagName();
 
     /**
-     * Default method that reads given annotated entity id
+     * Default method that reads given annotated entity id, the id is derived from the entity type and name otherwise
      *
-     * @param gatewayEntity GatewayEntity
-     * @param idGenerator   IdGenerator
+     * @param gatewayEntity        GatewayEntity
+     * @param policyBuilderContext PolicyBuilderContext
+     * @param type                 entity type
+     * @param name                 entity name in the bundle
      * @return String
      */
-    default String getIdFromAnnotableEntity(GatewayEntity gatewayEntity, IdGenerator idGenerator) {
+    default String getIdFromAnnotableEntity(GatewayEntity gatewayEntity, PolicyBuilderContext policyBuilderContext, String type, String name) {
         if (gatewayEntity instanceof AnnotableEntity) {
             AnnotatedEntity annotatedEntity = ((AnnotableEntity) gatewayEntity).getAnnotatedEntity();
             if (annotatedEntity != null && annotatedEntity.getId() != null) {
                 return annotatedEntity.getId();
             }
         }
-        return idGenerator.generate();
+        return policyBuilderContext.getIdGenerator().generate(policyBuilderContext.getBundle().getProjectInfo(), type, name);
     }
 
      static void prepareBase64Element(Document policyDocument, Element assertionElement, String elementName, String base64ElementName) {
@@ -63,7 +63,7 @@ public class PolicyBackedServiceEntityBuilder implements EntityBuilder {
     }
 
     private Entity buildPBSEntity(Bundle bundle, String name, PolicyBackedService policyBackedService, Document document) {
-        String id = idGenerator.generate();
+        String id = idGenerator.generate(bundle.getProjectInfo(), POLICY_BACKED_SERVICE_TYPE, name);
         Element policyBackedServiceElement = createElementWithAttributesAndChildren(
                 document,
                 POLICY_BACKED_SERVICE,
@@ -89,7 +89,7 @@ public class PolicyBackedServiceEntityBuilder implements EntityBuilder {
                         createElementWithChildren(
                                 document,
                                 POLICY_BACKED_SERVICE_OPERATION,
-                                createElementWithTextContent(document, POLICY_ID, policy.getId()),
+                                createElementWithTextContent(document, POLICY_ID, bundle.getEntityOverlay().getId(policy)),
                                 createElementWithTextContent(document, OPERATION_NAME, operation.getOperationName())
                         )
                 );
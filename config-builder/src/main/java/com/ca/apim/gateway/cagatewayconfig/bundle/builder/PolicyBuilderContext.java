@@ -55,4 +55,8 @@ public class PolicyBuilderContext {
     public Policy getPolicy() {
         return policy;
     }
+
+    public EntityOverlay getEntityOverlay() {
+        return EntityOverlay.of(bundle, annotatedBundle);
+    }
 }
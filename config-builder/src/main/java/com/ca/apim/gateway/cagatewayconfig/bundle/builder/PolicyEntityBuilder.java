@@ -73,37 +73,39 @@ public class PolicyEntityBuilder implements EntityBuilder {
             return emptyList();
         }
         AnnotatedEntity annotatedEntity = annotatedBundle != null ? annotatedBundle.getAnnotatedEntity() : null;
+        EntityOverlay overlay = EntityOverlay.of(bundle, annotatedBundle);
         policyMap.values().forEach(policy -> {
             Policy policyEntity = (Policy) policy;
             if (annotatedEntity != null) {
                 AnnotatedEntity annotatedPolicyEntity = policyEntity.getAnnotatedEntity();
-                if (policyEntity.isParentEntityShared()) {
+                if (overlay.isParentEntityShared(policyEntity)) {
                     if (annotatedPolicyEntity != null) {
                         if (annotatedPolicyEntity.getId() != null) {
                             if (IdValidator.isValidGoid(annotatedPolicyEntity.getId())) {
-                                policyEntity.setId(annotatedPolicyEntity.getId());
+                                overlay.setId(policyEntity, annotatedPolicyEntity.getId());
                             } else {
                                 LOGGER.log(Level.WARNING, "ignoring given invalid goid {0} for entity {1}", new String[]{annotatedPolicyEntity.getId(), policyEntity.getName()});
                             }
                         }
                         if (annotatedPolicyEntity.getGuid() != null) {
                             if (IdValidator.isValidGuid(annotatedPolicyEntity.getGuid())) {
-                                policyEntity.setGuid(annotatedPolicyEntity.getGuid());
+                                overlay.setGuid(policyEntity, annotatedPolicyEntity.getGuid());
                             } else {
                                 LOGGER.log(Level.WARNING, "ignoring given invalid guid {0} for entity {1}", new String[]{annotatedPolicyEntity.getId(), policyEntity.getName()});
                             }
                         }
                     }
                 } else {
-                    policyEntity.setId(idGenerator.generate());
-                    policyEntity.setGuid(idGenerator.generateGuid());
+                    final String policyKey = annotatedBundle.getBundleName() + "/" + policyEntity.getPath();
+                    overlay.setId(policyEntity, idGenerator.generate(bundle.getProjectInfo(), EntityTypes.POLICY_TYPE, policyKey));
+                    overlay.setGuid(policyEntity, idGenerator.generateGuid(bundle.getProjectInfo(), EntityTypes.POLICY_TYPE, policyKey));
                 }
             }
         });
         policyMap.values().forEach(policy -> preparePolicy((Policy) policy, bundle, annotatedBundle));
 
         List<Policy> orderedPolicies = new LinkedList<>();
-        policyMap.forEach((path, policy) -> maybeAddPolicy(bundle, (Policy) policy, orderedPolicies, new HashSet<Policy>()));
+        policyMap.forEach((path, policy) -> maybeAddPolicy(bundle, overlay, (Policy) policy, orderedPolicies, new HashSet<Policy>()));
 
         return orderedPolicies.stream().map(policy -> buildPolicyEntity(policy, annotatedBundle, bundle, document)).collect(toList());
     }
@@ -124,8 +126,13 @@ public class PolicyEntityBuilder implements EntityBuilder {
         return ORDER;
     }
 
+    @Override
+    public boolean hasDependentBuilders() {
+        return true;
+    }
+
     @VisibleForTesting
-    static void maybeAddPolicy(Bundle bundle, Policy policy, List<Policy> orderedPolicies, Set<Policy> seenPolicies) {
+    static void maybeAddPolicy(Bundle bundle, EntityOverlay overlay, Policy policy, List<Policy> orderedPolicies, Set<Policy> seenPolicies) {
         if (orderedPolicies.contains(policy) || bundle.getServices().get(FilenameUtils.removeExtension(policy.getPath())) != null) {
             //This is a service policy it should have already be handled by the service entity builder OR This policy has already been added to the policy list
             return;
@@ -134,7 +141,7 @@ public class PolicyEntityBuilder implements EntityBuilder {
             throw new EntityBuilderException("Detected Policy Include cycle containing policies: " + seenPolicies.stream().map(Policy::getPath).collect(Collectors.joining(",")));
         }
         seenPolicies.add(policy);
-        policy.getDependencies().forEach(dependency -> maybeAddPolicy(bundle, dependency, orderedPolicies, seenPolicies));
+        overlay.getDependencies(policy).forEach(dependency -> maybeAddPolicy(bundle, overlay, dependency, orderedPolicies, seenPolicies));
         seenPolicies.remove(policy);
         orderedPolicies.add(policy);
     }
@@ -142,15 +149,16 @@ public class PolicyEntityBuilder implements EntityBuilder {
     private void preparePolicy(Policy policy, Bundle bundle, AnnotatedBundle annotatedBundle) {
         Document policyDocument = loadPolicyDocument(policy);
         String policyName = policy.getName();
+        EntityOverlay overlay = EntityOverlay.of(bundle, annotatedBundle);
         AnnotatedEntity annotatedEntity = annotatedBundle != null ? annotatedBundle.getAnnotatedEntity() : null;
         if (annotatedEntity != null) {
-            policyName = annotatedBundle.applyUniqueName(policy.getName(), BundleType.DEPLOYMENT, policy.isParentEntityShared());
+            policyName = annotatedBundle.applyUniqueName(policy.getName(), BundleType.DEPLOYMENT, overlay.isParentEntityShared(policy));
         }
 
         PolicyBuilderContext policyBuilderContext = new PolicyBuilderContext(policyName, policyDocument, bundle, idGenerator);
         policyBuilderContext.withPolicy(policy).withAnnotatedBundle(annotatedBundle);
         policyXMLBuilder.buildPolicyXML(policyBuilderContext);
-        policy.setPolicyDocument(policyDocument.getDocumentElement());
+        overlay.setPolicyDocument(policy, policyDocument.getDocumentElement());
     }
 
     private Document loadPolicyDocument(Policy policy) {
@@ -194,13 +202,14 @@ public class PolicyEntityBuilder implements EntityBuilder {
     @VisibleForTesting
     Entity buildPolicyEntity(Policy policy, AnnotatedBundle annotatedBundle, Bundle bundle, Document document) {
         String policyName = policy.getName();
-        String policyNameWithPath = EntityBuilderHelper.getPath(policy.getParentFolder(), policyName);
+        EntityOverlay overlay = EntityOverlay.of(bundle, annotatedBundle);
+        String policyNameWithPath = EntityBuilderHelper.getPath(policy.getParentFolder(), policyName, overlay);
         policyNameWithPath = CharacterBlacklistUtil.decodePath(policyNameWithPath);
         AnnotatedEntity annotatedEntity = annotatedBundle != null ? annotatedBundle.getAnnotatedEntity() : null;
         boolean isRedeployableBundle = false;
         if (annotatedEntity != null) {
             isRedeployableBundle = annotatedEntity.isRedeployable();
-            policyName = annotatedBundle.applyUniqueName(policyName, BundleType.DEPLOYMENT, policy.isParentEntityShared());
+            policyName = annotatedBundle.applyUniqueName(policyName, BundleType.DEPLOYMENT, overlay.isParentEntityShared(policy));
             policyNameWithPath = PathUtils.extractPath(policyNameWithPath) + policyName;
         }
 
@@ -209,7 +218,7 @@ public class PolicyEntityBuilder implements EntityBuilder {
         Element policyDetailElement = createElementWithAttributesAndChildren(
                 document,
                 POLICY_DETAIL,
-                ImmutableMap.of(ATTRIBUTE_ID, policy.getId(), ATTRIBUTE_GUID, policy.getGuid(), ATTRIBUTE_FOLDER_ID, policy.getParentFolder().getId()),
+                ImmutableMap.of(ATTRIBUTE_ID, overlay.getId(policy), ATTRIBUTE_GUID, overlay.getGuid(policy), ATTRIBUTE_FOLDER_ID, overlay.getParentFolderId(policy)),
                 createElementWithTextContent(document, NAME, policyName),
                 createElementWithTextContent(document, POLICY_TYPE, policyTags == null ? PolicyType.INCLUDE.getType() : policyTags.type.getType())
         );
@@ -229,24 +238,24 @@ public class PolicyEntityBuilder implements EntityBuilder {
         Element policyElement = createElementWithAttributes(
                 document,
                 BundleElementNames.POLICY,
-                ImmutableMap.of(ATTRIBUTE_ID, policy.getId(), ATTRIBUTE_GUID, policy.getGuid())
+                ImmutableMap.of(ATTRIBUTE_ID, overlay.getId(policy), ATTRIBUTE_GUID, overlay.getGuid(policy))
         );
         policyElement.appendChild(policyDetailElement);
 
         Element resourcesElement = document.createElement(RESOURCES);
         Element resourceSetElement = createElementWithAttribute(document, RESOURCE_SET, PROPERTY_TAG, POLICY);
         Element resourceElement = createElementWithAttribute(document, RESOURCE, TYPE, POLICY);
-        resourceElement.setTextContent(documentTools.elementToString(policy.getPolicyDocument()));
+        resourceElement.setTextContent(documentTools.elementToString(overlay.getPolicyDocument(policy)));
 
         resourceSetElement.appendChild(resourceElement);
         resourcesElement.appendChild(resourceSetElement);
         policyElement.appendChild(resourcesElement);
         Entity entity = EntityBuilderHelper.getEntityWithPathMapping(EntityTypes.POLICY_TYPE,
-                policy.getPath(), policyNameWithPath, policy.getId(), policyElement, policy.isHasRouting(), policy);
+                policy.getPath(), policyNameWithPath, overlay.getId(policy), policyElement, policy.isHasRouting(), policy);
 
         if (isRedeployableBundle) {
             entity.setMappingAction(MappingActions.NEW_OR_UPDATE);
-        } else if (policy.isParentEntityShared()) {
+        } else if (overlay.isParentEntityShared(policy)) {
             entity.setMappingAction(MappingActions.NEW_OR_EXISTING);
         } else {
             entity.setMappingAction(EntityBuilderHelper.getDefaultEntityMappingAction());
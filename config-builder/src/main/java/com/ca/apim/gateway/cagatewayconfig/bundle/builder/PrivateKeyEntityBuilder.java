@@ -99,4 +99,9 @@ public class PrivateKeyEntityBuilder implements EntityBuilder {
     public @NotNull Integer getOrder() {
         return ORDER;
     }
+
+    @Override
+    public boolean hasDependentBuilders() {
+        return true;
+    }
 }
@@ -67,13 +67,13 @@ public class ScheduledTaskEntityBuilder implements EntityBuilder {
         if (policy == null) {
             throw new EntityBuilderException("Could not find policy for encass. Policy Path: " + scheduledTask.getPolicy());
         }
-        final String id = idGenerator.generate();
+        final String id = idGenerator.generate(bundle.getProjectInfo(), SCHEDULED_TASK_TYPE, name);
         Element schedTaskElement = createElementWithAttributesAndChildren(
                 document,
                 SCHEDULED_TASK,
                 ImmutableMap.of(ATTRIBUTE_ID, id),
                 createElementWithTextContent(document, NAME, name),
-                createElementWithAttribute(document, POLICY_REFERENCE, ATTRIBUTE_ID, policy.getId()),
+                createElementWithAttribute(document, POLICY_REFERENCE, ATTRIBUTE_ID, bundle.getEntityOverlay().getId(policy)),
                 createElementWithTextContent(document, ONE_NODE, scheduledTask.getIsOneNode()),
                 createElementWithTextContent(document, JOB_TYPE, scheduledTask.getJobType()),
                 createElementWithTextContent(document, JOB_STATUS, scheduledTask.getJobStatus()),
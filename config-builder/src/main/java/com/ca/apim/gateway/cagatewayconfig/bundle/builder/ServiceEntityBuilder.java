@@ -66,11 +66,17 @@ public class ServiceEntityBuilder implements EntityBuilder {
         return ORDER;
     }
 
+    @Override
+    public boolean hasDependentBuilders() {
+        return true;
+    }
+
     private Entity buildServiceEntity(Bundle bundle, Service service, Document document) {
         AnnotatedEntity annotatedEntity = bundle instanceof AnnotatedBundle ? ((AnnotatedBundle) bundle).getAnnotatedEntity() : null;
 
         final String serviceOriginalPath = service.getName();
-        String servicePathWithTargetFolder = EntityBuilderHelper.getPath(service.getParentFolder(), PathUtils.extractName(service.getName()));
+        EntityOverlay overlay = bundle.getEntityOverlay();
+        String servicePathWithTargetFolder = EntityBuilderHelper.getPath(service.getParentFolder(), PathUtils.extractName(service.getName()), overlay);
         servicePathWithTargetFolder = CharacterBlacklistUtil.decodePath(servicePathWithTargetFolder);
         String baseName = PathUtils.extractName(servicePathWithTargetFolder);
         String basePath = PathUtils.extractPath(servicePathWithTargetFolder);
@@ -82,21 +88,18 @@ public class ServiceEntityBuilder implements EntityBuilder {
             uniqueName = bundle.applyUniqueName(baseName, BundleType.DEPLOYMENT);
             uniqueServicePath = basePath + uniqueName;
         }
-        service.setName(uniqueName);
+        overlay.setUniqueName(service, uniqueName);
 
         Policy policy = bundle.getPolicies().get(service.getPolicy());
         final Set<SoapResource> soapResourceBeans = service.getSoapResources();
+        // the loaded resources of the service, their content is only read when the resource element is built
+        final Map<SoapResource, SoapResource> loadedSoapResources = new IdentityHashMap<>();
 
         if (isNotEmpty(soapResourceBeans)) {
+            final Bundle resourcesBundle = bundle instanceof AnnotatedBundle ? ((AnnotatedBundle) bundle).getFullBundle() : bundle;
             soapResourceBeans.forEach(soapResourceBean -> {
                 String path = PathUtils.unixPath(service.getParentFolder().getPath(), baseName, soapResourceBean.getFileName());
-                String content;
-                if (bundle instanceof AnnotatedBundle) {
-                    content = ((AnnotatedBundle) bundle).getFullBundle().getSoapResources().get(path).getContent();
-                } else {
-                    content = bundle.getSoapResources().get(path).getContent();
-                }
-                soapResourceBean.setContent(content);
+                loadedSoapResources.put(soapResourceBean, resourcesBundle.getSoapResources().get(path));
             });
         }
 
@@ -105,12 +108,12 @@ public class ServiceEntityBuilder implements EntityBuilder {
             throw new EntityBuilderException("Could not find policy for service. Policy Path: " + service.getPolicy());
         }
 
-        if (service.getId() == null) {
-            service.setId(idGenerator.generate());
+        if (overlay.getId(service) == null) {
+            overlay.setId(service, idGenerator.generate(bundle.getProjectInfo(), SERVICE_TYPE, uniqueServicePath));
         }
-        String id = service.getId();
+        String id = overlay.getId(service);
 
-        Element serviceDetailElement = createElementWithAttributes(document, SERVICE_DETAIL, ImmutableMap.of(ATTRIBUTE_ID, id, ATTRIBUTE_FOLDER_ID, service.getParentFolder().getId()));
+        Element serviceDetailElement = createElementWithAttributes(document, SERVICE_DETAIL, ImmutableMap.of(ATTRIBUTE_ID, id, ATTRIBUTE_FOLDER_ID, overlay.getParentFolderId(service)));
         serviceDetailElement.appendChild(createElementWithTextContent(document, NAME, uniqueName));
         serviceDetailElement.appendChild(createElementWithTextContent(document, ENABLED, Boolean.TRUE.toString()));
         serviceDetailElement.appendChild(buildServiceMappings(service, document));
@@ -123,7 +126,7 @@ public class ServiceEntityBuilder implements EntityBuilder {
                     .stream()
                     .collect(Collectors
                             .toMap(p -> "property." + p.getKey(),
-                                    p -> p.getKey().startsWith(PREFIX_ENV) ? "SERVICE_PROPERTY_" + insertPrefixToEnvironmentVariable(p.getKey(), service.getName()) : p.getValue()));
+                                    p -> p.getKey().startsWith(PREFIX_ENV) ? "SERVICE_PROPERTY_" + insertPrefixToEnvironmentVariable(p.getKey(), overlay.getUniqueName(service)) : p.getValue()));
         }
 
         if (properties == null) {
@@ -145,7 +148,7 @@ public class ServiceEntityBuilder implements EntityBuilder {
         Element resourcesElement = document.createElement(RESOURCES);
         Element policyResourceSetElement = createElementWithAttribute(document, RESOURCE_SET, ATTRIBUTE_TAG, TAG_VALUE_POLICY);
         Element policyResourceElement = createElementWithAttribute(document, RESOURCE, ATTRIBUTE_TYPE, TAG_VALUE_POLICY);
-        policyResourceElement.setTextContent(documentTools.elementToString(policy.getPolicyDocument()));
+        policyResourceElement.setTextContent(documentTools.elementToString(overlay.getPolicyDocument(policy)));
         policyResourceSetElement.appendChild(policyResourceElement);
         resourcesElement.appendChild(policyResourceSetElement);
 
@@ -153,7 +156,7 @@ public class ServiceEntityBuilder implements EntityBuilder {
             Element wsdlResourceSetElement = createElementWithAttributes(document, RESOURCE_SET, ImmutableMap.of(ATTRIBUTE_TAG, TAG_VALUE_WSDL, ATTRIBUTE_ROOT_URL, service.getWsdlRootUrl()));
             soapResourceBeans.forEach(soapResourceBean -> {
                 Element resourceElement = createElementWithAttributes(document, RESOURCE, ImmutableMap.of(ATTRIBUTE_TYPE, soapResourceBean.getType(), ATTRIBUTE_SOURCE_URL, soapResourceBean.getRootUrl()));
-                resourceElement.setTextContent(soapResourceBean.getContent());
+                resourceElement.setTextContent(loadedSoapResources.get(soapResourceBean).getContent());
                 wsdlResourceSetElement.appendChild(resourceElement);
             });
             resourcesElement.appendChild(wsdlResourceSetElement);
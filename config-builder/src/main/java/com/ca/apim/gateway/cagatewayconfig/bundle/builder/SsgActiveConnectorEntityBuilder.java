@@ -9,6 +9,7 @@ import org.w3c.dom.Element;
 
 import javax.inject.Inject;
 import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -18,6 +19,7 @@ import java.util.stream.Stream;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.getDeploymentBundle;
 import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.LISTEN_PORT_TYPE;
 import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.SSG_ACTIVE_CONNECTOR;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.STORED_PASSWORD_TYPE;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BuilderUtils.buildAndAppendPropertiesElement;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.createElementWithAttribute;
@@ -48,8 +50,10 @@ public class SsgActiveConnectorEntityBuilder implements EntityBuilder {
 
         switch (bundleType) {
             case DEPLOYMENT:
-                final Stream<Entity> activeConnectorOnlyMappings = entities.entrySet().stream().map(ssgActiveConnectorEntry ->
-                        EntityBuilderHelper.getEntityWithOnlyMapping(EntityTypes.SSG_ACTIVE_CONNECTOR, bundle.applyUniqueName(ssgActiveConnectorEntry.getKey(), BundleType.ENVIRONMENT), generateId(ssgActiveConnectorEntry.getValue())));
+                final Stream<Entity> activeConnectorOnlyMappings = entities.entrySet().stream().map(ssgActiveConnectorEntry -> {
+                    final String name = bundle.applyUniqueName(ssgActiveConnectorEntry.getKey(), BundleType.ENVIRONMENT);
+                    return EntityBuilderHelper.getEntityWithOnlyMapping(EntityTypes.SSG_ACTIVE_CONNECTOR, name, generateId(bundle, name, ssgActiveConnectorEntry.getValue()));
+                });
                 return activeConnectorOnlyMappings.collect(toList());
             case ENVIRONMENT:
                 final Stream<Entity> activeConnectors = entities.entrySet().stream().map(ssgActiveConnectorEntry ->
@@ -64,7 +68,7 @@ public class SsgActiveConnectorEntityBuilder implements EntityBuilder {
     Entity buildActiveConnectorEntity(Bundle bundle, String name, SsgActiveConnector ssgActiveConnector, Document document) {
         Element activeConnectorElement = document.createElement(ACTIVE_CONNECTOR);
 
-        String id = generateId(ssgActiveConnector);
+        String id = generateId(bundle, name, ssgActiveConnector);
         activeConnectorElement.setAttribute(ATTRIBUTE_ID, id);
         activeConnectorElement.appendChild(createElementWithTextContent(document, NAME, name));
         activeConnectorElement.appendChild(createElementWithTextContent(document, ENABLED, TRUE.toString()));
@@ -74,40 +78,43 @@ public class SsgActiveConnectorEntityBuilder implements EntityBuilder {
         if (ssgActiveConnector.getTargetServiceReference() != null) {
             activeConnectorElement.appendChild(createServiceElement(bundle, name, ssgActiveConnector, document));
         }
-        updatePasswordRef(bundle, ssgActiveConnector);
-        updatePrivateKeyRef(bundle, ssgActiveConnector);
-        buildAndAppendPropertiesElement(ssgActiveConnector.getProperties(), document, activeConnectorElement);
+        // the references are resolved in a copy, the loaded connector is shared by all bundles built from the project
+        final Map<String, Object> properties = new LinkedHashMap<>(ssgActiveConnector.getProperties());
+        updatePasswordRef(bundle, ssgActiveConnector, properties);
+        updatePrivateKeyRef(bundle, ssgActiveConnector, properties);
+        buildAndAppendPropertiesElement(properties, document, activeConnectorElement);
 
         return EntityBuilderHelper.getEntityWithNameMapping(SSG_ACTIVE_CONNECTOR, name, id, activeConnectorElement);
     }
 
-    private String generateId(SsgActiveConnector ssgActiveConnector) {
+    private String generateId(Bundle bundle, String name, SsgActiveConnector ssgActiveConnector) {
         if (ssgActiveConnector != null && ssgActiveConnector.getAnnotatedEntity() != null && ssgActiveConnector.getAnnotatedEntity().getId() != null) {
             return ssgActiveConnector.getAnnotatedEntity().getId();
         }
-        return idGenerator.generate();
+        return idGenerator.generate(bundle.getProjectInfo(), SSG_ACTIVE_CONNECTOR, name);
     }
 
-    private void updatePasswordRef(Bundle bundle, SsgActiveConnector entity) {
-        entity.getProperties().entrySet().stream().forEach(entry -> {
+    private void updatePasswordRef(Bundle bundle, SsgActiveConnector entity, Map<String, Object> properties) {
+        properties.entrySet().stream().forEach(entry -> {
             if (entry.getKey().endsWith("SecurePasswordOid")) {
                 String value = (String) entry.getValue();
                 if (value == null || value.isEmpty()) {
                     return;
                 }
-                StoredPassword storedPassword = bundle.getEntities(StoredPassword.class).values().stream().filter(s -> s.getKey().equals(value)).findFirst().orElse(null);
-                if (storedPassword == null) {
+                String storedPasswordName = bundle.getEntities(StoredPassword.class).entrySet().stream().filter(s -> s.getValue().getKey().equals(value)).map(Map.Entry::getKey).findFirst().orElse(null);
+                if (storedPasswordName == null) {
                     throw new EntityBuilderException("Could not find password for Active Connector: " + entity.getName() + ". Password Reference: " + value);
                 }
-                entry.setValue(storedPassword.getId());
+                // same id the stored password builder derives from the name, so the builders can run in any order
+                entry.setValue(idGenerator.generate(bundle.getProjectInfo(), STORED_PASSWORD_TYPE, storedPasswordName));
             }
         });
     }
 
-    private void updatePrivateKeyRef(Bundle bundle, SsgActiveConnector entity) {
+    private void updatePrivateKeyRef(Bundle bundle, SsgActiveConnector entity, Map<String, Object> properties) {
         final AtomicReference<String> privateKeyRef = new AtomicReference<>();
         final AtomicReference<String> key = new AtomicReference<>();
-        entity.getProperties().entrySet().stream().forEach(entry -> {
+        properties.entrySet().stream().forEach(entry -> {
             if (entry.getKey().endsWith("SslKeystoreAlias")) {
                 String value = (String) entry.getValue();
                 if (value == null || value.isEmpty()) {
@@ -122,7 +129,7 @@ public class SsgActiveConnectorEntityBuilder implements EntityBuilder {
                 key.set(entry.getKey().replace("SslKeystoreAlias", "SslKeystoreId"));
             }
         });
-        entity.getProperties().put(key.get(), privateKeyRef.get());
+        properties.put(key.get(), privateKeyRef.get());
     }
 
     private Element createServiceElement(Bundle bundle, String name, SsgActiveConnector ssgActiveConnector, Document document) {
@@ -130,7 +137,7 @@ public class SsgActiveConnectorEntityBuilder implements EntityBuilder {
         Service service = bundle.getServices().get(targetServiceReference);
 
         if (service == null || service.getId() == null) {
-            service = getDeploymentBundle().getServices().get(targetServiceReference);
+            service = getDeploymentBundle(bundle).getServices().get(targetServiceReference);
         }
 
         if (service == null) {
@@ -54,18 +54,18 @@ public class StoredPasswordEntityBuilder implements EntityBuilder {
         switch (bundleType) {
             case DEPLOYMENT:
                 return entities.keySet().stream()
-                        .map(o -> EntityBuilderHelper.getEntityWithOnlyMapping(STORED_PASSWORD_TYPE, o, idGenerator.generate()))
+                        .map(o -> EntityBuilderHelper.getEntityWithOnlyMapping(STORED_PASSWORD_TYPE, o, idGenerator.generate(bundle.getProjectInfo(), STORED_PASSWORD_TYPE, o)))
                         .collect(Collectors.toList());
             case ENVIRONMENT:
-                return entities.entrySet().stream().map(e -> buildStoredPasswordEntity(e.getKey(), (StoredPassword) e.getValue(), document)).collect(toList());
+                return entities.entrySet().stream().map(e -> buildStoredPasswordEntity(bundle, e.getKey(), (StoredPassword) e.getValue(), document)).collect(toList());
             default:
                 throw new EntityBuilderException("Unknown bundle type: " + bundleType);
         }
     }
 
-    private Entity buildStoredPasswordEntity(String name, StoredPassword storedPassword, Document document) {
-        String id = idGenerator.generate();
-        storedPassword.setId(id);
+    private Entity buildStoredPasswordEntity(Bundle bundle, String name, StoredPassword storedPassword, Document document) {
+        String id = idGenerator.generate(bundle.getProjectInfo(), STORED_PASSWORD_TYPE, name);
+        bundle.getEntityOverlay().setId(storedPassword, id);
 
         Element storedPasswordElement = createElementWithAttribute(document, STORED_PASSWD, ATTRIBUTE_ID, id);
         storedPasswordElement.appendChild(createElementWithTextContent(document, NAME, name));
@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.inject.Singleton;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Set;
+
+import static com.ca.apim.gateway.cagatewayconfig.beans.EntityTypeRegistry.NON_ENV_ENTITY_TYPES;
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleDocumentBuilder.GATEWAY_MANAGEMENT;
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleDocumentBuilder.L7;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.FOLDER_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.readElement;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Builds the DELETE bundle of a deployment bundle from the deployment bundle file. The gateway deletes entities by
+ * their mappings, so only the mappings of the deployment bundle are read, in a single pass over the file, and the items
+ * are skipped without being parsed.
+ * <p>
+ * The DELETE bundle has the mappings of the non environment entities other than folders, in the reverse order of the
+ * deployment bundle and with the DELETE action, the same ones {@link BundleEntityBuilder} builds for bundles that are
+ * not annotated or are redeployable. The full DELETE bundle reads the mappings of the dependency bundles the same way.
+ */
+@Singleton
+public class StreamedDeleteBundleBuilder {
+
+    private final XMLInputFactory inputFactory;
+
+    public StreamedDeleteBundleBuilder() {
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Builds the DELETE bundle element.
+     *
+     * @param bundleFile the deployment bundle file
+     * @param document   the document to create the DELETE bundle in
+     * @return the DELETE bundle element
+     */
+    public Element build(final File bundleFile, final Document document) {
+        final Element references = document.createElement(REFERENCES);
+        final Element mappings = document.createElement(MAPPINGS);
+        final Element bundle = document.createElement(BUNDLE);
+        bundle.appendChild(references);
+        bundle.appendChild(mappings);
+        bundle.setAttribute(L7, GATEWAY_MANAGEMENT);
+
+        readDeleteMappings(bundleFile, document, new HashSet<>()).stream()
+                .filter(mapping -> isDeleted(mapping.getAttribute(ATTRIBUTE_TYPE)))
+                .forEach(mappings::appendChild);
+        return bundle;
+    }
+
+    /**
+     * Reads the mappings of a bundle file with the DELETE action, in the reverse order of the bundle. The items are not
+     * read, only their ids and types are added to the item keys, as "id:type" like the mapping keys.
+     *
+     * @param bundleFile the bundle file
+     * @param document   the document to create the mappings in
+     * @param itemKeys   the set the keys of the bundle items are added to
+     * @return the mappings, not appended to the document
+     */
+    public List<Element> readDeleteMappings(final File bundleFile, final Document document, final Set<String> itemKeys) {
+        // the entities are deleted in the reverse order they were deployed
+        final LinkedList<Element> deleteMappings = new LinkedList<>();
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(bundleFile.toPath()))) {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+            try {
+                String section = null;
+                String id = null;
+                String type = null;
+                int depth = 0;
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == START_ELEMENT) {
+                        depth++;
+                        final String name = isEmpty(reader.getPrefix()) ? reader.getLocalName() : reader.getPrefix() + ":" + reader.getLocalName();
+                        if (depth == 2) {
+                            section = name;
+                        } else if (depth == 3 && MAPPINGS.equals(section) && MAPPING.equals(name)) {
+                            // the reader is left at the end of the mapping
+                            final Element mapping = readElement(reader, document);
+                            depth--;
+                            mapping.setAttribute(ATTRIBUTE_ACTION, MappingActions.DELETE);
+                            deleteMappings.addFirst(mapping);
+                        } else if (depth == 4 && REFERENCES.equals(section) && (ID.equals(name) || TYPE.equals(name))) {
+                            // the reader is left at the end of the id or type
+                            final String text = reader.getElementText();
+                            depth--;
+                            if (ID.equals(name)) {
+                                id = text;
+                            } else {
+                                type = text;
+                            }
+                        }
+                    } else if (event == END_ELEMENT) {
+                        if (depth == 3 && REFERENCES.equals(section)) {
+                            itemKeys.add(id + ":" + type);
+                            id = null;
+                            type = null;
+                        }
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new BundleLoadException("Could not read bundle '" + bundleFile.getName() + "': " + e.getMessage(), e);
+        }
+        return deleteMappings;
+    }
+
+    private static boolean isDeleted(final String type) {
+        return NON_ENV_ENTITY_TYPES.contains(type) && !FOLDER_TYPE.equals(type);
+    }
+}
@@ -20,13 +20,10 @@ import org.w3c.dom.Element;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.net.ssl.SSLSocket;
 import javax.net.ssl.SSLSocketFactory;
-import java.io.IOException;
 import java.io.InputStream;
 import java.net.MalformedURLException;
 import java.net.URL;
-import java.security.cert.Certificate;
 import java.security.cert.CertificateEncodingException;
 import java.security.cert.CertificateFactory;
 import java.security.cert.X509Certificate;
@@ -72,42 +69,51 @@ public class TrustedCertEntityBuilder implements EntityBuilder {
             case DEPLOYMENT:
                 return entities.entrySet().stream()
                         .map(
-                                trustedCertEntry -> EntityBuilderHelper.getEntityWithOnlyMapping(TRUSTED_CERT_TYPE, trustedCertEntry.getKey(), generateCertificateId((TrustedCert)trustedCertEntry.getValue()))
+                                trustedCertEntry -> EntityBuilderHelper.getEntityWithOnlyMapping(TRUSTED_CERT_TYPE, trustedCertEntry.getKey(), generateCertificateId(bundle, trustedCertEntry.getKey(), (TrustedCert)trustedCertEntry.getValue()))
                         ).collect(Collectors.toList());
             case ENVIRONMENT:
+                final Map<String, X509Certificate> urlCertificates = fetchUrlCertificates(entities.keySet());
                 return entities.entrySet().stream().map(trustedCertEntry ->
-                        buildTrustedCertEntity(trustedCertEntry.getKey(), (TrustedCert) trustedCertEntry.getValue(), bundle.getCertificateFiles(), document)
+                        buildTrustedCertEntity(bundle, trustedCertEntry.getKey(), (TrustedCert) trustedCertEntry.getValue(), bundle.getCertificateFiles(), urlCertificates, document)
                 ).collect(Collectors.toList());
             default:
                 throw new EntityBuilderException("Unknown bundle type: " + bundleType);
         }
     }
 
-    private Entity buildTrustedCertEntity(String name, TrustedCert trustedCert, Map<String, SupplierWithIO<InputStream>> certificateFiles, Document document) {
-        final String id = generateCertificateId(trustedCert);
-        trustedCert.setId(id);
+    private Map<String, X509Certificate> fetchUrlCertificates(Set<String> names) {
+        final List<URL> urls = names.stream().filter(TrustedCertEntityBuilder::isUrl).map(this::getUrl).collect(Collectors.toList());
+        if (urls.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return TrustedCertUrlFetcher.fromSystemProperties(acceptAllSocketFactory, certFactory).fetch(urls);
+    }
+
+    private Entity buildTrustedCertEntity(Bundle bundle, String name, TrustedCert trustedCert, Map<String, SupplierWithIO<InputStream>> certificateFiles, Map<String, X509Certificate> urlCertificates, Document document) {
+        final String id = generateCertificateId(bundle, name, trustedCert);
+        bundle.getEntityOverlay().setId(trustedCert, id);
         final Element trustedCertElem = createElementWithAttributesAndChildren(
                 document,
                 TRUSTED_CERT,
                 ImmutableMap.of(ATTRIBUTE_ID, id),
                 createElementWithTextContent(document, NAME, name),
-                buildCertData(name, trustedCert, certificateFiles, document)
+                buildCertData(name, trustedCert, certificateFiles, urlCertificates, document)
         );
         buildAndAppendPropertiesElement(trustedCert.createProperties(), document, trustedCertElem);
 
         return EntityBuilderHelper.getEntityWithNameMapping(TRUSTED_CERT_TYPE, name, id, trustedCertElem);
     }
 
-    private String generateCertificateId(TrustedCert trustedCert) {
+    private String generateCertificateId(Bundle bundle, String name, TrustedCert trustedCert) {
         if (trustedCert != null && trustedCert.getAnnotatedEntity() != null && trustedCert.getAnnotatedEntity().getId() != null) {
             return trustedCert.getAnnotatedEntity().getId();
         }
-        return idGenerator.generate();
+        return idGenerator.generate(bundle.getProjectInfo(), TRUSTED_CERT_TYPE, name);
     }
 
-    private Element buildCertData(String name, TrustedCert trustedCert, Map<String, SupplierWithIO<InputStream>> certificateFiles, Document document) {
-        if (name.startsWith("https://")) {
-            return buildCertDataFromUrl(name, document);
+    private Element buildCertData(String name, TrustedCert trustedCert, Map<String, SupplierWithIO<InputStream>> certificateFiles, Map<String, X509Certificate> urlCertificates, Document document) {
+        if (isUrl(name)) {
+            return buildCertDataFromUrl(urlCertificates.get(TrustedCertUrlFetcher.key(getUrl(name))), document);
         } else if (certificateFiles.get(name) != null) {
             return buildCertDataFromFile(certificateFiles.get(name), document, certFactory);
         } else if (trustedCert.getCertificateData() != null) {
@@ -125,33 +131,24 @@ public class TrustedCertEntityBuilder implements EntityBuilder {
         }
     }
 
-    private Element buildCertDataFromUrl(String name, Document document) {
-        final URL url = getUrl(name);
-        final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
-        try (SSLSocket socket = (SSLSocket) acceptAllSocketFactory.createSocket(url.getHost(), port)) {
-            socket.startHandshake();
-            Certificate[] certs = socket.getSession().getPeerCertificates();
-            if (certs.length > 0) {
-                //Just add leaf cert if a chain is presented
-                if (certs[0] instanceof X509Certificate) {
-                    final X509Certificate cert = (X509Certificate) certs[0];
-                    return createCertDataElementFromCert(
-                            cert.getIssuerDN().getName(),
-                            cert.getSerialNumber(),
-                            cert.getSubjectDN().getName(),
-                            Base64.getEncoder().encodeToString(cert.getEncoded()),
-                            document
-                    );
-                } else {
-                    throw new EntityBuilderException("Certificate from url is not in X.509 format.");
-                }
-            }
-            throw new EntityBuilderException("No certificates were found in the given url.");
-        } catch (IOException | CertificateEncodingException e) {
+    private Element buildCertDataFromUrl(X509Certificate cert, Document document) {
+        try {
+            return createCertDataElementFromCert(
+                    cert.getIssuerDN().getName(),
+                    cert.getSerialNumber(),
+                    cert.getSubjectDN().getName(),
+                    Base64.getEncoder().encodeToString(cert.getEncoded()),
+                    document
+            );
+        } catch (CertificateEncodingException e) {
             throw new EntityBuilderException(e.getMessage());
         }
     }
 
+    private static boolean isUrl(String name) {
+        return name.startsWith("https://");
+    }
+
     @NotNull
     @VisibleForTesting
     URL getUrl(String name) {
@@ -168,4 +165,9 @@ public class TrustedCertEntityBuilder implements EntityBuilder {
     public @NotNull Integer getOrder() {
         return ORDER;
     }
+
+    @Override
+    public boolean hasDependentBuilders() {
+        return true;
+    }
 }
@@ -0,0 +1,229 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import javax.net.ssl.SSLSocket;
+import javax.net.ssl.SSLSocketFactory;
+import java.io.*;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.cert.Certificate;
+import java.security.cert.CertificateEncodingException;
+import java.security.cert.CertificateException;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.concurrent.FutureUtils.join;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Fetches the leaf certificates presented by https urls. Every distinct host and port is fetched once, concurrently,
+ * with connect and read timeouts. Fetched certificates can be kept in a persistent cache file, keyed by host and port,
+ * so builds within the cache time to live don't need to connect to the endpoints again. In offline mode certificates
+ * are only taken from the cache.
+ */
+class TrustedCertUrlFetcher {
+
+    private static final Logger LOGGER = Logger.getLogger(TrustedCertUrlFetcher.class.getName());
+    /**
+     * Path of the file used as persistent certificate cache. No cache file is used if not set.
+     */
+    static final String CACHE_FILE = "com.ca.apim.build.trustedCertCacheFile";
+    /**
+     * Time to live of the cached certificates, in seconds.
+     */
+    static final String CACHE_TTL = "com.ca.apim.build.trustedCertCacheTtl";
+    /**
+     * When true certificates are only taken from the cache file, failing if they are missing or expired.
+     */
+    static final String OFFLINE = "com.ca.apim.build.trustedCertOffline";
+    static final String CONNECT_TIMEOUT = "com.ca.apim.build.trustedCertConnectTimeout";
+    static final String READ_TIMEOUT = "com.ca.apim.build.trustedCertReadTimeout";
+    private static final long DEFAULT_CACHE_TTL = 24 * 60 * 60L;
+    private static final int DEFAULT_TIMEOUT = 10000;
+    private static final int MAX_CONCURRENT_FETCHES = 8;
+    private static final String CACHE_VALUE_SEPARATOR = ":";
+
+    private final SSLSocketFactory socketFactory;
+    private final CertificateFactory certFactory;
+    private final Path cacheFile;
+    private final long cacheTtlMillis;
+    private final boolean offline;
+    private final int connectTimeout;
+    private final int readTimeout;
+
+    TrustedCertUrlFetcher(SSLSocketFactory socketFactory, CertificateFactory certFactory, Path cacheFile, long cacheTtlSeconds, boolean offline, int connectTimeout, int readTimeout) {
+        this.socketFactory = socketFactory;
+        this.certFactory = certFactory;
+        this.cacheFile = cacheFile;
+        this.cacheTtlMillis = cacheTtlSeconds * 1000;
+        this.offline = offline;
+        this.connectTimeout = connectTimeout;
+        this.readTimeout = readTimeout;
+    }
+
+    /**
+     * Creates a fetcher configured by the trusted cert system properties.
+     */
+    static TrustedCertUrlFetcher fromSystemProperties(SSLSocketFactory socketFactory, CertificateFactory certFactory) {
+        final String cacheFile = System.getProperty(CACHE_FILE);
+        return new TrustedCertUrlFetcher(
+                socketFactory,
+                certFactory,
+                cacheFile == null || cacheFile.isEmpty() ? null : Paths.get(cacheFile),
+                Long.getLong(CACHE_TTL, DEFAULT_CACHE_TTL),
+                Boolean.getBoolean(OFFLINE),
+                Integer.getInteger(CONNECT_TIMEOUT, DEFAULT_TIMEOUT),
+                Integer.getInteger(READ_TIMEOUT, DEFAULT_TIMEOUT)
+        );
+    }
+
+    /**
+     * Fetches the leaf certificates of the given urls.
+     *
+     * @param urls the https urls to get certificates from
+     * @return the certificates keyed by host and port, as returned by {@link #key(URL)}
+     */
+    Map<String, X509Certificate> fetch(Collection<URL> urls) {
+        final Map<String, URL> urlsToFetch = new LinkedHashMap<>();
+        urls.forEach(url -> urlsToFetch.putIfAbsent(key(url), url));
+        if (urlsToFetch.isEmpty()) {
+            return Collections.emptyMap();
+        }
+
+        final Properties cache = loadCache();
+        final long now = System.currentTimeMillis();
+        final Map<String, X509Certificate> certificates = new HashMap<>();
+        for (Iterator<String> it = urlsToFetch.keySet().iterator(); it.hasNext(); ) {
+            final String key = it.next();
+            final X509Certificate cached = getCached(cache, key, now);
+            if (cached != null) {
+                certificates.put(key, cached);
+                it.remove();
+            } else if (offline) {
+                throw new EntityBuilderException("Certificate for " + key + " is not in the trusted certificate cache and fetching is disabled in offline mode.");
+            }
+        }
+        if (urlsToFetch.isEmpty()) {
+            return certificates;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_FETCHES, urlsToFetch.size()));
+        try {
+            final List<CompletableFuture<X509Certificate>> futures = urlsToFetch.values().stream()
+                    .map(url -> supplyAsync(() -> fetchCertificate(url), executor))
+                    .collect(toList());
+            final Iterator<String> keyIterator = urlsToFetch.keySet().iterator();
+            for (CompletableFuture<X509Certificate> future : futures) {
+                final String key = keyIterator.next();
+                final X509Certificate certificate = join(future);
+                certificates.put(key, certificate);
+                putCached(cache, key, certificate, now);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        storeCache(cache);
+        return certificates;
+    }
+
+    /**
+     * @return the key used for the url in the cache and in the fetched certificates
+     */
+    static String key(URL url) {
+        return url.getHost().toLowerCase(Locale.ROOT) + ":" + (url.getPort() == -1 ? url.getDefaultPort() : url.getPort());
+    }
+
+    private X509Certificate fetchCertificate(URL url) {
+        final int port = url.getPort() == -1 ? url.getDefaultPort() : url.getPort();
+        try (SSLSocket socket = (SSLSocket) socketFactory.createSocket()) {
+            socket.connect(new InetSocketAddress(url.getHost(), port), connectTimeout);
+            socket.setSoTimeout(readTimeout);
+            socket.startHandshake();
+            Certificate[] certs = socket.getSession().getPeerCertificates();
+            if (certs.length > 0) {
+                //Just add leaf cert if a chain is presented
+                if (certs[0] instanceof X509Certificate) {
+                    return (X509Certificate) certs[0];
+                } else {
+                    throw new EntityBuilderException("Certificate from url is not in X.509 format.");
+                }
+            }
+            throw new EntityBuilderException("No certificates were found in the given url.");
+        } catch (IOException e) {
+            throw new EntityBuilderException(e.getMessage(), e);
+        }
+    }
+
+    private X509Certificate getCached(Properties cache, String key, long now) {
+        final String value = cache.getProperty(key);
+        if (value == null) {
+            return null;
+        }
+        final int separator = value.indexOf(CACHE_VALUE_SEPARATOR);
+        try {
+            if (separator < 0 || now - Long.parseLong(value.substring(0, separator)) > cacheTtlMillis) {
+                return null;
+            }
+            final byte[] encoded = Base64.getDecoder().decode(value.substring(separator + 1));
+            return (X509Certificate) certFactory.generateCertificate(new ByteArrayInputStream(encoded));
+        } catch (IllegalArgumentException | CertificateException | ClassCastException e) {
+            LOGGER.log(Level.WARNING, "Ignoring invalid cached certificate for {0}: {1}", new Object[]{key, e.getMessage()});
+            return null;
+        }
+    }
+
+    private void putCached(Properties cache, String key, X509Certificate certificate, long now) {
+        try {
+            cache.setProperty(key, now + CACHE_VALUE_SEPARATOR + Base64.getEncoder().encodeToString(certificate.getEncoded()));
+        } catch (CertificateEncodingException e) {
+            throw new EntityBuilderException("Unable to encode certificate for " + key + ": " + e.getMessage(), e);
+        }
+    }
+
+    private Properties loadCache() {
+        final Properties cache = new Properties();
+        if (cacheFile != null && Files.isRegularFile(cacheFile)) {
+            try (Reader reader = Files.newBufferedReader(cacheFile, UTF_8)) {
+                cache.load(reader);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Unable to read trusted certificate cache {0}: {1}", new Object[]{cacheFile, e.getMessage()});
+            }
+        }
+        return cache;
+    }
+
+    private void storeCache(Properties cache) {
+        if (cacheFile == null) {
+            return;
+        }
+        try {
+            final Path directory = cacheFile.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            // written to a temporary file first so concurrent builds never read a partial cache
+            final Path temporaryFile = Files.createTempFile(directory, cacheFile.getFileName().toString(), ".tmp");
+            try (Writer writer = Files.newBufferedWriter(temporaryFile, UTF_8)) {
+                cache.store(writer, "Trusted certificates fetched from https urls");
+            }
+            Files.move(temporaryFile, cacheFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Unable to write trusted certificate cache {0}: {1}", new Object[]{cacheFile, e.getMessage()});
+        }
+    }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.deploy;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.google.common.hash.Hashing;
+import org.apache.http.entity.FileEntity;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanBundleEndpoint;
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+import static com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils.unixPath;
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+import static org.apache.commons.lang3.StringUtils.removeEnd;
+import static org.apache.http.HttpHeaders.CONTENT_TYPE;
+import static org.apache.http.client.methods.HttpPut.METHOD_NAME;
+import static org.apache.http.client.methods.RequestBuilder.create;
+
+/**
+ * Imports bundle files into a gateway, skipping the bundles that were already imported into it with the same content.
+ * <p>
+ * The manifest file keeps the sha256 digest of every bundle imported, by gateway url and bundle path. The path is
+ * relative to the base directory, so the manifest still holds when the project is checked out somewhere else, and
+ * bundles with the same file name in different folders are told apart. A bundle is
+ * recorded in the manifest only once the gateway accepted it, and the manifest is saved after every import, so a run
+ * that fails half way imports again only the bundles that were not imported. The manifest does not see changes made on
+ * the gateway itself, to undo them force the import so every bundle is imported again.
+ */
+public class BundleImporter {
+
+    private static final Logger LOGGER = Logger.getLogger(BundleImporter.class.getName());
+    private static final TypeReference<TreeMap<String, TreeMap<String, String>>> MANIFEST_TYPE = new TypeReference<TreeMap<String, TreeMap<String, String>>>() {
+    };
+
+    private final GatewayClient gatewayClient;
+    private final String url;
+    private final String userName;
+    private final String password;
+    private final Path baseDirectory;
+    private final File manifestFile;
+
+    public BundleImporter(GatewayClient gatewayClient, String url, String userName, String password, File baseDirectory, File manifestFile) {
+        this.gatewayClient = gatewayClient;
+        this.url = url;
+        this.userName = userName;
+        this.password = password;
+        this.baseDirectory = baseDirectory.toPath().toAbsolutePath().normalize();
+        this.manifestFile = manifestFile;
+    }
+
+    /**
+     * Imports the bundles in order, one request per bundle.
+     *
+     * @param bundleFiles the bundle files to import
+     * @param force       true to import the bundles even if they were already imported
+     * @return the bundle files that were imported, the others were skipped
+     */
+    public List<File> importBundles(final Collection<File> bundleFiles, final boolean force) {
+        final SortedMap<String, TreeMap<String, String>> manifest = readManifest();
+        // the same gateway with or without a trailing slash
+        final SortedMap<String, String> importedDigests = manifest.computeIfAbsent(removeEnd(url, "/"), u -> new TreeMap<>());
+
+        final List<File> importedBundles = new ArrayList<>();
+        for (File bundleFile : bundleFiles) {
+            final String bundleKey = getBundleKey(bundleFile);
+            final String digest = digest(bundleFile);
+            if (!force && digest.equals(importedDigests.get(bundleKey))) {
+                LOGGER.log(Level.INFO, "Skipping {0}, it is already imported", bundleFile.getName());
+                continue;
+            }
+
+            gatewayClient.makeGatewayAPICall(
+                    create(METHOD_NAME)
+                            .setUri(getRestmanBundleEndpoint(url))
+                            .setEntity(new FileEntity(bundleFile))
+                            .setHeader(CONTENT_TYPE, "application/xml"),
+                    userName,
+                    password
+            );
+            importedDigests.put(bundleKey, digest);
+            writeManifest(manifest);
+            importedBundles.add(bundleFile);
+        }
+        return importedBundles;
+    }
+
+    // bundles outside the base directory are kept by their absolute path
+    private String getBundleKey(final File bundleFile) {
+        final Path bundlePath = bundleFile.toPath().toAbsolutePath().normalize();
+        return unixPath(bundlePath.startsWith(baseDirectory) ? baseDirectory.relativize(bundlePath) : bundlePath);
+    }
+
+    private static String digest(final File bundleFile) {
+        try {
+            return com.google.common.io.Files.asByteSource(bundleFile).hash(Hashing.sha256()).toString();
+        } catch (IOException e) {
+            throw new BundleImportException("Could not read bundle " + bundleFile + ": " + e.getMessage(), e);
+        }
+    }
+
+    private SortedMap<String, TreeMap<String, String>> readManifest() {
+        if (!manifestFile.isFile()) {
+            return new TreeMap<>();
+        }
+        try {
+            return JsonTools.INSTANCE.getObjectMapper(JSON).readValue(manifestFile, MANIFEST_TYPE);
+        } catch (IOException e) {
+            // without the manifest every bundle is imported, which is always safe
+            LOGGER.log(Level.WARNING, "Could not read import manifest {0}, importing every bundle: {1}", new Object[]{manifestFile, e.getMessage()});
+            return new TreeMap<>();
+        }
+    }
+
+    // written next to the manifest and moved over it, so an interrupted write does not leave a broken manifest
+    private void writeManifest(final SortedMap<String, TreeMap<String, String>> manifest) {
+        final File manifestDirectory = manifestFile.getAbsoluteFile().getParentFile();
+        final File tempFile = new File(manifestDirectory, manifestFile.getName() + ".tmp");
+        try {
+            Files.createDirectories(manifestDirectory.toPath());
+            JsonTools.INSTANCE.getObjectWriter(JSON).writeValue(tempFile, manifest);
+            Files.move(tempFile.toPath(), manifestFile.toPath(), REPLACE_EXISTING, ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new BundleImportException("Could not write import manifest " + manifestFile + ": " + e.getMessage(), e);
+        }
+    }
+}
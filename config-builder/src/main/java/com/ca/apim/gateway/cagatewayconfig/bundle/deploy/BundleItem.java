@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.deploy;
+
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.hash.Hashing;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties.MAP_TO;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A mapping of a bundle with its item, if the bundle has one, and a digest of both that does not depend on the ids
+ * generated for the build. Items of two builds of the same sources are matched by their key and are the same if their
+ * digest is the same, even if they were built with other ids and guids, like a bundle built by an earlier version.
+ */
+public class BundleItem {
+
+    // the ids and guids generated by IdGenerator
+    private static final Pattern GENERATED_ID = Pattern.compile("\\b(?:[0-9a-f]{32}|[0-9a-f]{8}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{4}-[0-9a-f]{12})\\b");
+
+    private final String key;
+    private final String type;
+    private final Element mapping;
+    private final Element item;
+    private final Set<String> referencedKeys = new TreeSet<>();
+    private String digest;
+
+    private BundleItem(String key, String type, Element mapping, @Nullable Element item) {
+        this.key = key;
+        this.type = type;
+        this.mapping = mapping;
+        this.item = item;
+    }
+
+    /**
+     * Lists the mappings of the bundle with their items, in the order of the mappings.
+     *
+     * @param bundle        the bundle
+     * @param documentTools the tools to serialize the items with
+     * @return the bundle items by key
+     */
+    public static Map<String, BundleItem> index(final Element bundle, final DocumentTools documentTools) {
+        final Map<String, Element> itemsById = new HashMap<>();
+        getChildElements(getSingleChildElement(bundle, REFERENCES), ITEM)
+                .forEach(item -> itemsById.put(getSingleChildElementTextContent(item, ID), item));
+
+        final Map<String, BundleItem> bundleItems = new LinkedHashMap<>();
+        final Map<String, String> keysById = new HashMap<>();
+        for (Element mapping : getChildElements(getSingleChildElement(bundle, MAPPINGS), MAPPING)) {
+            final String srcId = mapping.getAttribute(ATTRIBUTE_SRCID);
+            final String type = mapping.getAttribute(ATTRIBUTE_TYPE);
+            final Element item = itemsById.get(srcId);
+            final BundleItem bundleItem = new BundleItem(type + ":" + getTarget(mapping, item, srcId), type, mapping, item);
+            bundleItems.put(bundleItem.key, bundleItem);
+            keysById.put(srcId, bundleItem.key);
+            if (item != null) {
+                getGuids(item).forEach(guid -> keysById.put(guid, bundleItem.key));
+            }
+        }
+
+        bundleItems.values().forEach(bundleItem -> bundleItem.digest = bundleItem.digest(keysById, documentTools));
+        return bundleItems;
+    }
+
+    /**
+     * @return the type of the entity and the name or path the gateway maps it to
+     */
+    public String getKey() {
+        return key;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public String getSrcId() {
+        return mapping.getAttribute(ATTRIBUTE_SRCID);
+    }
+
+    public Element getMapping() {
+        return mapping;
+    }
+
+    /**
+     * @return the item, null for a mapping to an entity the bundle does not have, like an environment entity
+     */
+    @Nullable
+    public Element getItem() {
+        return item;
+    }
+
+    public String getDigest() {
+        return digest;
+    }
+
+    /**
+     * @return the keys of the other entities of the bundle that the item references by id or guid
+     */
+    public Set<String> getReferencedKeys() {
+        return referencedKeys;
+    }
+
+    // the target the gateway maps the entity to, the name or path it is mapped by
+    private static String getTarget(final Element mapping, @Nullable final Element item, final String srcId) {
+        final Element properties = getSingleChildElement(mapping, PROPERTIES, true);
+        if (properties != null) {
+            for (Element property : getChildElements(properties, PROPERTY)) {
+                if (MAP_TO.equals(property.getAttribute(ATTRIBUTE_KEY))) {
+                    return getSingleChildElementTextContent(property, STRING_VALUE);
+                }
+            }
+        }
+        return item != null ? getSingleChildElementTextContent(item, NAME) : srcId;
+    }
+
+    // the guids the item declares, like the guid of a policy or an encapsulated assertion
+    private static Set<String> getGuids(final Element item) {
+        final Set<String> guids = new HashSet<>();
+        for (Node node : nodeList(getSingleChildElement(item, RESOURCE).getChildNodes())) {
+            if (node.getNodeType() == Node.ELEMENT_NODE) {
+                final Element entity = (Element) node;
+                guids.addAll(getChildElementsTextContents(entity, GUID));
+                if (entity.hasAttribute(ATTRIBUTE_GUID)) {
+                    guids.add(entity.getAttribute(ATTRIBUTE_GUID));
+                }
+                break;
+            }
+        }
+        return guids;
+    }
+
+    private String digest(final Map<String, String> keysById, final DocumentTools documentTools) {
+        final StringBuilder canonical = new StringBuilder();
+        canonical.append(replaceGeneratedIds(documentTools.elementToString(mapping), keysById));
+        if (item != null) {
+            canonical.append(replaceGeneratedIds(documentTools.elementToString(item), keysById));
+        }
+        return Hashing.sha256().hashString(canonical, UTF_8).toString();
+    }
+
+    // ids of entities in the bundle are replaced by the keys of the entities, other ids are kept
+    private String replaceGeneratedIds(final String xml, final Map<String, String> keysById) {
+        final Matcher matcher = GENERATED_ID.matcher(xml);
+        final StringBuffer replaced = new StringBuffer(xml.length());
+        while (matcher.find()) {
+            final String referencedKey = keysById.get(matcher.group());
+            if (referencedKey != null && !referencedKey.equals(key)) {
+                referencedKeys.add(referencedKey);
+            }
+            matcher.appendReplacement(replaced, Matcher.quoteReplacement(referencedKey != null ? "{" + referencedKey + "}" : matcher.group()));
+        }
+        matcher.appendTail(replaced);
+        return replaced.toString();
+    }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.deploy;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.entity.ContentType;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.ByteArrayOutputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanBundleEndpoint;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.FOLDER_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.createElementWithChildren;
+import static org.apache.http.HttpHeaders.CONTENT_TYPE;
+import static org.apache.http.client.methods.HttpPut.METHOD_NAME;
+import static org.apache.http.client.methods.RequestBuilder.create;
+
+/**
+ * Pushes the deployment bundles of a project to a gateway as they are built again, for the watch mode of the developer
+ * plugin. The first time a bundle is deployed it is imported in full, after that only the items that changed since it
+ * was last deployed are imported.
+ * <p>
+ * Every build generates new ids for the entities, so the items of two builds are matched by the name or path the
+ * gateway maps them to. The items that did not change are left out of the imported bundle but keep a NewOrExisting
+ * mapping, so the changed items referencing them are mapped to the entities already on the gateway. Items removed from
+ * the project are deleted from the gateway, except folders.
+ */
+public class HotDeployer {
+
+    private static final Logger LOGGER = Logger.getLogger(HotDeployer.class.getName());
+
+    private final GatewayClient gatewayClient;
+    private final DocumentTools documentTools;
+    private final String url;
+    private final String userName;
+    private final String password;
+    // the items of the bundles last deployed, by bundle name
+    private final Map<String, Map<String, BundleItem>> deployedBundles = new HashMap<>();
+
+    public HotDeployer(GatewayClient gatewayClient, DocumentTools documentTools, String url, String userName, String password) {
+        this.gatewayClient = gatewayClient;
+        this.documentTools = documentTools;
+        this.url = url;
+        this.userName = userName;
+        this.password = password;
+    }
+
+    /**
+     * Imports the changes of the bundles into the gateway, one request per bundle that changed. A bundle that fails to
+     * import is imported again with its changes the next time.
+     *
+     * @param bundles the bundles built, by bundle name
+     * @return the number of items imported or deleted
+     */
+    public int deploy(final Map<String, Element> bundles) {
+        int deployedItems = 0;
+        for (Map.Entry<String, Element> bundle : bundles.entrySet()) {
+            final Map<String, BundleItem> items = BundleItem.index(bundle.getValue(), documentTools);
+            final Map<String, BundleItem> deployed = deployedBundles.get(bundle.getKey());
+
+            final Element bundleToImport;
+            final int changedItems;
+            if (deployed == null) {
+                bundleToImport = bundle.getValue();
+                changedItems = (int) items.values().stream().filter(i -> i.getItem() != null).count();
+            } else {
+                final Document document = documentTools.getDocumentBuilder().newDocument();
+                final Element references = document.createElement(REFERENCES);
+                final Element mappings = document.createElement(MAPPINGS);
+                changedItems = addChanges(items, deployed, document, references, mappings);
+                if (changedItems == 0) {
+                    continue;
+                }
+                bundleToImport = createElementWithChildren(document, BUNDLE, references, mappings);
+            }
+
+            LOGGER.log(Level.INFO, "Deploying {0} changed item(s) of {1}", new Object[]{changedItems, bundle.getKey()});
+            importBundle(bundleToImport);
+            deployedBundles.put(bundle.getKey(), items);
+            deployedItems += changedItems;
+        }
+        return deployedItems;
+    }
+
+    private static int addChanges(final Map<String, BundleItem> items, final Map<String, BundleItem> deployed,
+                                  final Document document, final Element references, final Element mappings) {
+        int changedItems = 0;
+        for (BundleItem bundleItem : items.values()) {
+            final BundleItem deployedItem = deployed.get(bundleItem.getKey());
+            if (bundleItem.getItem() == null) {
+                mappings.appendChild(document.importNode(bundleItem.getMapping(), true));
+            } else if (deployedItem == null || !deployedItem.getDigest().equals(bundleItem.getDigest())) {
+                references.appendChild(document.importNode(bundleItem.getItem(), true));
+                mappings.appendChild(document.importNode(bundleItem.getMapping(), true));
+                changedItems++;
+            } else {
+                final Element mapping = (Element) document.importNode(bundleItem.getMapping(), true);
+                mapping.setAttribute(ATTRIBUTE_ACTION, MappingActions.NEW_OR_EXISTING);
+                mappings.appendChild(mapping);
+            }
+        }
+        for (BundleItem deployedItem : deployed.values()) {
+            if (deployedItem.getItem() != null && !FOLDER_TYPE.equals(deployedItem.getType()) && !items.containsKey(deployedItem.getKey())) {
+                final Element mapping = (Element) document.importNode(deployedItem.getMapping(), true);
+                mapping.setAttribute(ATTRIBUTE_ACTION, MappingActions.DELETE);
+                mappings.appendChild(mapping);
+                changedItems++;
+            }
+        }
+        return changedItems;
+    }
+
+    private void importBundle(final Element bundle) {
+        final ByteArrayOutputStream bundleXml = new ByteArrayOutputStream();
+        documentTools.printXML(bundle, bundleXml, true);
+        gatewayClient.makeGatewayAPICall(
+                create(METHOD_NAME)
+                        .setUri(getRestmanBundleEndpoint(url))
+                        .setEntity(new ByteArrayEntity(bundleXml.toByteArray(), ContentType.APPLICATION_XML))
+                        .setHeader(CONTENT_TYPE, "application/xml"),
+                userName,
+                password
+        );
+    }
+}
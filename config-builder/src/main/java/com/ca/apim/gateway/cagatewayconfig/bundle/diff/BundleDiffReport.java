@@ -0,0 +1,161 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.diff;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.fasterxml.jackson.annotation.JsonInclude.Include.NON_NULL;
+
+/**
+ * Result of comparing two bundles, as written to the JSON report. Items are listed by type and id.
+ */
+public class BundleDiffReport {
+
+    private String left;
+    private String right;
+    private int leftItemCount;
+    private int rightItemCount;
+    private int unchangedCount;
+    private List<ItemDifference> added = new ArrayList<>();
+    private List<ItemDifference> removed = new ArrayList<>();
+    private List<ItemDifference> changed = new ArrayList<>();
+
+    public String getLeft() {
+        return left;
+    }
+
+    public void setLeft(String left) {
+        this.left = left;
+    }
+
+    public String getRight() {
+        return right;
+    }
+
+    public void setRight(String right) {
+        this.right = right;
+    }
+
+    public int getLeftItemCount() {
+        return leftItemCount;
+    }
+
+    public void setLeftItemCount(int leftItemCount) {
+        this.leftItemCount = leftItemCount;
+    }
+
+    public int getRightItemCount() {
+        return rightItemCount;
+    }
+
+    public void setRightItemCount(int rightItemCount) {
+        this.rightItemCount = rightItemCount;
+    }
+
+    public int getUnchangedCount() {
+        return unchangedCount;
+    }
+
+    public void setUnchangedCount(int unchangedCount) {
+        this.unchangedCount = unchangedCount;
+    }
+
+    /**
+     * Items only in the right bundle.
+     */
+    public List<ItemDifference> getAdded() {
+        return added;
+    }
+
+    public void setAdded(List<ItemDifference> added) {
+        this.added = added;
+    }
+
+    /**
+     * Items only in the left bundle.
+     */
+    public List<ItemDifference> getRemoved() {
+        return removed;
+    }
+
+    public void setRemoved(List<ItemDifference> removed) {
+        this.removed = removed;
+    }
+
+    /**
+     * Items in both bundles that are not the same.
+     */
+    public List<ItemDifference> getChanged() {
+        return changed;
+    }
+
+    public void setChanged(List<ItemDifference> changed) {
+        this.changed = changed;
+    }
+
+    public boolean hasDifferences() {
+        return !added.isEmpty() || !removed.isEmpty() || !changed.isEmpty();
+    }
+
+    /**
+     * An item that was added, removed or changed. The differences of a changed item are "name", "resource", "policy"
+     * and "property:" followed by the path of each property that is not the same.
+     */
+    @JsonInclude(NON_NULL)
+    public static class ItemDifference {
+
+        private String type;
+        private String id;
+        private String name;
+        private List<String> differences;
+
+        public ItemDifference() {
+        }
+
+        ItemDifference(String type, String id, String name, List<String> differences) {
+            this.type = type;
+            this.id = id;
+            this.name = name;
+            this.differences = differences;
+        }
+
+        public String getType() {
+            return type;
+        }
+
+        public void setType(String type) {
+            this.type = type;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public void setId(String id) {
+            this.id = id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public List<String> getDifferences() {
+            return differences;
+        }
+
+        public void setDifferences(List<String> differences) {
+            this.differences = differences;
+        }
+    }
+}
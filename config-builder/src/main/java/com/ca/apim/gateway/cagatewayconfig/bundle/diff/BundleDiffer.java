@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.diff;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.diff.BundleDiffReport.ItemDifference;
+import com.ca.apim.gateway.cagatewayconfig.bundle.diff.BundleDigester.ItemDigest;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * Compares two bundles semantically, to find out how a gateway drifted from the bundle that was deployed to it or how
+ * two versions of a bundle differ. Items are matched by type and id, then the items left by type and the name or path
+ * they are mapped to, like the items of bundles built with other ids. They are compared by the digests
+ * {@link BundleDigester} reads while streaming the bundle files, so no DOM is built and the two files are read at the
+ * same time.
+ */
+@Singleton
+public class BundleDiffer {
+
+    private static final String NAME_DIFFERENCE = "name";
+    private static final String RESOURCE_DIFFERENCE = "resource";
+    private static final String POLICY_DIFFERENCE = "policy";
+    private static final String PROPERTY_DIFFERENCE_PREFIX = "property:";
+
+    private final BundleDigester bundleDigester = new BundleDigester();
+
+    /**
+     * Compares the bundles.
+     *
+     * @param leftBundle  the bundle compared from, usually the older one
+     * @param rightBundle the bundle compared to
+     * @return the differences of the right bundle from the left one
+     */
+    public BundleDiffReport compare(final File leftBundle, final File rightBundle) {
+        final ForkJoinTask<SortedMap<String, ItemDigest>> leftDigest = ForkJoinPool.commonPool().submit(() -> bundleDigester.digest(leftBundle));
+        final SortedMap<String, ItemDigest> rightItems = bundleDigester.digest(rightBundle);
+        final SortedMap<String, ItemDigest> leftItems = leftDigest.join();
+
+        final BundleDiffReport report = new BundleDiffReport();
+        report.setLeft(leftBundle.getName());
+        report.setRight(rightBundle.getName());
+        report.setLeftItemCount(leftItems.size());
+        report.setRightItemCount(rightItems.size());
+
+        // the left items not matched by id, by their target
+        final Map<String, Deque<ItemDigest>> unmatchedLeftItems = new LinkedHashMap<>();
+        leftItems.values().stream()
+                .filter(leftItem -> !rightItems.containsKey(leftItem.getKey()))
+                .forEach(leftItem -> unmatchedLeftItems.computeIfAbsent(leftItem.getTargetKey(), key -> new ArrayDeque<>()).add(leftItem));
+        final List<ItemDigest> unmatchedRightItems = new ArrayList<>();
+
+        int unchangedCount = 0;
+        for (final ItemDigest rightItem : rightItems.values()) {
+            final ItemDigest leftItem = leftItems.get(rightItem.getKey());
+            if (leftItem == null) {
+                unmatchedRightItems.add(rightItem);
+            } else if (compare(leftItem, rightItem, report)) {
+                unchangedCount++;
+            }
+        }
+        for (final ItemDigest rightItem : unmatchedRightItems) {
+            final Deque<ItemDigest> targetItems = unmatchedLeftItems.get(rightItem.getTargetKey());
+            final ItemDigest leftItem = targetItems != null ? targetItems.poll() : null;
+            if (leftItem == null) {
+                report.getAdded().add(new ItemDifference(rightItem.getType(), rightItem.getId(), rightItem.getName(), null));
+            } else if (compare(leftItem, rightItem, report)) {
+                unchangedCount++;
+            }
+        }
+        unmatchedLeftItems.values().stream()
+                .flatMap(Collection::stream)
+                .forEach(leftItem -> report.getRemoved().add(new ItemDifference(leftItem.getType(), leftItem.getId(), leftItem.getName(), null)));
+        report.setUnchangedCount(unchangedCount);
+        return report;
+    }
+
+    // adds the differences of the matched items to the report, true if they are the same
+    private static boolean compare(final ItemDigest leftItem, final ItemDigest rightItem, final BundleDiffReport report) {
+        final List<String> differences = getDifferences(leftItem, rightItem);
+        if (differences.isEmpty()) {
+            return true;
+        }
+        report.getChanged().add(new ItemDifference(rightItem.getType(), rightItem.getId(), rightItem.getName(), differences));
+        return false;
+    }
+
+    private static List<String> getDifferences(final ItemDigest leftItem, final ItemDigest rightItem) {
+        final List<String> differences = new ArrayList<>();
+        if (!Objects.equals(leftItem.getName(), rightItem.getName())) {
+            differences.add(NAME_DIFFERENCE);
+        }
+        if (!Objects.equals(leftItem.getResource(), rightItem.getResource())) {
+            differences.add(RESOURCE_DIFFERENCE);
+        }
+        if (!Objects.equals(leftItem.getPolicy(), rightItem.getPolicy())) {
+            differences.add(POLICY_DIFFERENCE);
+        }
+        final SortedSet<String> propertyKeys = new TreeSet<>(leftItem.getProperties().keySet());
+        propertyKeys.addAll(rightItem.getProperties().keySet());
+        propertyKeys.stream()
+                .filter(key -> !Objects.equals(leftItem.getProperties().get(key), rightItem.getProperties().get(key)))
+                .forEach(key -> differences.add(PROPERTY_DIFFERENCE_PREFIX + key));
+        return differences;
+    }
+}
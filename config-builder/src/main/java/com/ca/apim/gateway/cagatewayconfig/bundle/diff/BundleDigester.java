@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.diff;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.HashFunction;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.util.*;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties.MAP_TO;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static javax.xml.stream.XMLStreamConstants.*;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Reads the items of a bundle file in a single streaming pass, keeping only digests of their contents. The resource of
+ * an item is hashed in a canonical form: attributes in order, text trimmed, whitespace, comments and namespace prefixes
+ * left out, as well as the version attributes the gateway increments on every update. Policies are parsed out of their
+ * resource and hashed the same way, and properties are hashed one by one, so they can be told apart from the rest of
+ * the resource. The MapTo property of the mapping of an item is kept as its target, the name or path the gateway maps it to.
+ */
+class BundleDigester {
+
+    private static final HashFunction HASH_FUNCTION = Hashing.sha256();
+    private static final String ATTRIBUTE_VERSION = "version";
+    private static final String POLICY_RESOURCE_TYPE = "policy";
+
+    private final XMLInputFactory inputFactory;
+
+    BundleDigester() {
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Digests the items of the bundle, which can also be a bundle exported from a gateway, still wrapped in its item.
+     *
+     * @param bundleFile the bundle file
+     * @return the item digests by their key, in key order
+     */
+    SortedMap<String, ItemDigest> digest(final File bundleFile) {
+        final SortedMap<String, ItemDigest> items = new TreeMap<>();
+        // the MapTo targets by the key of the item they map
+        final Map<String, String> targets = new HashMap<>();
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(bundleFile.toPath()))) {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+            try {
+                // the local names of the open elements
+                final Deque<String> path = new ArrayDeque<>();
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == START_ELEMENT) {
+                        if (isElement(reader.getLocalName(), ITEM) && isElement(path.peek(), REFERENCES)) {
+                            // the reader is left at the end of the item
+                            final ItemDigest item = readItem(reader);
+                            items.put(item.getKey(), item);
+                        } else if (isElement(reader.getLocalName(), MAPPING) && isElement(path.peek(), MAPPINGS)) {
+                            final String key = reader.getAttributeValue(null, ATTRIBUTE_TYPE) + ":" + reader.getAttributeValue(null, ATTRIBUTE_SRCID);
+                            // the reader is left at the end of the mapping
+                            final String target = readMapTo(reader);
+                            if (target != null) {
+                                targets.put(key, target);
+                            }
+                        } else {
+                            path.push(reader.getLocalName());
+                        }
+                    } else if (event == END_ELEMENT) {
+                        path.pop();
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new BundleLoadException("Could not read bundle '" + bundleFile.getName() + "': " + e.getMessage(), e);
+        }
+        // the mappings follow the references
+        items.values().forEach(item -> item.target = targets.get(item.getKey()));
+        return items;
+    }
+
+    // the MapTo property of the mapping the reader is at, null if it has none
+    private static String readMapTo(final XMLStreamReader reader) throws XMLStreamException {
+        String mapTo = null;
+        boolean inMapTo = false;
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+                if (isElement(reader.getLocalName(), PROPERTY)) {
+                    inMapTo = MAP_TO.equals(reader.getAttributeValue(null, ATTRIBUTE_KEY));
+                } else if (inMapTo && isElement(reader.getLocalName(), STRING_VALUE)) {
+                    mapTo = reader.getElementText().trim();
+                    depth--;
+                }
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+        return mapTo;
+    }
+
+    private ItemDigest readItem(final XMLStreamReader reader) throws XMLStreamException {
+        final ItemDigest item = new ItemDigest();
+        while (reader.next() != END_ELEMENT) {
+            if (reader.getEventType() != START_ELEMENT) {
+                continue;
+            }
+            final String localName = reader.getLocalName();
+            if (isElement(localName, NAME)) {
+                item.name = reader.getElementText().trim();
+            } else if (isElement(localName, ID)) {
+                item.id = reader.getElementText().trim();
+            } else if (isElement(localName, TYPE)) {
+                item.type = reader.getElementText().trim();
+            } else if (isElement(localName, RESOURCE)) {
+                readResource(reader, item);
+            } else {
+                // timestamps and links are not part of the item
+                skipElement(reader);
+            }
+        }
+        return item;
+    }
+
+    private void readResource(final XMLStreamReader reader, final ItemDigest item) throws XMLStreamException {
+        final Hasher resourceHasher = HASH_FUNCTION.newHasher();
+        Hasher policyHasher = null;
+        // the local names of the open elements under the resource
+        final Deque<String> path = new ArrayDeque<>();
+        while (true) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) {
+                if (isElement(reader.getLocalName(), PROPERTY) && isElement(path.peek(), PROPERTIES)) {
+                    final String key = getPropertyPath(path, reader.getAttributeValue(null, ATTRIBUTE_KEY));
+                    final Hasher propertyHasher = HASH_FUNCTION.newHasher();
+                    hashElement(reader, propertyHasher, true);
+                    item.properties.put(key, propertyHasher.hash());
+                } else if (isElement(reader.getLocalName(), RESOURCE) && POLICY_RESOURCE_TYPE.equals(reader.getAttributeValue(null, ATTRIBUTE_TYPE))) {
+                    if (policyHasher == null) {
+                        policyHasher = HASH_FUNCTION.newHasher();
+                    }
+                    hashPolicy(reader.getElementText(), policyHasher);
+                } else {
+                    putStartElement(reader, resourceHasher, true);
+                    path.push(reader.getLocalName());
+                }
+            } else if (event == END_ELEMENT) {
+                if (path.isEmpty()) {
+                    break;
+                }
+                path.pop();
+                putString(resourceHasher, "/");
+            } else if (event == CHARACTERS || event == CDATA) {
+                putText(reader, resourceHasher);
+            }
+        }
+        item.resource = resourceHasher.hash();
+        item.policy = policyHasher != null ? policyHasher.hash() : null;
+    }
+
+    // the bundle element names are prefixed with l7, the elements are matched by local name whatever their prefix
+    private static boolean isElement(final String localName, final String elementName) {
+        final int start = elementName.indexOf(':') + 1;
+        return localName != null && localName.length() == elementName.length() - start && elementName.startsWith(localName, start);
+    }
+
+    // the property key, prefixed with the path of the element it belongs to, without the entity element
+    private static String getPropertyPath(final Deque<String> path, final String key) {
+        final List<String> names = new ArrayList<>(path);
+        Collections.reverse(names);
+        final StringBuilder propertyPath = new StringBuilder();
+        // skip the entity element and the properties element
+        for (int i = 1; i < names.size() - 1; i++) {
+            propertyPath.append(names.get(i)).append('/');
+        }
+        return propertyPath.append(key).toString();
+    }
+
+    private void hashPolicy(final String policy, final Hasher hasher) {
+        try {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(new StringReader(policy));
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() == START_ELEMENT) {
+                        hashElement(reader, hasher, false);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException e) {
+            // not xml, compare it as text
+            putString(hasher, policy.trim());
+        }
+    }
+
+    // hashes the element the reader is at, leaving the reader at its end
+    private static void hashElement(final XMLStreamReader reader, final Hasher hasher, final boolean ignoreVersion) throws XMLStreamException {
+        int depth = 0;
+        do {
+            final int event = reader.getEventType();
+            if (event == START_ELEMENT) {
+                putStartElement(reader, hasher, ignoreVersion);
+                depth++;
+            } else if (event == END_ELEMENT) {
+                putString(hasher, "/");
+                depth--;
+            } else if (event == CHARACTERS || event == CDATA) {
+                putText(reader, hasher);
+            }
+        } while (depth > 0 && reader.next() != END_DOCUMENT);
+    }
+
+    private static void putStartElement(final XMLStreamReader reader, final Hasher hasher, final boolean ignoreVersion) {
+        putString(hasher, getName(reader.getNamespaceURI(), reader.getLocalName()));
+        final SortedMap<String, String> attributes = new TreeMap<>();
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            final String name = getName(reader.getAttributeNamespace(i), reader.getAttributeLocalName(i));
+            if (!ignoreVersion || !ATTRIBUTE_VERSION.equals(name)) {
+                attributes.put(name, reader.getAttributeValue(i));
+            }
+        }
+        hasher.putInt(attributes.size());
+        attributes.forEach((name, value) -> {
+            putString(hasher, name);
+            putString(hasher, value);
+        });
+    }
+
+    private static void putText(final XMLStreamReader reader, final Hasher hasher) {
+        final String text = reader.getText().trim();
+        if (!text.isEmpty()) {
+            putString(hasher, "#" + text);
+        }
+    }
+
+    private static String getName(final String namespace, final String localName) {
+        return isEmpty(namespace) ? localName : "{" + namespace + "}" + localName;
+    }
+
+    private static void putString(final Hasher hasher, final String value) {
+        hasher.putInt(value.length()).putString(value, UTF_8);
+    }
+
+    private static void skipElement(final XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            final int event = reader.next();
+            if (event == START_ELEMENT) {
+                depth++;
+            } else if (event == END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * The digests of one item.
+     */
+    static class ItemDigest {
+        private String type;
+        private String id;
+        private String name;
+        private String target;
+        private HashCode resource;
+        private HashCode policy;
+        private final SortedMap<String, HashCode> properties = new TreeMap<>();
+
+        // items are matched by type and id, or name when they have no id
+        String getKey() {
+            return type + ":" + (isEmpty(id) ? name : id);
+        }
+
+        // items with other ids are matched by type and the name or path the gateway maps them to
+        String getTargetKey() {
+            return type + ":" + (target != null ? target : name);
+        }
+
+        String getType() {
+            return type;
+        }
+
+        String getId() {
+            return id;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        HashCode getResource() {
+            return resource;
+        }
+
+        HashCode getPolicy() {
+            return policy;
+        }
+
+        SortedMap<String, HashCode> getProperties() {
+            return properties;
+        }
+    }
+}
@@ -11,6 +11,7 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.builder.*;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.w3c.dom.Document;
@@ -63,7 +64,8 @@ public class EntityBundleLoader {
     public Bundle loadMetadata(File dependencyMetadataPath, BundleLoadingOperation loadingMode) {
         final Bundle bundle = new Bundle();
         bundle.setLoadingMode(loadingMode);
-        BundleDefinedEntities bundleDefinedEntities = jsonFileUtils.readBundleMetadataFile(dependencyMetadataPath);
+        final BundleDefinedEntities bundleDefinedEntities;
+        bundleDefinedEntities = BuildProfiler.phase("read-bundle-metadata", () -> jsonFileUtils.readBundleMetadataFile(dependencyMetadataPath));
         Collection<DefaultMetadata> metadataCollection = bundleDefinedEntities.getDefinedEntities();
         if (metadataCollection != null) {
             metadataCollection.forEach(metadata -> {
@@ -108,10 +110,13 @@ public class EntityBundleLoader {
         bundle.setLoadingMode(loadingMode);
 
         final Document bundleDocument;
+        final BuildProfiler.Scope parseBundle = BuildProfiler.phase("parse-bundle");
         try {
             bundleDocument = documentTools.parse(dependencyBundlePath);
         } catch (DocumentParseException e) {
             throw new BundleLoadException("Could not parse dependency bundle '" + dependencyBundlePath + "': " + e.getMessage(), e);
+        } finally {
+            parseBundle.close();
         }
 
         final NodeList nodeList = bundleDocument.getElementsByTagName(ITEM);
@@ -55,7 +55,8 @@ public class FolderLoader implements BundleEntityLoader {
         if (folder.getParentFolder() == null || ROOT_FOLDER_ID.equals(folder.getParentFolder().getId())) {
             return Paths.get(folder.getName());
         }
-        return getPath(folder.getParentFolder()).resolve(folder.getName());
+        // the parent path was built the same way when the parent was loaded
+        return folder.getParentFolder().getResolvedPath().resolve(folder.getName());
     }
 
     @Override
@@ -17,6 +17,7 @@ import javax.inject.Singleton;
 import java.util.Arrays;
 import java.util.Map;
 import java.util.Objects;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -65,10 +66,7 @@ public class PolicyLoader implements BundleEntityLoader {
         Element nameElement = getSingleChildElement(policyDetails, NAME);
         final String name = CharacterBlacklistUtil.filterAndReplace(nameElement.getTextContent());
 
-        final Element resources = getSingleChildElement(policyElement, RESOURCES);
-        final Element resourceSet = getSingleChildElement(resources, RESOURCE_SET);
-        final Element resource = getSingleChildElement(resourceSet, RESOURCE);
-        final String policyString = resource.getTextContent();
+        final String policyString = getPolicyResource(policyElement).getTextContent();
         final PolicyType type = PolicyType.fromType(policyType);
         final String policySubtag = (String) policyDetailProperties.get(PROPERTY_SUBTAG);
 
@@ -83,8 +81,15 @@ public class PolicyLoader implements BundleEntityLoader {
         policy.setTag(policyTag);
         policy.setSubtag(policySubtag);
         policy.setPolicyType(type);
-        policy.setPolicyDocument(policyElement);
-        policy.setPolicyXML(policyString);
+        final ElementStore elementStore = bundle.getElementStore();
+        final Supplier<Element> storedPolicyElement = elementStore.keep(policyElement);
+        policy.setPolicyDocumentSource(storedPolicyElement);
+        if (CompactModel.isEnabled() || !elementStore.keepsInMemory()) {
+            // the policy xml is already kept with the policy element
+            policy.setPolicyXMLSource(() -> getPolicyResource(storedPolicyElement.get()).getTextContent());
+        } else {
+            policy.setPolicyXML(policyString);
+        }
         policy.setHasRouting(hasRouting);
 
         Map<String, Policy> bundlePolicies = bundle.getPolicies();
@@ -110,6 +115,12 @@ public class PolicyLoader implements BundleEntityLoader {
         }
     }
 
+    private static Element getPolicyResource(final Element policyElement) {
+        final Element resources = getSingleChildElement(policyElement, RESOURCES);
+        final Element resourceSet = getSingleChildElement(resources, RESOURCE_SET);
+        return getSingleChildElement(resourceSet, RESOURCE);
+    }
+
     @Override
     public String getEntityType() {
         return EntityTypes.POLICY_TYPE;
@@ -20,6 +20,7 @@ import org.w3c.dom.NodeList;
 
 import javax.inject.Singleton;
 import java.util.*;
+import java.util.function.Supplier;
 
 import static com.ca.apim.gateway.cagatewayconfig.bundle.loader.ServiceAndPolicyLoaderUtil.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
@@ -52,12 +53,12 @@ public class ServiceLoader implements BundleEntityLoader {
         serviceEntity.setId(id);
         serviceEntity.setPath(getPath(parentFolder, name));
         serviceEntity.setParentFolder(parentFolder);
-        serviceEntity.setServiceDetailsElement(serviceDetails);
+        serviceEntity.setServiceDetailsElementSource(bundle.getElementStore().keep(serviceDetails));
 
-        populateServiceEntity(service, serviceEntity, allProperties, properties);
+        populateServiceEntity(bundle, service, serviceEntity, allProperties, properties);
         boolean isSoapService = isNotBlank(serviceEntity.getSoapVersion());
 
-        Element serviceMappingsElement = getSingleChildElement(serviceEntity.getServiceDetailsElement(), SERVICE_MAPPINGS);
+        Element serviceMappingsElement = getSingleChildElement(serviceDetails, SERVICE_MAPPINGS);
         Element httpMappingElement = getSingleChildElement(serviceMappingsElement, HTTP_MAPPING);
 
         if(isSoapService) {
@@ -92,7 +93,7 @@ public class ServiceLoader implements BundleEntityLoader {
         bundleService.put(serviceEntity.getPath(), serviceEntity);
     }
 
-    private void populateServiceEntity(Element service, Service serviceEntity, Map<String, Object> allProperties, Map<String, Object> properties) {
+    private void populateServiceEntity(Bundle bundle, Element service, Service serviceEntity, Map<String, Object> allProperties, Map<String, Object> properties) {
         boolean isSoapService = false;
         String soapVersion = null;
         boolean wssProcessingEnabled = false;
@@ -122,14 +123,14 @@ public class ServiceLoader implements BundleEntityLoader {
         final Element resources = getSingleChildElement(service, RESOURCES);
 
         if (isSoapService) {
-            extractResourceSetsForSoap(resources, serviceEntity);
+            extractResourceSetsForSoap(bundle, resources, serviceEntity);
 
             serviceEntity.setWssProcessingEnabled(wssProcessingEnabled);
             serviceEntity.setSoapVersion(soapVersion);
         } else {
             final Element resourceSet = getSingleChildElement(resources, RESOURCE_SET);
             final Element resource = getSingleChildElement(resourceSet, RESOURCE);
-            serviceEntity.setPolicy(resource.getTextContent());
+            serviceEntity.setPolicySource(keepTextContent(bundle, resource));
         }
         boolean hasRouting = false;
         if (allProperties.get(PROPERTY_HAS_ROUTING) != null) {
@@ -138,7 +139,7 @@ public class ServiceLoader implements BundleEntityLoader {
         serviceEntity.setHasRouting(hasRouting);
     }
 
-    private void extractResourceSetsForSoap(Element resources, Service serviceEntity) {
+    private void extractResourceSetsForSoap(Bundle bundle, Element resources, Service serviceEntity) {
         List<Element> resourceSets = getChildElements(resources, RESOURCE_SET);
         resourceSets.forEach(resourceSet -> {
             String tagValue = resourceSet.getAttribute(ATTRIBUTE_TAG);
@@ -154,7 +155,7 @@ public class ServiceLoader implements BundleEntityLoader {
             if (TAG_VALUE_WSDL.equals(tagValue)) {
                 serviceEntity.setWsdlRootUrl(resourceSet.getAttribute(ATTRIBUTE_ROOT_URL));
 
-                resourceElements.forEach(e -> addServiceResource(e, serviceEntity));
+                resourceElements.forEach(e -> addServiceResource(bundle, e, serviceEntity));
                 return;
             }
 
@@ -164,12 +165,12 @@ public class ServiceLoader implements BundleEntityLoader {
 
             if (TAG_VALUE_POLICY.equals(tagValue)) {
                 final Element resource = resourceElements.get(0);
-                serviceEntity.setPolicy(resource.getTextContent());
+                serviceEntity.setPolicySource(keepTextContent(bundle, resource));
             }
         });
     }
 
-    private void addServiceResource(final Element resource, final Service service) {
+    private void addServiceResource(final Bundle bundle, final Element resource, final Service service) {
         final String rootUrl = resource.getAttribute(ATTRIBUTE_SOURCE_URL);
         final String content = resource.getTextContent();
         final String type = resource.getAttribute(ATTRIBUTE_TYPE);
@@ -179,12 +180,24 @@ public class ServiceLoader implements BundleEntityLoader {
         } else {
             SoapResource soapResource = new SoapResource();
             soapResource.setRootUrl(rootUrl);
-            soapResource.setContent(content);
+            soapResource.setContentSource(keepTextContent(bundle, resource));
             soapResource.setType(type);
             service.addSoapResource(soapResource);
         }
     }
 
+    /**
+     * @return the text of the element, kept where the bundle keeps elements
+     */
+    private static Supplier<String> keepTextContent(final Bundle bundle, final Element element) {
+        if (bundle.getElementStore().keepsInMemory()) {
+            final String textContent = element.getTextContent();
+            return () -> textContent;
+        }
+        final Supplier<Element> storedElement = bundle.getElementStore().keep(element);
+        return () -> storedElement.get().getTextContent();
+    }
+
     @Override
     public String getEntityType() {
         return EntityTypes.SERVICE_TYPE;
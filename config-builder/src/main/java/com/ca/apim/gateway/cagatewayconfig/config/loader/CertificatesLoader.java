@@ -18,9 +18,11 @@ import java.io.FileInputStream;
 import java.io.InputStream;
 import java.nio.charset.Charset;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.findConfigFileOrDir;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.getConfigFileOrDirCandidates;
 import static java.util.Arrays.stream;
 import static org.apache.commons.io.FilenameUtils.getBaseName;
 
@@ -31,6 +33,8 @@ import static org.apache.commons.io.FilenameUtils.getBaseName;
 @Singleton
 public class CertificatesLoader implements EntityLoader {
 
+    private static final String CERTIFICATES_DIR = "certificates";
+
     private FileUtils fileUtils;
 
     @Inject
@@ -40,7 +44,7 @@ public class CertificatesLoader implements EntityLoader {
 
     @Override
     public void load(Bundle bundle, File rootDir) {
-        final File certificatesDir = findConfigFileOrDir(rootDir, "certificates");
+        final File certificatesDir = findConfigFileOrDir(rootDir, CERTIFICATES_DIR);
         if (certificatesDir != null && certificatesDir.exists()) {
             final String[] certs = certificatesDir.list();
             if (certs != null && certs.length > 0) {
@@ -57,6 +61,12 @@ public class CertificatesLoader implements EntityLoader {
         }
     }
 
+    @Override
+    public List<File> getSourceFiles(File rootDir) {
+        // the certificate files are read when they are built, only the names listed here are loaded
+        return getConfigFileOrDirCandidates(rootDir, CERTIFICATES_DIR);
+    }
+
     @Override
     public void load(Bundle bundle, String name, String value) {
         if (checkCertFormat(name)) {
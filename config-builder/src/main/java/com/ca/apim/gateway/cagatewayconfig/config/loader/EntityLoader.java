@@ -7,8 +7,10 @@
 package com.ca.apim.gateway.cagatewayconfig.config.loader;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileCache;
 
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -43,6 +45,19 @@ public interface EntityLoader {
      */
     void load(Bundle bundle, File rootDir);
 
+    /**
+     * Load all entities from a configuration file into a Bundle object, keeping the text read from each file in the file
+     * cache, so loading again only reads the files changed since. Loaders reading no text of their own for the entities
+     * load them like {@link #load(Bundle, File)}.
+     *
+     * @param bundle the bundle object to receive loaded entities
+     * @param rootDir the directory containing the entity file (or subdir config)
+     * @param fileCache the text read from each file by the earlier loads
+     */
+    default void load(Bundle bundle, File rootDir, FileCache<String> fileCache) {
+        load(bundle, rootDir);
+    }
+
     /**
      * Load a single entity into a bundle from a String representation of json/yaml or properties value.
      *
@@ -64,6 +79,17 @@ public interface EntityLoader {
         load(bundle, name, value);
     }
 
+    /**
+     * Lists the files {@link #load(Bundle, File)} loads the entities from, including the ones it looks for that do not
+     * exist, so what was loaded can be kept until one of them changes.
+     *
+     * @param rootDir the directory containing the entity file (or subdir config)
+     * @return the files, null if they are not known and the entities have to be loaded every time
+     */
+    default List<File> getSourceFiles(File rootDir) {
+        return null;
+    }
+
     /**
      * @return the type of the entity managed by this loader
      */
@@ -8,6 +8,7 @@ package com.ca.apim.gateway.cagatewayconfig.config.loader;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.GatewayEntity;
+import com.ca.apim.gateway.cagatewayconfig.beans.PrivateKey;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
 import com.fasterxml.jackson.databind.JavaType;
@@ -18,6 +19,7 @@ import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
 import java.nio.charset.Charset;
+import java.util.List;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderUtils.loadEntitiesFromFile;
@@ -64,6 +66,16 @@ public abstract class EntityLoaderBase<B extends GatewayEntity> implements Entit
         }
     }
 
+    @Override
+    public List<File> getSourceFiles(final File rootDir) {
+        final List<File> sourceFiles = jsonTools.getDocumentFileCandidates(rootDir, getFileName());
+        if (PrivateKey.class.isAssignableFrom(getBeanClass())) {
+            // the key files are looked up as the private keys are loaded
+            sourceFiles.add(new File(rootDir, "config/privateKeys"));
+        }
+        return sourceFiles;
+    }
+
     @Override
     public void load(Bundle bundle, String fullName, String value) {
         String name = fullName;
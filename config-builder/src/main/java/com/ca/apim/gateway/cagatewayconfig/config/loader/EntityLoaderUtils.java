@@ -18,12 +18,17 @@ import org.jetbrains.annotations.NotNull;
 import java.io.File;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 /**
  * Utility methods for entity loading.
  */
 public class EntityLoaderUtils {
 
+    private static final Logger LOGGER = Logger.getLogger(EntityLoaderUtils.class.getName());
+
     private EntityLoaderUtils() {}
 
     /**
@@ -54,7 +59,7 @@ public class EntityLoaderUtils {
 
             @Override
             protected void putToBundle(Bundle bundle, @NotNull Map<String, GatewayEntity> entitiesMap) {
-                bundle.getEntities(entityInfo.getEntityClass()).putAll(entitiesMap);
+                putAllToBundle(bundle, entityInfo.getEntityClass(), entitiesMap);
             }
         };
     }
@@ -88,6 +93,22 @@ public class EntityLoaderUtils {
         };
     }
 
+    /**
+     * Put the entities to the bundle, warning about the ones replacing an entity of the same type and name loaded
+     * before. Loaders run concurrently, so which definition wins for duplicated names is not defined.
+     *
+     * @param bundle the bundle to add the entities to
+     * @param entityClass Entity class
+     * @param entities map of name-entity
+     * @param <B> Entity type
+     */
+    static <B extends GatewayEntity> void putAllToBundle(Bundle bundle, Class<B> entityClass, Map<String, ? extends B> entities) {
+        final Set<String> duplicates = bundle.putAllEntities(entityClass, entities);
+        if (!duplicates.isEmpty()) {
+            LOGGER.log(Level.WARNING, "Found {0} entities defined more than once: {1}", new Object[]{entityClass.getSimpleName(), duplicates});
+        }
+    }
+
     /**
      * Load entities from a json/yaml file to a map of key-value entities by name.
      *
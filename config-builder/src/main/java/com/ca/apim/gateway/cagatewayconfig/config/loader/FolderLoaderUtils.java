@@ -19,6 +19,8 @@ import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils.unixPath;
 import static com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils.unixPathEndingWithSeparator;
@@ -45,16 +47,15 @@ public class FolderLoaderUtils {
                 key -> createFolder(policyRootDir.getName(), key, null)
         );
 
+        // create the folders of each distinct path once, many services usually share the same folders
+        final Set<String> folderPaths = new TreeSet<>();
+        folderableMap.keySet().forEach(folderablePath -> folderPaths.add(FilenameUtils.getFullPath(folderablePath)));
+        folderPaths.stream().filter(path -> !isEmpty(path)).forEach(path -> createFoldersAlongPath(path, folderMap, rootFolder));
+
         folderableMap.forEach((folderablePath, folderable) -> {
             final String pathExcludingService = FilenameUtils.getFullPath(folderablePath);
-            if (isEmpty(pathExcludingService)) {
-                //service is directly under the root dir
-                folderable.setParentFolder(rootFolder);
-            } else {
-                //service is in a folder, create folders if they don't already exist
-                createFoldersAlongPath(pathExcludingService, folderMap, rootFolder);
-                folderable.setParentFolder(folderMap.get(pathExcludingService));
-            }
+            //service is directly under the root dir, or in a folder
+            folderable.setParentFolder(isEmpty(pathExcludingService) ? rootFolder : folderMap.get(pathExcludingService));
         });
     }
 
@@ -6,20 +6,25 @@
 
 package com.ca.apim.gateway.cagatewayconfig.config.loader;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.beans.*;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverter;
 import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverterRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileCache;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
+import org.apache.commons.io.FilenameUtils;
+import org.jetbrains.annotations.Nullable;
+
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
 import java.util.*;
+import java.util.function.Function;
 
 import static com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils.createFolder;
-import static com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils.getPath;
 
 @Singleton
 public class PolicyAndFolderLoader implements EntityLoader {
@@ -40,15 +45,31 @@ public class PolicyAndFolderLoader implements EntityLoader {
 
     @Override
     public void load(final Bundle bundle, final File rootDir) {
+        load(bundle, rootDir, null);
+    }
+
+    /**
+     * Loads the folders and the policies, converting again only the policy files changed since they were kept in the
+     * policy cache.
+     */
+    @Override
+    public void load(final Bundle bundle, final File rootDir, @Nullable final FileCache<String> policyCache) {
         final File policyRootDir = FolderLoaderUtils.getPolicyRootDir(rootDir);
         if (policyRootDir == null) return;
 
         final Map<String, Policy> policies = new HashMap<>();
-        loadPolicies(policyRootDir, policyRootDir, null, policies, bundle);
+        loadPolicies(policyRootDir, policies, bundle, policyCache);
         loadPoliciesMetadata(rootDir, policies, bundle);
         bundle.putAllPolicies(policies);
     }
 
+    @Override
+    public List<File> getSourceFiles(final File rootDir) {
+        final List<File> sourceFiles = new ArrayList<>(SourceTree.listSourceFiles(new File(rootDir, "policy"), policyConverterRegistry::isValidPolicyExtension));
+        sourceFiles.add(jsonFileUtils.getPoliciesConfigFile(rootDir));
+        return sourceFiles;
+    }
+
     private void loadPoliciesMetadata(final File rootDir, final Map<String, Policy> policies, final Bundle bundle) {
         final Map<String, PolicyMetadata> policyMetadataMap = jsonFileUtils.readPoliciesConfigFile(rootDir, PolicyMetadata.class);
         final Map<Dependency, List<Dependency>> policyDependencyMap = new HashMap<>();
@@ -89,36 +110,48 @@ public class PolicyAndFolderLoader implements EntityLoader {
         throw new ConfigLoadException("Cannot load policies from config file");
     }
 
-    private void loadPolicies(final File currentDir, final File rootDir, Folder parentFolder, final Map<String, Policy> policies, Bundle bundle) {
-        Folder folder = bundle.getFolders().computeIfAbsent(getPath(currentDir, rootDir), key -> createFolder(currentDir.getName(), key, parentFolder));
-        final File[] children = currentDir.listFiles();
-        if (children != null) {
-            for (final File child : children) {
-                if (child.isDirectory()) {
-                    loadPolicies(child, rootDir, folder, policies, bundle);
-                } else if (policyConverterRegistry.isValidPolicyExtension(child.getName())) {
-                    Policy policy = loadPolicy(child, rootDir, folder, bundle);
-                    Policy existingPolicy = policies.put(policy.getPath(), policy);
-                    if (existingPolicy != null) {
-                        throw new ConfigLoadException("Found multiple policies with same path but different types. Policy Path: " + policy.getPath());
-                    }
-                }
+    /**
+     * Loads the folders and the policies of the policy directory. The folders are created from the directories of the
+     * tree, parents first, then the policy files are read and converted concurrently.
+     */
+    private void loadPolicies(final File rootDir, final Map<String, Policy> policies, Bundle bundle, @Nullable FileCache<String> policyCache) {
+        final SourceTree sourceTree = SourceTree.scan(rootDir, policyConverterRegistry::isValidPolicyExtension);
+        final Map<String, Folder> folders = bundle.getFolders();
+        sourceTree.getDirectories().forEach((path, directory) -> {
+            final Folder parentFolder = path.isEmpty() ? null : folders.get(FilenameUtils.getFullPath(path.substring(0, path.length() - 1)));
+            folders.computeIfAbsent(path, key -> createFolder(directory.getName(), key, parentFolder));
+        });
+
+        // ids are derived from the policy paths, the reads run concurrently
+        final Map<File, Policy> policyFiles = new LinkedHashMap<>();
+        sourceTree.getFiles().forEach((path, policyFile) -> {
+            Policy policy = createPolicy(path, policyFile, folders.get(FilenameUtils.getFullPath(path)), bundle.getProjectInfo());
+            Policy existingPolicy = policies.put(policy.getPath(), policy);
+            if (existingPolicy != null) {
+                throw new ConfigLoadException("Found multiple policies with same path but different types. Policy Path: " + policy.getPath());
             }
-        }
+            policyFiles.put(policyFile, policy);
+        });
+        SourceTree.forEachConcurrently(policyFiles.entrySet(), e -> loadPolicy(e.getValue(), e.getKey(), rootDir, bundle, policyCache));
     }
 
-    private Policy loadPolicy(final File policyFile, final File rootDir, Folder parentFolder, Bundle bundle) {
+    private Policy createPolicy(final String path, final File policyFile, Folder parentFolder, ProjectInfo projectInfo) {
         PolicyConverter policyConverter = policyConverterRegistry.getConverterFromFileName(policyFile.getName());
         Policy policy = new Policy();
-        policy.setPath(policyConverter.removeExtension(getPath(policyFile, rootDir)));
+        policy.setPath(policyConverter.removeExtension(path));
         policy.setName(policyConverter.removeExtension(policyFile.getName()));
         policy.setParentFolder(parentFolder);
-        policy.setGuid(idGenerator.generateGuid());
-        policy.setId(idGenerator.generate());
+        policy.setGuid(idGenerator.generateGuid(projectInfo, EntityTypes.POLICY_TYPE, policy.getPath()));
+        policy.setId(idGenerator.generate(projectInfo, EntityTypes.POLICY_TYPE, policy.getPath()));
+        return policy;
+    }
 
-        policy.setPolicyXML(policyConverter.getPolicyXML(policy, fileUtils.getFileAsString(policyFile)));
+    private void loadPolicy(final Policy policy, final File policyFile, final File rootDir, Bundle bundle, @Nullable FileCache<String> policyCache) {
+        PolicyConverter policyConverter = policyConverterRegistry.getConverterFromFileName(policyFile.getName());
+        // the policy name the conversion uses comes from the file name, so it is the same for the same file
+        final Function<File, String> policyXmlLoader = file -> policyConverter.getPolicyXML(policy, fileUtils.getFileAsString(file));
+        policy.setPolicyXML(policyCache == null ? policyXmlLoader.apply(policyFile) : policyCache.get(policyFile, policyXmlLoader));
         policy.postLoad(policy.getPath(), bundle, rootDir, this.idGenerator);
-        return policy;
     }
 
     @Override
@@ -15,7 +15,9 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.lang.reflect.InvocationTargetException;
+import java.util.Collections;
 import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 
@@ -60,6 +62,11 @@ public abstract class PropertiesLoaderBase<P extends PropertiesEntity> implement
         load(propertiesFile).forEach((k, v) -> putToBundle(bundle, rootDir, k, v.toString()));
     }
 
+    @Override
+    public List<File> getSourceFiles(File rootDir) {
+        return FileUtils.getConfigFileOrDirCandidates(rootDir, getFileName());
+    }
+
     @Override
     public void load(Bundle bundle, String name, String value) {
         putToBundle(bundle, null, name, value);
@@ -77,7 +84,7 @@ public abstract class PropertiesLoaderBase<P extends PropertiesEntity> implement
         entity.setValue(value);
         entity.postLoad(key, bundle, rootDir, idGenerator);
 
-        bundle.getEntities(this.getEntityClass()).put(key, entity);
+        EntityLoaderUtils.putAllToBundle(bundle, this.getEntityClass(), Collections.singletonMap(key, entity));
     }
 
     /**
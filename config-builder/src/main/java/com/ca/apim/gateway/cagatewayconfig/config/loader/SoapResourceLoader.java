@@ -1,6 +1,7 @@
 package com.ca.apim.gateway.cagatewayconfig.config.loader;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.CompactModel;
 import com.ca.apim.gateway.cagatewayconfig.beans.SoapResource;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
@@ -10,11 +11,11 @@ import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.SoapResourceType.WSDL;
 import static com.ca.apim.gateway.cagatewayconfig.beans.SoapResourceType.XMLSCHEMA;
-import static com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils.getPath;
 import static org.apache.commons.io.FilenameUtils.getExtension;
 import static org.apache.commons.lang3.StringUtils.equalsAnyIgnoreCase;
 
@@ -44,10 +45,15 @@ public class SoapResourceLoader implements EntityLoader {
         if (soapResourceRootDir == null) return;
 
         final Map<String, SoapResource> soapResources = new HashMap<>();
-        loadSoapResources(soapResourceRootDir, soapResourceRootDir, soapResources);
+        loadSoapResources(soapResourceRootDir, soapResources);
         bundle.putAllSoapResources(soapResources);
     }
 
+    @Override
+    public List<File> getSourceFiles(final File rootDir) {
+        return SourceTree.listSourceFiles(new File(rootDir, FolderLoaderUtils.SOAP_RESOURCES_FOLDER), SoapResourceLoader::isSoapResourceFile);
+    }
+
     /**
      * Throws an exception when attempting to load SoapResource individually
      *
@@ -78,46 +84,53 @@ public class SoapResourceLoader implements EntityLoader {
     }
 
     /**
-     * Loads all SoapResource files into a map of SoapResource entities
+     * Loads all SoapResource files into a map of SoapResource entities, reading the files concurrently
      *
-     * @param currentDir
      * @param rootDir
      * @param soapResources
      */
-    private void loadSoapResources(final File currentDir, final File rootDir, final Map<String, SoapResource> soapResources) {
-        final File[] children = currentDir.listFiles();
-        if (children != null) {
-            for (final File child : children) {
-                if (child.isDirectory()) {
-                    loadSoapResources(child, rootDir, soapResources);
-                } else if (equalsAnyIgnoreCase("." + getExtension(child.getName()), WSDL.getExtension(), XMLSCHEMA.getExtension())) {
-                    SoapResource soapResource = loadSoapResource(child, rootDir);
-                    soapResources.put(soapResource.getPath(), soapResource);
-                }
-            }
-        }
+    private void loadSoapResources(final File rootDir, final Map<String, SoapResource> soapResources) {
+        final SourceTree sourceTree = SourceTree.scan(rootDir, SoapResourceLoader::isSoapResourceFile);
+        sourceTree.getFiles().forEach((path, soapResourceFile) -> soapResources.put(path, createSoapResource(path, soapResourceFile)));
+        SourceTree.forEachConcurrently(sourceTree.getFiles().entrySet(), e -> loadSoapResource(soapResources.get(e.getKey()), e.getValue()));
+    }
+
+    private static boolean isSoapResourceFile(final String fileName) {
+        return equalsAnyIgnoreCase("." + getExtension(fileName), WSDL.getExtension(), XMLSCHEMA.getExtension());
     }
 
     /**
-     * Loads a single SoapResource entity
+     * Creates a single SoapResource entity, without its content
      *
+     * @param soapResourcePath
      * @param soapResourceFile
-     * @param rootDir
      * @return a SoapResource entity
      */
-    private SoapResource loadSoapResource(final File soapResourceFile, final File rootDir) {
+    private SoapResource createSoapResource(final String soapResourcePath, final File soapResourceFile) {
         SoapResource soapResource = new SoapResource();
-        String soapResourcePath = getPath(soapResourceFile, rootDir);
         String soapResourceName = soapResourceFile.getName();
 
         soapResource.setPath(soapResourcePath);
         soapResource.setName(FilenameUtils.getBaseName(soapResourceName));
-        soapResource.setContent(fileUtils.getFileAsString(soapResourceFile));
         soapResource.setTypeByExtension(FilenameUtils.getExtension(soapResourceFile.getName()));
 
         return soapResource;
     }
 
+    /**
+     * Loads the content of a single SoapResource entity
+     *
+     * @param soapResource
+     * @param soapResourceFile
+     */
+    private void loadSoapResource(final SoapResource soapResource, final File soapResourceFile) {
+        if (CompactModel.isEnabled()) {
+            soapResource.setContentSource(() -> fileUtils.getFileAsString(soapResourceFile));
+        } else {
+            soapResource.setContent(fileUtils.getFileAsString(soapResourceFile));
+        }
+    }
+
     /**
      *
      * @return a soapResource entity type
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileCache;
+
+import javax.inject.Singleton;
+import java.io.File;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Cache of the entities loaded from the source files of the projects. It is kept by the injector, so in a Gradle daemon
+ * the entities stay loaded between builds, and building a project again only loads the entities of the files changed
+ * since the last build. Each loader loads its entities into a bundle of its own, kept until one of the
+ * {@link EntityLoader#getSourceFiles(File) files of the loader} changes, and the bundles of all the loaders are then
+ * added to the bundle being built. When a loader loads again, it only reads again the changed files among the ones it
+ * {@link EntityLoader#load(Bundle, File, FileCache) keeps the text of}, like the policy files.
+ * <p>
+ * The entities are shared by the builds, which leave them unchanged, apart from the parent folder of the services each
+ * build sets again from their path. Loaders not listing their files load their entities every time.
+ */
+@Singleton
+public class SourceModelCache {
+
+    public static final String CACHE_SOURCE_MODEL = "com.ca.apim.build.cacheSourceModel";
+    private static final Logger LOGGER = Logger.getLogger(SourceModelCache.class.getName());
+
+    private final FileCache<Bundle> loadedEntities = new FileCache<>(false);
+    // the text each loader read from single files, for the loaders to read only the changed ones when loading again
+    private final Map<String, FileCache<String>> loadedFiles = new ConcurrentHashMap<>();
+
+    /**
+     * @return whether the builds keep the entities loaded from the source files, enabled by the
+     * com.ca.apim.build.cacheSourceModel system property
+     */
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(CACHE_SOURCE_MODEL);
+    }
+
+    /**
+     * Loads the entities of the source directory into the bundle, reusing the ones loaded from files that did not change.
+     *
+     * @param bundle        the bundle to load the entities into
+     * @param rootDir       the source directory
+     * @param entityLoaders the loaders of the entities
+     */
+    public void load(final Bundle bundle, final File rootDir, final Collection<EntityLoader> entityLoaders) {
+        final List<Bundle> loadedBundles = entityLoaders.parallelStream()
+                .map(entityLoader -> load(entityLoader, bundle.getProjectInfo(), rootDir))
+                .collect(toList());
+        loadedBundles.forEach(loadedBundle -> bundle.putAllLoaded(loadedBundle).forEach((entityType, duplicates) ->
+                LOGGER.log(Level.WARNING, "Found {0} entities defined more than once: {1}", new Object[]{entityType.getSimpleName(), duplicates})));
+    }
+
+    private Bundle load(final EntityLoader entityLoader, final ProjectInfo projectInfo, final File rootDir) {
+        final String key = getKey(entityLoader, projectInfo, rootDir);
+        final FileCache<String> fileCache = loadedFiles.computeIfAbsent(key, k -> new FileCache<>(false));
+        final List<File> sourceFiles = entityLoader.getSourceFiles(rootDir);
+        if (sourceFiles == null) {
+            return loadEntities(entityLoader, projectInfo, rootDir, fileCache);
+        }
+        return loadedEntities.get(key, sourceFiles, () -> loadEntities(entityLoader, projectInfo, rootDir, fileCache));
+    }
+
+    private static Bundle loadEntities(final EntityLoader entityLoader, final ProjectInfo projectInfo, final File rootDir, final FileCache<String> fileCache) {
+        final Bundle loadedBundle = new Bundle(projectInfo);
+        entityLoader.load(loadedBundle, rootDir, fileCache);
+        return loadedBundle;
+    }
+
+    // ids are generated from the project, so the same sources give other entities in another project
+    private static String getKey(final EntityLoader entityLoader, final ProjectInfo projectInfo, final File rootDir) {
+        return String.join(":", rootDir.getAbsolutePath(), projectInfo.getGroupName(), projectInfo.getName(), projectInfo.getVersion(),
+                projectInfo.getConfigName(), projectInfo.getTargetFolderPath(), entityLoader.getEntityType());
+    }
+
+    public void clear() {
+        loadedEntities.clear();
+        loadedFiles.clear();
+    }
+
+    public int size() {
+        return loadedEntities.size();
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.util.concurrent.FutureUtils;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.FileVisitOption;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils.unixPath;
+import static com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils.unixPathEndingWithSeparator;
+import static java.util.concurrent.CompletableFuture.runAsync;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The directories and the files of a source directory, like the policy or soap resources directory, listed in a single
+ * walk of the directory tree. Directories and files are keyed by their path relative to the source directory, in the
+ * format of {@link FolderLoaderUtils#getPath(File, File)}, and sorted by it so a parent directory always comes before
+ * the directories and files in it.
+ * <p>
+ * The files can then be read with {@link #forEachConcurrently(Collection, Consumer)}, by up to
+ * com.ca.apim.build.sourceReadThreads threads at a time.
+ */
+public class SourceTree {
+
+    public static final String SOURCE_READ_THREADS = "com.ca.apim.build.sourceReadThreads";
+    private static final int DEFAULT_READ_THREADS = 8;
+
+    private final SortedMap<String, File> directories = new TreeMap<>();
+    private final SortedMap<String, File> files = new TreeMap<>();
+
+    private SourceTree() {
+    }
+
+    /**
+     * Lists the directories and the files of the source directory, following links the same way {@link File#listFiles()}
+     * does.
+     *
+     * @param rootDir        the source directory
+     * @param fileNameFilter the names of the files to list
+     * @return the source tree
+     */
+    static SourceTree scan(final File rootDir, final Predicate<String> fileNameFilter) {
+        final SourceTree sourceTree = new SourceTree();
+        final Path rootPath = rootDir.toPath();
+        try {
+            Files.walkFileTree(rootPath, EnumSet.of(FileVisitOption.FOLLOW_LINKS), Integer.MAX_VALUE, new SimpleFileVisitor<Path>() {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) {
+                    final Path relativePath = rootPath.relativize(dir);
+                    sourceTree.directories.put(relativePath.toString().isEmpty() ? "" : unixPathEndingWithSeparator(relativePath), dir.toFile());
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) {
+                    if (attrs.isRegularFile() && fileNameFilter.test(file.getFileName().toString())) {
+                        sourceTree.files.put(unixPath(rootPath.relativize(file)), file.toFile());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            throw new ConfigLoadException("Could not list the files of " + rootDir + ": " + e.getMessage(), e);
+        }
+        return sourceTree;
+    }
+
+    /**
+     * Lists the source directory, the directories in it and the files of the tree, for telling if what was loaded from
+     * them changed. A directory changes when a file is added to it, removed from it or renamed in it.
+     *
+     * @param rootDir        the source directory, it may not exist
+     * @param fileNameFilter the names of the files to list
+     * @return the directories and then the files, sorted by path
+     */
+    static List<File> listSourceFiles(final File rootDir, final Predicate<String> fileNameFilter) {
+        if (!rootDir.isDirectory()) {
+            return Collections.singletonList(rootDir);
+        }
+        final SourceTree sourceTree = scan(rootDir, fileNameFilter);
+        final List<File> sourceFiles = new ArrayList<>(sourceTree.directories.values());
+        sourceFiles.addAll(sourceTree.files.values());
+        return sourceFiles;
+    }
+
+    /**
+     * @return the directories by relative path, the source directory itself with an empty path
+     */
+    SortedMap<String, File> getDirectories() {
+        return directories;
+    }
+
+    /**
+     * @return the files by relative path
+     */
+    SortedMap<String, File> getFiles() {
+        return files;
+    }
+
+    /**
+     * Runs the action on each item, concurrently. When actions fail, the failure of the first item in the collection
+     * order is thrown, the same one running them one after the other would throw.
+     *
+     * @param items  the items, like the files of the tree
+     * @param action the action, it must only change state that belongs to its item
+     * @param <T>    type of the items
+     */
+    static <T> void forEachConcurrently(final Collection<T> items, final Consumer<T> action) {
+        final int threads = Math.min(Math.max(Integer.getInteger(SOURCE_READ_THREADS, DEFAULT_READ_THREADS), 1), items.size());
+        if (threads <= 1) {
+            items.forEach(action);
+            return;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            final List<CompletableFuture<Void>> futures = items.stream()
+                    .map(item -> runAsync(() -> action.accept(item), executor))
+                    .collect(toList());
+            futures.forEach(FutureUtils::join);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
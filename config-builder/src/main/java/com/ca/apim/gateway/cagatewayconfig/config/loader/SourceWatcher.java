@@ -0,0 +1,102 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.*;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static java.nio.file.StandardWatchEventKinds.*;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Watches a source directory and the directories in it, including the ones created while watching, for changed files.
+ * Changes are collected in batches: a batch ends once no file has changed for a quiet period, so that saving many
+ * files at once, or a file in many steps, is a single batch of changes.
+ */
+public class SourceWatcher implements Closeable {
+
+    private final Path rootPath;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> directories = new HashMap<>();
+
+    /**
+     * Starts watching the source directory.
+     *
+     * @param rootDir the source directory
+     */
+    public SourceWatcher(final File rootDir) {
+        rootPath = rootDir.toPath();
+        try {
+            watchService = rootPath.getFileSystem().newWatchService();
+            register(rootPath);
+        } catch (IOException e) {
+            throw new ConfigLoadException("Could not watch " + rootDir + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Waits for files to change, then for the changes to settle.
+     *
+     * @param quietPeriodMillis how long no file must change for the batch to end
+     * @return the paths of the changed files and directories, the source directory itself if too many changed to tell
+     * @throws InterruptedException if interrupted while waiting
+     */
+    public Set<Path> awaitChanges(final long quietPeriodMillis) throws InterruptedException {
+        final Set<Path> changes = new TreeSet<>();
+        WatchKey key = watchService.take();
+        while (key != null) {
+            collectChanges(key, changes);
+            key = watchService.poll(quietPeriodMillis, MILLISECONDS);
+        }
+        return changes;
+    }
+
+    private void collectChanges(final WatchKey key, final Set<Path> changes) {
+        final Path directory = directories.get(key);
+        for (WatchEvent<?> event : key.pollEvents()) {
+            if (event.kind() == OVERFLOW || directory == null) {
+                changes.add(rootPath);
+                continue;
+            }
+            final Path path = directory.resolve((Path) event.context());
+            changes.add(path);
+            if (event.kind() == ENTRY_CREATE && Files.isDirectory(path)) {
+                try {
+                    register(path);
+                } catch (IOException e) {
+                    throw new ConfigLoadException("Could not watch " + path + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        if (!key.reset()) {
+            // the directory is gone
+            directories.remove(key);
+        }
+    }
+
+    private void register(final Path directory) throws IOException {
+        Files.walkFileTree(directory, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException {
+                directories.put(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE), dir);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    @Override
+    public void close() throws IOException {
+        watchService.close();
+    }
+}
@@ -26,6 +26,8 @@ import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementName
 @Singleton
 public class UnsupportedEntityLoader extends EntityLoaderBase<UnsupportedGatewayEntity> implements EntityLoader {
 
+    private static final String UNSUPPORTED_ENTITIES_XML = "unsupported-entities.xml";
+
     private final EntityUtils.GatewayEntityInfo gatewayEntityInfo;
     private final DocumentTools documentTools;
 
@@ -42,6 +44,13 @@ public class UnsupportedEntityLoader extends EntityLoaderBase<UnsupportedGateway
         updateItemXml(bundle, new File(rootDir, "config"));
     }
 
+    @Override
+    public List<File> getSourceFiles(final File rootDir) {
+        final List<File> sourceFiles = super.getSourceFiles(rootDir);
+        sourceFiles.add(new File(new File(rootDir, "config"), UNSUPPORTED_ENTITIES_XML));
+        return sourceFiles;
+    }
+
     @Override
     public void load(Bundle bundle, String name, String value, String environmentConfigurationFolderPath) {
         super.load(bundle, name, value);
@@ -52,7 +61,7 @@ public class UnsupportedEntityLoader extends EntityLoaderBase<UnsupportedGateway
     }
 
     private void updateItemXml(Bundle bundle, File configFolder) {
-        final File unsupportedEntityXml = new File(configFolder, "unsupported-entities.xml");
+        final File unsupportedEntityXml = new File(configFolder, UNSUPPORTED_ENTITIES_XML);
         if (unsupportedEntityXml.exists()) {
             final Map<String, UnsupportedGatewayEntity> unsupportedGatewayEntityMap = bundle.getUnsupportedEntities();
             try {
@@ -12,10 +12,10 @@ import org.w3c.dom.Element;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import java.io.IOException;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.InputStream;
-import java.io.PipedInputStream;
-import java.io.PipedOutputStream;
+import java.io.OutputStream;
 
 @Singleton
 public class XMLPolicyConverter implements PolicyConverter {
@@ -45,15 +45,15 @@ public class XMLPolicyConverter implements PolicyConverter {
     }
 
     @Override
-    @SuppressWarnings("squid:S2095")
-    // Should not close the input stream since we are returning it. It should be auto closed by the caller
     public InputStream convertFromPolicyElement(Element policy) {
-        final PipedOutputStream out = new PipedOutputStream();
-        new Thread(() -> documentTools.printXML(policy, out, false)).start();
-        try {
-            return new PipedInputStream(out);
-        } catch (IOException e) {
-            throw new PolicyConverterException("Unable to create stream for converting policy xml.", e);
-        }
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        documentTools.printXML(policy, out, false);
+        return new ByteArrayInputStream(out.toByteArray());
+    }
+
+    @Override
+    public void writeFromPolicyElement(Element policy, OutputStream outputStream) {
+        // serialize straight into the target, no intermediate copy of the policy is needed
+        documentTools.printXML(policy, outputStream, false);
     }
 }
@@ -6,18 +6,30 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleMetadata;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadingOperation;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileCache;
 import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
 import java.io.File;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+/**
+ * Cache of the dependency and deployment bundles loaded by the builds. It is kept by the injector, so in a Gradle daemon
+ * the bundles stay loaded between builds, and a bundle is only loaded again when its files change. Every bundle is
+ * handed out as a {@link Bundle#copy() copy}, so what a build sets on it is not seen by the builds after it, or by the
+ * builds running at the same time.
+ */
 @Singleton
 public class BundleCache {
     private final Map<String, Bundle> cache = new ConcurrentHashMap<>();
     private final Map<String, BundleDefinedEntities> metaDataCache = new ConcurrentHashMap<>();
+    // bundles built again from the same sources have the same contents, they are not loaded again
+    private final FileCache<Bundle> bundleFiles = new FileCache<>(true);
+    private final FileCache<Bundle> metadataFiles = new FileCache<>(true);
+    private final FileCache<Bundle> bundleFolders = new FileCache<>(true);
     private final EntityBundleLoader entityBundleLoader;
     private final JsonFileUtils jsonFileUtils = JsonFileUtils.INSTANCE;
 
@@ -28,7 +40,7 @@ public class BundleCache {
     }
 
     public Bundle getBundle(String bundlePath) {
-        return cache.get(bundlePath);
+        return copy(cache.get(bundlePath));
     }
 
     public boolean contains(String bundlePath) {
@@ -40,19 +52,34 @@ public class BundleCache {
     }
 
     public Bundle getBundleFromFile(File file) {
-        if (!cache.containsValue(file.getPath())) {
-            cache.put(file.getPath(), entityBundleLoader.load(file, BundleLoadingOperation.EXPORT));
-        }
-        return cache.get(file.getPath());
+        final Bundle bundle = bundleFiles.get(file, f -> entityBundleLoader.load(f, BundleLoadingOperation.EXPORT));
+        cache.put(file.getPath(), bundle);
+        return bundle.copy();
     }
 
     public Bundle getBundleFromMetadataFile(File file) {
-        if (!cache.containsValue(file.getPath())) {
-            Bundle bundle = entityBundleLoader.loadMetadata(file, BundleLoadingOperation.EXPORT);
-            if (bundle != null) {
-                cache.put(file.getPath(), bundle);
-            }
+        final Bundle bundle = metadataFiles.get(file, f -> entityBundleLoader.loadMetadata(f, BundleLoadingOperation.EXPORT));
+        if (bundle != null) {
+            cache.put(file.getPath(), bundle);
         }
-        return cache.get(file.getPath());
+        return copy(bundle);
+    }
+
+    /**
+     * Gets the bundle loaded from the bundle files of a folder, loading it again if a file was added, removed or
+     * changed.
+     *
+     * @param folderPath the folder
+     * @param files      the bundle files in the folder
+     * @return the bundle loaded from all the files
+     */
+    public Bundle getBundleFromFiles(String folderPath, List<File> files) {
+        final Bundle bundle = bundleFolders.get(folderPath, files, () -> entityBundleLoader.load(files, BundleLoadingOperation.EXPORT));
+        cache.put(folderPath, bundle);
+        return bundle.copy();
+    }
+
+    private static Bundle copy(Bundle bundle) {
+        return bundle == null ? null : bundle.copy();
     }
-}
\ No newline at end of file
+}
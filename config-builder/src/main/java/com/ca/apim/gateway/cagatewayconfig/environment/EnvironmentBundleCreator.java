@@ -26,7 +26,6 @@ import java.util.List;
 import java.util.Map;
 
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.processDeploymentBundles;
-import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.setTemplatizedBundlesFolderPath;
 import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
 import static java.util.stream.Collectors.toList;
@@ -61,9 +60,9 @@ public class EnvironmentBundleCreator {
                                           EnvironmentBundleCreationMode mode,
                                           String envInstallBundleFilename, ProjectInfo projectInfo) {
         Bundle environmentBundle = new Bundle(projectInfo);
+        environmentBundle.setTemplatizedBundlesFolderPath(templatizedBundleFolderPath);
         environmentBundleBuilder.build(environmentBundle, environmentProperties, environmentConfigurationFolderPath, mode);
 
-        setTemplatizedBundlesFolderPath(templatizedBundleFolderPath);
         processDeploymentBundles(
                 environmentBundle,
                 collectTemplatizedBundleFiles(templatizedBundleFolderPath, mode, bundleFolderPath),
@@ -8,13 +8,12 @@ package com.ca.apim.gateway.cagatewayconfig.environment;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
-import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadingOperation;
-import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
 import com.google.common.annotations.VisibleForTesting;
 import org.w3c.dom.Element;
 
 import java.io.File;
+import java.util.Comparator;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -31,29 +30,25 @@ public class EnvironmentBundleUtils {
 
     private static final Logger logger = Logger.getLogger(EnvironmentBundleUtils.class.getName());
 
-    private static String templatizedBundlesFolderPath;
-
     private EnvironmentBundleUtils() {}
 
-    static void setTemplatizedBundlesFolderPath(String folderPath) {
-        templatizedBundlesFolderPath = folderPath;
-    }
-
-    public static Bundle getDeploymentBundle() {
+    /**
+     * Loads the deployment bundles an environment bundle is built for.
+     *
+     * @param environmentBundle the environment bundle being built
+     * @return the deployment bundles, loaded into a single bundle
+     */
+    public static Bundle getDeploymentBundle(Bundle environmentBundle) {
+        final String templatizedBundlesFolderPath = environmentBundle.getTemplatizedBundlesFolderPath();
         if (templatizedBundlesFolderPath == null) {
             throw new BundleLoadException("Invalid deployment bundle path : " + templatizedBundlesFolderPath);
         }
 
+        // the deployment bundles are loaded again when they change, like between builds run by the same daemon
         BundleCache cache = InjectionRegistry.getInjector().getInstance(BundleCache.class);
-
-        if (cache.contains(templatizedBundlesFolderPath)) {
-            return cache.getBundle(templatizedBundlesFolderPath);
-        } else {
-            EntityBundleLoader loader = InjectionRegistry.getInjector().getInstance(EntityBundleLoader.class);
-            List<File> deploymentBundleFiles = collectFiles(templatizedBundlesFolderPath, INSTALL_BUNDLE_EXTENSION);
-            cache.putBundle(templatizedBundlesFolderPath, loader.load(deploymentBundleFiles, BundleLoadingOperation.EXPORT));
-            return loader.load(deploymentBundleFiles, BundleLoadingOperation.EXPORT);
-        }
+        List<File> deploymentBundleFiles = collectFiles(templatizedBundlesFolderPath, INSTALL_BUNDLE_EXTENSION);
+        deploymentBundleFiles.sort(Comparator.comparing(File::getName));
+        return cache.getBundleFromFiles(templatizedBundlesFolderPath, deploymentBundleFiles);
     }
 
     static void processDeploymentBundles(Bundle environmentBundle,
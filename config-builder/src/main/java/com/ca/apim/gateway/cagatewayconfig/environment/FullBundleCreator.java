@@ -9,18 +9,17 @@ package com.ca.apim.gateway.cagatewayconfig.environment;
 import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.*;
-import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.StringTemplatizedBundle;
-import com.ca.apim.gateway.cagatewayconfig.util.bundle.DependencyBundlesProcessor;
+import com.ca.apim.gateway.cagatewayconfig.environment.TemplatizedBundle.FileTemplatizedBundle;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtilsException;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.apache.commons.lang3.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Document;
@@ -32,24 +31,21 @@ import javax.inject.Singleton;
 import javax.xml.parsers.DocumentBuilder;
 import java.io.File;
 import java.io.IOException;
+import java.nio.file.Files;
 import java.util.*;
 import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder.isStreamDeleteBundlesEnabled;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.PLUGIN;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.collectFiles;
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
-import static java.nio.charset.Charset.defaultCharset;
-import static java.util.Collections.singletonList;
-import static java.util.stream.Collectors.toList;
 import static org.apache.commons.collections4.ListUtils.union;
-import static org.apache.commons.io.FileUtils.writeStringToFile;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
-import static org.apache.commons.lang3.SystemUtils.JAVA_IO_TMPDIR;
 
 /**
  * This combines the environment bundle generation with the deployment bundle generation and outputs one single full bundle
@@ -64,50 +60,51 @@ public class FullBundleCreator {
     private final EnvironmentBundleBuilder environmentBundleBuilder;
     private final BundleEntityBuilder bundleEntityBuilder;
     private final FileUtils fileUtils;
-    private final DependencyBundlesProcessor dependencyBundlesProcessor;
+    private final FullBundleMerger fullBundleMerger;
     private final DocumentFileUtils documentFileUtils;
     private final JsonFileUtils jsonFileUtils;
+    private final StreamedDeleteBundleBuilder streamedDeleteBundleBuilder;
 
     @Inject
     FullBundleCreator(DocumentTools documentTools,
                       EnvironmentBundleBuilder environmentBundleBuilder,
                       BundleEntityBuilder bundleEntityBuilder,
-                      FileUtils fileUtils, DependencyBundlesProcessor dependencyBundlesProcessor,
-                      DocumentFileUtils documentFileUtils, JsonFileUtils jsonFileUtils) {
+                      FileUtils fileUtils, FullBundleMerger fullBundleMerger,
+                      DocumentFileUtils documentFileUtils, JsonFileUtils jsonFileUtils,
+                      StreamedDeleteBundleBuilder streamedDeleteBundleBuilder) {
         this.documentTools = documentTools;
         this.environmentBundleBuilder = environmentBundleBuilder;
         this.bundleEntityBuilder = bundleEntityBuilder;
         this.fileUtils = fileUtils;
-        this.dependencyBundlesProcessor = dependencyBundlesProcessor;
+        this.fullBundleMerger = fullBundleMerger;
         this.documentFileUtils = documentFileUtils;
         this.jsonFileUtils = jsonFileUtils;
+        this.streamedDeleteBundleBuilder = streamedDeleteBundleBuilder;
     }
 
     public void createFullBundle(final Pair<String, Map<String, String>> bundleEnvironmentValues, final List<File> dependentBundles,
                                  String bundleFolderPath, ProjectInfo projectInfo,
                                  String fullInstallBundleFilename, String environmentConfigurationFolderPath,
                                  boolean detemplatizeDeploymentBundles) {
-        final Pair<Element, Element> elementPair = createFullAndDeleteBundles(bundleEnvironmentValues,
-                dependentBundles, bundleFolderPath, environmentConfigurationFolderPath, detemplatizeDeploymentBundles, projectInfo);
-        final String bundle = documentTools.elementToString(elementPair.getLeft());
-        // write the full bundle to a temporary file first
-        final File fullBundleFile = new File(System.getProperty(JAVA_IO_TMPDIR), fullInstallBundleFilename);
+        // the detemplatized bundles are written to a folder of their own, so that builds running in parallel don't share it
+        final File detemplatizedBundlesFolder;
         try {
-            writeStringToFile(fullBundleFile, bundle, defaultCharset());
+            detemplatizedBundlesFolder = Files.createTempDirectory("full-bundle").toFile();
         } catch (IOException e) {
-            throw new DocumentFileUtilsException("Error writing to file '" + fullInstallBundleFilename + "': " + e.getMessage(), e);
+            throw new DocumentFileUtilsException("Error creating temporary folder for bundle '" + fullInstallBundleFilename + "': " + e.getMessage(), e);
         }
 
-        // process for reattaching loose encasses and write to the final path
-        dependencyBundlesProcessor.process(singletonList(fullBundleFile), bundleFolderPath);
+        final Element deleteBundleElement;
+        try {
+            deleteBundleElement = BuildProfiler.phase("merge-full-bundle", () -> createFullAndDeleteBundles(bundleEnvironmentValues, dependentBundles, bundleFolderPath,
+                    environmentConfigurationFolderPath, detemplatizeDeploymentBundles, projectInfo,
+                    new File(bundleFolderPath, fullInstallBundleFilename), detemplatizedBundlesFolder));
+        } finally {
+            deleteFolder(detemplatizedBundlesFolder);
+        }
 
         final String fullDeleteBundleFilename = fullInstallBundleFilename.replace(INSTALL_BUNDLE_EXTENSION, DELETE_BUNDLE_EXTENSION);
-        documentFileUtils.createFile(elementPair.getRight(), new File(bundleFolderPath, fullDeleteBundleFilename).toPath());
-        // delete the temp file
-        boolean deleted = fullBundleFile.delete();
-        if (!deleted) {
-            LOGGER.log(Level.WARNING, () -> "Temporary bundle file was not deleted: " + fullBundleFile.toString());
-        }
+        documentFileUtils.createFile(deleteBundleElement, new File(bundleFolderPath, fullDeleteBundleFilename).toPath());
 
         // remove environment bundle from metadata's dependencies section
         Map<String, Object> bundleMetadata = jsonFileUtils.readBundleMetadataFile(bundleFolderPath, bundleEnvironmentValues.getLeft());
@@ -149,10 +146,19 @@ public class FullBundleCreator {
         }
     }
 
-    private Pair<Element, Element> createFullAndDeleteBundles(final Pair<String, Map<String, String>> bundleEnvironmentValues, final List<File> dependentBundles,
-                                                              String bundleFolderPath,
-                                                              String environmentConfigurationFolderPath,
-                                                              boolean detemplatizeDeploymentBundles, ProjectInfo projectInfo) {
+    private static void deleteFolder(final File folder) {
+        try {
+            org.apache.commons.io.FileUtils.deleteDirectory(folder);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, () -> "Temporary bundle folder was not deleted: " + folder + ": " + e.getMessage());
+        }
+    }
+
+    private Element createFullAndDeleteBundles(final Pair<String, Map<String, String>> bundleEnvironmentValues, final List<File> dependentBundles,
+                                               String bundleFolderPath,
+                                               String environmentConfigurationFolderPath,
+                                               boolean detemplatizeDeploymentBundles, ProjectInfo projectInfo,
+                                               File fullBundleFile, File detemplatizedBundlesFolder) {
         final Map<String, String> environmentProperties = bundleEnvironmentValues.getRight();
         final List<File> deploymentBundles = collectFiles(bundleFolderPath,
                 bundleEnvironmentValues.getLeft() + INSTALL_BUNDLE_EXTENSION);
@@ -160,14 +166,21 @@ public class FullBundleCreator {
                 bundleEnvironmentValues.getLeft() + DELETE_BUNDLE_EXTENSION);
         final List<File> bundleFiles = union(deploymentBundles, dependentBundles);
 
-        // load all deployment bundles to strings
-        List<TemplatizedBundle> templatizedBundles = bundleFiles.stream().map(f -> new StringTemplatizedBundle(f.getName(), fileUtils.getFileAsString(f))).collect(toList());
-
         // generate the environment one
         Bundle environmentBundle = new Bundle(projectInfo);
         environmentBundleBuilder.build(environmentBundle, environmentProperties, environmentConfigurationFolderPath, PLUGIN);
 
-        // validate and detemplatize
+        // validate and detemplatize, one bundle at a time into the temporary folder
+        final List<File> mergedBundleFiles = detemplatizeDeploymentBundles ? new ArrayList<>() : bundleFiles;
+        final List<TemplatizedBundle> templatizedBundles = new ArrayList<>();
+        if (detemplatizeDeploymentBundles) {
+            for (int i = 0; i < bundleFiles.size(); i++) {
+                // prefixed with their position, deployment and dependency bundles may have the same name
+                final File detemplatizedBundleFile = new File(detemplatizedBundlesFolder, i + "-" + bundleFiles.get(i).getName());
+                templatizedBundles.add(new FileTemplatizedBundle(bundleFiles.get(i), detemplatizedBundleFile));
+                mergedBundleFiles.add(detemplatizedBundleFile);
+            }
+        }
         processDeploymentBundles(environmentBundle, templatizedBundles, PLUGIN, detemplatizeDeploymentBundles);
 
         // generate the environment bundle
@@ -175,40 +188,18 @@ public class FullBundleCreator {
         final Document document = documentBuilder.newDocument();
         Map<String, BundleArtifacts> bundleElements = bundleEntityBuilder.build(environmentBundle,
                 EntityBuilder.BundleType.ENVIRONMENT, document, projectInfo);
-        Element bundleElement = createFullBundleElement(bundleElements, templatizedBundles, document);
-        Element deleteBundleElement = createDeleteBundleElement(bundleElements, deploymentDeleteBundle, dependentBundles, document);
-
-
-        return ImmutablePair.of(bundleElement, deleteBundleElement);
-    }
-
-    private Element createFullBundleElement(final Map<String, BundleArtifacts> bundleElements, final List<TemplatizedBundle> templatizedBundles, final Document document) {
-        Element bundleElement = null;
-        for (Map.Entry<String, BundleArtifacts> entry : bundleElements.entrySet()) {
-            // generate the environment bundle
-            bundleElement = entry.getValue().getBundle();
-            Element referencesElement = getSingleChildElement(bundleElement, REFERENCES);
-            Element mappingsElement = getSingleChildElement(bundleElement, MAPPINGS);
+        BundleArtifacts environmentBundleArtifacts = null;
+        for (BundleArtifacts bundleArtifacts : bundleElements.values()) {
+            environmentBundleArtifacts = bundleArtifacts;
+        }
+        if (environmentBundleArtifacts == null) {
+            throw new EntityBuilderException("No environment bundle was built for bundle " + fullBundleFile.getName());
+        }
 
-            // store Set of elements previously added so avoiding repetition in the resulting bundle
-            Set<String> addedItems = new HashSet<>();
-            Set<String> addedMappings = new HashSet<>();
+        // merge the deployment bundles into the environment one to get the full bundle
+        fullBundleMerger.merge(environmentBundleArtifacts.getBundle(), mergedBundleFiles, fullBundleFile);
 
-            // merge the deployment bundles into the environment one to get the full bundle
-            templatizedBundles.forEach(tb -> {
-                try {
-                    final Element detemplatizedBundleElement = documentTools.parse(tb.getContents()).getDocumentElement();
-                    copyNodes(getSingleChildElement(detemplatizedBundleElement, REFERENCES), ITEM, document, referencesElement, item -> addedItems.add(buildBundleItemKey(item)));
-                    copyNodes(getSingleChildElement(detemplatizedBundleElement, MAPPINGS), MAPPING, document, mappingsElement, mapping -> {
-                        final String key = buildBundleMappingKey(mapping);
-                        return addedItems.contains(key) && addedMappings.add(key);
-                    });
-                } catch (DocumentParseException e) {
-                    throw new EntityBuilderException("Unable to read bundle " + tb.getName(), e);
-                }
-            });
-        }
-        return bundleElement;
+        return createDeleteBundleElement(bundleElements, deploymentDeleteBundle, dependentBundles, document);
     }
 
     private Element createDeleteBundleElement(final Map<String, BundleArtifacts> bundleElements, final List<File> deploymentDeleteBundles, final List<File> dependentBundles, final Document document) {
@@ -222,16 +213,25 @@ public class FullBundleCreator {
             Set<String> addedItems = new HashSet<>();
             Set<String> addedMappings = new HashSet<>();
 
+            final Predicate<Element> deleteMappingFilter = mapping -> {
+                final String key = buildBundleMappingKey(mapping);
+                final String type = mapping.getAttribute(ATTRIBUTE_TYPE);
+                return !EntityTypes.FOLDER_TYPE.equals(type) && addedItems.contains(key) && addedMappings.add(key);
+            };
+
             // merge the dependent bundle mappings into the environment delete bundle one to get the full delete bundle
             dependentBundles.forEach(file -> {
+                if (isStreamDeleteBundlesEnabled()) {
+                    // only the mappings are needed to delete, the items of the dependency bundles are not read
+                    streamedDeleteBundleBuilder.readDeleteMappings(file, document, addedItems).stream()
+                            .filter(deleteMappingFilter)
+                            .forEach(mappingsElement::appendChild);
+                    return;
+                }
                 try {
                     final Element element = documentTools.parse(fileUtils.getFileAsString(file)).getDocumentElement();
                     copyNodes(getSingleChildElement(element, REFERENCES), ITEM, document, referencesElement, item -> addedItems.add(buildBundleItemKey(item)));
-                    copyDeleteMappings(getSingleChildElement(element, MAPPINGS), MAPPING, document, mappingsElement, mapping -> {
-                        final String key = buildBundleMappingKey(mapping);
-                        final String type = mapping.getAttribute(ATTRIBUTE_TYPE);
-                        return !EntityTypes.FOLDER_TYPE.equals(type) && addedItems.contains(key) && addedMappings.add(key);
-                    });
+                    copyDeleteMappings(getSingleChildElement(element, MAPPINGS), MAPPING, document, mappingsElement, deleteMappingFilter);
                 } catch (DocumentParseException e) {
                     throw new EntityBuilderException("Unable to read bundle " + file.getName(), e);
                 }
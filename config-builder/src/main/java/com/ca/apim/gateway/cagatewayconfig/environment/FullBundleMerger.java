@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.ElementStore;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleEntityLoaderRegistry;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.ca.apim.gateway.cagatewayconfig.util.bundle.DependencyBundlesProcessor;
+import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtilsException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadingOperation.VALIDATE;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.buildBundleItemKey;
+import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils.buildBundleMappingKey;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.ENCAPSULATED_ASSERTION_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.FOLDER_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
+import static javax.xml.stream.XMLStreamConstants.END_ELEMENT;
+import static javax.xml.stream.XMLStreamConstants.START_ELEMENT;
+import static org.apache.commons.lang3.StringUtils.equalsAny;
+import static org.apache.commons.lang3.StringUtils.isEmpty;
+
+/**
+ * Merges the environment bundle with the deployment and dependency bundles into the full bundle. The bundles are
+ * streamed from their files into the full bundle file one item at a time, so memory use grows with the number of
+ * entities in the bundles and not with their size.
+ * <p>
+ * Items of the bundles are added once by id and type, and their mappings only if their item was added. The loose
+ * encasses used by policies are reattached to the encasses of the full bundle as the policies are written, the same
+ * way {@link DependencyBundlesProcessor} does it for bundle files.
+ */
+@Singleton
+class FullBundleMerger {
+
+    // the entities are loaded to validate them and to find encasses by name, their elements are not needed
+    private static final ElementStore NOT_KEPT = new ElementStore() {
+        @Override
+        public Supplier<Element> keep(Element element) {
+            return () -> null;
+        }
+
+        @Override
+        public boolean keepsInMemory() {
+            return false;
+        }
+    };
+
+    private final DocumentTools documentTools;
+    private final BundleEntityLoaderRegistry entityLoaderRegistry;
+    private final DependencyBundlesProcessor dependencyBundlesProcessor;
+    private final XMLInputFactory inputFactory;
+
+    @Inject
+    FullBundleMerger(final DocumentTools documentTools, final BundleEntityLoaderRegistry entityLoaderRegistry,
+                     final DependencyBundlesProcessor dependencyBundlesProcessor) {
+        this.documentTools = documentTools;
+        this.entityLoaderRegistry = entityLoaderRegistry;
+        this.dependencyBundlesProcessor = dependencyBundlesProcessor;
+        this.inputFactory = XMLInputFactory.newInstance();
+        this.inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Writes the full bundle.
+     *
+     * @param environmentBundle the environment bundle, its items and mappings come first in the full bundle
+     * @param bundleFiles       the deployment and dependency bundles, in the order they are merged
+     * @param fullBundleFile    the file to write the full bundle to
+     */
+    void merge(final Element environmentBundle, final List<File> bundleFiles, final File fullBundleFile) {
+        // the encasses have to be known before the policies using them are written, so the bundles are read twice
+        final Bundle entities = new Bundle();
+        entities.setLoadingMode(VALIDATE);
+        entities.setElementStore(NOT_KEPT);
+        final List<Element> mappings = new ArrayList<>();
+        getChildElements(getSingleChildElement(environmentBundle, REFERENCES), ITEM).forEach(item -> loadEntity(entities, item));
+
+        final Set<String> addedItems = new HashSet<>();
+        final Set<String> addedMappings = new HashSet<>();
+        for (File bundleFile : bundleFiles) {
+            readBundle(bundleFile, item -> {
+                if (addedItems.add(buildBundleItemKey(item))) {
+                    loadEntity(entities, item);
+                }
+            }, mapping -> {
+                final String key = buildBundleMappingKey(mapping);
+                if (addedItems.contains(key) && addedMappings.add(key)) {
+                    mappings.add(mapping);
+                }
+            });
+        }
+
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(fullBundleFile.toPath()))) {
+            final TransformerHandler handler = documentTools.getTransformerHandler();
+            handler.setResult(new StreamResult(outputStream));
+            handler.startDocument();
+            writeStartElement(environmentBundle, handler);
+            for (Node child = environmentBundle.getFirstChild(); child != null; child = child.getNextSibling()) {
+                if (child instanceof Element && REFERENCES.equals(((Element) child).getTagName())) {
+                    writeReferences((Element) child, bundleFiles, entities, handler);
+                } else if (child instanceof Element && MAPPINGS.equals(((Element) child).getTagName())) {
+                    writeMappings((Element) child, mappings, handler);
+                } else {
+                    writeNode(child, handler);
+                }
+            }
+            writeEndElement(environmentBundle, handler);
+            handler.endDocument();
+        } catch (IOException | SAXException e) {
+            throw new DocumentFileUtilsException("Error writing to file '" + fullBundleFile + "': " + e.getMessage(), e);
+        }
+    }
+
+    private void loadEntity(final Bundle entities, final Element item) {
+        final String type = getSingleChildElementTextContent(item, TYPE);
+        if (equalsAny(type, ENCAPSULATED_ASSERTION_TYPE, POLICY_TYPE, FOLDER_TYPE)) {
+            entityLoaderRegistry.getLoader(type).load(entities, item);
+        }
+    }
+
+    private void writeReferences(final Element references, final List<File> bundleFiles, final Bundle entities, final TransformerHandler handler) throws SAXException {
+        writeStartElement(references, handler);
+        for (Node child = references.getFirstChild(); child != null; child = child.getNextSibling()) {
+            writeNode(child, handler);
+        }
+        final Set<String> writtenItems = new HashSet<>();
+        for (File bundleFile : bundleFiles) {
+            readBundle(bundleFile, item -> {
+                if (writtenItems.add(buildBundleItemKey(item))) {
+                    dependencyBundlesProcessor.processItem(entities, item);
+                    try {
+                        writeNode(item, handler);
+                    } catch (SAXException e) {
+                        throw new DocumentFileUtilsException("Error writing item of bundle '" + bundleFile.getName() + "': " + e.getMessage(), e);
+                    }
+                }
+            }, null);
+        }
+        writeEndElement(references, handler);
+    }
+
+    private static void writeMappings(final Element environmentMappings, final List<Element> mappings, final TransformerHandler handler) throws SAXException {
+        writeStartElement(environmentMappings, handler);
+        for (Node child = environmentMappings.getFirstChild(); child != null; child = child.getNextSibling()) {
+            writeNode(child, handler);
+        }
+        for (Element mapping : mappings) {
+            writeNode(mapping, handler);
+        }
+        writeEndElement(environmentMappings, handler);
+    }
+
+    /**
+     * Reads the items and mappings of the bundle file one at a time.
+     *
+     * @param bundleFile     the bundle file
+     * @param itemHandler    handler of the items of the bundle
+     * @param mappingHandler handler of the mappings of the bundle, or null to skip them
+     */
+    private void readBundle(final File bundleFile, final Consumer<Element> itemHandler, final Consumer<Element> mappingHandler) {
+        final Document document = documentTools.getDocumentBuilder().newDocument();
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(bundleFile.toPath()))) {
+            final XMLStreamReader reader = inputFactory.createXMLStreamReader(inputStream);
+            try {
+                String section = null;
+                int depth = 0;
+                while (reader.hasNext()) {
+                    final int event = reader.next();
+                    if (event == START_ELEMENT) {
+                        depth++;
+                        final String name = isEmpty(reader.getPrefix()) ? reader.getLocalName() : reader.getPrefix() + ":" + reader.getLocalName();
+                        final Consumer<Element> handler = getHandler(section, name, itemHandler, mappingHandler);
+                        if (depth == 2) {
+                            section = name;
+                        } else if (depth == 3 && handler != null) {
+                            // the reader is left at the end of the element
+                            handler.accept(readElement(reader, document));
+                            depth--;
+                        }
+                    } else if (event == END_ELEMENT) {
+                        depth--;
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            throw new BundleLoadException("Could not read bundle '" + bundleFile.getName() + "': " + e.getMessage(), e);
+        }
+    }
+
+    private static Consumer<Element> getHandler(final String section, final String name, final Consumer<Element> itemHandler, final Consumer<Element> mappingHandler) {
+        if (REFERENCES.equals(section) && ITEM.equals(name)) {
+            return itemHandler;
+        }
+        if (MAPPINGS.equals(section) && MAPPING.equals(name)) {
+            return mappingHandler;
+        }
+        return null;
+    }
+
+}
@@ -6,14 +6,21 @@
 
 package com.ca.apim.gateway.cagatewayconfig.util;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
+
 import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Random;
 import java.util.UUID;
 import java.util.concurrent.atomic.AtomicLong;
 
+import static java.nio.charset.StandardCharsets.UTF_8;
+
 /**
  * This generates ids that are used on gateway entities. It works by randomly generating an id and then incrementing it to retrieve subsequent ids.
+ * The ids of the entities of a built bundle are derived from the project and the entity instead, so that the same sources give the same bundle.
  */
 public class IdGenerator {
 
@@ -47,6 +54,42 @@ public class IdGenerator {
         return hexDump(ByteBuffer.allocate(16).putLong(hi.get()).putLong(low.getAndIncrement()).array());
     }
 
+    /**
+     * Return an id for the gateway entity of the given type and name in the given project. The id is derived from them,
+     * so building the same sources again gives the same id. The name must be unique for the type within the bundle.
+     *
+     * @param projectInfo the project the entity belongs to, can be null
+     * @param type        the entity type
+     * @param name        the entity name or path
+     * @return An id that can be used for a gateway entity.
+     */
+    public String generate(ProjectInfo projectInfo, String type, String name) {
+        final ByteBuffer digest = ByteBuffer.wrap(sha256(seed(projectInfo, type, name)));
+        long stableHi = digest.getLong();
+        if (stableHi >= 0 && stableHi < MAX_ID_RESERVED_PREFIX) {
+            // keep it out of the range of default prefixes the same way the random ids do
+            stableHi |= Long.MIN_VALUE;
+        }
+        return hexDump(ByteBuffer.allocate(16).putLong(stableHi).putLong(digest.getLong()).array());
+    }
+
+    private static byte[] seed(ProjectInfo projectInfo, String type, String name) {
+        final StringBuilder seed = new StringBuilder();
+        if (projectInfo != null) {
+            seed.append(projectInfo.getGroupName()).append(':').append(projectInfo.getName()).append(':')
+                    .append(projectInfo.getVersion()).append(':').append(projectInfo.getConfigName());
+        }
+        return seed.append('/').append(type).append('/').append(name).toString().getBytes(UTF_8);
+    }
+
+    private static byte[] sha256(byte[] bytes) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(bytes);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
     private static String hexDump(byte[] binaryData) {
         return hexDump(binaryData, binaryData.length);
     }
@@ -70,4 +113,16 @@ public class IdGenerator {
     public String generateGuid() {
         return UUID.randomUUID().toString();
     }
+
+    /**
+     * Return a name based guid for the gateway entity of the given type and name in the given project, see {@link #generate(ProjectInfo, String, String)}.
+     *
+     * @param projectInfo the project the entity belongs to, can be null
+     * @param type        the entity type
+     * @param name        the entity name or path
+     * @return A guid that can be used for a gateway entity.
+     */
+    public String generateGuid(ProjectInfo projectInfo, String type, String name) {
+        return UUID.nameUUIDFromBytes(seed(projectInfo, type, name)).toString();
+    }
 }
@@ -12,6 +12,7 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadingOperation;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.jetbrains.annotations.NotNull;
@@ -55,6 +56,10 @@ public class DependencyBundlesProcessor {
     }
 
     public LinkedList<File> process(final List<File> bundles, String bundleFolderPath) {
+        return BuildProfiler.phase("process-dependency-bundles", () -> processBundles(bundles, bundleFolderPath));
+    }
+
+    private LinkedList<File> processBundles(final List<File> bundles, String bundleFolderPath) {
         Bundle bundleObject = entityBundleLoader.load(bundles, BundleLoadingOperation.VALIDATE, ENCAPSULATED_ASSERTION_TYPE, EntityTypes.POLICY_TYPE, FOLDER_TYPE);
         LinkedList<File> processedBundles = new LinkedList<>();
 
@@ -92,8 +97,20 @@ public class DependencyBundlesProcessor {
     private void processEncasses(Bundle bundleObject, NodeList items) {
         stream(nodeList(items).spliterator(), false)
                 .map(node -> (Element) node)
-                .filter(element -> equalsAny(getSingleChildElementTextContent(element, TYPE), EntityTypes.POLICY_TYPE, EntityTypes.SERVICE_TYPE))
-                .forEach(policyItem -> processPolicyItem(bundleObject, policyItem));
+                .forEach(item -> processItem(bundleObject, item));
+    }
+
+    /**
+     * Reattaches the loose encasses used by the policy of a policy or service item to the encasses of the bundle with
+     * the same name. Other items are left as they are.
+     *
+     * @param bundleObject bundle with the encasses of all the bundles
+     * @param item bundle item
+     */
+    public void processItem(Bundle bundleObject, Element item) {
+        if (equalsAny(getSingleChildElementTextContent(item, TYPE), EntityTypes.POLICY_TYPE, EntityTypes.SERVICE_TYPE)) {
+            processPolicyItem(bundleObject, item);
+        }
     }
 
     private void processPolicyItem(Bundle bundleObject, Element policyItem) {
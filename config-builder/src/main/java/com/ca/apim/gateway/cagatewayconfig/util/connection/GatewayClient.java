@@ -119,12 +119,22 @@ public class GatewayClient {
      * @return the formatted url
      */
     public static String getRestmanBundleEndpoint(String url) {
+        return getRestmanEndpoint(url, "bundle");
+    }
+
+    /**
+     * Format the url with the required parts for a restman resource endpoint.
+     * @param url the url, full or partial
+     * @param resource the restman resource, like "bundle" or "folders"
+     * @return the formatted url
+     */
+    public static String getRestmanEndpoint(String url, String resource) {
         if (!url.endsWith("/")) {
             url += "/";
         }
         if (!url.contains("restman")) {
             url += "restman/";
         }
-        return  url + "1.0/bundle";
+        return  url + "1.0/" + resource;
     }
 }
@@ -9,13 +9,18 @@ package com.ca.apim.gateway.cagatewayconfig.util.file;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import org.w3c.dom.Element;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
 import java.nio.file.Files;
 import java.nio.file.Path;
 
-import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.closeQuietly;
-
+/**
+ * Writes documents to files and creates the folders they go in. Safe to use from the writer threads of the build and
+ * of explode at the same time: folders are created optimistically, without locking, and creating a folder another thread
+ * just created is not an error.
+ */
 public class DocumentFileUtils {
 
     public static final DocumentFileUtils INSTANCE = new DocumentFileUtils(DocumentTools.INSTANCE);
@@ -25,6 +30,8 @@ public class DocumentFileUtils {
     public static final String INSTALL_BUNDLE_EXTENSION = ".install.bundle";
     public static final String PREFIX_ENVIRONMENT = "environment";
     public static final String PREFIX_FULL = "-full";
+    // the xml serializer writes in small chunks, they are written to the file in blocks of this size
+    private static final int OUTPUT_BUFFER_SIZE = 64 * 1024;
 
     private DocumentFileUtils(DocumentTools documentTools) {
         this.documentTools = documentTools;
@@ -35,26 +42,32 @@ public class DocumentFileUtils {
     }
 
     public void createFile(Element element, Path path, boolean addNamespace) {
-        OutputStream fos = null;
-        try {
-            fos = Files.newOutputStream(path);
+        try (OutputStream fos = new BufferedOutputStream(Files.newOutputStream(path), OUTPUT_BUFFER_SIZE)) {
             documentTools.printXML(element, fos, addNamespace);
         } catch (IOException e) {
             throw new DocumentFileUtilsException("Error writing to file '" + path + "': " + e.getMessage(), e);
-        } finally {
-            closeQuietly(fos);
         }
     }
 
-    public synchronized void createFolder(Path folderPath) {
-        if (!folderPath.toFile().exists()) {
-            try {
-                Files.createDirectory(folderPath);
-            } catch (IOException e) {
-                throw new DocumentFileUtilsException("Exception creating folder: " + folderPath, e);
+    /**
+     * Create the folder, its parent has to exist. Does not fail if it already exists.
+     *
+     * @param folderPath Path of the folder to create.
+     */
+    public void createFolder(Path folderPath) {
+        // most folders already exist, checking first is cheaper than failing to create them
+        if (Files.isDirectory(folderPath)) {
+            return;
+        }
+        try {
+            Files.createDirectory(folderPath);
+        } catch (FileAlreadyExistsException e) {
+            // created by another thread in the meantime, unless it is a file
+            if (!Files.isDirectory(folderPath)) {
+                throw new DocumentFileUtilsException("Wanted to create folder but found a file: " + folderPath);
             }
-        } else if (!folderPath.toFile().isDirectory()) {
-            throw new DocumentFileUtilsException("Wanted to create folder but found a file: " + folderPath);
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Exception creating folder: " + folderPath, e);
         }
     }
 
@@ -63,15 +76,17 @@ public class DocumentFileUtils {
      *
      * @param folderPath Path representing all folders that should be created.
      */
-    public synchronized void createFolders(Path folderPath) {
-        if (!folderPath.toFile().exists()) {
-            try {
-                Files.createDirectories(folderPath);
-            } catch (IOException e) {
-                throw new DocumentFileUtilsException("Exception creating folder(s): " + folderPath, e);
-            }
-        } else if (!folderPath.toFile().isDirectory()) {
+    public void createFolders(Path folderPath) {
+        if (Files.isDirectory(folderPath)) {
+            return;
+        }
+        try {
+            // folders created by other threads in the meantime are accepted
+            Files.createDirectories(folderPath);
+        } catch (FileAlreadyExistsException e) {
             throw new DocumentFileUtilsException("Wanted to create folder but found a file: " + folderPath);
+        } catch (IOException e) {
+            throw new DocumentFileUtilsException("Exception creating folder(s): " + folderPath, e);
         }
     }
 }
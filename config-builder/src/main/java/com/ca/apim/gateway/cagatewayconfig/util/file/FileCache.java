@@ -0,0 +1,181 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.file;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilderException;
+import com.google.common.hash.HashCode;
+import com.google.common.hash.Hashing;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static java.util.stream.Collectors.toList;
+
+/**
+ * Keeps what was loaded from files until the files change. The cache lives as long as its owner, so the caches of the
+ * injected singletons live as long as the Gradle daemon running the builds, and a build only loads again the files
+ * changed since the last build.
+ * <p>
+ * A file is unchanged when its size and last modified time are the same. When the contents are compared, a file with
+ * the same size but a different last modified time is also unchanged if its contents hash the same, like a bundle
+ * built again from the same sources.
+ *
+ * @param <T> type of the values loaded from the files
+ */
+public class FileCache<T> {
+
+    private final Map<String, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final boolean compareContents;
+
+    /**
+     * @param compareContents whether to hash the files to tell if they changed, when their last modified time did
+     */
+    public FileCache(boolean compareContents) {
+        this.compareContents = compareContents;
+    }
+
+    /**
+     * Gets the value loaded from the file, loading it again if the file changed.
+     *
+     * @param file   the file
+     * @param loader loads the value from the file, null values are not kept
+     * @return the value
+     */
+    public T get(final File file, final Function<File, T> loader) {
+        return get(file.getPath(), Collections.singletonList(file), () -> loader.apply(file));
+    }
+
+    /**
+     * Gets the value loaded from the files, loading it again if one of the files changed or the files are not the
+     * same as when it was loaded.
+     *
+     * @param key    the key of the value
+     * @param files  the files the value is loaded from
+     * @param loader loads the value from the files, null values are not kept
+     * @return the value
+     */
+    public T get(final String key, final List<File> files, final Supplier<T> loader) {
+        final List<Fingerprint> fingerprints = files.stream().map(Fingerprint::new).collect(toList());
+        final Entry<T> entry = entries.get(key);
+        if (entry != null && isUnchanged(entry.fingerprints, fingerprints)) {
+            if (!isSameLastModified(entry.fingerprints, fingerprints)) {
+                // files touched but not changed are not hashed again next time
+                for (int i = 0; i < fingerprints.size(); i++) {
+                    fingerprints.get(i).hash = entry.fingerprints.get(i).hash;
+                }
+                entries.put(key, new Entry<>(fingerprints, entry.value));
+            }
+            return entry.value;
+        }
+
+        // the files are fingerprinted before they are loaded, if they change in between they are loaded again next time
+        if (compareContents) {
+            fingerprints.forEach(Fingerprint::hash);
+        }
+        final T value = loader.get();
+        if (value != null) {
+            entries.put(key, new Entry<>(fingerprints, value));
+        } else {
+            entries.remove(key);
+        }
+        return value;
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    private boolean isUnchanged(final List<Fingerprint> loaded, final List<Fingerprint> current) {
+        if (loaded.size() != current.size()) {
+            return false;
+        }
+        for (int i = 0; i < loaded.size(); i++) {
+            final Fingerprint loadedFingerprint = loaded.get(i);
+            final Fingerprint currentFingerprint = current.get(i);
+            if (!loadedFingerprint.path.equals(currentFingerprint.path) || loadedFingerprint.size != currentFingerprint.size) {
+                return false;
+            }
+            if (!Objects.equals(loadedFingerprint.lastModified, currentFingerprint.lastModified)
+                    && (!compareContents || loadedFingerprint.hash == null || !loadedFingerprint.hash.equals(currentFingerprint.hash()))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isSameLastModified(final List<Fingerprint> loaded, final List<Fingerprint> current) {
+        for (int i = 0; i < loaded.size(); i++) {
+            if (!Objects.equals(loaded.get(i).lastModified, current.get(i).lastModified)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static class Entry<T> {
+        private final List<Fingerprint> fingerprints;
+        private final T value;
+
+        private Entry(List<Fingerprint> fingerprints, T value) {
+            this.fingerprints = fingerprints;
+            this.value = value;
+        }
+    }
+
+    /**
+     * Path, size and last modified time of a file, and the hash of its contents once computed. A missing file has a
+     * size of -1.
+     */
+    private static class Fingerprint {
+        private final File file;
+        private final String path;
+        private final long size;
+        private final FileTime lastModified;
+        private HashCode hash;
+
+        private Fingerprint(File file) {
+            this.file = file;
+            this.path = file.getPath();
+            BasicFileAttributes attributes;
+            try {
+                attributes = Files.readAttributes(file.toPath(), BasicFileAttributes.class);
+            } catch (NoSuchFileException e) {
+                attributes = null;
+            } catch (IOException e) {
+                throw new EntityBuilderException("Could not read file " + file.getPath(), e);
+            }
+            this.size = attributes == null ? -1 : attributes.size();
+            this.lastModified = attributes == null ? null : attributes.lastModifiedTime();
+        }
+
+        private HashCode hash() {
+            if (hash == null && size >= 0) {
+                try {
+                    hash = com.google.common.io.Files.asByteSource(file).hash(Hashing.sha256());
+                } catch (IOException e) {
+                    throw new EntityBuilderException("Could not read file " + file.getPath(), e);
+                }
+            }
+            return hash;
+        }
+    }
+}
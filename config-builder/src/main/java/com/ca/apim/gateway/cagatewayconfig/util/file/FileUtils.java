@@ -14,10 +14,10 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.nio.file.FileSystems;
 import java.nio.file.Files;
+import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import java.util.stream.Stream;
 
 import static com.google.common.collect.Lists.newArrayList;
 import static java.util.Optional.ofNullable;
@@ -27,6 +27,9 @@ public class FileUtils {
     private static final Logger LOGGER = Logger.getLogger(FileUtils.class.getName());
     public static final boolean POSIX_ENABLED = FileSystems.getDefault().supportedFileAttributeViews().contains("posix");
     public static final FileUtils INSTANCE = new FileUtils();
+    public static final String CACHE_FILE_CONTENTS = "com.ca.apim.build.cacheFileContents";
+
+    private final FileCache<String> fileContents = new FileCache<>(false);
 
     public InputStream getInputStream(final File file) {
         final InputStream stream;
@@ -48,7 +51,17 @@ public class FileUtils {
         return stream;
     }
 
+    /**
+     * Reads the file. With com.ca.apim.build.cacheFileContents set, the contents are kept and the file is only read
+     * again once it changes, so builds run again by the same Gradle daemon only read the project files that changed.
+     *
+     * @param file the file
+     * @return the contents of the file
+     */
     public String getFileAsString(final File file) {
+        if (Boolean.getBoolean(CACHE_FILE_CONTENTS)) {
+            return fileContents.get(file, f -> new String(this.readFile(f)));
+        }
         return new String(this.readFile(file));
     }
 
@@ -98,6 +111,15 @@ public class FileUtils {
      * @return file found or null
      */
     public static File findConfigFileOrDir(final File baseDir, final String fileOrDirName) {
-        return Stream.of(new File(baseDir, fileOrDirName), new File(new File(baseDir, "config"), fileOrDirName)).filter(File::exists).findFirst().orElse(null);
+        return getConfigFileOrDirCandidates(baseDir, fileOrDirName).stream().filter(File::exists).findFirst().orElse(null);
+    }
+
+    /**
+     * @param baseDir base dir
+     * @param fileOrDirName file to be found
+     * @return the files {@link #findConfigFileOrDir(File, String)} looks for, whether they exist or not
+     */
+    public static List<File> getConfigFileOrDirCandidates(final File baseDir, final String fileOrDirName) {
+        return Arrays.asList(new File(baseDir, fileOrDirName), new File(new File(baseDir, "config"), fileOrDirName));
     }
 }
@@ -64,7 +64,7 @@ public class JsonFileUtils {
         createFile(object, getPoliciesConfigFile(rootDir).toPath());
     }
 
-    private File getPoliciesConfigFile(final File rootDir) {
+    public File getPoliciesConfigFile(final File rootDir) {
         return new File(new File(rootDir, CONFIG_DIR), POLICIES_CONFIG_FILE);
     }
 
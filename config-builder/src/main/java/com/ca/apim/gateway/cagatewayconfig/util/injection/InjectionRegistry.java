@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayconfig.util.injection;
 
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.google.common.annotations.VisibleForTesting;
 import com.google.inject.AbstractModule;
 import com.google.inject.Injector;
@@ -30,12 +31,15 @@ import static java.util.Optional.ofNullable;
 
 /**
  * Dependency injection module for the gateway developer plugins.
+ * <p>
+ * The injector is created once per JVM and shared by every build running in it, so the services it provides must not
+ * keep state of a single build.
  */
 public class InjectionRegistry extends AbstractModule {
 
     private static final InjectionRegistry INSTANCE = new InjectionRegistry();
     private static final String INJECTION_BASE_PACKAGE_KEY = "injection.base.package";
-    private static Injector injector;
+    private static volatile Injector injector;
 
     private InjectionRegistry() {
         //
@@ -129,7 +133,14 @@ public class InjectionRegistry extends AbstractModule {
     }
 
     public static Injector getInjector() {
-        return ofNullable(injector).orElseGet(InjectionRegistry::create);
+        final Injector current = injector;
+        if (current != null) {
+            return current;
+        }
+        // builds of parallel projects can get here together, the injector is created by the first one
+        synchronized (InjectionRegistry.class) {
+            return ofNullable(injector).orElseGet(InjectionRegistry::create);
+        }
     }
 
     public static <T> T getInstance(Class<T> serviceClass) {
@@ -137,8 +148,8 @@ public class InjectionRegistry extends AbstractModule {
     }
 
     @VisibleForTesting
-    static Injector create() {
-        injector = createInjector(INSTANCE);
+    static synchronized Injector create() {
+        injector = BuildProfiler.phase("injector-bootstrap", () -> createInjector(INSTANCE));
         return injector;
     }
 
@@ -23,7 +23,9 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.logging.Level;
@@ -36,6 +38,10 @@ import static org.apache.commons.io.FilenameUtils.getExtension;
 
 public class JsonTools {
     private static final Logger LOGGER = Logger.getLogger(JsonTools.class.getName());
+    /**
+     * Shared by every build in the JVM, its output type is always YAML. Builds that write another type use their own
+     * copy from {@link #withOutputType(String)}.
+     */
     public static final JsonTools INSTANCE = new JsonTools(FileUtils.INSTANCE);
 
     public static final String JSON = "json";
@@ -58,6 +64,23 @@ public class JsonTools {
         fileExtension = "." + YML_EXTENSION;
     }
 
+    private JsonTools(JsonTools jsonTools, String outputType) {
+        this.fileUtils = jsonTools.fileUtils;
+        this.objectMapperMap.putAll(jsonTools.objectMapperMap);
+        setOutputType(outputType);
+    }
+
+    /**
+     * Copies these tools to write the given output type, sharing the object mappers. Unlike
+     * {@link #setOutputType(String)} this leaves these tools unchanged, so it is safe on the shared instance.
+     *
+     * @param outputType yaml or json, anything else is written as yaml
+     * @return tools writing the output type
+     */
+    public JsonTools withOutputType(String outputType) {
+        return new JsonTools(this, outputType);
+    }
+
     public ObjectMapper getObjectMapper() {
         return getObjectMapper(outputType);
     }
@@ -82,6 +105,21 @@ public class JsonTools {
         return Optional.ofNullable(findFile(rootDir, fileName)).orElseGet(() -> findFile(new File(rootDir, "config"), fileName));
     }
 
+    /**
+     * @param rootDir  the source directory
+     * @param fileName the name of the document, without extension
+     * @return the files {@link #getDocumentFile(File, String)} looks for, whether they exist or not
+     */
+    public List<File> getDocumentFileCandidates(final File rootDir, final String fileName) {
+        final List<File> candidates = new ArrayList<>();
+        for (File directory : new File[]{rootDir, new File(rootDir, "config")}) {
+            for (String extension : new String[]{JSON_EXTENSION, YAML_EXTENSION, YML_EXTENSION}) {
+                candidates.add(new File(directory, fileName + "." + extension));
+            }
+        }
+        return candidates;
+    }
+
     private File findFile(final File directory, final String fileName) {
         final File jsonFile = new File(directory, fileName + "." + JSON_EXTENSION);
         final File yamlFile = new File(directory, fileName + "." + YAML_EXTENSION);
@@ -146,6 +184,11 @@ public class JsonTools {
         }
     }
 
+    /**
+     * Changes the output type of these tools. Not to be used on {@link #INSTANCE}, use {@link #withOutputType(String)}.
+     *
+     * @param outputType yaml or json, anything else is written as yaml
+     */
     public void setOutputType(String outputType) {
         if (JSON.equalsIgnoreCase(outputType)) {
             this.outputType = JSON;
@@ -0,0 +1,63 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.profile;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Profile of one task run, as written to the JSON report. Phases are listed in the order they first ended.
+ */
+public class BuildProfile {
+
+    private String task;
+    private PhaseProfile total;
+    private Map<String, PhaseProfile> phases = new LinkedHashMap<>();
+    private SortedMap<String, Integer> entityCounts = new TreeMap<>();
+
+    public String getTask() {
+        return task;
+    }
+
+    public void setTask(String task) {
+        this.task = task;
+    }
+
+    public PhaseProfile getTotal() {
+        return total;
+    }
+
+    public void setTotal(PhaseProfile total) {
+        this.total = total;
+    }
+
+    public synchronized Map<String, PhaseProfile> getPhases() {
+        return phases;
+    }
+
+    public synchronized void setPhases(Map<String, PhaseProfile> phases) {
+        this.phases = phases;
+    }
+
+    public synchronized SortedMap<String, Integer> getEntityCounts() {
+        return entityCounts;
+    }
+
+    public synchronized void setEntityCounts(SortedMap<String, Integer> entityCounts) {
+        this.entityCounts = entityCounts;
+    }
+
+    synchronized void addPhase(String name, PhaseProfile phase) {
+        phases.computeIfAbsent(name, n -> new PhaseProfile()).add(phase);
+    }
+
+    synchronized void addEntityCounts(Map<String, Integer> counts) {
+        counts.forEach((type, count) -> entityCounts.merge(type, count, Integer::sum));
+    }
+}
@@ -0,0 +1,14 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.profile;
+
+public class BuildProfileRegressionException extends RuntimeException {
+
+    public BuildProfileRegressionException(String message) {
+        super(message);
+    }
+}
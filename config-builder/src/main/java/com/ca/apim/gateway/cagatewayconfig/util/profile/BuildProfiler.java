@@ -0,0 +1,357 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.profile;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+
+/**
+ * Profiles the phases of the gateway build tasks. It is enabled with the com.ca.apim.build.profile system property,
+ * and writes a JSON profile of each task run to build/reports/gateway-profile, with the wall time, CPU time and bytes
+ * allocated by each phase and the number of entities of each type the task loaded.
+ * <p>
+ * Each task run has its own profile, kept for the thread that started it and the threads that thread starts, so tasks
+ * of other modules running at the same time in the JVM are not mixed in. CPU time and allocations are measured on
+ * every thread of the JVM while a phase runs, so work the phase does in parallel is included, and so is anything else
+ * the build runs at the same time. Phases can be nested, the time of a phase includes the phases within it. Phases
+ * that run outside of a task, like the injector bootstrap done while the build is configured, are reported with the
+ * next task profiled.
+ * <p>
+ * When com.ca.apim.build.profileBaseline is set to a directory with the profiles of an earlier run, a task fails if
+ * one of its phases took longer than in the baseline by more than com.ca.apim.build.profileTolerance percent.
+ */
+public class BuildProfiler {
+
+    public static final String PROFILE = "com.ca.apim.build.profile";
+    public static final String PROFILE_BASELINE = "com.ca.apim.build.profileBaseline";
+    public static final String PROFILE_TOLERANCE = "com.ca.apim.build.profileTolerance";
+    static final String REPORT_DIRECTORY = "reports/gateway-profile";
+    static final String TOTAL = "total";
+
+    private static final Logger LOGGER = Logger.getLogger(BuildProfiler.class.getName());
+    // phases this much slower or less are not counted as regressions, their times are mostly noise
+    static final long MIN_REGRESSION_MILLIS = 50;
+
+    private static final int DEFAULT_TOLERANCE = 25;
+    private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+    private static final Scope NO_SCOPE = () -> {
+    };
+
+    // the profile of the task run by a thread, inherited by the threads it starts, which may outlive the task
+    private static final InheritableThreadLocal<BuildProfile> TASK_PROFILE = new InheritableThreadLocal<>();
+    private static final Set<BuildProfile> RUNNING = Collections.newSetFromMap(new ConcurrentHashMap<>());
+    // phases run outside of a task
+    private static BuildProfile pending = new BuildProfile();
+
+    private BuildProfiler() {
+    }
+
+    public static boolean isEnabled() {
+        return Boolean.getBoolean(PROFILE);
+    }
+
+    /**
+     * Starts profiling a task run. Closing the returned scope writes the profile of the run, and checks it against the
+     * baseline if there is one.
+     *
+     * @param taskName         name of the task, used to name its profile
+     * @param buildDirectory   build directory of the project the task belongs to
+     * @param projectDirectory directory of the project, relative baseline directories are resolved against it
+     * @return scope of the task run
+     * @throws BuildProfileRegressionException when closed, if a phase regressed past the baseline
+     */
+    public static Scope start(String taskName, File buildDirectory, File projectDirectory) {
+        if (!isEnabled()) {
+            return NO_SCOPE;
+        }
+        final BuildProfile profile;
+        synchronized (BuildProfiler.class) {
+            profile = pending;
+            pending = new BuildProfile();
+        }
+        profile.setTask(taskName);
+        final BuildProfile outerProfile = TASK_PROFILE.get();
+        TASK_PROFILE.set(profile);
+        RUNNING.add(profile);
+        final Snapshot start = new Snapshot();
+        return () -> {
+            profile.setTotal(start.measure());
+            RUNNING.remove(profile);
+            if (outerProfile != null) {
+                TASK_PROFILE.set(outerProfile);
+            } else {
+                TASK_PROFILE.remove();
+            }
+            write(profile, new File(new File(buildDirectory, REPORT_DIRECTORY), taskName + ".json"));
+            checkBaseline(profile, projectDirectory);
+        };
+    }
+
+    /**
+     * Profiles a task run, see {@link #start(String, File, File)}.
+     *
+     * @param taskName         name of the task, used to name its profile
+     * @param buildDirectory   build directory of the project the task belongs to
+     * @param projectDirectory directory of the project, relative baseline directories are resolved against it
+     * @param task             the task run
+     * @throws BuildProfileRegressionException if a phase regressed past the baseline
+     */
+    public static void profileTask(String taskName, File buildDirectory, File projectDirectory, Runnable task) {
+        final Scope scope = start(taskName, buildDirectory, projectDirectory);
+        try {
+            task.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Starts a phase of the task being profiled.
+     *
+     * @param name name of the phase, phases with the same name are summed
+     * @return scope of the phase, to be closed when the phase ends
+     */
+    public static Scope phase(String name) {
+        if (!isEnabled()) {
+            return NO_SCOPE;
+        }
+        final BuildProfile profile = active();
+        final Snapshot start = new Snapshot();
+        return () -> profile.addPhase(name, start.measure());
+    }
+
+    /**
+     * Runs a phase of the task being profiled.
+     *
+     * @param name  name of the phase, phases with the same name are summed
+     * @param phase the phase
+     */
+    public static void phase(String name, Runnable phase) {
+        final Scope scope = phase(name);
+        try {
+            phase.run();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Runs a phase of the task being profiled.
+     *
+     * @param name  name of the phase, phases with the same name are summed
+     * @param phase the phase
+     * @param <T>   the type of the result of the phase
+     * @return the result of the phase
+     */
+    public static <T> T phase(String name, Supplier<T> phase) {
+        final Scope scope = phase(name);
+        try {
+            return phase.get();
+        } finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Counts the entities of the bundle in the profile of the task being profiled.
+     *
+     * @param bundle a bundle loaded by the task
+     */
+    public static void countEntities(Bundle bundle) {
+        if (isEnabled()) {
+            active().addEntityCounts(bundle.countEntitiesByType());
+        }
+    }
+
+    private static BuildProfile active() {
+        final BuildProfile profile = TASK_PROFILE.get();
+        if (profile != null && RUNNING.contains(profile)) {
+            return profile;
+        }
+        synchronized (BuildProfiler.class) {
+            return pending;
+        }
+    }
+
+    private static void write(BuildProfile profile, File reportFile) {
+        try {
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            JsonTools.INSTANCE.getObjectWriter(JSON).writeValue(reportFile, profile);
+        } catch (IOException e) {
+            // a profile that can't be written is not a reason to fail the build
+            LOGGER.log(Level.WARNING, "Could not write build profile {0}: {1}", new Object[]{reportFile, e.getMessage()});
+        }
+    }
+
+    private static void checkBaseline(BuildProfile profile, File projectDirectory) {
+        final String baselineDirectoryName = System.getProperty(PROFILE_BASELINE);
+        if (baselineDirectoryName == null) {
+            return;
+        }
+        File baselineDirectory = new File(baselineDirectoryName);
+        if (!baselineDirectory.isAbsolute()) {
+            baselineDirectory = new File(projectDirectory, baselineDirectoryName);
+        }
+        final File baselineFile = new File(baselineDirectory, profile.getTask() + ".json");
+        if (!baselineFile.isFile()) {
+            LOGGER.log(Level.WARNING, "No baseline profile {0} to compare task {1} with", new Object[]{baselineFile, profile.getTask()});
+            return;
+        }
+
+        final BuildProfile baseline;
+        try {
+            baseline = JsonTools.INSTANCE.getObjectMapper(JSON).readValue(baselineFile, BuildProfile.class);
+        } catch (IOException e) {
+            throw new BuildProfileRegressionException("Could not read baseline profile " + baselineFile + ": " + e.getMessage());
+        }
+        final List<String> regressions = findRegressions(profile, baseline, Integer.getInteger(PROFILE_TOLERANCE, DEFAULT_TOLERANCE));
+        if (!regressions.isEmpty()) {
+            throw new BuildProfileRegressionException("Task " + profile.getTask() + " regressed past baseline profile " + baselineFile + ": " + String.join(", ", regressions));
+        }
+    }
+
+    static List<String> findRegressions(BuildProfile profile, BuildProfile baseline, int tolerance) {
+        final Map<String, PhaseProfile> phases = new HashMap<>(profile.getPhases());
+        final Map<String, PhaseProfile> baselinePhases = new HashMap<>(baseline.getPhases());
+        phases.put(TOTAL, profile.getTotal());
+        baselinePhases.put(TOTAL, baseline.getTotal());
+
+        final List<String> regressions = new ArrayList<>();
+        baselinePhases.forEach((name, baselinePhase) -> {
+            final PhaseProfile phase = phases.get(name);
+            if (phase == null || baselinePhase == null) {
+                return;
+            }
+            final long wallTime = phase.getWallTimeMillis();
+            final long baselineWallTime = baselinePhase.getWallTimeMillis();
+            if (wallTime - baselineWallTime > MIN_REGRESSION_MILLIS && wallTime * 100 > baselineWallTime * (100 + tolerance)) {
+                regressions.add(name + " took " + wallTime + " ms, " + baselineWallTime + " ms in baseline");
+            }
+        });
+        Collections.sort(regressions);
+        return regressions;
+    }
+
+    /**
+     * A profiled task run or phase, ended when closed.
+     */
+    @FunctionalInterface
+    public interface Scope extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    /**
+     * Wall time, and CPU time and allocated bytes of each thread, at one point in time.
+     */
+    private static class Snapshot {
+        private final long wallTime = System.nanoTime();
+        private final Map<Long, Long> cpuTimes = new HashMap<>();
+        private final Map<Long, Long> allocatedBytes = new HashMap<>();
+
+        private Snapshot() {
+            final long[] threadIds = THREADS.getAllThreadIds();
+            final long[] threadCpuTimes = getCpuTimes(threadIds);
+            final long[] threadAllocatedBytes = getAllocatedBytes(threadIds);
+            for (int i = 0; i < threadIds.length; i++) {
+                cpuTimes.put(threadIds[i], threadCpuTimes[i]);
+                allocatedBytes.put(threadIds[i], threadAllocatedBytes[i]);
+            }
+        }
+
+        /**
+         * @return what was spent from this snapshot until now
+         */
+        private PhaseProfile measure() {
+            final Snapshot end = new Snapshot();
+            final PhaseProfile phase = new PhaseProfile();
+            phase.setCount(1);
+            phase.setWallTimeMillis(TimeUnit.NANOSECONDS.toMillis(end.wallTime - wallTime));
+
+            long cpuTime = 0;
+            for (Map.Entry<Long, Long> threadCpuTime : end.cpuTimes.entrySet()) {
+                cpuTime += spent(cpuTimes.get(threadCpuTime.getKey()), threadCpuTime.getValue());
+            }
+            phase.setCpuTimeMillis(TimeUnit.NANOSECONDS.toMillis(cpuTime));
+
+            final List<Long> allocatingThreads = new ArrayList<>();
+            for (Map.Entry<Long, Long> threadAllocatedBytes : end.allocatedBytes.entrySet()) {
+                final long allocated = spent(allocatedBytes.get(threadAllocatedBytes.getKey()), threadAllocatedBytes.getValue());
+                if (allocated > 0) {
+                    allocatingThreads.add(threadAllocatedBytes.getKey());
+                    phase.setAllocatedBytes(phase.getAllocatedBytes() + allocated);
+                }
+            }
+            if (!allocatingThreads.isEmpty()) {
+                final long[] threadIds = allocatingThreads.stream().mapToLong(Long::longValue).toArray();
+                final ThreadInfo[] threadInfos = THREADS.getThreadInfo(threadIds);
+                for (int i = 0; i < threadIds.length; i++) {
+                    final String threadName = threadInfos[i] != null ? threadInfos[i].getThreadName() : "thread-" + threadIds[i];
+                    final long allocated = spent(allocatedBytes.get(threadIds[i]), end.allocatedBytes.get(threadIds[i]));
+                    phase.getAllocatedBytesByThread().merge(threadName, allocated, Long::sum);
+                }
+            }
+            return phase;
+        }
+
+        private static long spent(Long before, long after) {
+            // threads started during the phase count from zero, values below zero are not available
+            if (after < 0) {
+                return 0;
+            }
+            return before != null && before >= 0 ? after - before : after;
+        }
+
+        private static long[] getCpuTimes(long[] threadIds) {
+            if (!THREADS.isThreadCpuTimeSupported() || !THREADS.isThreadCpuTimeEnabled()) {
+                return notAvailable(threadIds);
+            }
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                // read in one call, a phase takes two snapshots of every thread
+                return ((com.sun.management.ThreadMXBean) THREADS).getThreadCpuTime(threadIds);
+            }
+            return Arrays.stream(threadIds).map(THREADS::getThreadCpuTime).toArray();
+        }
+
+        private static long[] getAllocatedBytes(long[] threadIds) {
+            if (THREADS instanceof com.sun.management.ThreadMXBean) {
+                final com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) THREADS;
+                if (threads.isThreadAllocatedMemorySupported() && threads.isThreadAllocatedMemoryEnabled()) {
+                    return threads.getThreadAllocatedBytes(threadIds);
+                }
+            }
+            return notAvailable(threadIds);
+        }
+
+        private static long[] notAvailable(long[] threadIds) {
+            final long[] notAvailable = new long[threadIds.length];
+            Arrays.fill(notAvailable, -1);
+            return notAvailable;
+        }
+    }
+}
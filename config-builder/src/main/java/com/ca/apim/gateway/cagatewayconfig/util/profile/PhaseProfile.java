@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.profile;
+
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Time and allocations of one phase of a task, summed over each time the phase ran.
+ */
+public class PhaseProfile {
+
+    private int count;
+    private long wallTimeMillis;
+    private long cpuTimeMillis;
+    private long allocatedBytes;
+    private SortedMap<String, Long> allocatedBytesByThread = new TreeMap<>();
+
+    public int getCount() {
+        return count;
+    }
+
+    public void setCount(int count) {
+        this.count = count;
+    }
+
+    public long getWallTimeMillis() {
+        return wallTimeMillis;
+    }
+
+    public void setWallTimeMillis(long wallTimeMillis) {
+        this.wallTimeMillis = wallTimeMillis;
+    }
+
+    public long getCpuTimeMillis() {
+        return cpuTimeMillis;
+    }
+
+    public void setCpuTimeMillis(long cpuTimeMillis) {
+        this.cpuTimeMillis = cpuTimeMillis;
+    }
+
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    public void setAllocatedBytes(long allocatedBytes) {
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    public SortedMap<String, Long> getAllocatedBytesByThread() {
+        return allocatedBytesByThread;
+    }
+
+    public void setAllocatedBytesByThread(SortedMap<String, Long> allocatedBytesByThread) {
+        this.allocatedBytesByThread = allocatedBytesByThread;
+    }
+
+    void add(PhaseProfile other) {
+        count += other.count;
+        wallTimeMillis += other.wallTimeMillis;
+        cpuTimeMillis += other.cpuTimeMillis;
+        allocatedBytes += other.allocatedBytes;
+        other.allocatedBytesByThread.forEach((thread, bytes) -> allocatedBytesByThread.merge(thread, bytes, Long::sum));
+    }
+}
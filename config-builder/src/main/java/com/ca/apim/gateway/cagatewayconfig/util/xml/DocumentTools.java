@@ -21,6 +21,8 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import javax.xml.transform.*;
 import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.sax.SAXTransformerFactory;
+import javax.xml.transform.sax.TransformerHandler;
 import javax.xml.transform.stream.StreamResult;
 import javax.xml.transform.stream.StreamSource;
 import javax.xml.xpath.XPath;
@@ -77,6 +79,22 @@ public class DocumentTools {
         }
     }
 
+    /**
+     * Returns an identity transformer handler with the same output configuration as {@link #getTransformer()}.
+     * SAX events pushed into the handler are serialized as they arrive, no document tree is built in memory.
+     *
+     * @return a configured identity transformer handler
+     */
+    public TransformerHandler getTransformerHandler() {
+        try {
+            final TransformerHandler transformerHandler = ((SAXTransformerFactory) transformerFactory).newTransformerHandler();
+            configureTransformer(transformerHandler.getTransformer());
+            return transformerHandler;
+        } catch (TransformerConfigurationException e) {
+            throw new DocumentToolsException("Exception creating transformer handler.", e);
+        }
+    }
+
     private Transformer configureTransformer(final Transformer transformer) {
         transformer.setOutputProperty(OutputKeys.ENCODING, "UTF-8");
         transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
@@ -112,7 +130,7 @@ public class DocumentTools {
      * @return The parsed document
      * @throws DocumentParseException Thrown if there is an exception while parsing the document
      */
-    private synchronized Document parse(final InputStream inputStream) throws DocumentParseException {
+    public synchronized Document parse(final InputStream inputStream) throws DocumentParseException {
         try {
             return builder.parse(inputStream);
         } catch (SAXException | IOException e) {
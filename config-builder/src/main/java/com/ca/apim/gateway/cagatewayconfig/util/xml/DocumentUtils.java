@@ -12,8 +12,17 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
+import org.w3c.dom.NamedNodeMap;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.xml.XMLConstants;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.sax.TransformerHandler;
 
 import java.util.*;
 import java.util.function.Function;
@@ -283,4 +292,140 @@ public class DocumentUtils {
             }
         };
     }
+
+    /**
+     * Reads the element the reader is at into an element of the document, the same way a document parsed without
+     * namespace awareness has it. Whitespace between child elements, that only indents them, is left out. The reader
+     * is left at the end of the element.
+     *
+     * @param reader reader at the start of an element
+     * @param document document to create the element with
+     * @return the element read, not appended to the document
+     * @throws XMLStreamException if the element can't be read
+     */
+    public static Element readElement(final XMLStreamReader reader, final Document document) throws XMLStreamException {
+        final Element element = document.createElement(qualifiedName(reader.getPrefix(), reader.getLocalName()));
+        for (int i = 0; i < reader.getNamespaceCount(); i++) {
+            element.setAttribute(qualifiedName(XMLConstants.XMLNS_ATTRIBUTE, reader.getNamespacePrefix(i)), reader.getNamespaceURI(i));
+        }
+        for (int i = 0; i < reader.getAttributeCount(); i++) {
+            element.setAttribute(qualifiedName(reader.getAttributePrefix(i), reader.getAttributeLocalName(i)), reader.getAttributeValue(i));
+        }
+        while (reader.hasNext()) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT:
+                    element.appendChild(readElement(reader, document));
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    removeIndentation(element);
+                    return element;
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.SPACE:
+                    element.appendChild(document.createTextNode(reader.getText()));
+                    break;
+                case XMLStreamConstants.CDATA:
+                    element.appendChild(document.createCDATASection(reader.getText()));
+                    break;
+                case XMLStreamConstants.COMMENT:
+                    element.appendChild(document.createComment(reader.getText()));
+                    break;
+                default:
+                    break;
+            }
+        }
+        throw new XMLStreamException("Unexpected end of document reading element " + element.getTagName());
+    }
+
+    private static void removeIndentation(final Element element) {
+        boolean hasChildElements = false;
+        for (Node child = element.getFirstChild(); child != null && !hasChildElements; child = child.getNextSibling()) {
+            hasChildElements = child.getNodeType() == ELEMENT_NODE;
+        }
+        if (!hasChildElements) {
+            return;
+        }
+        Node child = element.getFirstChild();
+        while (child != null) {
+            final Node next = child.getNextSibling();
+            if (child.getNodeType() == Node.TEXT_NODE && child.getNodeValue().trim().isEmpty()) {
+                element.removeChild(child);
+            }
+            child = next;
+        }
+    }
+
+    /**
+     * Sends the node and its children to the handler, as they are in a document parsed without namespace awareness.
+     * Only elements, text, CDATA and comments are sent.
+     *
+     * @param node node to send
+     * @param handler handler to send the node to
+     * @throws SAXException if the handler fails
+     */
+    public static void writeNode(final Node node, final TransformerHandler handler) throws SAXException {
+        switch (node.getNodeType()) {
+            case Node.ELEMENT_NODE:
+                final Element element = (Element) node;
+                writeStartElement(element, handler);
+                for (Node child = element.getFirstChild(); child != null; child = child.getNextSibling()) {
+                    writeNode(child, handler);
+                }
+                writeEndElement(element, handler);
+                break;
+            case Node.TEXT_NODE:
+                writeCharacters(node.getNodeValue(), handler);
+                break;
+            case Node.CDATA_SECTION_NODE:
+                handler.startCDATA();
+                writeCharacters(node.getNodeValue(), handler);
+                handler.endCDATA();
+                break;
+            case Node.COMMENT_NODE:
+                final char[] comment = node.getNodeValue().toCharArray();
+                handler.comment(comment, 0, comment.length);
+                break;
+            default:
+                break;
+        }
+    }
+
+    /**
+     * Sends the start of the element, with its attributes, to the handler.
+     *
+     * @param element element to start
+     * @param handler handler to send the start of the element to
+     * @throws SAXException if the handler fails
+     */
+    public static void writeStartElement(final Element element, final TransformerHandler handler) throws SAXException {
+        final AttributesImpl attributes = new AttributesImpl();
+        final NamedNodeMap elementAttributes = element.getAttributes();
+        for (int i = 0; i < elementAttributes.getLength(); i++) {
+            final Node attribute = elementAttributes.item(i);
+            attributes.addAttribute(EMPTY, EMPTY, attribute.getNodeName(), "CDATA", attribute.getNodeValue());
+        }
+        handler.startElement(EMPTY, EMPTY, element.getTagName(), attributes);
+    }
+
+    /**
+     * Sends the end of the element to the handler.
+     *
+     * @param element element to end
+     * @param handler handler to send the end of the element to
+     * @throws SAXException if the handler fails
+     */
+    public static void writeEndElement(final Element element, final TransformerHandler handler) throws SAXException {
+        handler.endElement(EMPTY, EMPTY, element.getTagName());
+    }
+
+    private static void writeCharacters(final String characters, final TransformerHandler handler) throws SAXException {
+        final char[] chars = characters.toCharArray();
+        handler.characters(chars, 0, chars.length);
+    }
+
+    private static String qualifiedName(final String prefix, final String localName) {
+        if (prefix == null || prefix.isEmpty()) {
+            return localName;
+        }
+        return localName == null || localName.isEmpty() ? prefix : prefix + ":" + localName;
+    }
 }
@@ -24,6 +24,8 @@ import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.Folder.ROOT_FOLDER;
 import static com.ca.apim.gateway.cagatewayconfig.beans.Folder.ROOT_FOLDER_NAME;
@@ -87,6 +89,119 @@ class BundleEntityBuilderTest {
         assertNotNull(element);
     }
 
+    @Test
+    void buildInParallel() {
+        final Set<EntityBuilder> builders = new HashSet<>();
+        final AtomicReference<String> referencedId = new AtomicReference<>();
+        builders.add(new OrderedTestEntityBuilder(100, true, 0, document -> {
+            referencedId.set("referenced-id");
+            return referencedId.get();
+        }));
+        builders.add(new OrderedTestEntityBuilder(200, false, 50, document -> "depends-on-" + referencedId.get()));
+        builders.add(new OrderedTestEntityBuilder(300, false, 25, document -> "independent"));
+        builders.add(new OrderedTestEntityBuilder(400, false, 0, document -> "last"));
+        BundleEntityBuilder builder = new BundleEntityBuilder(builders, new BundleDocumentBuilder(), new BundleMetadataBuilder(ID_GENERATOR), entityTypeRegistry);
+
+        final BundleArtifacts sequential = builder.build(new Bundle(), BundleType.ENVIRONMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), projectInfo).get("my-bundle-1.0");
+        final BundleArtifacts parallel;
+        System.setProperty(BundleEntityBuilder.PARALLEL_ENTITY_BUILDERS, "true");
+        try {
+            parallel = builder.build(new Bundle(), BundleType.ENVIRONMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), projectInfo).get("my-bundle-1.0");
+        } finally {
+            System.clearProperty(BundleEntityBuilder.PARALLEL_ENTITY_BUILDERS);
+        }
+
+        assertEquals(DocumentTools.INSTANCE.elementToString(sequential.getBundle()), DocumentTools.INSTANCE.elementToString(parallel.getBundle()));
+        assertEquals(DocumentTools.INSTANCE.elementToString(sequential.getDeleteBundle()), DocumentTools.INSTANCE.elementToString(parallel.getDeleteBundle()));
+
+        final List<Element> items = getChildElements(getSingleChildElement(parallel.getBundle(), REFERENCES), ITEM);
+        assertEquals(4, items.size());
+        assertEquals("entity-100", getSingleChildElementTextContent(items.get(0), NAME));
+        assertEquals("entity-400", getSingleChildElementTextContent(items.get(3), NAME));
+        assertEquals("depends-on-referenced-id", getSingleChildElementTextContent(items.get(1), ID));
+        items.forEach(item -> assertSame(parallel.getBundle().getOwnerDocument(), getSingleChildElement(getSingleChildElement(item, RESOURCE), CLUSTER_PROPERTY).getOwnerDocument()));
+    }
+
+    @Test
+    void buildActiveConnectorWithStoredPasswordInParallel() {
+        final Set<EntityBuilder> builders = new HashSet<>();
+        builders.add(new StoredPasswordEntityBuilder(ID_GENERATOR));
+        builders.add(new SsgActiveConnectorEntityBuilder(ID_GENERATOR));
+        BundleEntityBuilder builder = new BundleEntityBuilder(builders, new BundleDocumentBuilder(), new BundleMetadataBuilder(ID_GENERATOR), entityTypeRegistry);
+
+        final Bundle bundle = new Bundle(projectInfo);
+        final StoredPassword storedPassword = new StoredPassword();
+        storedPassword.setName("mq-password");
+        storedPassword.setPassword("secret");
+        bundle.getStoredPasswords().put("mq-password", storedPassword);
+        final SsgActiveConnector activeConnector = new SsgActiveConnector();
+        activeConnector.setName("mq-connector");
+        activeConnector.setConnectorType("MqNative");
+        activeConnector.setProperties(new LinkedHashMap<>(ImmutableMap.of("MqNativeSecurePasswordOid", "mq-password")));
+        bundle.getSsgActiveConnectors().put("mq-connector", activeConnector);
+
+        final BundleArtifacts sequential = builder.build(bundle, BundleType.ENVIRONMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), projectInfo).get("my-bundle-1.0");
+        System.setProperty(BundleEntityBuilder.PARALLEL_ENTITY_BUILDERS, "true");
+        try {
+            for (int i = 0; i < 20; i++) {
+                final BundleArtifacts parallel = builder.build(bundle, BundleType.ENVIRONMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), projectInfo).get("my-bundle-1.0");
+                assertEquals(DocumentTools.INSTANCE.elementToString(sequential.getBundle()), DocumentTools.INSTANCE.elementToString(parallel.getBundle()));
+            }
+        } finally {
+            System.clearProperty(BundleEntityBuilder.PARALLEL_ENTITY_BUILDERS);
+        }
+
+        final List<Element> items = getChildElements(getSingleChildElement(sequential.getBundle(), REFERENCES), ITEM);
+        assertEquals(2, items.size());
+        final String storedPasswordId = getSingleChildElementTextContent(items.get(0), ID);
+        final Element connectorElement = getSingleChildElement(getSingleChildElement(items.get(1), RESOURCE), ACTIVE_CONNECTOR);
+        final Element passwordProperty = getChildElements(getSingleChildElement(connectorElement, PROPERTIES), PROPERTY).stream()
+                .filter(p -> "MqNativeSecurePasswordOid".equals(p.getAttribute(ATTRIBUTE_KEY))).findFirst().orElseThrow(AssertionError::new);
+        assertEquals(storedPasswordId, getSingleChildElementTextContent(passwordProperty, STRING_VALUE));
+
+        // the loaded entities are left as they were, so they can be built again
+        assertNull(storedPassword.getId());
+        assertEquals("mq-password", activeConnector.getProperties().get("MqNativeSecurePasswordOid"));
+    }
+
+    private static class OrderedTestEntityBuilder implements EntityBuilder {
+        private final int order;
+        private final boolean hasDependentBuilders;
+        private final long delay;
+        private final Function<Document, String> idSupplier;
+
+        OrderedTestEntityBuilder(int order, boolean hasDependentBuilders, long delay, Function<Document, String> idSupplier) {
+            this.order = order;
+            this.hasDependentBuilders = hasDependentBuilders;
+            this.delay = delay;
+            this.idSupplier = idSupplier;
+        }
+
+        @Override
+        public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
+            try {
+                Thread.sleep(delay);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            final String id = idSupplier.apply(document);
+            final Element element = document.createElement(CLUSTER_PROPERTY);
+            element.setAttribute(ATTRIBUTE_ID, id);
+            element.appendChild(createElementWithTextContent(document, NAME, "entity-" + order));
+            return Collections.singletonList(EntityBuilderHelper.getEntityWithNameMapping(EntityTypes.CLUSTER_PROPERTY_TYPE, "entity-" + order, id, element));
+        }
+
+        @Override
+        public @NotNull Integer getOrder() {
+            return order;
+        }
+
+        @Override
+        public boolean hasDependentBuilders() {
+            return hasDependentBuilders;
+        }
+    }
+
     private static class TestEntityBuilder implements EntityBuilder {
         @Override
         public List<Entity> build(Bundle bundle, BundleType bundleType, Document document) {
@@ -513,7 +513,7 @@ public class BundleEntityBuilderTestHelper {
         Optional<Metadata> definedEntities = metadata.getDefinedEntities().stream().findFirst();
         assertTrue(definedEntities.isPresent());
         assertEquals(EntityTypes.SERVICE_TYPE, definedEntities.get().getType());
-        assertEquals(service.getName(), definedEntities.get().getName());
+        assertEquals("::my-bundle-group.TestServiceAnnotationName::TestService::1.0", definedEntities.get().getName());
         ObjectMapper objectMapper = new ObjectMapper();
         String json = objectMapper.writeValueAsString(definedEntities.get());
         Assert.assertThat(json, CoreMatchers.containsString("{\"type\":\"SERVICE\",\"name\":\"::my-bundle-group.TestServiceAnnotationName::TestService::1.0\",\"id\":\"ServiceID\",\"guid\":null,\"uri\":\"/test\",\"soap\":false}"));
@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.List;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.TestUtils.buildBundles;
+import static com.ca.apim.gateway.cagatewayconfig.util.TestUtils.writePolicy;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class DeltaBundleBuilderTest {
+
+    @Test
+    void buildDelta(TemporaryFolder temporaryFolder) throws IOException {
+        final File sourceDir = temporaryFolder.createDirectory("gateway");
+        writePolicy(sourceDir, "policy/folder/first.xml", "first");
+        writePolicy(sourceDir, "policy/folder/second.xml", "second");
+        final File third = writePolicy(sourceDir, "policy/folder/third.xml", "third");
+        final Element previous = build(sourceDir, temporaryFolder.createDirectory("previous"));
+
+        writePolicy(sourceDir, "policy/folder/second.xml", "changed");
+        assertTrue(third.delete());
+        writePolicy(sourceDir, "policy/folder/fourth.xml", "fourth");
+        final Element current = build(sourceDir, temporaryFolder.createDirectory("current"));
+
+        final DeltaBundleBuilder deltaBundleBuilder = InjectionRegistry.getInstance(DeltaBundleBuilder.class);
+        final BundleArtifacts delta = deltaBundleBuilder.build(previous, current, "my-bundle-delta", DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
+
+        assertEquals("my-bundle-delta.install.bundle", delta.getBundleFileName());
+        final List<Element> items = getChildElements(getSingleChildElement(delta.getBundle(), REFERENCES), ITEM);
+        assertEquals(2, items.size());
+        // in the order of the current bundle
+        assertEquals("folder/fourth", getSingleChildElementTextContent(items.get(0), NAME));
+        assertEquals("folder/second", getSingleChildElementTextContent(items.get(1), NAME));
+
+        // the folder of the changed policies is mapped to the existing one
+        final List<Element> mappings = getChildElements(getSingleChildElement(delta.getBundle(), MAPPINGS), MAPPING);
+        assertEquals(3, mappings.size());
+        assertEquals(MappingActions.NEW_OR_EXISTING, mappings.get(0).getAttribute(ATTRIBUTE_ACTION));
+        assertEquals("FOLDER", mappings.get(0).getAttribute(ATTRIBUTE_TYPE));
+        assertEquals(MappingActions.NEW_OR_UPDATE, mappings.get(1).getAttribute(ATTRIBUTE_ACTION));
+        assertEquals(MappingActions.NEW_OR_UPDATE, mappings.get(2).getAttribute(ATTRIBUTE_ACTION));
+
+        final List<Element> deleteMappings = getChildElements(getSingleChildElement(delta.getDeleteBundle(), MAPPINGS), MAPPING);
+        assertEquals(1, deleteMappings.size());
+        assertEquals(MappingActions.DELETE, deleteMappings.get(0).getAttribute(ATTRIBUTE_ACTION));
+        assertEquals(getSrcIds(previous, "folder/third"), Collections.singletonList(deleteMappings.get(0).getAttribute(ATTRIBUTE_SRCID)));
+
+        // the same versions give the same delta
+        final BundleArtifacts again = deltaBundleBuilder.build(previous, current, "my-bundle-delta", DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
+        assertEquals(DocumentTools.INSTANCE.elementToString(delta.getBundle()), DocumentTools.INSTANCE.elementToString(again.getBundle()));
+        assertEquals(DocumentTools.INSTANCE.elementToString(delta.getDeleteBundle()), DocumentTools.INSTANCE.elementToString(again.getDeleteBundle()));
+    }
+
+    @Test
+    void buildEmptyDelta(TemporaryFolder temporaryFolder) throws IOException {
+        final File sourceDir = temporaryFolder.createDirectory("gateway");
+        writePolicy(sourceDir, "policy/folder/first.xml", "first");
+        final Element previous = build(sourceDir, temporaryFolder.createDirectory("previous"));
+        final Element current = build(sourceDir, temporaryFolder.createDirectory("current"));
+
+        final BundleArtifacts delta = InjectionRegistry.getInstance(DeltaBundleBuilder.class)
+                .build(previous, current, "my-bundle-delta", DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
+
+        assertTrue(getChildElements(getSingleChildElement(delta.getBundle(), REFERENCES), ITEM).isEmpty());
+        assertTrue(getChildElements(getSingleChildElement(delta.getBundle(), MAPPINGS), MAPPING).isEmpty());
+        assertNull(delta.getDeleteBundle());
+    }
+
+    private static Element build(File sourceDir, File outputDir) {
+        return buildBundles(sourceDir, outputDir, "my-bundle").values().iterator().next();
+    }
+
+    private static List<String> getSrcIds(Element bundle, String name) {
+        return getChildElements(getSingleChildElement(bundle, REFERENCES), ITEM).stream()
+                .filter(item -> name.equals(getSingleChildElementTextContent(item, NAME)))
+                .map(item -> getSingleChildElementTextContent(item, ID))
+                .collect(toList());
+    }
+}
@@ -117,7 +117,9 @@ public class EncapsulatedAssertionBuilderTest {
         assertEquals(name, nameElement.getAttribute(PolicyEntityBuilder.STRING_VALUE));
 
         Element guidElement = getSingleElement(encapsulatedAssertionElement, ENCAPSULATED_ASSERTION_CONFIG_GUID);
-        assertEquals(encass.getGuid(), guidElement.getAttribute(PolicyEntityBuilder.STRING_VALUE));
+        assertEquals(annotatedBundle.getEntityOverlay().getGuid(encass), guidElement.getAttribute(PolicyEntityBuilder.STRING_VALUE));
+        // the guid generated for the bundle is not set to the encass
+        assertEquals("123", encass.getGuid());
 
         //wrong guid and goid
         annotatedEntity = encass.getAnnotatedEntity();
@@ -139,7 +141,7 @@ public class EncapsulatedAssertionBuilderTest {
         encapsulatedAssertionBuilder.buildAssertionElement(encapsulatedAssertionElement, policyBuilderContext);
 
         guidElement = getSingleElement(encapsulatedAssertionElement, ENCAPSULATED_ASSERTION_CONFIG_GUID);
-        assertEquals(encass.getGuid(), guidElement.getAttribute(PolicyEntityBuilder.STRING_VALUE));
+        assertEquals(annotatedBundle.getEntityOverlay().getGuid(encass), guidElement.getAttribute(PolicyEntityBuilder.STRING_VALUE));
     }
 
     @Test
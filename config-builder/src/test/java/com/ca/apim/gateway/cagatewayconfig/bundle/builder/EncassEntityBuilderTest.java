@@ -71,7 +71,6 @@ class EncassEntityBuilderTest {
         annotations.add(annotation);
         annotations.add(new Annotation(AnnotationType.SHARED));
         encass.setAnnotations(annotations);
-        encass.setParentEntityShared(encass.getAnnotations().contains(new Annotation(AnnotationType.SHARED)));
         bundle.putAllEncasses(ImmutableMap.of(TEST_ENCASS, encass));
 
         Policy policy = new Policy();
@@ -81,6 +80,7 @@ class EncassEntityBuilderTest {
         AnnotatedEntity annotatedEntity = encass.getAnnotatedEntity();
         AnnotatedBundle annotatedBundle = new AnnotatedBundle(bundle, annotatedEntity, projectInfo);
         annotatedBundle.putAllEncasses(ImmutableMap.of(TEST_ENCASS, encass));
+        annotatedBundle.getEntityOverlay().setParentEntityShared(encass, encass.getAnnotations().contains(new Annotation(AnnotationType.SHARED)));
         annotatedBundle.getPolicies().put(TEST_POLICY_PATH, policy);
         List<Entity> entities = builder.build(annotatedBundle, BundleType.DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
 
@@ -101,11 +101,11 @@ class EncassEntityBuilderTest {
         annotations.add(annotation);
         annotations.add(new Annotation(AnnotationType.SHARED));
         encass.setAnnotations(annotations);
-        encass.setParentEntityShared(encass.getAnnotations().contains(new Annotation(AnnotationType.SHARED)));
         encass.setAnnotatedEntity(null);
         annotatedEntity = encass.getAnnotatedEntity();
         annotatedBundle = new AnnotatedBundle(bundle, annotatedEntity, projectInfo);
         annotatedBundle.putAllEncasses(ImmutableMap.of(TEST_ENCASS, encass));
+        annotatedBundle.getEntityOverlay().setParentEntityShared(encass, encass.getAnnotations().contains(new Annotation(AnnotationType.SHARED)));
         annotatedBundle.getPolicies().put(TEST_POLICY_PATH, policy);
         entities = builder.build(annotatedBundle, BundleType.DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
 
@@ -28,6 +28,7 @@ import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementName
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
 import static java.util.Optional.ofNullable;
 import static java.util.function.Function.identity;
+import static java.util.stream.Collectors.toList;
 import static java.util.stream.Collectors.toMap;
 import static org.apache.commons.lang3.StringUtils.EMPTY;
 import static org.apache.commons.lang3.StringUtils.trimToNull;
@@ -109,6 +110,38 @@ class FolderEntityBuilderTest {
 
     }
 
+    @Test
+    void buildDeploymentWithTargetFolder() {
+        FolderEntityBuilder builder = new FolderEntityBuilder(ID_GENERATOR);
+        ProjectInfo targetProjectInfo = new ProjectInfo("TestName", "TestGroup", "1.0");
+        targetProjectInfo.setTargetFolderPath("Target");
+        Bundle bundle = new Bundle(targetProjectInfo);
+        Folder root = createFolder("policy", null, null);
+        root.setPath(EMPTY);
+        Folder folder1 = createFolder(FOLDER_1, null, root);
+        bundle.getFolders().put(EMPTY, root);
+        bundle.getFolders().put(folder1.getPath(), folder1);
+
+        final List<Entity> entities = builder.build(bundle, DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
+
+        assertEquals(3, entities.size());
+        final Map<String, Entity> entitiesMap = entities.stream().collect(toMap(Entity::getName, identity()));
+        assertEquals(Folder.ROOT_FOLDER_ID, entitiesMap.get(Folder.ROOT_FOLDER_NAME).getId());
+        final Entity targetFolder = entitiesMap.get("Target");
+        assertEquals(Folder.ROOT_FOLDER_ID, targetFolder.getXml().getAttribute(ATTRIBUTE_FOLDER_ID));
+        assertEquals(targetFolder.getId(), entitiesMap.get("Target/" + FOLDER_1).getXml().getAttribute(ATTRIBUTE_FOLDER_ID));
+
+        // the loaded folders are left as they were, so building again gives the same folders
+        assertSame(root, bundle.getFolders().get(EMPTY));
+        assertEquals("policy", root.getName());
+        assertNull(root.getId());
+        assertNull(root.getParentFolder());
+        assertNull(folder1.getId());
+        final List<Entity> rebuilt = builder.build(bundle, DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
+        assertEquals(entities.stream().map(Entity::getName).collect(toList()), rebuilt.stream().map(Entity::getName).collect(toList()));
+        assertEquals(entities.stream().map(Entity::getId).collect(toList()), rebuilt.stream().map(Entity::getId).collect(toList()));
+    }
+
     private static Map<String, Folder> createTestFolders(Folder root) {
         Folder folder1 = createFolder(FOLDER_1, FOLDER_1, root);
         Folder folder2 = createFolder(FOLDER_2, FOLDER_2, root);
@@ -161,7 +161,6 @@ class PolicyEntityBuilderTest {
         annotation = new Annotation(AnnotationType.SHARED);
         annotations.add(annotation);
         policy.setAnnotations(annotations);
-        policy.setParentEntityShared(policy.isShared());
 
         Encass encass = new Encass();
         encass.setGuid("encassGuid");
@@ -170,7 +169,6 @@ class PolicyEntityBuilderTest {
         annotations = new HashSet<>();
         annotations.add(encassAnnotation);
         encass.setAnnotations(annotations);
-        encass.setParentEntityShared(encass.isShared());
         bundle.getEncasses().put(TEST_ENCASS, encass);
         bundle.getPolicies().put("Policy", policy);
 
@@ -180,6 +178,8 @@ class PolicyEntityBuilderTest {
         AnnotatedBundle annotatedBundle = new AnnotatedBundle(bundle, annotatedEntity, new ProjectInfo("", "", ""));
         annotatedBundle.putAllEncasses(org.testcontainers.shaded.com.google.common.collect.ImmutableMap.of(TEST_ENCASS, encass));
         annotatedBundle.getPolicies().put("Policy", policy);
+        annotatedBundle.getEntityOverlay().setParentEntityShared(policy, policy.isShared());
+        annotatedBundle.getEntityOverlay().setParentEntityShared(encass, encass.isShared());
 
         PolicyEntityBuilder builder = new PolicyEntityBuilder(DocumentTools.INSTANCE, new IdGenerator(), policyXMLBuilder);
         List<Entity> entities = builder.build(annotatedBundle, BundleType.DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
@@ -211,6 +211,62 @@ class PolicyEntityBuilderTest {
         assertEquals(e.getId(), "policyID");
     }
 
+    @Test
+    void buildAnnotatedBundlesFromSameEntities() {
+        Element policyElement = createElementWithAttributesAndChildren(
+                document,
+                "wsp:Policy",
+                ImmutableMap.of("xmlns:L7p", "http://www.layer7tech.com/ws/policy", "xmlns:wsp", "http://schemas.xmlsoap.org/ws/2002/12/policy&quot"),
+                createIncludeAssertionElement(document, "include")
+        );
+        document.appendChild(policyElement);
+        policy.setPolicyXML(DocumentTools.INSTANCE.elementToString(document.getDocumentElement()));
+        policy.setParentFolder(Folder.ROOT_FOLDER);
+        policy.setGuid("policyGuid");
+        policy.setId("policyID");
+        policy.setName(policy.getPath());
+        Policy include = new Policy();
+        include.setParentFolder(Folder.ROOT_FOLDER);
+        include.setPath("include");
+        include.setName(include.getPath());
+        include.setId("includeID");
+        include.setGuid("includeGuid");
+        include.setPolicyXML("<wsp:Policy xmlns:L7p=\"http://www.layer7tech.com/ws/policy\" xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\"><wsp:All wsp:Usage=\"Required\"/></wsp:Policy>");
+        bundle.getPolicies().put(policy.getPath(), policy);
+        bundle.getPolicies().put(include.getPath(), include);
+
+        PolicyEntityBuilder builder = new PolicyEntityBuilder(DocumentTools.INSTANCE, new IdGenerator(), policyXMLBuilder);
+        List<Map<String, Entity>> builtBundles = new ArrayList<>();
+        List<AnnotatedBundle> annotatedBundles = new ArrayList<>();
+        for (String encassName : Arrays.asList("encass1", "encass2")) {
+            Encass encass = new Encass();
+            encass.setName(encassName);
+            encass.setPolicy(policy.getPath());
+            encass.setAnnotations(Sets.newHashSet(new Annotation(AnnotationType.BUNDLE)));
+            AnnotatedBundle annotatedBundle = new AnnotatedBundle(bundle, encass.getAnnotatedEntity(), new ProjectInfo("my-bundle", "group", "1.0"));
+            annotatedBundle.getPolicies().put(policy.getPath(), policy);
+            annotatedBundle.getPolicies().put(include.getPath(), include);
+            annotatedBundles.add(annotatedBundle);
+            builtBundles.add(builder.build(annotatedBundle, BundleType.DEPLOYMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument())
+                    .stream().collect(toMap(Entity::getOriginalName, identity())));
+        }
+
+        // each bundle gets its own ids, the loaded policies are left unchanged
+        assertNotEquals(builtBundles.get(0).get("include").getId(), builtBundles.get(1).get("include").getId());
+        assertNotEquals(builtBundles.get(0).get(policy.getPath()).getId(), builtBundles.get(1).get(policy.getPath()).getId());
+        assertEquals("policyID", policy.getId());
+        assertEquals("policyGuid", policy.getGuid());
+        assertEquals("includeID", include.getId());
+        assertEquals("includeGuid", include.getGuid());
+        assertNull(policy.getPolicyDocument());
+        for (AnnotatedBundle annotatedBundle : annotatedBundles) {
+            EntityOverlay overlay = annotatedBundle.getEntityOverlay();
+            assertEquals(Collections.singleton(include), overlay.getDependencies(policy));
+            Element includeGuid = getSingleChildElement(getSingleChildElement(overlay.getPolicyDocument(policy), INCLUDE, true), POLICY_GUID, true);
+            assertEquals(overlay.getGuid(include), includeGuid.getAttribute(PolicyEntityBuilder.STRING_VALUE));
+        }
+    }
+
     @Test
     void maybeAddPolicy() {
         Policy policy1 = new Policy();
@@ -219,25 +275,26 @@ class PolicyEntityBuilderTest {
         Policy policy2 = new Policy();
         policy2.setName("policy2");
         policy2.setPath("policy2");
-        policy1.getDependencies().add(policy2);
+        EntityOverlay overlay = new EntityOverlay();
+        overlay.getDependencies(policy1).add(policy2);
 
         ArrayList<Policy> orderedPolicies = new ArrayList<>();
         HashSet<Policy> seenPolicies = new HashSet<>();
-        PolicyEntityBuilder.maybeAddPolicy(bundle, policy1, orderedPolicies, seenPolicies);
+        PolicyEntityBuilder.maybeAddPolicy(bundle, overlay, policy1, orderedPolicies, seenPolicies);
 
         assertEquals(2, orderedPolicies.size());
         assertEquals(policy1, orderedPolicies.get(1));
         assertEquals(policy2, orderedPolicies.get(0));
 
-        PolicyEntityBuilder.maybeAddPolicy(bundle, policy2, orderedPolicies, seenPolicies);
+        PolicyEntityBuilder.maybeAddPolicy(bundle, overlay, policy2, orderedPolicies, seenPolicies);
 
         assertEquals(2, orderedPolicies.size());
         assertEquals(policy1, orderedPolicies.get(1));
         assertEquals(policy2, orderedPolicies.get(0));
 
         // test dependency loop
-        policy2.getDependencies().add(policy1);
-        assertThrows(EntityBuilderException.class, () -> PolicyEntityBuilder.maybeAddPolicy(bundle, policy2, new ArrayList<>(), new HashSet<>()));
+        overlay.getDependencies(policy2).add(policy1);
+        assertThrows(EntityBuilderException.class, () -> PolicyEntityBuilder.maybeAddPolicy(bundle, overlay, policy2, new ArrayList<>(), new HashSet<>()));
     }
 
     @Test
@@ -50,9 +50,11 @@ class StoredPasswordEntityBuilderTest {
 
         final List<Entity> entities = builder.build(bundle, EntityBuilder.BundleType.ENVIRONMENT, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
 
-        // the builder set the id in order for other entities be able to link to the password using it.
-        assertNotNull(pwd1.getId());
-        assertNotNull(pwd2.getId());
+        // the builder records the id in the bundle, the loaded passwords are left untouched
+        assertNotNull(bundle.getEntityOverlay().getId(pwd1));
+        assertNotNull(bundle.getEntityOverlay().getId(pwd2));
+        assertNull(pwd1.getId());
+        assertNull(pwd2.getId());
 
         assertFalse(entities.isEmpty());
         assertEquals(2, entities.size());
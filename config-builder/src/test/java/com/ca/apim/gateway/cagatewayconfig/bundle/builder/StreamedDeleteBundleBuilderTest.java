@@ -0,0 +1,97 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.Encass;
+import com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.testcontainers.shaded.com.google.common.collect.ImmutableMap;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilderTestHelper.*;
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleType.DEPLOYMENT;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static java.util.stream.Collectors.toSet;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class StreamedDeleteBundleBuilderTest {
+
+    @Test
+    void buildRedeployableBundle(TemporaryFolder temporaryFolder) {
+        assertNull(buildEncassBundle(true, true).getDeleteBundle());
+
+        final BundleArtifacts built = buildEncassBundle(true, false);
+        final File bundleFile = new File(temporaryFolder.getRoot(), built.getBundleFileName());
+        DocumentFileUtils.INSTANCE.createFile(built.getBundle(), bundleFile.toPath());
+        final Element deleteBundle = new StreamedDeleteBundleBuilder().build(bundleFile, DocumentTools.INSTANCE.getDocumentBuilder().newDocument());
+
+        // same mappings as the DELETE bundle built from the entities, without the items
+        assertEquals(BundleDocumentBuilder.GATEWAY_MANAGEMENT, deleteBundle.getAttribute(BundleDocumentBuilder.L7));
+        assertTrue(getChildElements(getSingleChildElement(deleteBundle, REFERENCES), ITEM).isEmpty());
+        assertEquals(2, getChildElements(getSingleChildElement(deleteBundle, MAPPINGS), MAPPING).size());
+        assertEquals(DocumentTools.INSTANCE.elementToString(getSingleChildElement(built.getDeleteBundle(), MAPPINGS)),
+                DocumentTools.INSTANCE.elementToString(getSingleChildElement(deleteBundle, MAPPINGS)));
+    }
+
+    @Test
+    void readDeleteMappings(TemporaryFolder temporaryFolder) {
+        final BundleArtifacts built = buildEncassBundle(true, false);
+        final File bundleFile = new File(temporaryFolder.getRoot(), built.getBundleFileName());
+        DocumentFileUtils.INSTANCE.createFile(built.getBundle(), bundleFile.toPath());
+        final Set<String> itemKeys = new HashSet<>();
+        final List<Element> mappings = new StreamedDeleteBundleBuilder().readDeleteMappings(bundleFile, DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), itemKeys);
+
+        // every mapping in reverse order, folders included, and the keys of all the items
+        final List<Element> bundleMappings = getChildElements(getSingleChildElement(built.getBundle(), MAPPINGS), MAPPING);
+        assertEquals(bundleMappings.size(), mappings.size());
+        for (int i = 0; i < mappings.size(); i++) {
+            assertEquals(bundleMappings.get(bundleMappings.size() - 1 - i).getAttribute(ATTRIBUTE_SRCID), mappings.get(i).getAttribute(ATTRIBUTE_SRCID));
+            assertEquals(MappingActions.DELETE, mappings.get(i).getAttribute(ATTRIBUTE_ACTION));
+        }
+        assertEquals(getChildElements(getSingleChildElement(built.getBundle(), REFERENCES), ITEM).stream()
+                .map(EnvironmentBundleUtils::buildBundleItemKey).collect(toSet()), itemKeys);
+    }
+
+    @Test
+    void buildNotRedeployableBundle() {
+        // shared entities are left out of the DELETE bundle, so it is still built from the entities
+        assertNotNull(buildEncassBundle(false, true).getDeleteBundle());
+    }
+
+    private static BundleArtifacts buildEncassBundle(boolean redeployable, boolean streamDeleteBundles) {
+        final Bundle bundle = createBundle(ENCASS_POLICY_WITH_ENV_DEPENDENCIES, true, true, false, projectInfo);
+        final Encass encass = buildTestEncassWithAnnotation(TEST_GUID, TEST_ENCASS_POLICY, redeployable);
+        bundle.putAllEncasses(ImmutableMap.of(TEST_ENCASS, encass));
+
+        if (streamDeleteBundles) {
+            System.setProperty(BundleEntityBuilder.STREAM_DELETE_BUNDLES, "true");
+        }
+        try {
+            final Map<String, BundleArtifacts> bundles = createBundleEntityBuilder().build(bundle, DEPLOYMENT,
+                    DocumentTools.INSTANCE.getDocumentBuilder().newDocument(), projectInfo);
+            return bundles.get(TEST_ENCASS_ANNOTATION_NAME + "-1.0");
+        } finally {
+            System.clearProperty(BundleEntityBuilder.STREAM_DELETE_BUNDLES);
+        }
+    }
+}
@@ -44,8 +44,6 @@ import static com.ca.apim.gateway.cagatewayconfig.util.gateway.ConnectionUtils.c
 import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
 import static org.junit.jupiter.api.Assertions.*;
-import static org.mockito.ArgumentMatchers.anyInt;
-import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
 
 @TestInstance(TestInstance.Lifecycle.PER_CLASS)
@@ -90,7 +88,7 @@ class TrustedCertEntityBuilderTest {
         SSLSocketFactory sf = mock(SSLSocketFactory.class);
         SSLSocket socket = mock(SSLSocket.class);
         SSLSession sslSession = mock(SSLSession.class);
-        when(sf.createSocket(anyString(), anyInt())).thenReturn(socket);
+        when(sf.createSocket()).thenReturn(socket);
         when(socket.getSession()).thenReturn(sslSession);
         when(sslSession.getPeerCertificates()).thenReturn(new X509Certificate[]{testCert});
 
@@ -114,7 +112,7 @@ class TrustedCertEntityBuilderTest {
         SSLSocketFactory sf = mock(SSLSocketFactory.class);
         SSLSocket socket = mock(SSLSocket.class);
         SSLSession sslSession = mock(SSLSession.class);
-        when(sf.createSocket(anyString(), anyInt())).thenReturn(socket);
+        when(sf.createSocket()).thenReturn(socket);
         when(socket.getSession()).thenReturn(sslSession);
         when(sslSession.getPeerCertificates()).thenReturn(new X509Certificate[]{});
 
@@ -133,7 +131,7 @@ class TrustedCertEntityBuilderTest {
         SSLSocketFactory sf = mock(SSLSocketFactory.class);
         SSLSocket socket = mock(SSLSocket.class);
         SSLSession sslSession = mock(SSLSession.class);
-        when(sf.createSocket(anyString(), anyInt())).thenReturn(socket);
+        when(sf.createSocket()).thenReturn(socket);
         when(socket.getSession()).thenReturn(sslSession);
         when(sslSession.getPeerCertificates()).thenReturn(new Certificate[]{ new Certificate("MockCertificate") {
             @Override
@@ -177,7 +175,7 @@ class TrustedCertEntityBuilderTest {
         SSLSocketFactory sf = mock(SSLSocketFactory.class);
         SSLSocket socket = mock(SSLSocket.class);
         SSLSession sslSession = mock(SSLSession.class);
-        when(sf.createSocket(anyString(), anyInt())).thenReturn(socket);
+        when(sf.createSocket()).thenReturn(socket);
         when(socket.getSession()).thenReturn(sslSession);
         doThrow(IOException.class).when(socket).startHandshake();
 
@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.builder;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.bouncycastle.jce.provider.BouncyCastleProvider;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import javax.net.ssl.KeyManagerFactory;
+import javax.net.ssl.SSLContext;
+import javax.net.ssl.SSLServerSocket;
+import javax.net.ssl.SSLSocket;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.file.Path;
+import java.security.KeyStore;
+import java.security.Security;
+import java.security.cert.CertificateFactory;
+import java.security.cert.X509Certificate;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.ConnectionUtils.createAcceptAllSocketFactory;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class TrustedCertUrlFetcherTest {
+
+    private static final int TIMEOUT = 2000;
+
+    private final AtomicInteger connections = new AtomicInteger();
+    private SSLServerSocket server;
+    private Thread serverThread;
+    private CertificateFactory certFactory;
+    private X509Certificate serverCert;
+    private Path cacheFile;
+
+    @BeforeEach
+    void before(final TemporaryFolder temporaryFolder) throws Exception {
+        certFactory = CertificateFactory.getInstance("X.509");
+        cacheFile = temporaryFolder.getRoot().toPath().resolve("cache").resolve("trusted-certs.properties");
+
+        // the jdk providers, other tests register BouncyCastle as the first provider
+        final KeyStore keyStore = KeyStore.getInstance("PKCS12", "SunJSSE");
+        try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream("test.p12")) {
+            keyStore.load(inputStream, new char[0]);
+        }
+        serverCert = (X509Certificate) keyStore.getCertificate("test");
+        final KeyManagerFactory keyManagerFactory = KeyManagerFactory.getInstance("SunX509", "SunJSSE");
+        keyManagerFactory.init(keyStore, new char[0]);
+        final SSLContext sslContext = SSLContext.getInstance("TLSv1.2", "SunJSSE");
+        sslContext.init(keyManagerFactory.getKeyManagers(), null, null);
+
+        server = (SSLServerSocket) sslContext.getServerSocketFactory().createServerSocket(0);
+        // rsa key exchange, the server does not sign: the jdk server fails to sign with the BouncyCastle rsa-pss signature
+        server.setEnabledCipherSuites(new String[]{"TLS_RSA_WITH_AES_128_GCM_SHA256"});
+        serverThread = new Thread(this::serve);
+        serverThread.setDaemon(true);
+        serverThread.start();
+    }
+
+    @AfterEach
+    void after() throws Exception {
+        server.close();
+        serverThread.join(TIMEOUT);
+    }
+
+    @Test
+    void fetchOncePerHostAndPort() throws Exception {
+        final TrustedCertUrlFetcher fetcher = fetcher(null, false);
+        final Map<String, X509Certificate> certificates = fetcher.fetch(Arrays.asList(url("/a"), url("/b"), url("/c")));
+
+        assertEquals(1, certificates.size());
+        assertEquals(serverCert, certificates.get(TrustedCertUrlFetcher.key(url("/a"))));
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    void fetchFromCache() throws Exception {
+        fetcher(cacheFile, false).fetch(Collections.singletonList(url("/")));
+        assertEquals(1, connections.get());
+
+        final Map<String, X509Certificate> certificates = fetcher(cacheFile, false).fetch(Collections.singletonList(url("/")));
+        assertEquals(serverCert, certificates.get(TrustedCertUrlFetcher.key(url("/"))));
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    void fetchExpiredFromCache() throws Exception {
+        fetcher(cacheFile, false).fetch(Collections.singletonList(url("/")));
+        new TrustedCertUrlFetcher(createAcceptAllSocketFactory(), certFactory, cacheFile, -1, false, TIMEOUT, TIMEOUT).fetch(Collections.singletonList(url("/")));
+        assertEquals(2, connections.get());
+    }
+
+    @Test
+    void fetchOffline() throws Exception {
+        fetcher(cacheFile, false).fetch(Collections.singletonList(url("/")));
+        server.close();
+
+        final Map<String, X509Certificate> certificates = fetcher(cacheFile, true).fetch(Collections.singletonList(url("/")));
+        assertEquals(serverCert, certificates.get(TrustedCertUrlFetcher.key(url("/"))));
+        assertEquals(1, connections.get());
+    }
+
+    @Test
+    void fetchWithBouncyCastleFirst() throws Exception {
+        final boolean registered = Security.getProvider(BouncyCastleProvider.PROVIDER_NAME) != null;
+        if (!registered) {
+            // as registered by the KeystoreHelper
+            Security.insertProviderAt(new BouncyCastleProvider(), 1);
+        }
+        try {
+            final CertificateFactory bouncyCastleCertFactory = CertificateFactory.getInstance("X.509");
+            final Map<String, X509Certificate> certificates = new TrustedCertUrlFetcher(createAcceptAllSocketFactory(), bouncyCastleCertFactory, null, 0, false, TIMEOUT, TIMEOUT)
+                    .fetch(Collections.singletonList(url("/")));
+            assertArrayEquals(serverCert.getEncoded(), certificates.get(TrustedCertUrlFetcher.key(url("/"))).getEncoded());
+        } finally {
+            if (!registered) {
+                Security.removeProvider(BouncyCastleProvider.PROVIDER_NAME);
+            }
+        }
+    }
+
+    @Test
+    void fetchOfflineNotCached() {
+        assertThrows(EntityBuilderException.class, () -> fetcher(cacheFile, true).fetch(Collections.singletonList(url("/"))));
+        assertEquals(0, connections.get());
+    }
+
+    @Test
+    void fetchTimeout() throws Exception {
+        // a plain socket that never answers the handshake
+        try (ServerSocket silentServer = new ServerSocket(0)) {
+            final URL url = new URL("https://localhost:" + silentServer.getLocalPort());
+            final TrustedCertUrlFetcher fetcher = new TrustedCertUrlFetcher(createAcceptAllSocketFactory(), certFactory, null, 0, false, TIMEOUT, 200);
+            assertThrows(EntityBuilderException.class, () -> fetcher.fetch(Collections.singletonList(url)));
+        }
+    }
+
+    private TrustedCertUrlFetcher fetcher(Path cacheFile, boolean offline) {
+        return new TrustedCertUrlFetcher(createAcceptAllSocketFactory(), certFactory, cacheFile, 60, offline, TIMEOUT, TIMEOUT);
+    }
+
+    private URL url(String path) throws IOException {
+        return new URL("https://localhost:" + server.getLocalPort() + path);
+    }
+
+    private void serve() {
+        while (!server.isClosed()) {
+            try (Socket socket = server.accept()) {
+                // counted on accept, the client handshake can only complete after it
+                connections.incrementAndGet();
+                ((SSLSocket) socket).startHandshake();
+            } catch (IOException e) {
+                // closed by the test or the client
+            }
+        }
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.deploy;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClientException;
+import com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BundleImporterTest {
+
+    private final RestmanStandIn restman = new RestmanStandIn();
+
+    @BeforeEach
+    void startRestman() throws IOException {
+        restman.start();
+    }
+
+    @AfterEach
+    void stopRestman() {
+        restman.stop();
+    }
+
+    @Test
+    void importChangedBundles(TemporaryFolder temporaryFolder) throws IOException {
+        final File first = writeBundle(temporaryFolder, "first.bundle", "<first/>");
+        final File second = writeBundle(temporaryFolder, "second.bundle", "<second/>");
+        final File manifest = new File(temporaryFolder.getRoot(), "import/manifest.json");
+        final List<File> bundles = Arrays.asList(first, second);
+
+        final List<String> importedBundles = restman.getImportedBundles();
+        assertEquals(bundles, newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+        assertEquals(Arrays.asList("<first/>", "<second/>"), importedBundles);
+        assertTrue(manifest.isFile());
+
+        // nothing changed, the url may have a trailing slash
+        assertEquals(Collections.emptyList(), newBundleImporter("/restman/", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+        assertEquals(2, importedBundles.size());
+
+        // only the changed bundle is imported
+        writeBundle(temporaryFolder, "second.bundle", "<changed/>");
+        assertEquals(Collections.singletonList(second), newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+        assertEquals("<changed/>", importedBundles.get(2));
+
+        // unless forced
+        assertEquals(bundles, newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, true));
+        assertEquals(5, importedBundles.size());
+    }
+
+    @Test
+    void importFailedBundlesAgain(TemporaryFolder temporaryFolder) throws IOException {
+        final File first = writeBundle(temporaryFolder, "first.bundle", "<first/>");
+        final File manifest = new File(temporaryFolder.getRoot(), "manifest.json");
+        final List<File> bundles = Collections.singletonList(first);
+
+        restman.setFailingStatus(500);
+        assertThrows(GatewayClientException.class, () -> newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+        assertFalse(manifest.exists());
+
+        restman.setFailingStatus(0);
+        assertEquals(bundles, newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+        assertEquals(Collections.emptyList(), newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+
+        // the manifest is kept per gateway
+        restman.stop();
+        restman.start();
+        assertEquals(bundles, newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+
+        // a broken manifest imports everything again
+        Files.write(manifest.toPath(), "{".getBytes(UTF_8));
+        assertEquals(bundles, newBundleImporter("/restman", temporaryFolder.getRoot(), manifest).importBundles(bundles, false));
+    }
+
+    @Test
+    void importBundlesByPath(TemporaryFolder temporaryFolder) throws IOException {
+        final File project = temporaryFolder.createDirectory("project");
+        final File first = writeBundle(temporaryFolder, "project/a/same.bundle", "<first/>");
+        final File second = writeBundle(temporaryFolder, "project/b/same.bundle", "<second/>");
+        final File outside = writeBundle(temporaryFolder, "outside.bundle", "<outside/>");
+        final File manifest = new File(project, "manifest.json");
+        final List<File> bundles = Arrays.asList(first, second, outside);
+
+        // bundles with the same name in different folders are both kept
+        assertEquals(bundles, newBundleImporter("/restman", project, manifest).importBundles(bundles, false));
+        assertEquals(Collections.emptyList(), newBundleImporter("/restman", project, manifest).importBundles(bundles, false));
+
+        // relative to the project, or absolute when outside of it
+        final String manifestContents = new String(Files.readAllBytes(manifest.toPath()), UTF_8);
+        assertTrue(manifestContents.contains("\"a/same.bundle\""));
+        assertTrue(manifestContents.contains("\"b/same.bundle\""));
+        assertTrue(manifestContents.contains(PathUtils.unixPath(outside.toPath().toAbsolutePath().normalize())));
+
+        // the same path through another base directory is the same bundle
+        final File otherBase = new File(project, "a/..");
+        assertEquals(Collections.emptyList(), newBundleImporter("/restman", otherBase, manifest).importBundles(bundles, false));
+    }
+
+    private BundleImporter newBundleImporter(String path, File baseDirectory, File manifest) {
+        return new BundleImporter(GatewayClient.INSTANCE, restman.getUrl(path), "admin", "password", baseDirectory, manifest);
+    }
+
+    private static File writeBundle(TemporaryFolder temporaryFolder, String name, String contents) throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), name);
+        Files.createDirectories(file.getParentFile().toPath());
+        Files.write(file.toPath(), contents.getBytes(UTF_8));
+        return file;
+    }
+}
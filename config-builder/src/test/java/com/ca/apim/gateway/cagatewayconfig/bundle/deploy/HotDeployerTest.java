@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.deploy;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.TestUtils.buildBundles;
+import static com.ca.apim.gateway.cagatewayconfig.util.TestUtils.writePolicy;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class HotDeployerTest {
+
+    private final RestmanStandIn restman = new RestmanStandIn();
+
+    @BeforeEach
+    void startRestman() throws IOException {
+        restman.start();
+    }
+
+    @AfterEach
+    void stopRestman() {
+        restman.stop();
+    }
+
+    @Test
+    void deployChangedItems(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        final File sourceDir = temporaryFolder.createDirectory("gateway");
+        final File outputDir = temporaryFolder.createDirectory("build");
+        final File first = writePolicy(sourceDir, "policy/folder/first.xml", "first");
+        writePolicy(sourceDir, "policy/folder/second.xml", "second");
+
+        final HotDeployer hotDeployer = new HotDeployer(GatewayClient.INSTANCE, DocumentTools.INSTANCE,
+                restman.getUrl("/restman"), "admin", "password");
+        final List<String> importedBundles = restman.getImportedBundles();
+
+        // the first deployment imports the full bundle, with the root folder
+        assertEquals(4, hotDeployer.deploy(buildBundles(sourceDir, outputDir, "hot-deploy")));
+        assertEquals(1, importedBundles.size());
+        assertEquals(4, getItems(parse(importedBundles.get(0))).size());
+
+        // building again gives the same bundle, nothing changed
+        assertEquals(0, hotDeployer.deploy(buildBundles(sourceDir, outputDir, "hot-deploy")));
+        assertEquals(1, importedBundles.size());
+
+        // only the changed policy is imported, the others are mapped to the existing entities
+        writePolicy(sourceDir, "policy/folder/second.xml", "changed");
+        assertEquals(1, hotDeployer.deploy(buildBundles(sourceDir, outputDir, "hot-deploy")));
+        assertEquals(2, importedBundles.size());
+        final List<Element> changedItems = getItems(parse(importedBundles.get(1)));
+        assertEquals(1, changedItems.size());
+        assertEquals("folder/second", getSingleChildElementTextContent(changedItems.get(0), NAME));
+        final Map<String, String> actions = getMappingActions(parse(importedBundles.get(1)));
+        assertEquals(4, actions.size());
+        assertEquals(1, Collections.frequency(actions.values(), MappingActions.NEW_OR_UPDATE));
+        assertEquals(3, Collections.frequency(actions.values(), MappingActions.NEW_OR_EXISTING));
+
+        // removed policies are deleted
+        assertTrue(first.delete());
+        assertEquals(1, hotDeployer.deploy(buildBundles(sourceDir, outputDir, "hot-deploy")));
+        assertEquals(3, importedBundles.size());
+        assertTrue(getItems(parse(importedBundles.get(2))).isEmpty());
+        assertEquals(1, Collections.frequency(getMappingActions(parse(importedBundles.get(2))).values(), MappingActions.DELETE));
+    }
+
+    private static List<Element> getItems(Element bundle) {
+        return getChildElements(getSingleChildElement(bundle, REFERENCES), ITEM);
+    }
+
+    private static Element parse(String bundle) throws DocumentParseException {
+        return DocumentTools.INSTANCE.parse(bundle).getDocumentElement();
+    }
+
+    private static Map<String, String> getMappingActions(Element bundle) {
+        final Map<String, String> actions = new HashMap<>();
+        getChildElements(getSingleChildElement(bundle, MAPPINGS), MAPPING)
+                .forEach(mapping -> actions.put(mapping.getAttribute(ATTRIBUTE_SRCID), mapping.getAttribute(ATTRIBUTE_ACTION)));
+        return actions;
+    }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.deploy;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.commons.io.IOUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A local stand-in for restman, that keeps the bundles imported into it and fails with the given status.
+ */
+class RestmanStandIn {
+
+    private HttpServer server;
+    private final List<String> importedBundles = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger failingStatus = new AtomicInteger();
+
+    void start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/restman/1.0/bundle", exchange -> {
+            try {
+                if (!"PUT".equals(exchange.getRequestMethod()) || failingStatus.get() != 0) {
+                    exchange.sendResponseHeaders(failingStatus.get() != 0 ? failingStatus.get() : 405, -1);
+                    return;
+                }
+                importedBundles.add(IOUtils.toString(exchange.getRequestBody(), UTF_8));
+                final byte[] response = "<l7:Item xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\"/>".getBytes(UTF_8);
+                exchange.sendResponseHeaders(200, response.length);
+                try (OutputStream responseBody = exchange.getResponseBody()) {
+                    responseBody.write(response);
+                }
+            } finally {
+                exchange.close();
+            }
+        });
+        server.start();
+    }
+
+    void stop() {
+        server.stop(0);
+    }
+
+    /**
+     * @param path the path of restman, like /restman
+     * @return the url of the path on the stand-in
+     */
+    String getUrl(String path) {
+        return "http://localhost:" + server.getAddress().getPort() + path;
+    }
+
+    /**
+     * @return the bundles imported so far, in the order they were imported
+     */
+    List<String> getImportedBundles() {
+        return importedBundles;
+    }
+
+    /**
+     * @param status the status to fail the imports with, 0 for none
+     */
+    void setFailingStatus(int status) {
+        failingStatus.set(status);
+    }
+}
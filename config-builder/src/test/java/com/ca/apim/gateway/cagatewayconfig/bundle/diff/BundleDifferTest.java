@@ -0,0 +1,223 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.bundle.diff;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.diff.BundleDiffReport.ItemDifference;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.TestUtils.buildBundles;
+import static com.ca.apim.gateway.cagatewayconfig.util.TestUtils.writePolicy;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class BundleDifferTest {
+
+    private static final String BUNDLE = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:References>\n%s    </l7:References>\n" +
+            "    <l7:Mappings/>\n" +
+            "</l7:Bundle>";
+    private static final String BUNDLE_WITH_MAPPINGS = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:References>\n%s    </l7:References>\n" +
+            "    <l7:Mappings>\n%s    </l7:Mappings>\n" +
+            "</l7:Bundle>";
+    private static final String MAPPING = "        <l7:Mapping action=\"NewOrUpdate\" srcId=\"%s\" type=\"%s\">\n" +
+            "            <l7:Properties>\n" +
+            "                <l7:Property key=\"MapBy\">\n" +
+            "                    <l7:StringValue>path</l7:StringValue>\n" +
+            "                </l7:Property>\n" +
+            "                <l7:Property key=\"MapTo\">\n" +
+            "                    <l7:StringValue>%s</l7:StringValue>\n" +
+            "                </l7:Property>\n" +
+            "            </l7:Properties>\n" +
+            "        </l7:Mapping>\n";
+    private static final String FOLDER = "        <l7:Item>\n" +
+            "            <l7:Name>%s</l7:Name>\n" +
+            "            <l7:Id>%s</l7:Id>\n" +
+            "            <l7:Type>FOLDER</l7:Type>\n" +
+            "            <l7:TimeStamp>%s</l7:TimeStamp>\n" +
+            "            <l7:Resource>\n" +
+            "                <l7:Folder %s>\n" +
+            "                    <l7:Name>%s</l7:Name>\n" +
+            "                </l7:Folder>\n" +
+            "            </l7:Resource>\n" +
+            "        </l7:Item>\n";
+    private static final String POLICY = "        <l7:Item>\n" +
+            "            <l7:Name>%1$s</l7:Name>\n" +
+            "            <l7:Id>%2$s</l7:Id>\n" +
+            "            <l7:Type>POLICY</l7:Type>\n" +
+            "            <l7:Resource>\n" +
+            "                <l7:Policy guid=\"guid-%2$s\" id=\"%2$s\" version=\"%3$s\">\n" +
+            "                    <l7:PolicyDetail folderId=\"folder\" guid=\"guid-%2$s\" id=\"%2$s\">\n" +
+            "                        <l7:Name>%1$s</l7:Name>\n" +
+            "                        <l7:PolicyType>Include</l7:PolicyType>\n" +
+            "                        <l7:Properties>\n" +
+            "                            <l7:Property key=\"revision\">\n" +
+            "                                <l7:LongValue>%3$s</l7:LongValue>\n" +
+            "                            </l7:Property>\n" +
+            "                            <l7:Property key=\"soap\">\n" +
+            "                                <l7:BooleanValue>false</l7:BooleanValue>\n" +
+            "                            </l7:Property>\n" +
+            "                        </l7:Properties>\n" +
+            "                    </l7:PolicyDetail>\n" +
+            "                    <l7:Resources>\n" +
+            "                        <l7:ResourceSet tag=\"policy\">\n" +
+            "                            <l7:Resource type=\"policy\">%4$s</l7:Resource>\n" +
+            "                        </l7:ResourceSet>\n" +
+            "                    </l7:Resources>\n" +
+            "                </l7:Policy>\n" +
+            "            </l7:Resource>\n" +
+            "        </l7:Item>\n";
+    private static final String POLICY_XML = "&lt;wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\" xmlns:L7p=\"http://www.layer7tech.com/ws/policy\"&gt;\n" +
+            "    &lt;wsp:All wsp:Usage=\"Required\"&gt;\n" +
+            "        &lt;L7p:AuditDetailAssertion&gt;\n" +
+            "            &lt;L7p:Detail stringValue=\"%s\"/&gt;\n" +
+            "        &lt;/L7p:AuditDetailAssertion&gt;\n" +
+            "    &lt;/wsp:All&gt;\n" +
+            "&lt;/wsp:Policy&gt;";
+    // the same policy, other prefixes and formatting
+    private static final String REFORMATTED_POLICY_XML = "<![CDATA[<p:Policy xmlns:p=\"http://schemas.xmlsoap.org/ws/2002/12/policy\" xmlns:a=\"http://www.layer7tech.com/ws/policy\">" +
+            "<p:All p:Usage=\"Required\"><a:AuditDetailAssertion><a:Detail stringValue=\"%s\"/></a:AuditDetailAssertion></p:All></p:Policy>]]>";
+
+    @Test
+    void compare(TemporaryFolder temporaryFolder) throws IOException {
+        final File left = writeBundle(temporaryFolder, "left.bundle",
+                String.format(FOLDER, "folder", "folder", "2018-09-04T23:29:19.370Z", "id=\"folder\" folderId=\"root\" version=\"0\"", "folder") +
+                        String.format(POLICY, "unchanged", "p1", "1", String.format(POLICY_XML, "one")) +
+                        String.format(POLICY, "changed", "p2", "1", String.format(POLICY_XML, "two")) +
+                        String.format(POLICY, "removed", "p3", "1", String.format(POLICY_XML, "three")));
+        final File right = writeBundle(temporaryFolder, "right.bundle",
+                String.format(FOLDER, "folder", "folder", "2019-01-01T00:00:00.000Z", "version=\"3\" folderId=\"root\" id=\"folder\"", "folder") +
+                        String.format(POLICY, "unchanged", "p1", "1", String.format(REFORMATTED_POLICY_XML, "one")) +
+                        String.format(POLICY, "changed", "p2", "2", String.format(POLICY_XML, "changed")) +
+                        String.format(POLICY, "added", "p4", "1", String.format(POLICY_XML, "four")));
+
+        final BundleDiffReport report = new BundleDiffer().compare(left, right);
+
+        assertEquals("left.bundle", report.getLeft());
+        assertEquals("right.bundle", report.getRight());
+        assertEquals(4, report.getLeftItemCount());
+        assertEquals(4, report.getRightItemCount());
+        // timestamps, versions, attribute order, formatting and prefixes are not differences
+        assertEquals(2, report.getUnchangedCount());
+        assertTrue(report.hasDifferences());
+
+        assertEquals(1, report.getAdded().size());
+        assertEquals("p4", report.getAdded().get(0).getId());
+        assertNull(report.getAdded().get(0).getDifferences());
+        assertEquals(1, report.getRemoved().size());
+        assertEquals("removed", report.getRemoved().get(0).getName());
+
+        assertEquals(1, report.getChanged().size());
+        final ItemDifference changed = report.getChanged().get(0);
+        assertEquals("POLICY", changed.getType());
+        assertEquals("p2", changed.getId());
+        assertEquals(Arrays.asList("policy", "property:PolicyDetail/revision"), changed.getDifferences());
+    }
+
+    @Test
+    void compareExportedBundle(TemporaryFolder temporaryFolder) throws IOException {
+        final String items = String.format(FOLDER, "folder", "folder", "2018-09-04T23:29:19.370Z", "id=\"folder\"", "folder");
+        final File built = writeBundle(temporaryFolder, "built.bundle", items);
+        // an exported bundle is wrapped in an item
+        final File exported = new File(temporaryFolder.getRoot(), "exported.bundle");
+        Files.write(exported.toPath(), ("<l7:Item xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+                "    <l7:Name>Bundle</l7:Name>\n" +
+                "    <l7:Type>BUNDLE</l7:Type>\n" +
+                "    <l7:Resource>\n" +
+                String.format(BUNDLE, String.format(FOLDER, "renamed", "folder", "2018-09-04T23:29:19.370Z", "id=\"folder\"", "renamed")) +
+                "    </l7:Resource>\n" +
+                "</l7:Item>").getBytes(UTF_8));
+
+        final BundleDiffReport report = new BundleDiffer().compare(built, exported);
+
+        assertEquals(1, report.getLeftItemCount());
+        assertEquals(1, report.getRightItemCount());
+        assertEquals(1, report.getChanged().size());
+        assertEquals(Arrays.asList("name", "resource"), report.getChanged().get(0).getDifferences());
+
+        final BundleDiffReport same = new BundleDiffer().compare(built, built);
+        assertFalse(same.hasDifferences());
+        assertEquals(1, same.getUnchangedCount());
+        assertEquals(Collections.emptyList(), same.getChanged());
+    }
+
+    @Test
+    void compareByMappedPath(TemporaryFolder temporaryFolder) throws IOException {
+        // the same policies, built with other ids
+        final File left = writeBundle(temporaryFolder, "left.bundle", BUNDLE_WITH_MAPPINGS,
+                String.format(POLICY, "policy", "p1", "1", "") + String.format(POLICY, "policy", "p2", "1", "") +
+                        String.format(POLICY, "removed", "p3", "1", ""),
+                String.format(MAPPING, "p1", "POLICY", "a/policy") + String.format(MAPPING, "p2", "POLICY", "b/policy") +
+                        String.format(MAPPING, "p3", "POLICY", "a/removed"));
+        final File right = writeBundle(temporaryFolder, "right.bundle", BUNDLE_WITH_MAPPINGS,
+                String.format(POLICY, "policy", "p4", "1", "") + String.format(POLICY, "policy", "p5", "1", ""),
+                String.format(MAPPING, "p4", "POLICY", "b/policy") + String.format(MAPPING, "p5", "POLICY", "a/policy"));
+
+        final BundleDiffReport report = new BundleDiffer().compare(left, right);
+
+        // matched by type and path, the ids in the resources are still differences
+        assertEquals(Collections.emptyList(), report.getAdded());
+        assertEquals(1, report.getRemoved().size());
+        assertEquals("p3", report.getRemoved().get(0).getId());
+        assertEquals(2, report.getChanged().size());
+        assertEquals(Collections.singletonList("resource"), report.getChanged().get(0).getDifferences());
+    }
+
+    @Test
+    void compareBuilds(TemporaryFolder temporaryFolder) throws IOException {
+        final File sourceDir = temporaryFolder.createDirectory("gateway");
+        writePolicy(sourceDir, "policy/folder/first.xml", "first");
+        writePolicy(sourceDir, "policy/folder/second.xml", "second");
+        final File left = buildBundle(sourceDir, temporaryFolder.createDirectory("left"));
+        final File right = buildBundle(sourceDir, temporaryFolder.createDirectory("right"));
+
+        final BundleDiffReport report = new BundleDiffer().compare(left, right);
+
+        // the same sources give the same bundle
+        assertFalse(report.hasDifferences());
+        assertEquals(4, report.getUnchangedCount());
+    }
+
+    @Test
+    void compareInvalidBundle(TemporaryFolder temporaryFolder) throws IOException {
+        final File bundle = writeBundle(temporaryFolder, "valid.bundle", "");
+        final File invalid = new File(temporaryFolder.getRoot(), "invalid.bundle");
+        Files.write(invalid.toPath(), "<l7:Bundle".getBytes(UTF_8));
+
+        assertThrows(BundleLoadException.class, () -> new BundleDiffer().compare(bundle, invalid));
+        assertThrows(BundleLoadException.class, () -> new BundleDiffer().compare(invalid, bundle));
+    }
+
+    private static File writeBundle(TemporaryFolder temporaryFolder, String name, String items) throws IOException {
+        return writeBundle(temporaryFolder, name, BUNDLE, items);
+    }
+
+    private static File writeBundle(TemporaryFolder temporaryFolder, String name, String bundle, Object... contents) throws IOException {
+        final File file = new File(temporaryFolder.getRoot(), name);
+        Files.write(file.toPath(), String.format(bundle, contents).getBytes(UTF_8));
+        return file;
+    }
+
+    private static File buildBundle(File sourceDir, File outputDir) {
+        buildBundles(sourceDir, outputDir, "diff");
+        final File[] bundles = outputDir.listFiles((dir, name) -> name.endsWith(".install.bundle"));
+        assertNotNull(bundles);
+        assertEquals(1, bundles.length);
+        return bundles[0];
+    }
+}
@@ -98,6 +98,33 @@ class FolderLoaderTest {
         assertEquals(f2Path, folder2.getPath());
     }
 
+    @Test
+    void loadWithChangedFolders() {
+        Document doc = DocumentTools.INSTANCE.getDocumentBuilder().newDocument();
+        Bundle bundle = new Bundle();
+        loader.load(bundle, createFolderXml(doc, Folder.ROOT_FOLDER_NAME, Folder.ROOT_FOLDER_ID, null));
+        loader.load(bundle, createFolderXml(doc, TEST_FOLDER_1, TEST_FOLDER_1, Folder.ROOT_FOLDER_ID));
+
+        // removed folders can't be parents anymore
+        bundle.getFolders().remove(TEST_FOLDER_1);
+        assertThrows(BundleLoadException.class, () -> loader.load(bundle, createFolderXml(doc, TEST_FOLDER_2, TEST_FOLDER_2, TEST_FOLDER_1)));
+
+        // folders getting their id after being added are found too
+        Folder f1 = new Folder();
+        f1.setName(TEST_FOLDER_1);
+        f1.setPath(TEST_FOLDER_1);
+        f1.setParentFolder(bundle.getFoldersById(Folder.ROOT_FOLDER_ID).get(0));
+        bundle.getFolders().computeIfAbsent(TEST_FOLDER_1, key -> f1);
+        f1.setId(TEST_FOLDER_1);
+        loader.load(bundle, createFolderXml(doc, TEST_FOLDER_2, TEST_FOLDER_2, TEST_FOLDER_1));
+        loader.load(bundle, createFolderXml(doc, TEST_FOLDER_1, "Folder3", TEST_FOLDER_2));
+
+        String f3Path = Paths.get(TEST_FOLDER_1, TEST_FOLDER_2, TEST_FOLDER_1).toString();
+        assertEquals(f3Path, bundle.getFoldersById("Folder3").get(0).getPath());
+        assertEquals(Paths.get(f3Path), bundle.getFolders().get(f3Path).getResolvedPath());
+        assertEquals(f1, bundle.getFolders().get(f3Path).getParentFolder().getParentFolder());
+    }
+
     private static Element createFolderXml(Document document, String folderName, String folderID, String parentFolderID) {
         Element element = createElementWithAttributesAndChildren(
                 document,
@@ -0,0 +1,191 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.*;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.AssertionJSPolicyConverter;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverterRegistry;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.XMLPolicyConverter;
+import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.collect.ImmutableSet;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.nio.file.Files;
+import java.util.*;
+
+import static com.ca.apim.gateway.cagatewayconfig.beans.CompactModel.COMPACT_MODEL;
+import static com.ca.apim.gateway.cagatewayconfig.config.loader.FolderLoaderUtils.SOAP_RESOURCES_FOLDER;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactModelFootprintTest {
+
+    private static final int FOLDERS = 20;
+    private static final int POLICIES_PER_FOLDER = 50;
+    private static final int SOAP_RESOURCES = 100;
+
+    private final PolicyConverterRegistry policyConverterRegistry = new PolicyConverterRegistry(ImmutableSet.of(new AssertionJSPolicyConverter(), new XMLPolicyConverter(DocumentTools.INSTANCE)));
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void compactModelFootprint(TemporaryFolder temporaryFolder) throws IOException {
+        final File rootDir = temporaryFolder.getRoot();
+        generateProject(rootDir);
+
+        final Bundle bundle = load(rootDir, false);
+        final Bundle compactBundle;
+        System.setProperty(COMPACT_MODEL, "true");
+        try {
+            compactBundle = load(rootDir, true);
+        } finally {
+            System.clearProperty(COMPACT_MODEL);
+        }
+
+        assertEquals(FOLDERS * POLICIES_PER_FOLDER, compactBundle.getPolicies().size());
+        assertEquals(SOAP_RESOURCES, compactBundle.getSoapResources().size());
+        // the compact model reads the same content
+        bundle.getPolicies().forEach((path, policy) -> assertEquals(policy.getPolicyXML(), compactBundle.getPolicies().get(path).getPolicyXML()));
+        bundle.getSoapResources().forEach((path, resource) -> assertEquals(resource.getContent(), compactBundle.getSoapResources().get(path).getContent()));
+
+        // equal strings of different policies are shared
+        final Policy first = compactBundle.getPolicies().get("folder-0/policy-0");
+        final Policy other = compactBundle.getPolicies().get("folder-1/policy-1");
+        assertSame(first.getUsedEntities().iterator().next().getName(), other.getUsedEntities().iterator().next().getName());
+        assertNotSame(bundle.getPolicies().get("folder-0/policy-0").getUsedEntities().iterator().next().getName(),
+                bundle.getPolicies().get("folder-1/policy-1").getUsedEntities().iterator().next().getName());
+
+        final long size = retainedSize(bundle);
+        final long compactSize = retainedSize(compactBundle);
+        // policy bodies take half the space and soap resources are not kept
+        assertTrue(compactSize < size * 6 / 10, () -> "compact model retains " + compactSize + " bytes, default model " + size);
+    }
+
+    private Bundle load(File rootDir, boolean compact) {
+        assertEquals(compact, CompactModel.isEnabled());
+        final Bundle bundle = new Bundle();
+        new PolicyAndFolderLoader(policyConverterRegistry, FileUtils.INSTANCE, new IdGenerator(), JsonFileUtils.INSTANCE).load(bundle, rootDir);
+        new SoapResourceLoader(FileUtils.INSTANCE).load(bundle, rootDir);
+        return bundle;
+    }
+
+    private static void generateProject(File rootDir) throws IOException {
+        final StringBuilder body = new StringBuilder();
+        for (int i = 0; i < 40; i++) {
+            body.append("<L7p:SetVariable><L7p:Base64Expression stringValue=\"dmFsdWU=\"/><L7p:VariableToSet stringValue=\"var").append(i).append("\"/></L7p:SetVariable>");
+        }
+        final Map<String, PolicyMetadata> policyMetadataMap = new HashMap<>();
+        for (int f = 0; f < FOLDERS; f++) {
+            final File folder = new File(rootDir, "policy/folder-" + f);
+            assertTrue(folder.mkdirs());
+            for (int p = 0; p < POLICIES_PER_FOLDER; p++) {
+                final String policyXML = "<wsp:Policy xmlns:L7p=\"http://www.layer7tech.com/ws/policy\" xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\"><wsp:All wsp:Usage=\"Required\">"
+                        + body + "<L7p:CommentAssertion><L7p:Comment stringValue=\"policy " + f + "-" + p + "\"/></L7p:CommentAssertion></wsp:All></wsp:Policy>";
+                Files.write(new File(folder, "policy-" + p + ".xml").toPath(), policyXML.getBytes(UTF_8));
+
+                final PolicyMetadata policyMetadata = new PolicyMetadata();
+                policyMetadata.setPath("folder-" + f);
+                policyMetadata.setName("policy-" + p);
+                policyMetadata.setType("include");
+                policyMetadata.setUsedEntities(new HashSet<>(Collections.singletonList(new Dependency("shared-connection", EntityTypes.JDBC_CONNECTION))));
+                policyMetadataMap.put(policyMetadata.getFullPath(), policyMetadata);
+            }
+        }
+        JsonFileUtils.INSTANCE.writePoliciesConfigFile(policyMetadataMap, rootDir);
+
+        final File soapResources = new File(rootDir, SOAP_RESOURCES_FOLDER + "/wsdl");
+        assertTrue(soapResources.mkdirs());
+        for (int i = 0; i < SOAP_RESOURCES; i++) {
+            final StringBuilder wsdl = new StringBuilder("<wsdl:definitions xmlns:wsdl=\"http://schemas.xmlsoap.org/wsdl/\">");
+            for (int o = 0; o < 50; o++) {
+                wsdl.append("<wsdl:message name=\"operation").append(o).append("\"><wsdl:part name=\"body\" element=\"tns:Operation").append(o).append("\"/></wsdl:message>");
+            }
+            Files.write(new File(soapResources, "service-" + i + ".wsdl").toPath(), wsdl.append("</wsdl:definitions>").toString().getBytes(UTF_8));
+        }
+    }
+
+    /**
+     * Estimates the bytes retained by the model, counting each object reachable from it once. Strings are counted with
+     * the layout of the java 8 runtimes running the plugin, two bytes per char.
+     */
+    private static long retainedSize(Object root) {
+        final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+        final Deque<Object> toVisit = new ArrayDeque<>();
+        toVisit.push(root);
+        long size = 0;
+        while (!toVisit.isEmpty()) {
+            final Object object = toVisit.pop();
+            if (!visited.add(object)) {
+                continue;
+            }
+            if (object instanceof String) {
+                size += 40 + 2L * ((String) object).length();
+            } else if (object.getClass().isArray()) {
+                final int length = Array.getLength(object);
+                if (object.getClass().getComponentType().isPrimitive()) {
+                    size += 16 + (long) length * (object instanceof byte[] ? 1 : 8);
+                } else {
+                    size += 16 + 4L * length;
+                    for (int i = 0; i < length; i++) {
+                        pushIfPresent(toVisit, Array.get(object, i));
+                    }
+                }
+            } else if (object instanceof Map) {
+                size += 48 + 32L * ((Map<?, ?>) object).size();
+                ((Map<?, ?>) object).forEach((key, value) -> {
+                    pushIfPresent(toVisit, key);
+                    pushIfPresent(toVisit, value);
+                });
+            } else if (object instanceof Collection) {
+                size += 48 + 32L * ((Collection<?>) object).size();
+                ((Collection<?>) object).forEach(value -> pushIfPresent(toVisit, value));
+            } else if (object.getClass().getName().startsWith("com.ca.apim")) {
+                size += 16;
+                for (Class<?> type = object.getClass(); type != null && type.getName().startsWith("com.ca.apim"); type = type.getSuperclass()) {
+                    for (Field field : type.getDeclaredFields()) {
+                        if (!Modifier.isStatic(field.getModifiers())) {
+                            size += 8;
+                            pushIfPresent(toVisit, readField(field, object));
+                        }
+                    }
+                }
+            } else {
+                size += 16;
+            }
+        }
+        return size;
+    }
+
+    private static Object readField(Field field, Object object) {
+        if (field.getType().isPrimitive()) {
+            return null;
+        }
+        try {
+            field.setAccessible(true);
+            return field.get(object);
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void pushIfPresent(Deque<Object> toVisit, Object object) {
+        if (object != null) {
+            toVisit.push(object);
+        }
+    }
+}
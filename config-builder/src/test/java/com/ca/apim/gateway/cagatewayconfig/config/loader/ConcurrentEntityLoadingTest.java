@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.*;
+import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.google.common.collect.ImmutableMap;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.*;
+
+import static com.ca.apim.gateway.cagatewayconfig.beans.EntityUtils.createEntityInfo;
+import static com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderUtils.createEntityLoader;
+import static com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderUtils.createPropertiesLoader;
+import static java.util.Collections.singletonMap;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ConcurrentEntityLoadingTest {
+
+    private static final int THREADS = Math.max(8, Runtime.getRuntime().availableProcessors() * 2);
+    private static final int ENTITIES_PER_THREAD = 500;
+
+    @Test
+    void loadConcurrently() throws Exception {
+        final IdGenerator idGenerator = new IdGenerator();
+        final EntityLoader jdbcLoader = createEntityLoader(JsonTools.INSTANCE, idGenerator, createEntityInfo(JdbcConnection.class));
+        final PropertiesLoaderBase passwordLoader = createPropertiesLoader(FileUtils.INSTANCE, idGenerator, createEntityInfo(StoredPassword.class));
+        final PropertiesLoaderBase propertyLoader = createPropertiesLoader(FileUtils.INSTANCE, idGenerator, createEntityInfo(GlobalEnvironmentProperty.class));
+
+        for (int run = 0; run < 5; run++) {
+            // a new bundle each run, so the entity maps are created concurrently too
+            final Bundle bundle = new Bundle();
+            runConcurrently(thread -> {
+                for (int i = 0; i < ENTITIES_PER_THREAD; i++) {
+                    final String name = "entity-" + thread + "-" + i;
+                    jdbcLoader.load(bundle, name, "{\"driverClass\": \"com.mysql.jdbc.Driver\", \"jdbcUrl\": \"jdbc:mysql://localhost:3306/" + name + "\"}");
+                    passwordLoader.load(bundle, name, "password");
+                    propertyLoader.load(bundle, name, "value");
+                    bundle.putAllPolicies(singletonMap("policy-" + (i % 50), policy(thread, i)));
+                    bundle.getFolders().put(name, new Folder(name, name));
+                }
+            });
+
+            final int expected = THREADS * ENTITIES_PER_THREAD;
+            assertEquals(expected, bundle.getJdbcConnections().size());
+            assertEquals(expected, bundle.getStoredPasswords().size());
+            assertEquals(expected, bundle.getGlobalEnvironmentProperties().size());
+            assertEquals(expected, bundle.getFolders().size());
+            assertEquals(50, bundle.getPolicies().size());
+            // every policy got the usages merged from all of the threads
+            bundle.getPolicies().values().forEach(p -> assertEquals(expected / 50, p.getUsedEntities().size()));
+            assertEquals(1, bundle.getFoldersById("entity-0-0").size());
+        }
+    }
+
+    @Test
+    void detectDuplicates() {
+        final Bundle bundle = new Bundle();
+        final JdbcConnection connection = new JdbcConnection();
+        assertTrue(bundle.putAllEntities(JdbcConnection.class, ImmutableMap.of("jdbc", connection)).isEmpty());
+        // the same entity again is not a duplicate
+        assertTrue(bundle.putAllEntities(JdbcConnection.class, ImmutableMap.of("jdbc", connection)).isEmpty());
+
+        final JdbcConnection other = new JdbcConnection();
+        final Set<String> duplicates = bundle.putAllEntities(JdbcConnection.class, ImmutableMap.of("jdbc", other, "other", new JdbcConnection()));
+        assertEquals(singletonMap("jdbc", other).keySet(), duplicates);
+        assertSame(other, bundle.getJdbcConnections().get("jdbc"));
+        assertEquals(2, bundle.getJdbcConnections().size());
+        assertNull(bundle.getJdbcConnections().get(null));
+    }
+
+    @Test
+    void addEntityWithoutId() {
+        final Bundle bundle = new Bundle();
+        final StoredPassword password = new StoredPassword();
+        bundle.addEntity(password);
+        bundle.getStoredPasswords().putIfAbsent("other", new StoredPassword());
+
+        assertSame(password, bundle.getStoredPasswords().get(null));
+        assertTrue(bundle.getStoredPasswords().containsKey(null));
+        assertTrue(bundle.getStoredPasswords().keySet().contains(null));
+        assertTrue(bundle.getStoredPasswords().values().contains(password));
+        assertEquals(2, bundle.getStoredPasswords().size());
+
+        assertSame(password, bundle.getStoredPasswords().remove(null));
+        assertEquals(1, bundle.getStoredPasswords().size());
+    }
+
+    private static Policy policy(int thread, int i) {
+        final Policy policy = new Policy();
+        policy.getUsedEntities().add(new Dependency(thread + "-" + i, "TYPE"));
+        return policy;
+    }
+
+    private static void runConcurrently(ThreadTask task) throws Exception {
+        final ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CyclicBarrier start = new CyclicBarrier(THREADS);
+            final List<Future<?>> futures = new ArrayList<>();
+            for (int thread = 0; thread < THREADS; thread++) {
+                final int threadNumber = thread;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    task.run(threadNumber);
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private interface ThreadTask {
+        void run(int thread) throws Exception;
+    }
+}
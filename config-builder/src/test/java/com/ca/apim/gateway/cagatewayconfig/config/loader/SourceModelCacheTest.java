@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.JdbcConnection;
+import com.ca.apim.gateway.cagatewayconfig.beans.StoredPassword;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.AssertionJSPolicyConverter;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverterRegistry;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.XMLPolicyConverter;
+import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.collect.ImmutableSet;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.ca.apim.gateway.cagatewayconfig.beans.EntityUtils.createEntityInfo;
+import static com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderUtils.createEntityLoader;
+import static com.ca.apim.gateway.cagatewayconfig.config.loader.EntityLoaderUtils.createPropertiesLoader;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SourceModelCacheTest {
+
+    private final ProjectInfo projectInfo = new ProjectInfo("my-bundle", "my-bundle-group", "1.0");
+    private List<EntityLoader> entityLoaders;
+    private File root;
+
+    @BeforeEach
+    void before(TemporaryFolder temporaryFolder) throws IOException {
+        final IdGenerator idGenerator = new IdGenerator();
+        final PolicyConverterRegistry policyConverterRegistry = new PolicyConverterRegistry(ImmutableSet.of(new AssertionJSPolicyConverter(), new XMLPolicyConverter(DocumentTools.INSTANCE)));
+        entityLoaders = Arrays.asList(
+                new PolicyAndFolderLoader(policyConverterRegistry, FileUtils.INSTANCE, idGenerator, JsonFileUtils.INSTANCE),
+                createEntityLoader(JsonTools.INSTANCE, idGenerator, createEntityInfo(JdbcConnection.class)),
+                createPropertiesLoader(FileUtils.INSTANCE, idGenerator, createEntityInfo(StoredPassword.class))
+        );
+
+        root = temporaryFolder.getRoot();
+        writeFile(new File(root, "policy/a/policy1.xml"), "<policy1/>");
+        writeFile(new File(root, "policy/policy2.xml"), "<policy2/>");
+        writeFile(new File(root, "config/" + createEntityInfo(JdbcConnection.class).getFileName() + ".json"), "{\"jdbc\": {\"driverClass\": \"com.mysql.jdbc.Driver\", \"jdbcUrl\": \"jdbc:mysql://localhost:3306/one\"}}");
+        writeFile(new File(root, "config/" + createEntityInfo(StoredPassword.class).getFileName() + ".properties"), "password=secret");
+    }
+
+    @Test
+    void reuseUnchangedEntities() {
+        final SourceModelCache sourceModelCache = new SourceModelCache();
+        final Bundle first = load(sourceModelCache, projectInfo);
+        final Bundle second = load(sourceModelCache, projectInfo);
+
+        assertEquals(3, sourceModelCache.size());
+        assertEquals(2, second.getPolicies().size());
+        assertSame(first.getPolicies().get("a/policy1"), second.getPolicies().get("a/policy1"));
+        assertSame(first.getFolders().get("a/"), second.getFolders().get("a/"));
+        assertSame(first.getJdbcConnections().get("jdbc"), second.getJdbcConnections().get("jdbc"));
+        assertSame(first.getStoredPasswords().get("password"), second.getStoredPasswords().get("password"));
+        // the bundles are not shared, only the entities
+        assertNotSame(first.getPolicies(), second.getPolicies());
+    }
+
+    @Test
+    void loadChangedFilesAgain() throws IOException {
+        final SourceModelCache sourceModelCache = new SourceModelCache();
+        final Bundle first = load(sourceModelCache, projectInfo);
+
+        final File jdbcFile = new File(root, "config/" + createEntityInfo(JdbcConnection.class).getFileName() + ".json");
+        writeFile(jdbcFile, "{\"jdbc\": {\"driverClass\": \"com.mysql.jdbc.Driver\", \"jdbcUrl\": \"jdbc:mysql://localhost:3306/changed\"}}");
+        assertTrue(jdbcFile.setLastModified(jdbcFile.lastModified() + 10_000));
+        final Bundle second = load(sourceModelCache, projectInfo);
+
+        assertEquals("jdbc:mysql://localhost:3306/changed", second.getJdbcConnections().get("jdbc").getJdbcUrl());
+        assertSame(first.getPolicies().get("a/policy1"), second.getPolicies().get("a/policy1"));
+        assertSame(first.getStoredPasswords().get("password"), second.getStoredPasswords().get("password"));
+
+        // a policy added to a folder changes the folder
+        writeFile(new File(root, "policy/a/policy3.xml"), "<policy3/>");
+        assertTrue(new File(root, "policy/a").setLastModified(new File(root, "policy/a").lastModified() + 10_000));
+        final Bundle third = load(sourceModelCache, projectInfo);
+
+        assertEquals(3, third.getPolicies().size());
+        assertEquals("<policy3/>", third.getPolicies().get("a/policy3").getPolicyXML());
+        assertSame(second.getJdbcConnections().get("jdbc"), third.getJdbcConnections().get("jdbc"));
+    }
+
+    @Test
+    void readChangedPolicyFilesAgain() throws IOException {
+        final Set<String> readFiles = ConcurrentHashMap.newKeySet();
+        final FileUtils fileUtils = new FileUtils() {
+            @Override
+            public String getFileAsString(File file) {
+                readFiles.add(file.getName());
+                return super.getFileAsString(file);
+            }
+        };
+        final PolicyConverterRegistry policyConverterRegistry = new PolicyConverterRegistry(ImmutableSet.of(new AssertionJSPolicyConverter(), new XMLPolicyConverter(DocumentTools.INSTANCE)));
+        entityLoaders = Collections.singletonList(new PolicyAndFolderLoader(policyConverterRegistry, fileUtils, new IdGenerator(), JsonFileUtils.INSTANCE));
+        final SourceModelCache sourceModelCache = new SourceModelCache();
+        load(sourceModelCache, projectInfo);
+        assertEquals(ImmutableSet.of("policy1.xml", "policy2.xml"), readFiles);
+
+        readFiles.clear();
+        final File policyFile = new File(root, "policy/policy2.xml");
+        writeFile(policyFile, "<policy2 changed=\"true\"/>");
+        assertTrue(policyFile.setLastModified(policyFile.lastModified() + 10_000));
+        final Bundle bundle = load(sourceModelCache, projectInfo);
+
+        assertEquals(Collections.singleton("policy2.xml"), readFiles);
+        assertEquals("<policy1/>", bundle.getPolicies().get("a/policy1").getPolicyXML());
+        assertEquals("<policy2 changed=\"true\"/>", bundle.getPolicies().get("policy2").getPolicyXML());
+    }
+
+    @Test
+    void keepEntitiesOfEachProject() {
+        final SourceModelCache sourceModelCache = new SourceModelCache();
+        final Bundle first = load(sourceModelCache, projectInfo);
+        final Bundle other = load(sourceModelCache, new ProjectInfo("other-bundle", "my-bundle-group", "1.0"));
+
+        assertEquals(6, sourceModelCache.size());
+        assertNotSame(first.getPolicies().get("a/policy1"), other.getPolicies().get("a/policy1"));
+        assertNotEquals(first.getPolicies().get("a/policy1").getId(), other.getPolicies().get("a/policy1").getId());
+    }
+
+    private Bundle load(SourceModelCache sourceModelCache, ProjectInfo projectInfo) {
+        final Bundle bundle = new Bundle(projectInfo);
+        sourceModelCache.load(bundle, root, entityLoaders);
+        return bundle;
+    }
+
+    private static void writeFile(File file, String contents) throws IOException {
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), contents.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.Folder;
+import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.AssertionJSPolicyConverter;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.PolicyConverterRegistry;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.policy.XMLPolicyConverter;
+import com.ca.apim.gateway.cagatewayconfig.util.IdGenerator;
+import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.collect.ImmutableSet;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SourceTreeTest {
+
+    @Test
+    void scan(TemporaryFolder temporaryFolder) throws IOException {
+        final File root = temporaryFolder.createDirectory("policy");
+        writeFile(new File(root, "b/c/policy.xml"), "c");
+        writeFile(new File(root, "b/policy.txt"), "not a policy");
+        writeFile(new File(root, "a-b/policy.xml"), "a-b");
+        assertTrue(new File(root, "empty").mkdirs());
+
+        final SourceTree sourceTree = SourceTree.scan(root, name -> name.endsWith(".xml"));
+
+        assertEquals(Arrays.asList("", "a-b/", "b/", "b/c/", "empty/"), new ArrayList<>(sourceTree.getDirectories().keySet()));
+        assertEquals(root, sourceTree.getDirectories().get(""));
+        assertEquals(Arrays.asList("a-b/policy.xml", "b/c/policy.xml"), new ArrayList<>(sourceTree.getFiles().keySet()));
+        sourceTree.getFiles().forEach((path, file) -> assertEquals(FolderLoaderUtils.getPath(file, root), path));
+    }
+
+    @Test
+    void forEachConcurrentlyThrowsFirstFailure() {
+        System.setProperty(SourceTree.SOURCE_READ_THREADS, "4");
+        try {
+            final ConfigLoadException exception = assertThrows(ConfigLoadException.class, () -> SourceTree.forEachConcurrently(Arrays.asList(1, 2, 3, 4, 5), i -> {
+                if (i % 2 == 0) {
+                    throw new ConfigLoadException("failed " + i);
+                }
+            }));
+            assertEquals("failed 2", exception.getMessage());
+        } finally {
+            System.clearProperty(SourceTree.SOURCE_READ_THREADS);
+        }
+    }
+
+    @Test
+    void loadPoliciesConcurrently(TemporaryFolder temporaryFolder) throws IOException {
+        final File root = temporaryFolder.getRoot();
+        for (int i = 0; i < 20; i++) {
+            writeFile(new File(root, "policy/folder" + i % 3 + "/sub" + i % 2 + "/policy" + i + ".xml"), "<policy" + i + "/>");
+        }
+        writeFile(new File(root, "policy/script.assertion.js"), "var a = 1;");
+
+        final Bundle sequential = loadPolicies(root, 1);
+        final Bundle concurrent = loadPolicies(root, 4);
+
+        assertEquals(21, concurrent.getPolicies().size());
+        assertEquals(describe(sequential), describe(concurrent));
+    }
+
+    private static Bundle loadPolicies(File root, int threads) {
+        final PolicyConverterRegistry policyConverterRegistry = new PolicyConverterRegistry(ImmutableSet.of(new AssertionJSPolicyConverter(), new XMLPolicyConverter(DocumentTools.INSTANCE)));
+        final PolicyAndFolderLoader loader = new PolicyAndFolderLoader(policyConverterRegistry, FileUtils.INSTANCE, new IdGenerator(), JsonFileUtils.INSTANCE);
+        final Bundle bundle = new Bundle();
+        System.setProperty(SourceTree.SOURCE_READ_THREADS, String.valueOf(threads));
+        try {
+            loader.load(bundle, root);
+        } finally {
+            System.clearProperty(SourceTree.SOURCE_READ_THREADS);
+        }
+        return bundle;
+    }
+
+    // everything loaded but the generated ids
+    private static Map<String, String> describe(Bundle bundle) {
+        final Map<String, String> description = new TreeMap<>();
+        bundle.getFolders().forEach((path, folder) -> description.put("folder " + path, folder.getName() + " in " + parentPath(folder.getParentFolder())));
+        bundle.getPolicies().forEach((path, policy) -> description.put("policy " + path, policy.getName() + " in " + parentPath(policy.getParentFolder()) + ": " + policy.getPolicyXML()));
+        return description;
+    }
+
+    private static String parentPath(Folder folder) {
+        return folder == null ? null : folder.getPath();
+    }
+
+    private static void writeFile(File file, String contents) throws IOException {
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), contents.getBytes(UTF_8));
+    }
+}
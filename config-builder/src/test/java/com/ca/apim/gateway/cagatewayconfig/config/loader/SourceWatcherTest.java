@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.config.loader;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Set;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class SourceWatcherTest {
+
+    @Test
+    void awaitChangesInBatches(TemporaryFolder temporaryFolder) throws IOException, InterruptedException {
+        final File root = temporaryFolder.createDirectory("gateway");
+        final File policies = new File(root, "policy");
+        assertTrue(policies.mkdirs());
+
+        try (SourceWatcher sourceWatcher = new SourceWatcher(root)) {
+            final File first = new File(policies, "first.xml");
+            final File second = new File(policies, "second.xml");
+            writeFile(first, "<first/>");
+            writeFile(second, "<second/>");
+            final Set<Path> changes = sourceWatcher.awaitChanges(200);
+            assertTrue(changes.contains(first.toPath()));
+            assertTrue(changes.contains(second.toPath()));
+
+            // directories created while watching are watched too
+            final File folder = new File(policies, "folder");
+            assertTrue(folder.mkdirs());
+            assertTrue(sourceWatcher.awaitChanges(200).contains(folder.toPath()));
+            final File third = new File(folder, "third.xml");
+            writeFile(third, "<third/>");
+            assertTrue(sourceWatcher.awaitChanges(200).contains(third.toPath()));
+
+            assertTrue(first.delete());
+            assertEquals(first.toPath(), sourceWatcher.awaitChanges(200).iterator().next());
+        }
+    }
+
+    private static void writeFile(File file, String contents) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(UTF_8));
+    }
+}
@@ -1,6 +1,7 @@
 package com.ca.apim.gateway.cagatewayconfig.environment;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.DependentBundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadingOperation;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.EntityBundleLoader;
@@ -53,4 +54,28 @@ class BundleCacheTest {
 
         Assert.assertTrue(cache.contains(file.getPath()));
     }
+
+    @Test
+    void getBundleCopies() {
+        File file = new File(TEST_STRING);
+        Policy policy = new Policy();
+        policy.setName(TEST_STRING);
+        policy.setPath(TEST_STRING);
+        Bundle bundle = new Bundle();
+        bundle.getPolicies().put(policy.getPath(), policy);
+
+        when(entityBundleLoader.load(file, BundleLoadingOperation.EXPORT)).thenReturn(bundle);
+
+        BundleCache cache = new BundleCache(entityBundleLoader);
+        Bundle first = cache.getBundleFromFile(file);
+        first.setDependentBundleFrom(new DependentBundle(file));
+        first.getPolicies().clear();
+
+        // what a build sets on its bundle is not seen by the next one
+        Bundle second = cache.getBundleFromFile(file);
+        Assert.assertNotSame(first, second);
+        Assert.assertNull(second.getDependentBundleFrom());
+        Assert.assertSame(policy, second.getPolicies().get(TEST_STRING));
+        Assert.assertNull(bundle.getDependentBundleFrom());
+    }
 }
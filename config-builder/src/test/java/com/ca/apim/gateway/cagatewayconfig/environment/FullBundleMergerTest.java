@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.environment;
+
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.PolicyEntityBuilder.POLICY;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.policy.PolicyXMLElements.ENCAPSULATED_ASSERTION_CONFIG_GUID;
+import static com.ca.apim.gateway.cagatewayconfig.util.policy.PolicyXMLElements.STRING_VALUE;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.nodeList;
+import static java.util.stream.Collectors.toList;
+import static java.util.stream.StreamSupport.stream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class FullBundleMergerTest {
+
+    private static final String ENVIRONMENT_BUNDLE = "<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">" +
+            "<l7:References><l7:Item><l7:Name>property</l7:Name><l7:Id>environment-id</l7:Id><l7:Type>CLUSTER_PROPERTY</l7:Type></l7:Item></l7:References>" +
+            "<l7:Mappings><l7:Mapping action=\"NewOrExisting\" srcId=\"environment-id\" type=\"CLUSTER_PROPERTY\"/></l7:Mappings>" +
+            "</l7:Bundle>";
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void merge(TemporaryFolder temporaryFolder) throws IOException, DocumentParseException {
+        final File policyBundle = copyBundle(temporaryFolder, "DependencyBundleProcessorTest_2.bundle");
+        final File encassBundle = copyBundle(temporaryFolder, "DependencyBundleProcessorTest_1.bundle");
+        final File fullBundle = new File(temporaryFolder.getRoot(), "full.bundle");
+        final Element environmentBundle = DocumentTools.INSTANCE.parse(ENVIRONMENT_BUNDLE).getDocumentElement();
+
+        // the policy comes before the encass it uses, and is merged twice
+        InjectionRegistry.getInstance(FullBundleMerger.class).merge(environmentBundle, Arrays.asList(policyBundle, encassBundle, policyBundle), fullBundle);
+
+        final Element bundle = DocumentTools.INSTANCE.parse(fullBundle).getDocumentElement();
+        final List<Element> items = getChildElements(getSingleChildElement(bundle, REFERENCES), ITEM);
+        assertEquals(Arrays.asList("environment-id", "0000000000000000ffffffffffffec76", "d642a9f6d8d5a46cdc96cb1cc0261377", "b5f856df483ce1c5362a9ab401fb9161"),
+                items.stream().map(item -> getSingleChildElement(item, ID).getTextContent()).collect(toList()));
+        // mappings are only merged once, and only after their item was
+        assertEquals(Arrays.asList("environment-id", "0000000000000000ffffffffffffec76", "b5f856df483ce1c5362a9ab401fb9161"),
+                getChildElements(getSingleChildElement(bundle, MAPPINGS), MAPPING).stream().map(mapping -> mapping.getAttribute(ATTRIBUTE_SRCID)).collect(toList()));
+
+        final Element policyResource = stream(nodeList(items.get(2).getElementsByTagName(RESOURCE)).spliterator(), false)
+                .map(node -> (Element) node)
+                .filter(resource -> POLICY.equals(resource.getAttribute(ATTRIBUTE_TYPE)))
+                .findFirst()
+                .orElseThrow(AssertionError::new);
+        final Element policy = DocumentTools.INSTANCE.parse(policyResource.getTextContent()).getDocumentElement();
+        final Element guid = (Element) policy.getElementsByTagName(ENCAPSULATED_ASSERTION_CONFIG_GUID).item(0);
+        assertEquals("283e93c6-9cf6-46f1-a34a-cf333bf4f1c3", guid.getAttribute(STRING_VALUE));
+    }
+
+    private static File copyBundle(TemporaryFolder temporaryFolder, String name) throws IOException {
+        final File bundle = new File(temporaryFolder.getRoot(), name);
+        try (InputStream contents = Thread.currentThread().getContextClassLoader().getResourceAsStream(name)) {
+            Files.copy(contents, bundle.toPath());
+        }
+        return bundle;
+    }
+}
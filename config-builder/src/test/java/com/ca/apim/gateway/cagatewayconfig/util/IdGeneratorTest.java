@@ -6,9 +6,13 @@
 
 package com.ca.apim.gateway.cagatewayconfig.util;
 
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import org.junit.Assert;
 import org.junit.jupiter.api.Test;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.POLICY_TYPE;
+import static com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes.SERVICE_TYPE;
+
 class IdGeneratorTest {
 
     @Test
@@ -20,4 +24,27 @@ class IdGeneratorTest {
         Assert.assertNotEquals(id1, idGenerator.generate());
         Assert.assertNotEquals(id1, idGenerator2.generate());
     }
+
+    @Test
+    void generateFromName() {
+        ProjectInfo projectInfo = new ProjectInfo("project", "group", "1.0");
+
+        String id = new IdGenerator().generate(projectInfo, POLICY_TYPE, "folder/policy");
+        Assert.assertEquals(32, id.length());
+        Assert.assertEquals(id, new IdGenerator().generate(new ProjectInfo("project", "group", "1.0"), POLICY_TYPE, "folder/policy"));
+        Assert.assertNotEquals(id, new IdGenerator().generate(projectInfo, POLICY_TYPE, "folder/policy2"));
+        Assert.assertNotEquals(id, new IdGenerator().generate(projectInfo, SERVICE_TYPE, "folder/policy"));
+        Assert.assertNotEquals(id, new IdGenerator().generate(new ProjectInfo("project", "group", "2.0"), POLICY_TYPE, "folder/policy"));
+        Assert.assertTrue(IdValidator.isValidGoid(id));
+    }
+
+    @Test
+    void generateGuidFromName() {
+        ProjectInfo projectInfo = new ProjectInfo("project", "group", "1.0");
+
+        String guid = new IdGenerator().generateGuid(projectInfo, POLICY_TYPE, "folder/policy");
+        Assert.assertEquals(guid, new IdGenerator().generateGuid(projectInfo, POLICY_TYPE, "folder/policy"));
+        Assert.assertNotEquals(guid, new IdGenerator().generateGuid(projectInfo, POLICY_TYPE, "folder/policy2"));
+        Assert.assertTrue(IdValidator.isValidGuid(guid));
+    }
 }
\ No newline at end of file
@@ -6,6 +6,8 @@
 
 package com.ca.apim.gateway.cagatewayconfig.util;
 
+import com.ca.apim.gateway.cagatewayconfig.BundleFileBuilder;
+import com.ca.apim.gateway.cagatewayconfig.ProjectInfo;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.Folder;
 import com.ca.apim.gateway.cagatewayconfig.bundle.builder.Entity;
@@ -14,14 +16,19 @@ import com.ca.apim.gateway.cagatewayconfig.bundle.builder.EntityBuilder.BundleTy
 import com.ca.apim.gateway.cagatewayconfig.util.entity.EntityTypes;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingActions;
 import com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
 import com.google.common.base.Joiner;
 import com.google.common.collect.ImmutableMap;
 import org.jetbrains.annotations.NotNull;
 import org.w3c.dom.Document;
 import org.w3c.dom.Element;
 
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -35,6 +42,7 @@ import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementName
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.MappingProperties.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
 import static java.security.Security.getAlgorithms;
 import static org.junit.Assert.*;
 
@@ -43,6 +51,17 @@ import static org.junit.Assert.*;
  */
 public class TestUtils {
 
+    /**
+     * A policy source file, with the detail of its audit assertion to fill in.
+     */
+    public static final String POLICY = "<wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\" xmlns:L7p=\"http://www.layer7tech.com/ws/policy\">\n" +
+            "    <wsp:All wsp:Usage=\"Required\">\n" +
+            "        <L7p:AuditDetailAssertion>\n" +
+            "            <L7p:Detail stringValue=\"%s\"/>\n" +
+            "        </L7p:AuditDetailAssertion>\n" +
+            "    </wsp:All>\n" +
+            "</wsp:Policy>";
+
     /**
      * Assert contents of both maps are the same. Does not check ordering.
      *
@@ -304,4 +323,35 @@ public class TestUtils {
         }
         return folder;
     }
+
+    /**
+     * Writes a policy source file.
+     *
+     * @param sourceDir the source directory of the project
+     * @param path      the path of the policy file in the source directory
+     * @param detail    the detail of the audit assertion of the policy
+     * @return the policy file
+     */
+    public static File writePolicy(File sourceDir, String path, String detail) throws IOException {
+        final File file = new File(sourceDir, path);
+        assertTrue(file.getParentFile().isDirectory() || file.getParentFile().mkdirs());
+        Files.write(file.toPath(), String.format(POLICY, detail).getBytes(UTF_8));
+        return file;
+    }
+
+    /**
+     * Builds the deployment bundles of the sources with the real bundle builder.
+     *
+     * @param sourceDir   the source directory of the project
+     * @param outputDir   the directory to build the bundles into
+     * @param projectName the name of the project, in group "group" and version 1.0
+     * @return the bundles by name
+     */
+    public static Map<String, Element> buildBundles(File sourceDir, File outputDir, String projectName) {
+        final Map<String, Element> bundles = new LinkedHashMap<>();
+        InjectionRegistry.getInstance(BundleFileBuilder.class)
+                .buildBundle(sourceDir, outputDir, Collections.emptyList(), new ProjectInfo(projectName, "group", "1.0"))
+                .forEach((name, bundleArtifacts) -> bundles.put(name, bundleArtifacts.getBundle()));
+        return bundles;
+    }
 }
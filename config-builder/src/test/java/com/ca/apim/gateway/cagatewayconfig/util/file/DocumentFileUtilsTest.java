@@ -21,6 +21,7 @@ import java.io.IOException;
 import java.nio.charset.Charset;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.util.stream.IntStream;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
 import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.createElementWithAttributesAndChildren;
@@ -95,6 +96,19 @@ class DocumentFileUtilsTest {
         assertTrue(path.getParent().toFile().isDirectory());
     }
 
+    @Test
+    void createFoldersConcurrently() {
+        final Path path = Paths.get(rootProjectDir.getRoot().toPath().toString(), "test", "test1");
+        // every thread creates the same folders, none of them fails
+        IntStream.range(0, 64).parallel().forEach(i -> {
+            DocumentFileUtils.INSTANCE.createFolders(path.resolve("folder" + i % 4));
+            DocumentFileUtils.INSTANCE.createFolder(path.resolve("folder" + i % 4).resolve("sub"));
+        });
+        for (int i = 0; i < 4; i++) {
+            assertTrue(path.resolve("folder" + i).resolve("sub").toFile().isDirectory());
+        }
+    }
+
     @Test
     void createFoldersExistingFile() throws IOException {
         Path path = Paths.get(rootProjectDir.getRoot().toPath().toString(), "test.f");
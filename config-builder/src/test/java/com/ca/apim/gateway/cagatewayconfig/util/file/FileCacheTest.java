@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.file;
+
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.*;
+
+@ExtendWith(TemporaryFolderExtension.class)
+class FileCacheTest {
+
+    @Test
+    void getLoadsChangedFilesOnly(TemporaryFolder temporaryFolder) throws IOException {
+        final File file = temporaryFolder.createFile("file.txt");
+        write(file, "one", 1000);
+        final AtomicInteger loads = new AtomicInteger();
+        final Function<File, String> loader = f -> {
+            loads.incrementAndGet();
+            return read(f);
+        };
+        final FileCache<String> cache = new FileCache<>(false);
+
+        assertEquals("one", cache.get(file, loader));
+        assertEquals("one", cache.get(file, loader));
+        assertEquals(1, loads.get());
+
+        write(file, "two", 2000);
+        assertEquals("two", cache.get(file, loader));
+        assertEquals(2, loads.get());
+
+        // touched without changes
+        write(file, "two", 3000);
+        assertEquals("two", cache.get(file, loader));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void getComparesContents(TemporaryFolder temporaryFolder) throws IOException {
+        final File file = temporaryFolder.createFile("file.txt");
+        write(file, "one", 1000);
+        final AtomicInteger loads = new AtomicInteger();
+        final Function<File, String> loader = f -> {
+            loads.incrementAndGet();
+            return read(f);
+        };
+        final FileCache<String> cache = new FileCache<>(true);
+
+        assertEquals("one", cache.get(file, loader));
+        write(file, "one", 2000);
+        assertEquals("one", cache.get(file, loader));
+        write(file, "one", 3000);
+        assertEquals("one", cache.get(file, loader));
+        assertEquals(1, loads.get());
+
+        write(file, "two", 4000);
+        assertEquals("two", cache.get(file, loader));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void getFromFiles(TemporaryFolder temporaryFolder) throws IOException {
+        final File first = temporaryFolder.createFile("first.txt");
+        final File second = temporaryFolder.createFile("second.txt");
+        write(first, "first", 1000);
+        write(second, "second", 1000);
+        final AtomicInteger loads = new AtomicInteger();
+        final FileCache<Integer> cache = new FileCache<>(true);
+
+        assertEquals(1, (int) cache.get("folder", Arrays.asList(first, second), loads::incrementAndGet));
+        assertEquals(1, (int) cache.get("folder", Arrays.asList(first, second), loads::incrementAndGet));
+        // a file less is a different set of files
+        assertEquals(2, (int) cache.get("folder", Arrays.asList(first), loads::incrementAndGet));
+        assertTrue(second.delete());
+        assertEquals(3, (int) cache.get("folder", Arrays.asList(first, second), loads::incrementAndGet));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void getDoesNotKeepNull(TemporaryFolder temporaryFolder) throws IOException {
+        final File file = temporaryFolder.createFile("file.txt");
+        final FileCache<String> cache = new FileCache<>(false);
+
+        assertNull(cache.get(file, f -> null));
+        assertEquals(0, cache.size());
+        assertEquals("loaded", cache.get(file, f -> "loaded"));
+        assertEquals(1, cache.size());
+    }
+
+    private static void write(File file, String contents, long lastModified) throws IOException {
+        Files.write(file.toPath(), contents.getBytes(UTF_8));
+        Files.setLastModifiedTime(file.toPath(), FileTime.fromMillis(lastModified));
+    }
+
+    private static String read(File file) {
+        try {
+            return new String(Files.readAllBytes(file.toPath()), UTF_8);
+        } catch (IOException e) {
+            throw new AssertionError(e);
+        }
+    }
+}
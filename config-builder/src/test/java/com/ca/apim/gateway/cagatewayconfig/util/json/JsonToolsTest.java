@@ -70,4 +70,15 @@ class JsonToolsTest {
         jsonTools.setOutputType(JsonTools.JSON);
         assertEquals(".json", jsonTools.getFileExtension());
     }
-}
\ No newline at end of file
+
+    @Test
+    void withOutputType() {
+        JsonTools jsonOutput = jsonTools.withOutputType(JsonTools.JSON);
+        assertEquals(".json", jsonOutput.getFileExtension());
+        assertFalse(jsonOutput.getObjectMapper().getFactory() instanceof YAMLFactory);
+        assertSame(jsonTools.getObjectMapper(JsonTools.JSON), jsonOutput.getObjectMapper(JsonTools.JSON));
+        // the original is left unchanged
+        assertEquals(".yml", jsonTools.getFileExtension());
+        assertEquals(".yml", jsonTools.withOutputType("xyz").getFileExtension());
+    }
+}
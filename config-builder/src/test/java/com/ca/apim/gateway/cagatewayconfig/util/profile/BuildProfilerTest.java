@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig.util.profile;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
+import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
+import com.ca.apim.gateway.cagatewayconfig.beans.Service;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+import static com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler.*;
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildProfilerTest {
+
+    @AfterEach
+    void clearProperties() {
+        System.clearProperty(PROFILE);
+        System.clearProperty(PROFILE_BASELINE);
+        System.clearProperty(PROFILE_TOLERANCE);
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void writeProfile(TemporaryFolder temporaryFolder) throws IOException {
+        System.setProperty(PROFILE, "true");
+        final File buildDir = temporaryFolder.getRoot();
+
+        try (Scope ignored = start("build-bundle", buildDir, buildDir)) {
+            for (int i = 0; i < 2; i++) {
+                try (Scope phase = phase("load-entities")) {
+                    allocate();
+                }
+            }
+            assertEquals(1000, phase("write-bundles", BuildProfilerTest::allocate).size());
+            countEntities(bundle());
+        }
+
+        final File report = new File(new File(buildDir, REPORT_DIRECTORY), "build-bundle.json");
+        assertTrue(report.isFile());
+        final BuildProfile profile = JsonTools.INSTANCE.getObjectMapper(JSON).readValue(report, BuildProfile.class);
+        assertEquals("build-bundle", profile.getTask());
+        assertEquals(Arrays.asList("load-entities", "write-bundles"), Arrays.asList(profile.getPhases().keySet().toArray()));
+        assertEquals(2, profile.getPhases().get("load-entities").getCount());
+        assertEquals(1, profile.getPhases().get("write-bundles").getCount());
+        assertTrue(profile.getTotal().getWallTimeMillis() >= profile.getPhases().get("load-entities").getWallTimeMillis());
+        assertEquals(Integer.valueOf(2), profile.getEntityCounts().get("Policy"));
+        assertEquals(Integer.valueOf(1), profile.getEntityCounts().get("Service"));
+        assertFalse(profile.getEntityCounts().containsKey("Encass"));
+
+        final PhaseProfile loadEntities = profile.getPhases().get("load-entities");
+        if (loadEntities.getAllocatedBytes() > 0) {
+            // the allocations of the phase were made by this thread
+            assertTrue(loadEntities.getAllocatedBytesByThread().containsKey(Thread.currentThread().getName()));
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void profileConcurrentTasks(TemporaryFolder temporaryFolder) throws Exception {
+        System.setProperty(PROFILE, "true");
+        final File buildDir = temporaryFolder.getRoot();
+        final CyclicBarrier phasesStarted = new CyclicBarrier(2);
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<Future<?>> tasks = new ArrayList<>();
+            for (String module : Arrays.asList("module-a", "module-b")) {
+                tasks.add(executor.submit(() -> profileTask(module, buildDir, buildDir, () -> phase(module + "-phase", () -> {
+                    // both tasks are running when the phases end
+                    try {
+                        phasesStarted.await(10, TimeUnit.SECONDS);
+                    } catch (Exception e) {
+                        throw new IllegalStateException(e);
+                    }
+                    // work started by the task is profiled with it
+                    final Thread worker = new Thread(() -> phase(module + "-worker", BuildProfilerTest::allocate));
+                    worker.start();
+                    try {
+                        worker.join();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }))));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        for (String module : Arrays.asList("module-a", "module-b")) {
+            final BuildProfile profile = JsonTools.INSTANCE.getObjectMapper(JSON).readValue(new File(new File(buildDir, REPORT_DIRECTORY), module + ".json"), BuildProfile.class);
+            assertEquals(new HashSet<>(Arrays.asList(module + "-phase", module + "-worker")), profile.getPhases().keySet());
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void disabled(TemporaryFolder temporaryFolder) {
+        final File buildDir = temporaryFolder.getRoot();
+
+        try (Scope ignored = start("build-bundle", buildDir, buildDir)) {
+            try (Scope phase = phase("load-entities")) {
+                allocate();
+            }
+            countEntities(bundle());
+        }
+
+        assertFalse(new File(buildDir, REPORT_DIRECTORY).exists());
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void failOnRegression(TemporaryFolder temporaryFolder) throws IOException {
+        System.setProperty(PROFILE, "true");
+        System.setProperty(PROFILE_BASELINE, "baseline");
+        final File projectDir = temporaryFolder.getRoot();
+        final File buildDir = new File(projectDir, "build");
+
+        final BuildProfile baseline = new BuildProfile();
+        baseline.setTask("build-bundle");
+        baseline.setTotal(phaseProfile(0));
+        baseline.getPhases().put("load-entities", phaseProfile(0));
+        final File baselineDir = temporaryFolder.createDirectory("baseline");
+        JsonTools.INSTANCE.getObjectWriter(JSON).writeValue(new File(baselineDir, "build-bundle.json"), baseline);
+
+        final Scope task = start("build-bundle", buildDir, projectDir);
+        try (Scope phase = phase("load-entities")) {
+            sleep(MIN_REGRESSION_MILLIS + 20);
+        }
+        final BuildProfileRegressionException exception = assertThrows(BuildProfileRegressionException.class, task::close);
+        assertTrue(exception.getMessage().contains("load-entities took"), exception::getMessage);
+        // the profile is written before it is compared
+        assertTrue(new File(new File(buildDir, REPORT_DIRECTORY), "build-bundle.json").isFile());
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void missingBaseline(TemporaryFolder temporaryFolder) {
+        System.setProperty(PROFILE, "true");
+        System.setProperty(PROFILE_BASELINE, "baseline");
+        final File projectDir = temporaryFolder.getRoot();
+
+        try (Scope ignored = start("build-bundle", new File(projectDir, "build"), projectDir)) {
+            try (Scope phase = phase("load-entities")) {
+                allocate();
+            }
+        }
+    }
+
+    @Test
+    void findRegressionsWithinTolerance() {
+        final BuildProfile baseline = profile(1000, 500);
+
+        assertTrue(findRegressions(profile(1200, 600), baseline, 25).isEmpty());
+        assertEquals(singletonList("load-entities took 700 ms, 500 ms in baseline"), findRegressions(profile(1200, 700), baseline, 25));
+        assertEquals(Arrays.asList("load-entities took 700 ms, 500 ms in baseline", "total took 1300 ms, 1000 ms in baseline"),
+                findRegressions(profile(1300, 700), baseline, 25));
+        // phases that are only a few milliseconds slower are noise
+        assertTrue(findRegressions(profile(20, 20), profile(5, 5), 25).isEmpty());
+    }
+
+    @Test
+    void findRegressionsOfNewPhases() {
+        final BuildProfile baseline = profile(1000, 500);
+        final BuildProfile profile = profile(1000, 500);
+        profile.getPhases().put("write-bundles", phaseProfile(5000));
+
+        // phases missing in the baseline can't be compared
+        assertTrue(findRegressions(profile, baseline, 25).isEmpty());
+    }
+
+    private static BuildProfile profile(long totalMillis, long loadEntitiesMillis) {
+        final BuildProfile profile = new BuildProfile();
+        profile.setTask("build-bundle");
+        profile.setTotal(phaseProfile(totalMillis));
+        profile.getPhases().put("load-entities", phaseProfile(loadEntitiesMillis));
+        return profile;
+    }
+
+    private static PhaseProfile phaseProfile(long wallTimeMillis) {
+        final PhaseProfile phase = new PhaseProfile();
+        phase.setCount(1);
+        phase.setWallTimeMillis(wallTimeMillis);
+        return phase;
+    }
+
+    private static Bundle bundle() {
+        final Bundle bundle = new Bundle();
+        bundle.getPolicies().put("policy-1", new Policy());
+        bundle.getPolicies().put("policy-2", new Policy());
+        bundle.getServices().put("service", new Service());
+        return bundle;
+    }
+
+    private static List<String> allocate() {
+        final List<String> strings = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            strings.add("string-" + i);
+        }
+        return strings;
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
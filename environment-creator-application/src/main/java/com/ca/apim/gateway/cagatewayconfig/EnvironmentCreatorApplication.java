@@ -11,9 +11,21 @@ import com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreator;
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
 import com.google.common.annotations.VisibleForTesting;
+import com.google.inject.Injector;
 
+import java.io.File;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.StringJoiner;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import static com.ca.apim.gateway.cagatewayconfig.EnvironmentCreatorState.*;
+import static com.ca.apim.gateway.cagatewayconfig.KeystoreCreator.KEYSTORE_FILE_NAME;
 import static com.ca.apim.gateway.cagatewayconfig.KeystoreCreator.createKeyStoreIfNecessary;
 import static com.ca.apim.gateway.cagatewayconfig.environment.EnvironmentBundleCreationMode.APPLICATION;
 import static java.lang.System.getenv;
@@ -24,12 +36,20 @@ import static java.lang.System.getenv;
  * This bundle will be added to gateway bootstrap folder in order to be loaded with the gateway startup, and will be placed to be loaded first.
  *
  * This application also is responsible to read private keys folder if provided, and bootstrap a file based keystore from the keys presented.
+ *
+ * The inputs of the last run are kept as hashes in a state file in the bootstrap folder. When a container restarts with
+ * the same environment, bundles and keys, and the files written by the last run are unchanged, the work is skipped.
+ * The time taken by each phase is logged.
  */
 @SuppressWarnings("squid:S2083") // This warn relates to path injection attacks - however, paths here are never changed by end users and all self contained into docker containers.
 public class EnvironmentCreatorApplication {
 
     @SuppressWarnings("squid:S1075") // this path is always fixed does not need to be customized.
     private static final String SYSTEM_PROPERTIES_PATH = "/opt/SecureSpan/Gateway/node/default/etc/conf/system.properties";
+    private static final Logger LOGGER = Logger.getLogger(EnvironmentCreatorApplication.class.getName());
+    private static final String BUNDLES_STEP = "bundles";
+    private static final String KEYSTORE_STEP = "keystore";
+    private static final String PRIVATE_KEY_ENVIRONMENT_TYPE = "PRIVATE_KEY";
 
     private final Map<String, String> environmentProperties;
     private final String templatizedBundleFolderPath;
@@ -80,9 +100,28 @@ public class EnvironmentCreatorApplication {
 
     @VisibleForTesting
     void run() {
+        final PhaseTimer timer = new PhaseTimer();
+        final File stateFile = new File(bootstrapBundleFolderPath, STATE_FILE_NAME);
+        final EnvironmentCreatorState state = timer.time("read-state", () -> load(stateFile));
+        final String bundlesInputHash = timer.time("hash-inputs", () -> hash(
+                hashEnvironment(environmentProperties),
+                new File(templatizedBundleFolderPath),
+                new File(environmentConfigurationFolderPath),
+                bootstrapBundleFolderPath));
+        final String keystoreInputHash = timer.time("hash-inputs", () -> hash(
+                hashEnvironment(environmentProperties, PRIVATE_KEY_ENVIRONMENT_TYPE),
+                new File(environmentConfigurationFolderPath),
+                new File(privateKeyFolderPath),
+                keystoreFolderPath));
+        final boolean keystoreUpToDate = timer.time("check-outputs", () -> state.isUpToDate(KEYSTORE_STEP, keystoreInputHash));
+        if (keystoreUpToDate && timer.time("check-outputs", () -> state.isUpToDate(BUNDLES_STEP, bundlesInputHash))) {
+            LOGGER.log(Level.INFO, "Environment unchanged since the last run, nothing to do: {0}", timer);
+            return;
+        }
+
         //create bundle from environment
-        EnvironmentBundleCreator bundleCreator = InjectionRegistry.getInjector().getInstance(EnvironmentBundleCreator.class);
-        Bundle environmentBundle = bundleCreator.createEnvironmentBundle(
+        final Injector injector = timer.time("injector-bootstrap", InjectionRegistry::getInjector);
+        final Bundle environmentBundle = timer.time("environment-bundle", () -> injector.getInstance(EnvironmentBundleCreator.class).createEnvironmentBundle(
                 environmentProperties,
                 bootstrapBundleFolderPath,
                 templatizedBundleFolderPath,
@@ -91,10 +130,58 @@ public class EnvironmentCreatorApplication {
                 "_0_env.req.install.bundle",
                 new ProjectInfo("environment", "", "")
 
-        );
+        ));
+        state.update(BUNDLES_STEP, bundlesInputHash, listFiles(new File(bootstrapBundleFolderPath)));
+
+        // Create the KeyStore, it is appended to the system properties so it's only done when the keys changed
+        if (!keystoreUpToDate) {
+            timer.run("keystore", () -> createKeyStoreIfNecessary(keystoreFolderPath, privateKeyFolderPath, environmentBundle.getPrivateKeys().values(), FileUtils.INSTANCE, SYSTEM_PROPERTIES_PATH));
+            final List<File> keystoreOutputs = new ArrayList<>();
+            final File keyStoreFile = new File(keystoreFolderPath, KEYSTORE_FILE_NAME);
+            if (keyStoreFile.isFile()) {
+                keystoreOutputs.add(keyStoreFile);
+                keystoreOutputs.add(new File(SYSTEM_PROPERTIES_PATH));
+            }
+            state.update(KEYSTORE_STEP, keystoreInputHash, keystoreOutputs);
+        }
+
+        timer.run("write-state", () -> state.save(stateFile));
+        LOGGER.log(Level.INFO, "Environment created: {0}", timer);
+    }
+
+    /**
+     * Times the phases of a run, phases with the same name are summed.
+     */
+    private static class PhaseTimer {
+        private final long start = System.nanoTime();
+        private final Map<String, Long> phaseNanos = new LinkedHashMap<>();
+
+        <T> T time(String phase, Supplier<T> action) {
+            final long phaseStart = System.nanoTime();
+            try {
+                return action.get();
+            } finally {
+                phaseNanos.merge(phase, System.nanoTime() - phaseStart, Long::sum);
+            }
+        }
+
+        void run(String phase, Runnable action) {
+            time(phase, () -> {
+                action.run();
+                return null;
+            });
+        }
+
+        @Override
+        public String toString() {
+            final StringJoiner phases = new StringJoiner(", ", " (", ")").setEmptyValue("");
+            phaseNanos.forEach((phase, nanos) -> phases.add(phase + " " + millis(nanos) + " ms"));
+            return millis(System.nanoTime() - start) + " ms" + phases;
+        }
 
-        // Create the KeyStore
-        createKeyStoreIfNecessary(keystoreFolderPath, privateKeyFolderPath, environmentBundle.getPrivateKeys().values(), FileUtils.INSTANCE, SYSTEM_PROPERTIES_PATH);
+        private static long millis(long nanos) {
+            return TimeUnit.NANOSECONDS.toMillis(nanos);
+        }
     }
 
 }
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.google.common.hash.Funnels;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
+import com.google.common.io.Files;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.*;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.stream.Stream;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+import static com.ca.apim.gateway.cagatewayconfig.util.properties.PropertyConstants.PREFIX_ENV;
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * State of the last environment creator run, with a hash of the inputs of each step and of the files the step wrote.
+ * A step is up to date when its inputs hash the same as in the last run and the files it wrote are still there
+ * unchanged, so a restarted container can skip it.
+ */
+class EnvironmentCreatorState {
+
+    static final String STATE_FILE_NAME = ".environment-creator.state";
+
+    private static final Logger LOGGER = Logger.getLogger(EnvironmentCreatorState.class.getName());
+    private static final String FILE_PREFIX = "FILE.";
+    private static final String MISSING = "missing";
+
+    private Map<String, Step> steps = new TreeMap<>();
+
+    public Map<String, Step> getSteps() {
+        return steps;
+    }
+
+    public void setSteps(Map<String, Step> steps) {
+        this.steps = steps;
+    }
+
+    /**
+     * Reads the state left by the last run. A missing or unreadable state file gives an empty state, where no step is
+     * up to date.
+     *
+     * @param stateFile the state file
+     * @return the state of the last run
+     */
+    static EnvironmentCreatorState load(File stateFile) {
+        if (stateFile.isFile()) {
+            try {
+                return JsonTools.INSTANCE.getObjectMapper(JSON).readValue(stateFile, EnvironmentCreatorState.class);
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Ignoring unreadable state file {0}: {1}", new Object[]{stateFile, e.getMessage()});
+            }
+        }
+        return new EnvironmentCreatorState();
+    }
+
+    void save(File stateFile) {
+        try {
+            JsonTools.INSTANCE.getObjectWriter(JSON).writeValue(stateFile, this);
+        } catch (IOException e) {
+            // without the state file the next run does all the work again
+            LOGGER.log(Level.WARNING, "Could not write state file {0}: {1}", new Object[]{stateFile, e.getMessage()});
+        }
+    }
+
+    boolean isUpToDate(String stepName, String inputHash) {
+        final Step step = steps.get(stepName);
+        return step != null && inputHash.equals(step.getInputHash())
+                && step.getOutputHashes().entrySet().stream().allMatch(e -> e.getValue().equals(hash(new File(e.getKey()))));
+    }
+
+    void update(String stepName, String inputHash, Collection<File> outputs) {
+        final Step step = new Step();
+        step.setInputHash(inputHash);
+        outputs.forEach(f -> step.getOutputHashes().put(f.getPath(), hash(f)));
+        steps.put(stepName, step);
+    }
+
+    /**
+     * Hashes the environment properties, and the contents of the files referenced by ENV.FILE properties.
+     *
+     * @param environmentProperties environment properties
+     * @param entityTypes environment types to hash, or none to hash all
+     * @return hash of the environment properties
+     */
+    static String hashEnvironment(Map<String, String> environmentProperties, String... entityTypes) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        new TreeMap<>(environmentProperties).forEach((key, value) -> {
+            if (!key.startsWith(PREFIX_ENV)) {
+                return;
+            }
+            final String environmentKey = key.substring(PREFIX_ENV.length());
+            final boolean isFile = environmentKey.startsWith(FILE_PREFIX);
+            final String type = isFile ? environmentKey.substring(FILE_PREFIX.length()) : environmentKey;
+            if (entityTypes.length > 0 && Stream.of(entityTypes).noneMatch(t -> type.startsWith(t + "."))) {
+                return;
+            }
+            hasher.putString(key, UTF_8).putString(value, UTF_8);
+            if (isFile) {
+                hasher.putString(hash(new File(value)), UTF_8);
+            }
+        });
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Hashes the given strings and files. A directory is hashed with all the files in it, by their relative paths.
+     *
+     * @param values strings and files to hash
+     * @return hash of the values
+     */
+    static String hash(Object... values) {
+        final Hasher hasher = Hashing.sha256().newHasher();
+        for (Object value : values) {
+            if (value instanceof File) {
+                putFile(hasher, (File) value);
+            } else {
+                hasher.putString(String.valueOf(value), UTF_8);
+            }
+        }
+        return hasher.hash().toString();
+    }
+
+    /**
+     * Lists the files in a directory and its subdirectories, except for the state file.
+     *
+     * @param directory the directory
+     * @return the files, sorted by path
+     */
+    static List<File> listFiles(File directory) {
+        final List<File> files = new ArrayList<>();
+        final File[] children = directory.listFiles();
+        if (children != null) {
+            Arrays.sort(children);
+            for (File child : children) {
+                if (child.isDirectory()) {
+                    files.addAll(listFiles(child));
+                } else if (!STATE_FILE_NAME.equals(child.getName())) {
+                    files.add(child);
+                }
+            }
+        }
+        return files;
+    }
+
+    private static void putFile(Hasher hasher, File file) {
+        if (file.isDirectory()) {
+            hasher.putString(file.getPath(), UTF_8);
+            listFiles(file).forEach(f -> {
+                hasher.putString(file.toPath().relativize(f.toPath()).toString(), UTF_8);
+                putFileContents(hasher, f);
+            });
+        } else if (file.isFile()) {
+            putFileContents(hasher, file);
+        } else {
+            hasher.putString(MISSING, UTF_8);
+        }
+    }
+
+    private static void putFileContents(Hasher hasher, File file) {
+        try (OutputStream stream = Funnels.asOutputStream(hasher)) {
+            hasher.putLong(file.length());
+            Files.asByteSource(file).copyTo(stream);
+        } catch (IOException e) {
+            // the step runs again, and fails there if the file really can't be read
+            LOGGER.log(Level.FINE, "Could not read file {0}: {1}", new Object[]{file, e.getMessage()});
+            hasher.putString(MISSING, UTF_8);
+        }
+    }
+
+    /**
+     * Hash of the inputs of a step, and of each file the step wrote.
+     */
+    public static class Step {
+        private String inputHash;
+        private Map<String, String> outputHashes = new TreeMap<>();
+
+        public String getInputHash() {
+            return inputHash;
+        }
+
+        public void setInputHash(String inputHash) {
+            this.inputHash = inputHash;
+        }
+
+        public Map<String, String> getOutputHashes() {
+            return outputHashes;
+        }
+
+        public void setOutputHashes(Map<String, String> outputHashes) {
+            this.outputHashes = outputHashes;
+        }
+    }
+}
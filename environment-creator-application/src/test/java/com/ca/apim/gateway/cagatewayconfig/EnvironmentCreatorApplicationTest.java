@@ -19,6 +19,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import java.io.File;
 import java.io.IOException;
 import java.net.URISyntaxException;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.Objects;
 
 import static com.ca.apim.gateway.cagatewayconfig.beans.ListenPort.DEFAULT_HTTPS_8443;
@@ -284,6 +286,51 @@ class EnvironmentCreatorApplicationTest {
         assertEnvironment(testDetemplatizedBundlesFolder);
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testUnchangedEnvironmentSkipped(TemporaryFolder temporaryFolder) throws URISyntaxException, IOException {
+        File testTemplatizedBundlesFolder = new File(temporaryFolder.getRoot(), "templatized-bundles");
+        File testDetemplatizedBundlesFolder = new File(temporaryFolder.getRoot(), "detemplatized-bundles");
+        File keyStoreFolder = new File(temporaryFolder.getRoot(), "keystore");
+        File envFolder = new File(temporaryFolder.getRoot(), "config");
+        File privateKeyFolder = new File(envFolder, "privateKeys");
+
+        assertTrue(testDetemplatizedBundlesFolder.mkdirs());
+
+        copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource("templatized-bundles")).toURI()), testTemplatizedBundlesFolder);
+
+        Map<String, String> environmentProperties = new HashMap<>();
+        environmentProperties.put("ENV.SERVICE_PROPERTY.my-gateway-api.myEnvironmentVariable", "my-service-property-value");
+        environmentProperties.put("ENV.CONTEXT_VARIABLE_PROPERTY.anotherEnvVar", "context-variable-value");
+        environmentProperties.put("HOSTNAME", "gateway-1");
+
+        new EnvironmentCreatorApplication(environmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        assertTrue(new File(testDetemplatizedBundlesFolder, EnvironmentCreatorState.STATE_FILE_NAME).isFile());
+        File environmentBundle = new File(testDetemplatizedBundlesFolder, "_0_env.req.install.bundle");
+        File deploymentBundle = new File(testDetemplatizedBundlesFolder, "my-bundle.req.bundle");
+        assertTrue(environmentBundle.setLastModified(0));
+        assertTrue(deploymentBundle.setLastModified(0));
+
+        // only ENV properties are inputs, the bundles are not written again
+        environmentProperties.put("HOSTNAME", "gateway-2");
+        new EnvironmentCreatorApplication(environmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        assertEquals(0, environmentBundle.lastModified());
+        assertEquals(0, deploymentBundle.lastModified());
+
+        // a changed environment property builds the bundles again
+        environmentProperties.put("ENV.CONTEXT_VARIABLE_PROPERTY.anotherEnvVar", "another-context-variable-value");
+        new EnvironmentCreatorApplication(environmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        assertNotEquals(0, environmentBundle.lastModified());
+        assertNotEquals(0, deploymentBundle.lastModified());
+
+        // and so does a missing output
+        assertTrue(environmentBundle.setLastModified(0));
+        assertTrue(deploymentBundle.delete());
+        new EnvironmentCreatorApplication(environmentProperties, testTemplatizedBundlesFolder.getPath(), testDetemplatizedBundlesFolder.getPath(), keyStoreFolder.getPath(), privateKeyFolder.getPath(), envFolder.getPath()).run();
+        assertNotEquals(0, environmentBundle.lastModified());
+        assertTrue(deploymentBundle.exists());
+    }
+
     private static void assertEnvironment(File testDetemplatizedBundlesFolder) {
         File environmentBundleFile = new File(testDetemplatizedBundlesFolder, "_0_env.req.install.bundle");
         assertTrue(environmentBundleFile.exists());
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleArtifacts;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.DeltaBundleBuilder;
+import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.util.List;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.DELETE_BUNDLE_EXTENSION;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The BuildDeltaBundle task compares the deployment bundle of the project with the deployment bundle of a previous
+ * version, and builds a bundle with only the items that are new or changed, to update a gateway that has the previous
+ * version installed. It can also build the DELETE bundle of the items that were removed.
+ */
+@CacheableTask
+public class BuildDeltaBundleTask extends DefaultTask {
+
+    private final ConfigurableFileCollection previousBundle;
+    private final RegularFileProperty currentBundle;
+    private final DirectoryProperty into;
+    private final Property<String> bundleName;
+    private final Property<Boolean> includeDeleteBundle;
+
+    public BuildDeltaBundleTask() {
+        previousBundle = getProject().files();
+        currentBundle = newInputFile();
+        into = newOutputDirectory();
+        bundleName = getProject().getObjects().property(String.class);
+        includeDeleteBundle = getProject().getObjects().property(Boolean.class);
+    }
+
+    /**
+     * The deployment bundle of the previous version, a bundle file or the bundle dependency of the previous version.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NONE)
+    public ConfigurableFileCollection getPreviousBundle() {
+        return previousBundle;
+    }
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NONE)
+    public RegularFileProperty getCurrentBundle() {
+        return currentBundle;
+    }
+
+    @OutputDirectory
+    public DirectoryProperty getInto() {
+        return into;
+    }
+
+    @Input
+    public Property<String> getBundleName() {
+        return bundleName;
+    }
+
+    @Input
+    public Property<Boolean> getIncludeDeleteBundle() {
+        return includeDeleteBundle;
+    }
+
+    @TaskAction
+    public void perform() {
+        final DocumentTools documentTools = InjectionRegistry.getInstance(DocumentTools.class);
+        final DocumentFileUtils documentFileUtils = InjectionRegistry.getInstance(DocumentFileUtils.class);
+        final DeltaBundleBuilder deltaBundleBuilder = InjectionRegistry.getInstance(DeltaBundleBuilder.class);
+
+        final Element previous = parse(documentTools, getPreviousBundleFile());
+        final Element current = parse(documentTools, currentBundle.getAsFile().get());
+        final BundleArtifacts delta = deltaBundleBuilder.build(previous, current, bundleName.get(), documentTools.getDocumentBuilder().newDocument());
+
+        final File outputDir = into.getAsFile().get();
+        documentFileUtils.createFile(delta.getBundle(), new File(outputDir, delta.getBundleFileName()).toPath());
+        final File deleteBundleFile = new File(outputDir, delta.getDeleteBundleFileName());
+        if (includeDeleteBundle.get() && delta.getDeleteBundle() != null) {
+            documentFileUtils.createFile(delta.getDeleteBundle(), deleteBundleFile.toPath());
+        } else if (deleteBundleFile.exists() && !deleteBundleFile.delete()) {
+            throw new GradleException("Could not delete " + deleteBundleFile);
+        }
+    }
+
+    private File getPreviousBundleFile() {
+        final List<File> bundles = previousBundle.getFiles().stream()
+                .filter(file -> file.getName().endsWith(BUNDLE_EXTENSION) && !file.getName().endsWith(DELETE_BUNDLE_EXTENSION))
+                .collect(toList());
+        if (bundles.size() != 1) {
+            throw new GradleException("Expected one previous deployment bundle to build the delta bundle from, found: " + bundles);
+        }
+        return bundles.get(0);
+    }
+
+    private static Element parse(final DocumentTools documentTools, final File bundle) {
+        try {
+            return documentTools.parse(bundle).getDocumentElement();
+        } catch (DocumentParseException e) {
+            throw new GradleException("Could not read the bundle " + bundle + ": " + e.getMessage(), e);
+        }
+    }
+}
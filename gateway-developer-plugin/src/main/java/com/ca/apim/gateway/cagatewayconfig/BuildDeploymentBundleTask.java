@@ -9,39 +9,54 @@ package com.ca.apim.gateway.cagatewayconfig;
 import com.ca.apim.gateway.cagatewayconfig.beans.DependentBundle;
 import com.ca.apim.gateway.cagatewayconfig.util.file.JsonFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import org.gradle.api.DefaultTask;
+import org.gradle.api.Project;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.ConfigurationContainer;
 import org.gradle.api.artifacts.DependencySet;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.file.FileCollection;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Set;
+import java.util.stream.Stream;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.BUNDLE_EXTENSION;
+import static java.util.stream.Collectors.toList;
 
 /**
  * The BuildDeploymentBundle task will take local source files and create a deployment bundle document that can be bootstrapped into a gateway container
  * or pushed via restman to an appliance gateway.
+ * The entity ids and guids are derived from the project coordinates and the entity types and names, so the same sources
+ * give the same bundles. The metadata timestamp is the build time unless com.ca.apim.build.bundleTimestamp is set.
  */
+@CacheableTask
 public class BuildDeploymentBundleTask extends DefaultTask {
 
     private DirectoryProperty from;
     private DirectoryProperty into;
     private ConfigurableFileCollection dependencies;
     private Property<String> targetFolderPath;
+    private final WorkerExecutor workerExecutor;
 
     /**
      * Creates a new BuildBundle task to build a bundle from local source files
      */
     @Inject
-    public BuildDeploymentBundleTask() {
+    public BuildDeploymentBundleTask(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
         into = newOutputDirectory();
         from = newInputDirectory();
         targetFolderPath = getProject().getObjects().property(String.class);
@@ -50,6 +65,7 @@ public class BuildDeploymentBundleTask extends DefaultTask {
 
     @InputDirectory
     @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
     public DirectoryProperty getFrom() {
         return from;
     }
@@ -66,26 +82,65 @@ public class BuildDeploymentBundleTask extends DefaultTask {
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     public ConfigurableFileCollection getDependencies() {
         return dependencies;
     }
 
+    /**
+     * Metadata files read in place of project dependencies that have not been built, from the folder the dependency
+     * would be built into.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public FileCollection getDependencyMetadataFiles() {
+        return getProject().files(dependencies.getFiles().stream()
+                .filter(file -> !file.exists() && file.getParentFile() != null)
+                .map(File::getParentFile)
+                .distinct()
+                .map(directory -> directory.listFiles((dir, name) -> name.endsWith(JsonFileUtils.METADATA_FILE_NAME_SUFFIX)))
+                .filter(Objects::nonNull)
+                .flatMap(Stream::of)
+                .collect(toList()));
+    }
+
+    @Input
+    public Map<String, String> getBuildProperties() {
+        return TaskInputs.getBuildProperties();
+    }
+
+    @Input
+    public Map<String, String> getProjectCoordinates() {
+        return TaskInputs.getProjectCoordinates(getProject());
+    }
+
     @TaskAction
     public void perform() {
-        BundleFileBuilder bundleFileBuilder = InjectionRegistry.getInjector().getInstance(BundleFileBuilder.class);
         final ProjectInfo projectInfo = new ProjectInfo(getProject().getName(), getProject().getGroup().toString(),
                 getProject().getVersion().toString(), null);
         if(targetFolderPath.isPresent()){
             projectInfo.setTargetFolderPath(targetFolderPath.get());
         }
-        final List<DependentBundle> dependentBundles = getDependentBundles(dependencies.getFiles());
-        bundleFileBuilder.buildBundle(from.isPresent() ? from.getAsFile().get() : null, into.getAsFile().get(),
-                dependentBundles, projectInfo);
+        final Parameters parameters = new Parameters();
+        parameters.taskName = getName();
+        parameters.buildDirectory = getProject().getBuildDir();
+        parameters.projectDirectory = getProject().getProjectDir();
+        parameters.from = from.isPresent() ? from.getAsFile().get() : null;
+        parameters.into = into.getAsFile().get();
+        parameters.dependentBundles = getDependentBundles(getProject(), dependencies.getFiles());
+        parameters.projectInfo = projectInfo;
+
+        // the bundle is built in a worker, so that the bundles of projects in a parallel build are built together
+        workerExecutor.submit(BuildBundle.class, config -> {
+            config.setIsolationMode(IsolationMode.NONE);
+            config.setDisplayName("Build deployment bundle of " + getProject().getPath());
+            config.params(parameters);
+        });
     }
 
-    private List<DependentBundle> getDependentBundles(Set<File> files) {
+    static List<DependentBundle> getDependentBundles(Project project, Set<File> files) {
         final List<DependentBundle> dependentBundles = new ArrayList<>();
-        ConfigurationContainer configurations = getProject().getConfigurations();
+        ConfigurationContainer configurations = project.getConfigurations();
         Configuration configuration = configurations.getByName("bundle");
         DependencySet dependencySet = configuration.getDependencies();
 
@@ -106,4 +161,36 @@ public class BuildDeploymentBundleTask extends DefaultTask {
         });
         return dependentBundles;
     }
+
+    /**
+     * Builds the deployment bundle in a worker, from the parameters the task collected from its project.
+     */
+    public static class BuildBundle implements Runnable {
+        private final Parameters parameters;
+
+        @Inject
+        public BuildBundle(Parameters parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public void run() {
+            final BundleFileBuilder bundleFileBuilder = InjectionRegistry.getInstance(BundleFileBuilder.class);
+            BuildProfiler.profileTask(parameters.taskName, parameters.buildDirectory, parameters.projectDirectory, () ->
+                    bundleFileBuilder.buildBundle(parameters.from, parameters.into, parameters.dependentBundles, parameters.projectInfo)
+            );
+        }
+    }
+
+    static class Parameters implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String taskName;
+        private File buildDirectory;
+        private File projectDirectory;
+        private File from;
+        private File into;
+        private List<DependentBundle> dependentBundles;
+        private ProjectInfo projectInfo;
+    }
 }
@@ -15,9 +15,12 @@ import org.gradle.api.DefaultTask;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.Serializable;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -33,21 +36,22 @@ import static org.apache.commons.lang3.StringUtils.EMPTY;
 /**
  * The BuildEnvironmentBundle task will grab provided environment properties and build a bundle.
  */
+@CacheableTask
 public class BuildEnvironmentBundleTask extends DefaultTask {
 
     private final DirectoryProperty into;
-    private final EnvironmentConfigurationUtils environmentConfigurationUtils;
     private final DirectoryProperty configFolder;
     private final Property<String> configName;
     private final Property<Map> environmentConfig;
     private final Property<Map> envConfig;
+    private final WorkerExecutor workerExecutor;
 
     @Inject
-    public BuildEnvironmentBundleTask() {
+    public BuildEnvironmentBundleTask(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
         into = newOutputDirectory();
         environmentConfig = getProject().getObjects().property(Map.class);
         envConfig = getProject().getObjects().property(Map.class);
-        environmentConfigurationUtils = getInstance(EnvironmentConfigurationUtils.class);
         configFolder = newInputDirectory();
         configName = getProject().getObjects().property(String.class);
     }
@@ -71,6 +75,7 @@ public class BuildEnvironmentBundleTask extends DefaultTask {
 
     @InputDirectory
     @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
     DirectoryProperty getConfigFolder() {
         return configFolder;
     }
@@ -81,37 +86,42 @@ public class BuildEnvironmentBundleTask extends DefaultTask {
         return configName;
     }
 
+    @Input
+    Map<String, String> getBuildProperties() {
+        return TaskInputs.getBuildProperties();
+    }
+
+    @Input
+    Map<String, String> getProjectCoordinates() {
+        return TaskInputs.getProjectCoordinates(getProject());
+    }
+
     @TaskAction
     public void perform() {
-        final EnvironmentBundleCreator environmentBundleCreator = getInstance(EnvironmentBundleCreator.class);
         File configuredFolder = configFolder.getAsFile().getOrNull();
         Map environmentEntities = java.util.Optional.ofNullable(envConfig.getOrNull()).orElse(environmentConfig.getOrNull());
         if (configuredFolder == null && environmentEntities == null) {
             throw new MissingEnvironmentException("EnvironmentConfig is not configured");
         }
-        Map<String, String> bundleEnvironmentValues = new HashMap<>();
-        if(configuredFolder != null){
-            bundleEnvironmentValues = environmentConfigurationUtils.loadConfigFolder(configuredFolder);
-        }
         final String configurationName = configName != null ? removeAllSpecialChars(configName.get()) : EMPTY;
         ProjectInfo projectInfo = new ProjectInfo(getProject().getName(), getProject().getGroup().toString(), getProject().getVersion().toString(), configurationName);
-        final String envBundleFileName = getEnvBundleFilename(projectInfo);
 
-        //read environment properties from environmentConfig and merge it with config folder entities
-        if(environmentEntities != null) {
-            bundleEnvironmentValues.putAll(environmentConfigurationUtils.parseEnvironmentValues(environmentEntities));
+        final Parameters parameters = new Parameters();
+        parameters.configuredFolder = configuredFolder;
+        // the environment of the build script is read here, the worker gets plain values only
+        if (environmentEntities != null) {
+            parameters.environmentValues = new HashMap<>(getInstance(EnvironmentConfigurationUtils.class).parseEnvironmentValues(environmentEntities));
         }
-
-
-        environmentBundleCreator.createEnvironmentBundle(
-                bundleEnvironmentValues,
-                into.getAsFile().get().getPath(),
-                into.getAsFile().get().getPath(),
-                configuredFolder != null ? configuredFolder.getPath() : EMPTY,
-                PLUGIN,
-                envBundleFileName, // Passing envBundleFileName
-                projectInfo
-        );
+        parameters.into = into.getAsFile().get();
+        parameters.envBundleFileName = getEnvBundleFilename(projectInfo);
+        parameters.projectInfo = projectInfo;
+
+        // the bundle is built in a worker, so that the bundles of projects in a parallel build are built together
+        workerExecutor.submit(BuildEnvironmentBundle.class, config -> {
+            config.setIsolationMode(IsolationMode.NONE);
+            config.setDisplayName("Build environment bundle of " + getProject().getPath());
+            config.params(parameters);
+        });
     }
 
     /**
@@ -135,4 +145,52 @@ public class BuildEnvironmentBundleTask extends DefaultTask {
         }
         return bundleNameBuilder.append(INSTALL_BUNDLE_EXTENSION).toString();
     }
+
+    /**
+     * Builds the environment bundle in a worker, from the parameters the task collected from its project.
+     */
+    public static class BuildEnvironmentBundle implements Runnable {
+        private final Parameters parameters;
+
+        @Inject
+        public BuildEnvironmentBundle(Parameters parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public void run() {
+            final EnvironmentConfigurationUtils environmentConfigurationUtils = getInstance(EnvironmentConfigurationUtils.class);
+            final EnvironmentBundleCreator environmentBundleCreator = getInstance(EnvironmentBundleCreator.class);
+            final File configuredFolder = parameters.configuredFolder;
+            Map<String, String> bundleEnvironmentValues = new HashMap<>();
+            if(configuredFolder != null){
+                bundleEnvironmentValues = environmentConfigurationUtils.loadConfigFolder(configuredFolder);
+            }
+
+            //merge environment properties from environmentConfig with config folder entities
+            if(parameters.environmentValues != null) {
+                bundleEnvironmentValues.putAll(parameters.environmentValues);
+            }
+
+            environmentBundleCreator.createEnvironmentBundle(
+                    bundleEnvironmentValues,
+                    parameters.into.getPath(),
+                    parameters.into.getPath(),
+                    configuredFolder != null ? configuredFolder.getPath() : EMPTY,
+                    PLUGIN,
+                    parameters.envBundleFileName, // Passing envBundleFileName
+                    parameters.projectInfo
+            );
+        }
+    }
+
+    static class Parameters implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private File configuredFolder;
+        private HashMap<String, String> environmentValues;
+        private File into;
+        private String envBundleFileName;
+        private ProjectInfo projectInfo;
+    }
 }
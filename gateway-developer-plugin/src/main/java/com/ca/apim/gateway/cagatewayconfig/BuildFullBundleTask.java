@@ -9,6 +9,7 @@ package com.ca.apim.gateway.cagatewayconfig;
 import com.ca.apim.gateway.cagatewayconfig.environment.FullBundleCreator;
 import com.ca.apim.gateway.cagatewayconfig.environment.MissingEnvironmentException;
 import com.ca.apim.gateway.cagatewayconfig.util.environment.EnvironmentConfigurationUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Pair;
 import org.gradle.api.DefaultTask;
@@ -16,11 +17,15 @@ import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.DirectoryProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.*;
+import org.gradle.workers.IsolationMode;
+import org.gradle.workers.WorkerExecutor;
 
 import javax.inject.Inject;
 import java.io.File;
+import java.io.Serializable;
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -34,10 +39,11 @@ import static org.apache.commons.lang3.StringUtils.EMPTY;
 
 /**
  * The BuildFullBundleTask task will grab provided environment properties and build a single bundle merged with the deployment bundles.
+ * It is not cacheable, it reads the deployment bundles from its output directory and removes intermediate files of the
+ * deployment bundle build from there.
  */
 public class BuildFullBundleTask extends DefaultTask {
 
-    private final EnvironmentConfigurationUtils environmentConfigurationUtils;
     private final Property<Map> environmentConfig;
     private final ConfigurableFileCollection dependencyBundles;
     private final DirectoryProperty into;
@@ -45,10 +51,11 @@ public class BuildFullBundleTask extends DefaultTask {
     private final DirectoryProperty configFolder;
     private final Property<String> configName;
     private final Property<Map> envConfig;
+    private final WorkerExecutor workerExecutor;
 
     @Inject
-    public BuildFullBundleTask() {
-        environmentConfigurationUtils = getInstance(EnvironmentConfigurationUtils.class);
+    public BuildFullBundleTask(WorkerExecutor workerExecutor) {
+        this.workerExecutor = workerExecutor;
         environmentConfig = getProject().getObjects().property(Map.class);
         envConfig = getProject().getObjects().property(Map.class);
         dependencyBundles = getProject().files();
@@ -59,6 +66,7 @@ public class BuildFullBundleTask extends DefaultTask {
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     ConfigurableFileCollection getDependencyBundles() {
         return dependencyBundles;
     }
@@ -87,6 +95,7 @@ public class BuildFullBundleTask extends DefaultTask {
 
     @InputDirectory
     @Optional
+    @PathSensitive(PathSensitivity.RELATIVE)
     DirectoryProperty getConfigFolder() {
         return configFolder;
     }
@@ -97,43 +106,108 @@ public class BuildFullBundleTask extends DefaultTask {
         return configName;
     }
 
+    @Input
+    Map<String, String> getBuildProperties() {
+        return TaskInputs.getBuildProperties();
+    }
+
+    @Input
+    Map<String, String> getProjectCoordinates() {
+        return TaskInputs.getProjectCoordinates(getProject());
+    }
+
     @TaskAction
     public void perform() {
-        final FullBundleCreator fullBundleCreator = getInstance(FullBundleCreator.class);
-        final String bundleDirectory = into.getAsFile().get().getPath();
         final String configurationName = configName != null ? removeAllSpecialChars(configName.get()) : EMPTY;
         final ProjectInfo projectInfo = new ProjectInfo(getProject().getName(), getProject().getGroup().toString(),
                 getProject().getVersion().toString(), configurationName);
-        final List<File> metaDataFiles = collectFiles(bundleDirectory, METADATA_FILE_NAME_SUFFIX);
-        if (metaDataFiles.isEmpty()) {
-            throw new MissingEnvironmentException("Metadata file does not exist.");
-        }
-        File configuredFolder = configFolder.getAsFile().getOrNull();
         Map environmentEntities = java.util.Optional.ofNullable(envConfig.getOrNull()).orElse(environmentConfig.getOrNull());
 
-        metaDataFiles.stream().forEach(metaDataFile-> {
-
-            final Pair<String, Map<String, String>> bundleEnvironmentValues = environmentConfigurationUtils.parseBundleMetadata(metaDataFile, configuredFolder);
-            if (null != bundleEnvironmentValues) {
-                String fullInstallBundleFilename = bundleEnvironmentValues.getLeft();
-                if (StringUtils.isNotBlank(projectInfo.getVersion())) {
-                    fullInstallBundleFilename = fullInstallBundleFilename + PREFIX_FULL;
-                }
-                fullInstallBundleFilename = fullInstallBundleFilename + INSTALL_BUNDLE_EXTENSION;
-                //read environment properties from environmentConfig and merge it with config folder entities
-                if(environmentEntities != null){
-                    bundleEnvironmentValues.getRight().putAll(environmentConfigurationUtils.parseEnvironmentValues(environmentEntities));
-                }
-                fullBundleCreator.createFullBundle(
-                        bundleEnvironmentValues,
-                        filterBundleFiles(dependencyBundles.getAsFileTree().getFiles()),
-                        bundleDirectory,
-                        projectInfo,
-                        fullInstallBundleFilename,
-                        configuredFolder != null ? configuredFolder.getPath() : EMPTY,
-                        detemplatizeDeploymentBundles.get()
-                );
-            }
+        final Parameters parameters = new Parameters();
+        parameters.taskName = getName();
+        parameters.buildDirectory = getProject().getBuildDir();
+        parameters.projectDirectory = getProject().getProjectDir();
+        parameters.bundleDirectory = into.getAsFile().get();
+        parameters.configuredFolder = configFolder.getAsFile().getOrNull();
+        // the environment of the build script is read here, the worker gets plain values only
+        if (environmentEntities != null) {
+            parameters.environmentValues = new HashMap<>(getInstance(EnvironmentConfigurationUtils.class).parseEnvironmentValues(environmentEntities));
+        }
+        parameters.dependencyBundles = new ArrayList<>(filterBundleFiles(dependencyBundles.getAsFileTree().getFiles()));
+        parameters.detemplatizeDeploymentBundles = detemplatizeDeploymentBundles.get();
+        parameters.projectInfo = projectInfo;
+
+        // the bundle is built in a worker, so that the bundles of projects in a parallel build are built together
+        workerExecutor.submit(BuildFullBundle.class, config -> {
+            config.setIsolationMode(IsolationMode.NONE);
+            config.setDisplayName("Build full bundle of " + getProject().getPath());
+            config.params(parameters);
         });
     }
+
+    /**
+     * Builds the full bundles in a worker, from the parameters the task collected from its project.
+     */
+    public static class BuildFullBundle implements Runnable {
+        private final Parameters parameters;
+
+        @Inject
+        public BuildFullBundle(Parameters parameters) {
+            this.parameters = parameters;
+        }
+
+        @Override
+        public void run() {
+            final EnvironmentConfigurationUtils environmentConfigurationUtils = getInstance(EnvironmentConfigurationUtils.class);
+            final FullBundleCreator fullBundleCreator = getInstance(FullBundleCreator.class);
+            final String bundleDirectory = parameters.bundleDirectory.getPath();
+            final ProjectInfo projectInfo = parameters.projectInfo;
+            final List<File> metaDataFiles = collectFiles(bundleDirectory, METADATA_FILE_NAME_SUFFIX);
+            if (metaDataFiles.isEmpty()) {
+                throw new MissingEnvironmentException("Metadata file does not exist.");
+            }
+            final File configuredFolder = parameters.configuredFolder;
+
+            BuildProfiler.profileTask(parameters.taskName, parameters.buildDirectory, parameters.projectDirectory, () ->
+                metaDataFiles.stream().forEach(metaDataFile-> {
+
+                    final Pair<String, Map<String, String>> bundleEnvironmentValues = environmentConfigurationUtils.parseBundleMetadata(metaDataFile, configuredFolder);
+                    if (null != bundleEnvironmentValues) {
+                        String fullInstallBundleFilename = bundleEnvironmentValues.getLeft();
+                        if (StringUtils.isNotBlank(projectInfo.getVersion())) {
+                            fullInstallBundleFilename = fullInstallBundleFilename + PREFIX_FULL;
+                        }
+                        fullInstallBundleFilename = fullInstallBundleFilename + INSTALL_BUNDLE_EXTENSION;
+                        //merge environment properties from environmentConfig with config folder entities
+                        if(parameters.environmentValues != null){
+                            bundleEnvironmentValues.getRight().putAll(parameters.environmentValues);
+                        }
+                        fullBundleCreator.createFullBundle(
+                                bundleEnvironmentValues,
+                                parameters.dependencyBundles,
+                                bundleDirectory,
+                                projectInfo,
+                                fullInstallBundleFilename,
+                                configuredFolder != null ? configuredFolder.getPath() : EMPTY,
+                                parameters.detemplatizeDeploymentBundles
+                        );
+                    }
+                })
+            );
+        }
+    }
+
+    static class Parameters implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private String taskName;
+        private File buildDirectory;
+        private File projectDirectory;
+        private File bundleDirectory;
+        private File configuredFolder;
+        private HashMap<String, String> environmentValues;
+        private ArrayList<File> dependencyBundles;
+        private boolean detemplatizeDeploymentBundles;
+        private ProjectInfo projectInfo;
+    }
 }
@@ -10,14 +10,15 @@ import com.ca.apim.gateway.cagatewayconfig.tasks.gw7.PackageTask;
 import org.apache.commons.lang3.StringUtils;
 import org.gradle.api.Plugin;
 import org.gradle.api.Project;
-import org.gradle.api.Task;
 import org.gradle.api.artifacts.Configuration;
 import org.gradle.api.artifacts.dsl.ArtifactHandler;
 import org.gradle.api.file.Directory;
 import org.gradle.api.file.RegularFile;
 import org.gradle.api.internal.artifacts.dsl.LazyPublishArtifact;
 import org.gradle.api.internal.provider.DefaultProvider;
+import org.gradle.api.provider.Property;
 import org.gradle.api.provider.Provider;
+import org.gradle.api.tasks.TaskProvider;
 import org.jetbrains.annotations.NotNull;
 
 import java.io.File;
@@ -27,6 +28,9 @@ import static org.apache.commons.lang3.StringUtils.EMPTY;
 
 /**
  * This is the definition for the developer plugin tasks and operations and properties.
+ * <p>
+ * Tasks are registered rather than created, and wired to each other and to the artifacts through providers, so they
+ * are only created and configured when they are part of the task graph.
  */
 public class CAGatewayDeveloper implements Plugin<Project> {
 
@@ -39,6 +43,11 @@ public class CAGatewayDeveloper implements Plugin<Project> {
     private static final String ENV_APPLICATION_CONFIGURATION = "environment-creator-application";
     private static final String BUILD_ENVIRONMENT_BUNDLE = "build-environment-bundle";
     private static final String BUILD_FULL_BUNDLE = "build-full-bundle";
+    private static final String HOT_DEPLOY_DIRECTORY = "hot-deploy";
+    private static final String PREVIOUS_BUNDLE_CONFIGURATION = "previousBundle";
+    private static final String DELTA_BUNDLE_DIRECTORY = "delta";
+    private static final String DIFF_REPORT_DIRECTORY = "diff";
+    private static final long DEFAULT_HOT_DEPLOY_QUIET_PERIOD = 500L;
 
     @Override
     public void apply(@NotNull final Project project) {
@@ -48,6 +57,7 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         project.getPlugins().apply("base");
 
         final GatewayDeveloperPluginConfig pluginConfig = createPluginConfig(project);
+        final GatewayConnectionProperties gatewayConnectionProperties = createGatewayConnectionProperties(project);
 
         //Add bundle configuration to the default configuration. This was transitive dependencies can be retrieved.
         createConfiguration(project, BUNDLE_CONFIGURATION);
@@ -57,10 +67,13 @@ public class CAGatewayDeveloper implements Plugin<Project> {
 
         configureEnvironmentApplication(project);
 
-        final BuildDeploymentBundleTask buildDeploymentBundleTask = createBuildDeploymentBundleTask(project, pluginConfig);
-        final BuildEnvironmentBundleTask buildEnvironmentBundleTask = createBuildEnvironmentBundleTask(project, pluginConfig);
-        final BuildFullBundleTask buildFullBundleTask = createBuildFullBundleTask(project, pluginConfig, buildDeploymentBundleTask);
-        final PackageTask packageGW7Task = createPackageTask(project, pluginConfig, buildDeploymentBundleTask);
+        final TaskProvider<BuildDeploymentBundleTask> buildDeploymentBundleTask = registerBuildDeploymentBundleTask(project, pluginConfig);
+        final TaskProvider<BuildEnvironmentBundleTask> buildEnvironmentBundleTask = registerBuildEnvironmentBundleTask(project, pluginConfig);
+        final TaskProvider<BuildFullBundleTask> buildFullBundleTask = registerBuildFullBundleTask(project, pluginConfig, buildDeploymentBundleTask);
+        final TaskProvider<PackageTask> packageGW7Task = registerPackageTask(project, pluginConfig, buildDeploymentBundleTask);
+        registerHotDeployTask(project, pluginConfig, gatewayConnectionProperties);
+        registerBuildDeltaBundleTask(project, pluginConfig, buildDeploymentBundleTask);
+        registerDiffBundlesTask(project, pluginConfig, buildDeploymentBundleTask);
 
         configureGeneratedArtifacts(project, pluginConfig, buildDeploymentBundleTask, buildEnvironmentBundleTask, buildFullBundleTask, packageGW7Task);
     }
@@ -75,6 +88,19 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         return pluginConfig;
     }
 
+    @NotNull
+    private static GatewayConnectionProperties createGatewayConnectionProperties(@NotNull Project project) {
+        final GatewayConnectionProperties gatewayConnectionProperties = project.getExtensions().create("GatewayDeployConnection", GatewayConnectionProperties.class, project);
+
+        // Set Defaults
+        project.afterEvaluate(p -> {
+            setDefault(gatewayConnectionProperties.getUrl(), () -> "https://localhost:8443/restman");
+            setDefault(gatewayConnectionProperties.getUserName(), () -> "admin");
+            setDefault(gatewayConnectionProperties.getUserPass(), () -> "password");
+        });
+        return gatewayConnectionProperties;
+    }
+
     private static void configureEnvironmentApplication(@NotNull Project project) {
         // This is the configuration for the apply environment application that gets bundled within .gw7 packages.
         project.getConfigurations().create(ENV_APPLICATION_CONFIGURATION);
@@ -85,9 +111,9 @@ public class CAGatewayDeveloper implements Plugin<Project> {
     }
 
     @NotNull
-    private static BuildDeploymentBundleTask createBuildDeploymentBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig) {
-        // Create build-bundle task
-        return project.getTasks().create("build-bundle", BuildDeploymentBundleTask.class, t -> {
+    private static TaskProvider<BuildDeploymentBundleTask> registerBuildDeploymentBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig) {
+        // Register build-bundle task
+        return project.getTasks().register("build-bundle", BuildDeploymentBundleTask.class, t -> {
             t.dependsOn(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
             t.getFrom().set(new DefaultProvider<>(() -> {
                 Directory dir = pluginConfig.getSolutionDir().get();
@@ -100,9 +126,9 @@ public class CAGatewayDeveloper implements Plugin<Project> {
     }
 
     @NotNull
-    private static BuildEnvironmentBundleTask createBuildEnvironmentBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig) {
-        // Create build-environment-bundle task
-        final BuildEnvironmentBundleTask buildEnvironmentBundleTask = project.getTasks().create(BUILD_ENVIRONMENT_BUNDLE, BuildEnvironmentBundleTask.class, t -> {
+    private static TaskProvider<BuildEnvironmentBundleTask> registerBuildEnvironmentBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig) {
+        // Register build-environment-bundle task
+        return project.getTasks().register(BUILD_ENVIRONMENT_BUNDLE, BuildEnvironmentBundleTask.class, t -> {
             t.getInto().set(pluginConfig.getBuiltEnvironmentBundleDir());
             t.getEnvConfig().set(pluginConfig.getEnvConfig().getMap());
             //for backward compatibility
@@ -114,12 +140,12 @@ public class CAGatewayDeveloper implements Plugin<Project> {
             }));
             t.getConfigName().set(pluginConfig.getEnvConfig().getName());
         });
-        return buildEnvironmentBundleTask;
     }
 
-    private static BuildFullBundleTask createBuildFullBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, BuildDeploymentBundleTask buildDeploymentBundleTask) {
-        // Create build-full-bundle task
-        final BuildFullBundleTask buildFullBundleTask = project.getTasks().create(BUILD_FULL_BUNDLE, BuildFullBundleTask.class, t -> {
+    private static TaskProvider<BuildFullBundleTask> registerBuildFullBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, TaskProvider<BuildDeploymentBundleTask> buildDeploymentBundleTask) {
+        // Register build-full-bundle task
+        return project.getTasks().register(BUILD_FULL_BUNDLE, BuildFullBundleTask.class, t -> {
+            t.dependsOn(buildDeploymentBundleTask);
             t.getEnvConfig().set(pluginConfig.getEnvConfig().getMap());
             //for backward compatibility
             t.getEnvironmentConfig().set(pluginConfig.getEnvironmentConfig());
@@ -132,17 +158,15 @@ public class CAGatewayDeveloper implements Plugin<Project> {
             }));
             t.getConfigName().set(pluginConfig.getEnvConfig().getName());
         });
-        buildFullBundleTask.dependsOn(buildDeploymentBundleTask);
-        return buildFullBundleTask;
     }
 
     @NotNull
-    private static PackageTask createPackageTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, BuildDeploymentBundleTask buildDeploymentBundleTask) {
-        // Create package task
-        return project.getTasks().create("package-gw7", PackageTask.class, t -> {
+    private static TaskProvider<PackageTask> registerPackageTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, TaskProvider<BuildDeploymentBundleTask> buildDeploymentBundleTask) {
+        // Register package task
+        return project.getTasks().register("package-gw7", PackageTask.class, t -> {
             t.dependsOn(buildDeploymentBundleTask);
             t.getInto().set(new DefaultProvider<RegularFile>(() -> () -> new File(new File(project.getBuildDir(), GATEWAY_BUILD_DIRECTORY), getBuiltArtifactName(project, EMPTY,"gw7"))));
-            t.getBundle().set(pluginConfig.getBuiltBundleDir().file(new DefaultProvider<>(() -> getBuiltArtifactName(project, ".install", BUNDLE_FILE_EXTENSION))));
+            t.getBundle().set(getDeploymentBundle(project, pluginConfig));
             t.getDependencyBundles().setFrom(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
             t.getContainerApplicationDependencies().setFrom(project.getConfigurations().getByName(ENV_APPLICATION_CONFIGURATION));
             t.getDependencyModularAssertions().setFrom(project.getConfigurations().getByName(MODULAR_ASSERTION_CONFIGURATION));
@@ -150,17 +174,57 @@ public class CAGatewayDeveloper implements Plugin<Project> {
         });
     }
 
+    private static void registerHotDeployTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, GatewayConnectionProperties gatewayConnectionProperties) {
+        // Register hot-deploy task
+        project.getTasks().register("hot-deploy", HotDeployTask.class, t -> {
+            t.dependsOn(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
+            t.getFrom().set(pluginConfig.getSolutionDir());
+            t.getInto().set(new File(new File(project.getBuildDir(), GATEWAY_BUILD_DIRECTORY), HOT_DEPLOY_DIRECTORY));
+            t.getTargetFolderPath().set(pluginConfig.getTargetFolderPath());
+            t.getDependencies().setFrom(project.getConfigurations().getByName(BUNDLE_CONFIGURATION));
+            t.getQuietPeriod().set(DEFAULT_HOT_DEPLOY_QUIET_PERIOD);
+            t.setGatewayConnectionProperties(gatewayConnectionProperties);
+        });
+    }
+
+    private static void registerBuildDeltaBundleTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, TaskProvider<BuildDeploymentBundleTask> buildDeploymentBundleTask) {
+        // the deployment bundle of the previous version, only its own bundle
+        final Configuration previousBundle = project.getConfigurations().create(PREVIOUS_BUNDLE_CONFIGURATION);
+        previousBundle.setTransitive(false);
+
+        // Register build-delta-bundle task
+        project.getTasks().register("build-delta-bundle", BuildDeltaBundleTask.class, t -> {
+            t.dependsOn(buildDeploymentBundleTask);
+            t.getPreviousBundle().setFrom(previousBundle);
+            t.getCurrentBundle().set(getDeploymentBundle(project, pluginConfig));
+            t.getInto().set(new File(new File(project.getBuildDir(), GATEWAY_BUILD_DIRECTORY), DELTA_BUNDLE_DIRECTORY));
+            t.getBundleName().set(new DefaultProvider<>(() -> StringUtils.removeEnd(getBuiltArtifactName(project, "-delta", BUNDLE_FILE_EXTENSION), "." + BUNDLE_FILE_EXTENSION)));
+            t.getIncludeDeleteBundle().set(false);
+        });
+    }
+
+    private static void registerDiffBundlesTask(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig, TaskProvider<BuildDeploymentBundleTask> buildDeploymentBundleTask) {
+        // Register diff-bundles task, comparing with the previous version unless configured otherwise
+        project.getTasks().register("diff-bundles", DiffBundlesTask.class, t -> {
+            t.dependsOn(buildDeploymentBundleTask);
+            t.getLeft().setFrom(project.getConfigurations().getByName(PREVIOUS_BUNDLE_CONFIGURATION));
+            t.getRight().set(getDeploymentBundle(project, pluginConfig));
+            t.getReport().set(new DefaultProvider<RegularFile>(() -> () -> new File(new File(new File(project.getBuildDir(), GATEWAY_BUILD_DIRECTORY), DIFF_REPORT_DIRECTORY), getBuiltArtifactName(project, "-diff", "json"))));
+            t.getFailOnDifference().set(false);
+        });
+    }
+
     private static void configureGeneratedArtifacts(@NotNull Project project,
                                                     GatewayDeveloperPluginConfig pluginConfig,
-                                                    BuildDeploymentBundleTask buildDeploymentBundleTask,
-                                                    BuildEnvironmentBundleTask buildEnvironmentBundleTask,
-                                                    BuildFullBundleTask buildFullBundleTask,
-                                                    PackageTask packageGW7Task) {
+                                                    TaskProvider<BuildDeploymentBundleTask> buildDeploymentBundleTask,
+                                                    TaskProvider<BuildEnvironmentBundleTask> buildEnvironmentBundleTask,
+                                                    TaskProvider<BuildFullBundleTask> buildFullBundleTask,
+                                                    TaskProvider<PackageTask> packageGW7Task) {
         // add build-bundle to the default build task
-        project.afterEvaluate(p -> project.getTasks().getByPath("build").dependsOn(buildDeploymentBundleTask, packageGW7Task));
+        project.getTasks().named("build").configure(t -> t.dependsOn(buildDeploymentBundleTask, packageGW7Task));
 
         // add the deployment bundle to the default artifacts
-        project.artifacts(artifactHandler -> addBundleArtifact(artifactHandler, packageGW7Task.getBundle(), buildDeploymentBundleTask, project::getName, "deployment"));
+        project.artifacts(artifactHandler -> addBundleArtifact(artifactHandler, getDeploymentBundle(project, pluginConfig), buildDeploymentBundleTask, project::getName, "deployment"));
 
         // add the environment bundle to the artifacts only if the environment bundle task was triggered
         final String artifactName = getBuiltArtifactName(project, "-env.install", BUNDLE_FILE_EXTENSION);
@@ -183,18 +247,24 @@ public class CAGatewayDeveloper implements Plugin<Project> {
                     "full"));
         }
 
-        // set the deployment bundle path as a project property to be consumed by publishing projects
-        project.afterEvaluate(p -> project.getExtensions().add("deployment-bundle-file", new File(buildDeploymentBundleTask.getInto().getAsFile().get(), getBuiltArtifactName(project, "-policy.install", BUNDLE_FILE_EXTENSION)).toString()));
+        // set the deployment bundle path as a project property to be consumed by publishing projects. The paths are read
+        // from the plugin config the tasks are set up from, reading them from the tasks would create the tasks.
+        project.afterEvaluate(p -> project.getExtensions().add("deployment-bundle-file", new File(pluginConfig.getBuiltBundleDir().getAsFile().get(), getBuiltArtifactName(project, "-policy.install", BUNDLE_FILE_EXTENSION)).toString()));
         // set the env bundle as property as well
-        project.afterEvaluate(p -> project.getExtensions().add("environment-bundle-file", new File(buildEnvironmentBundleTask.getInto().getAsFile().get(), artifactName).toString()));
+        project.afterEvaluate(p -> project.getExtensions().add("environment-bundle-file", new File(pluginConfig.getBuiltEnvironmentBundleDir().getAsFile().get(), artifactName).toString()));
         // and the full bundle as property too
-        project.afterEvaluate(p -> project.getExtensions().add("full-bundle-file", new File(buildFullBundleTask.getInto().getAsFile().get(), fullBundleArtifactName).toString()));
+        project.afterEvaluate(p -> project.getExtensions().add("full-bundle-file", new File(pluginConfig.getBuiltEnvironmentBundleDir().getAsFile().get(), fullBundleArtifactName).toString()));
+    }
+
+    @NotNull
+    private static Provider<RegularFile> getDeploymentBundle(@NotNull Project project, GatewayDeveloperPluginConfig pluginConfig) {
+        return pluginConfig.getBuiltBundleDir().file(new DefaultProvider<>(() -> getBuiltArtifactName(project, ".install", BUNDLE_FILE_EXTENSION)));
     }
 
     private static void addBundleArtifact(
             ArtifactHandler artifactHandler,
             Provider<RegularFile> bundle,
-            Task generatedTask,
+            TaskProvider<?> generatedTask,
             Supplier<String> nameSupplier,
             String classifier) {
         artifactHandler.add(
@@ -244,5 +314,10 @@ public class CAGatewayDeveloper implements Plugin<Project> {
             environmentConfig.getName().set(EMPTY);
         }
     }
-}
 
+    private static <T> void setDefault(Property<T> property, Supplier<T> supplier) {
+        if (!property.isPresent()) {
+            property.set(supplier.get());
+        }
+    }
+}
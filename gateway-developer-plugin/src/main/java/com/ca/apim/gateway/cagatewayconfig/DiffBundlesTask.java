@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.bundle.diff.BundleDiffReport;
+import com.ca.apim.gateway.cagatewayconfig.bundle.diff.BundleDiffer;
+import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.List;
+import java.util.Set;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils.DELETE_BUNDLE_EXTENSION;
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
+import static java.util.stream.Collectors.toList;
+
+/**
+ * The DiffBundles task compares two bundles, by default the deployment bundle of the project with the one of the
+ * previous version, and writes the items that were added, removed or changed to a JSON report. Set the left bundle to a
+ * bundle exported from a gateway to find out how the gateway drifted from the project.
+ */
+public class DiffBundlesTask extends DefaultTask {
+
+    private final ConfigurableFileCollection left;
+    private final RegularFileProperty right;
+    private final RegularFileProperty report;
+    private final Property<Boolean> failOnDifference;
+
+    public DiffBundlesTask() {
+        left = getProject().files();
+        right = newInputFile();
+        report = newOutputFile();
+        failOnDifference = getProject().getObjects().property(Boolean.class);
+    }
+
+    /**
+     * The bundle compared from, a bundle file or a bundle dependency.
+     */
+    @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public ConfigurableFileCollection getLeft() {
+        return left;
+    }
+
+    @InputFile
+    @PathSensitive(PathSensitivity.NAME_ONLY)
+    public RegularFileProperty getRight() {
+        return right;
+    }
+
+    @OutputFile
+    public RegularFileProperty getReport() {
+        return report;
+    }
+
+    @Input
+    public Property<Boolean> getFailOnDifference() {
+        return failOnDifference;
+    }
+
+    @TaskAction
+    public void perform() {
+        final File reportFile = report.getAsFile().get();
+        final BundleDiffReport bundleDiffReport;
+        try {
+            bundleDiffReport = InjectionRegistry.getInstance(BundleDiffer.class).compare(getLeftBundleFile(), right.getAsFile().get());
+            Files.createDirectories(reportFile.getParentFile().toPath());
+            JsonTools.INSTANCE.getObjectWriter(JSON).writeValue(reportFile, bundleDiffReport);
+        } catch (BundleLoadException | IOException e) {
+            throw new GradleException("Could not compare the bundles: " + e.getMessage(), e);
+        }
+
+        if (bundleDiffReport.hasDifferences()) {
+            final String message = String.format("%d added, %d removed and %d changed items, see %s",
+                    bundleDiffReport.getAdded().size(), bundleDiffReport.getRemoved().size(), bundleDiffReport.getChanged().size(), reportFile);
+            if (failOnDifference.get()) {
+                throw new GradleException("The bundles are different: " + message);
+            }
+            getLogger().lifecycle(message);
+        }
+    }
+
+    // a single file is used as is, otherwise the deployment bundle of the dependency
+    private File getLeftBundleFile() {
+        final Set<File> files = left.getFiles();
+        if (files.size() == 1) {
+            return files.iterator().next();
+        }
+        final List<File> bundles = files.stream()
+                .filter(file -> file.getName().endsWith(BUNDLE_EXTENSION) && !file.getName().endsWith(DELETE_BUNDLE_EXTENSION))
+                .collect(toList());
+        if (bundles.size() != 1) {
+            throw new GradleException("Expected one bundle to compare from, found: " + files);
+        }
+        return bundles.get(0);
+    }
+}
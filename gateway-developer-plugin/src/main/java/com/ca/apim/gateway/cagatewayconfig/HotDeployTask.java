@@ -0,0 +1,152 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.DependentBundle;
+import com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleArtifacts;
+import com.ca.apim.gateway.cagatewayconfig.bundle.deploy.HotDeployer;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.SourceModelCache;
+import com.ca.apim.gateway.cagatewayconfig.config.loader.SourceWatcher;
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.gradle.api.DefaultTask;
+import org.gradle.api.GradleException;
+import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.DirectoryProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.*;
+import org.w3c.dom.Element;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The HotDeploy task builds the deployment bundle and imports it into a running gateway, then watches the source files
+ * and, each time they change, builds the bundle again and imports only the items that changed. It runs until the build
+ * is cancelled.
+ * <p>
+ * Only the changed files are loaded again, the entities of the other files are kept from the builds before by the
+ * {@link SourceModelCache}. Policies, encasses and services reference each other across files, so every batch of
+ * changes still builds the whole deployment bundle from the entities, and {@link HotDeployer} finds the items that
+ * changed by comparing them with the ones last deployed.
+ */
+public class HotDeployTask extends DefaultTask {
+
+    private final DirectoryProperty from;
+    private final DirectoryProperty into;
+    private final ConfigurableFileCollection dependencies;
+    private final Property<String> targetFolderPath;
+    private final Property<Long> quietPeriod;
+    private GatewayConnectionProperties gatewayConnectionProperties;
+
+    public HotDeployTask() {
+        from = newInputDirectory();
+        into = newOutputDirectory();
+        dependencies = getProject().files();
+        targetFolderPath = getProject().getObjects().property(String.class);
+        quietPeriod = getProject().getObjects().property(Long.class);
+        gatewayConnectionProperties = new GatewayConnectionProperties(getProject());
+
+        // the task watches until cancelled, it is never up to date
+        getOutputs().upToDateWhen(t -> false);
+    }
+
+    @InputDirectory
+    public DirectoryProperty getFrom() {
+        return from;
+    }
+
+    @OutputDirectory
+    public DirectoryProperty getInto() {
+        return into;
+    }
+
+    @InputFiles
+    public ConfigurableFileCollection getDependencies() {
+        return dependencies;
+    }
+
+    @Input
+    @Optional
+    public Property<String> getTargetFolderPath() {
+        return targetFolderPath;
+    }
+
+    /**
+     * How long, in milliseconds, no source file must change before the changes are built and deployed.
+     */
+    @Input
+    public Property<Long> getQuietPeriod() {
+        return quietPeriod;
+    }
+
+    @Nested
+    public GatewayConnectionProperties getGatewayConnectionProperties() {
+        return gatewayConnectionProperties;
+    }
+
+    public void setGatewayConnectionProperties(GatewayConnectionProperties gatewayConnectionProperties) {
+        this.gatewayConnectionProperties = gatewayConnectionProperties;
+    }
+
+    @TaskAction
+    public void perform() {
+        final ProjectInfo projectInfo = new ProjectInfo(getProject().getName(), getProject().getGroup().toString(),
+                getProject().getVersion().toString(), null);
+        if (targetFolderPath.isPresent()) {
+            projectInfo.setTargetFolderPath(targetFolderPath.get());
+        }
+        final File sourceDir = from.getAsFile().get();
+        final File outputDir = into.getAsFile().get();
+        final List<DependentBundle> dependentBundles = BuildDeploymentBundleTask.getDependentBundles(getProject(), dependencies.getFiles());
+
+        final BundleFileBuilder bundleFileBuilder = InjectionRegistry.getInstance(BundleFileBuilder.class);
+        final HotDeployer hotDeployer = new HotDeployer(
+                GatewayClient.INSTANCE,
+                DocumentTools.INSTANCE,
+                gatewayConnectionProperties.getUrl().get(),
+                gatewayConnectionProperties.getUserName().get(),
+                gatewayConnectionProperties.getUserPass().get()
+        );
+
+        try (SourceWatcher sourceWatcher = new SourceWatcher(sourceDir)) {
+            buildAndDeploy(bundleFileBuilder, hotDeployer, sourceDir, outputDir, dependentBundles, projectInfo);
+            while (!Thread.currentThread().isInterrupted()) {
+                getLogger().lifecycle("Watching {} for changes", sourceDir);
+                final Set<Path> changes = sourceWatcher.awaitChanges(quietPeriod.get());
+                // only the changed files are loaded again, the whole bundle is built from the entities
+                getLogger().lifecycle("{} source file(s) changed, building the deployment bundle again", changes.size());
+                getLogger().info("Changed source files: {}", changes);
+                buildAndDeploy(bundleFileBuilder, hotDeployer, sourceDir, outputDir, dependentBundles, projectInfo);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (IOException e) {
+            throw new GradleException("Could not stop watching " + sourceDir, e);
+        }
+    }
+
+    private void buildAndDeploy(BundleFileBuilder bundleFileBuilder, HotDeployer hotDeployer, File sourceDir, File outputDir,
+                                List<DependentBundle> dependentBundles, ProjectInfo projectInfo) {
+        try {
+            final Map<String, BundleArtifacts> artifacts = bundleFileBuilder.buildBundle(sourceDir, outputDir, dependentBundles, projectInfo, true);
+            final Map<String, Element> bundles = new LinkedHashMap<>();
+            artifacts.forEach((name, bundleArtifacts) -> bundles.put(name, bundleArtifacts.getBundle()));
+            final int deployedItems = hotDeployer.deploy(bundles);
+            getLogger().lifecycle("Deployed {} changed item(s) to {}", deployedItems, gatewayConnectionProperties.getUrl().get());
+        } catch (RuntimeException e) {
+            // keep watching, the next change may fix it
+            getLogger().error("Could not deploy the changes: {}", e.getMessage(), e);
+        }
+    }
+}
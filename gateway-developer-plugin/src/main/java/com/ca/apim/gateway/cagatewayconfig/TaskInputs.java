@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayconfig;
+
+import com.google.common.collect.ImmutableSet;
+import org.gradle.api.Project;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.ca.apim.gateway.cagatewayconfig.beans.CompactModel.COMPACT_MODEL;
+import static com.ca.apim.gateway.cagatewayconfig.bundle.builder.BundleEntityBuilder.PARALLEL_ENTITY_BUILDERS;
+import static com.ca.apim.gateway.cagatewayconfig.config.loader.SourceTree.SOURCE_READ_THREADS;
+import static com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils.CACHE_FILE_CONTENTS;
+import static com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler.PROFILE;
+import static com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler.PROFILE_BASELINE;
+import static com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler.PROFILE_TOLERANCE;
+
+/**
+ * Inputs of the bundle building tasks that are read from the project and the build, not set on the tasks. They are
+ * declared on the tasks so that up-to-date checks and the build cache see them.
+ */
+public class TaskInputs {
+
+    private static final String BUILD_PROPERTY_PREFIX = "com.ca.apim.build.";
+    // build properties that change how the bundles are built, but not the bundles built
+    private static final Set<String> NON_OUTPUT_BUILD_PROPERTIES = ImmutableSet.of(
+            COMPACT_MODEL,
+            PARALLEL_ENTITY_BUILDERS,
+            PROFILE,
+            PROFILE_BASELINE,
+            PROFILE_TOLERANCE,
+            SOURCE_READ_THREADS,
+            CACHE_FILE_CONTENTS
+    );
+
+    private TaskInputs() { }
+
+    /**
+     * The com.ca.apim.build system properties that change the built bundles, like the environment entity unique naming
+     * flag.
+     *
+     * @return the build properties, sorted by name
+     */
+    public static Map<String, String> getBuildProperties() {
+        final Map<String, String> buildProperties = new TreeMap<>();
+        System.getProperties().stringPropertyNames().stream()
+                .filter(name -> name.startsWith(BUILD_PROPERTY_PREFIX) && !NON_OUTPUT_BUILD_PROPERTIES.contains(name))
+                .forEach(name -> buildProperties.put(name, System.getProperty(name)));
+        return buildProperties;
+    }
+
+    /**
+     * The project name, group and version, that the built bundles are named and versioned with.
+     *
+     * @param project the project
+     * @return the project coordinates
+     */
+    public static Map<String, String> getProjectCoordinates(Project project) {
+        final Map<String, String> coordinates = new TreeMap<>();
+        coordinates.put("name", project.getName());
+        coordinates.put("group", project.getGroup().toString());
+        coordinates.put("version", project.getVersion().toString());
+        return coordinates;
+    }
+}
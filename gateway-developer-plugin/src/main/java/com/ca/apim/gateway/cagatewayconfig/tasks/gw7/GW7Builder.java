@@ -14,6 +14,8 @@ import org.apache.commons.io.IOUtils;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStream;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.Set;
 import java.util.function.Supplier;
 
@@ -49,6 +51,9 @@ import java.util.function.Supplier;
  */
 public class GW7Builder {
     public static final GW7Builder INSTANCE = new GW7Builder();
+    // entries are written in path order with a fixed time, 1980-01-01T00:00Z, so packaging the same files gives the
+    // same package whatever the time zone
+    private static final Date ENTRY_MODIFICATION_TIME = new Date(315532800000L);
 
     public void buildPackage(OutputStream gw7FileOutputStream, Set<PackageFile> packageFiles) {
         try (TarArchiveOutputStream taos = getTarOutputStream(gw7FileOutputStream)) {
@@ -66,10 +71,11 @@ public class GW7Builder {
     }
 
     private void writeFiles(TarArchiveOutputStream taos, Set<PackageFile> packageFiles) {
-        for (PackageFile file : packageFiles) {
+        packageFiles.stream().sorted(Comparator.comparing(file -> file.filePath)).forEach(file -> {
             try (InputStream inputStream = file.fileStreamSupplier.get()) {
                 TarArchiveEntry tarEntry = new TarArchiveEntry(file.filePath);
                 tarEntry.setSize(file.fileSize);
+                tarEntry.setModTime(ENTRY_MODIFICATION_TIME);
                 if (file.executable) {
                     tarEntry.setMode(365);
                 }
@@ -79,7 +85,7 @@ public class GW7Builder {
             } catch (IOException e) {
                 throw new PackageBuildException("Error building GW7 Package. Error adding file: " + file.filePath + " Message: " + e.getMessage(), e);
             }
-        }
+        });
     }
 
     public static class PackageFile {
@@ -10,13 +10,11 @@ import com.ca.apim.gateway.cagatewayconfig.util.bundle.DependencyBundlesProcesso
 import com.ca.apim.gateway.cagatewayconfig.util.file.FileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionProvider;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
 import org.gradle.api.file.RegularFileProperty;
-import org.gradle.api.tasks.InputFile;
-import org.gradle.api.tasks.InputFiles;
-import org.gradle.api.tasks.OutputFile;
-import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.*;
 
 import javax.inject.Inject;
 import java.io.File;
@@ -28,6 +26,7 @@ import static org.apache.commons.collections4.SetUtils.union;
 /**
  * The BuildBundle task will take local source files and create a bundle document that can be bootstrapped into a gateway container
  */
+@CacheableTask
 public class PackageTask extends DefaultTask {
 
     private ConfigurableFileCollection dependencyBundles;
@@ -62,27 +61,33 @@ public class PackageTask extends DefaultTask {
         this.dependencyBundlesProcessor = InjectionRegistry.getInstance(DependencyBundlesProcessor.class);
     }
 
+    // files are packaged by name, where they were built or downloaded to does not change the package
     @InputFile
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     public RegularFileProperty getBundle() {
         return bundle;
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     public ConfigurableFileCollection getDependencyBundles() {
         return dependencyBundles;
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     public ConfigurableFileCollection getContainerApplicationDependencies() {
         return containerApplicationDependencies;
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     public ConfigurableFileCollection getDependencyModularAssertions() {
         return dependencyModularAssertions;
     }
 
     @InputFiles
+    @PathSensitive(PathSensitivity.NAME_ONLY)
     public ConfigurableFileCollection getDependencyCustomAssertions() {
         return dependencyCustomAssertions;
     }
@@ -97,13 +102,15 @@ public class PackageTask extends DefaultTask {
         Packager packager = new Packager(fileUtils, gw7Builder, dependencyBundlesProcessor);
         final Set<File> bundleDependencies = dependencyBundles.getAsFileTree().getFiles();
 
-        packager.buildPackage(
-                into.getAsFile().get(),
-                bundle.getAsFile().get(),
-                filterBundleFiles(bundleDependencies),
-                containerApplicationDependencies.getFiles(),
-                union(dependencyModularAssertions.getFiles(), filterModularAssertionFiles(bundleDependencies)),
-                union(dependencyCustomAssertions.getFiles(), filterJarFiles(bundleDependencies))
+        BuildProfiler.profileTask(getName(), getProject().getBuildDir(), getProject().getProjectDir(), () ->
+                packager.buildPackage(
+                        into.getAsFile().get(),
+                        bundle.getAsFile().get(),
+                        filterBundleFiles(bundleDependencies),
+                        containerApplicationDependencies.getFiles(),
+                        union(dependencyModularAssertions.getFiles(), filterModularAssertionFiles(bundleDependencies)),
+                        union(dependencyCustomAssertions.getFiles(), filterJarFiles(bundleDependencies))
+                )
         );
     }
 }
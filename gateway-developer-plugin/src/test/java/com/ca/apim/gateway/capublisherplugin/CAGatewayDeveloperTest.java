@@ -126,6 +126,27 @@ class CAGatewayDeveloperTest {
         assertMultiProject(testProjectDir, result);
     }
 
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void testMultiProjectParallel(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
+        String projectFolder = "multi-project";
+        File testProjectDir = new File(temporaryFolder.getRoot(), projectFolder);
+        FileUtils.copyDirectory(new File(Objects.requireNonNull(getClass().getClassLoader().getResource(projectFolder)).toURI()), testProjectDir);
+
+        // project-a and project-d both depend only on project-b, their bundles are built by workers at the same time
+        BuildResult result = GradleRunner.create()
+                .withProjectDir(testProjectDir)
+                .withArguments("build", "--parallel", "--max-workers=4", "--stacktrace", "-PjarDir=" + System.getProperty("user.dir") + "/build/test-mvn-repo")
+                .withPluginClasspath()
+                .withDebug(true)
+                .build();
+
+        for (String project : Arrays.asList("project-a", "project-b", "project-c", "project-d")) {
+            assertEquals(TaskOutcome.SUCCESS, Objects.requireNonNull(result.task(":" + project + ":build-bundle")).getOutcome());
+        }
+        assertMultiProject(testProjectDir, result);
+    }
+
     @Test
     @ExtendWith(TemporaryFolderExtension.class)
     void testMultiProjectBuildingEnvironment(TemporaryFolder temporaryFolder) throws IOException, URISyntaxException {
@@ -14,9 +14,12 @@ import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.PipedInputStream;
 import java.io.PipedOutputStream;
+import java.util.LinkedHashSet;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import java.util.zip.GZIPInputStream;
@@ -43,4 +46,33 @@ class GW7BuilderTest {
         Assertions.assertArrayEquals(new byte[]{1, 2, 3}, IOUtils.toByteArray(tarArchiveInputStream));
         Assertions.assertNull(tarArchiveInputStream.getNextTarEntry());
     }
-}
\ No newline at end of file
+
+    @Test
+    void buildPackageReproducible() throws IOException {
+        GW7Builder builder = new GW7Builder();
+        ByteArrayOutputStream first = new ByteArrayOutputStream();
+        builder.buildPackage(first, packageFiles("/b/file", "/a/file"));
+        ByteArrayOutputStream second = new ByteArrayOutputStream();
+        builder.buildPackage(second, packageFiles("/a/file", "/b/file"));
+
+        Assertions.assertArrayEquals(first.toByteArray(), second.toByteArray());
+
+        TarArchiveInputStream tarArchiveInputStream = new TarArchiveInputStream(new GZIPInputStream(new ByteArrayInputStream(first.toByteArray())));
+        TarArchiveEntry entry = tarArchiveInputStream.getNextTarEntry();
+        Assertions.assertEquals("a/file", entry.getName());
+        long modTime = entry.getModTime().getTime();
+        // 1980-01-01T00:00Z, the same in every time zone
+        Assertions.assertEquals(315532800000L, modTime);
+        entry = tarArchiveInputStream.getNextTarEntry();
+        Assertions.assertEquals("b/file", entry.getName());
+        Assertions.assertEquals(modTime, entry.getModTime().getTime());
+    }
+
+    private static Set<GW7Builder.PackageFile> packageFiles(String... paths) {
+        Set<GW7Builder.PackageFile> packageFiles = new LinkedHashSet<>();
+        for (String path : paths) {
+            packageFiles.add(new GW7Builder.PackageFile(path, 1L, () -> new ByteArrayInputStream(new byte[]{1})));
+        }
+        return packageFiles;
+    }
+}
@@ -43,6 +43,9 @@ public class CAGatewayExport implements Plugin<Project> {
             t.setGatewayConnectionProperties(gatewayConnectionProperties);
             t.getExportFile().set(pluginConfig.getRawBundle());
             t.getExportQuery().set(buildExportQueryTask.getExportQuery());
+            t.getScopedExport().set(pluginConfig.getScopedExport());
+            t.getFolderPath().set(pluginConfig.getFolderPath());
+            t.getExportEntities().set(pluginConfig.getExportEntities().map(GatewayExportPluginConfig::toExportEntities));
         });
         exportTask.dependsOn(buildExportQueryTask);
 
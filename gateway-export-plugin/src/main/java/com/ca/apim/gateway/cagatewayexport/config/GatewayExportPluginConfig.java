@@ -13,6 +13,9 @@ import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Optional;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 public class GatewayExportPluginConfig {
@@ -21,6 +24,7 @@ public class GatewayExportPluginConfig {
     private final RegularFileProperty sanitizedBundle;
     private final Property<Map> exportEntities;
     private final Property<String> folderPath;
+    private final Property<Boolean> scopedExport;
 
     public GatewayExportPluginConfig(Project project) {
         solutionDir = project.getLayout().directoryProperty();
@@ -28,6 +32,7 @@ public class GatewayExportPluginConfig {
         sanitizedBundle = project.getLayout().fileProperty();
         exportEntities = project.getObjects().property(Map.class);
         folderPath = project.getObjects().property(String.class);
+        scopedExport = project.getObjects().property(Boolean.class);
     }
 
     public DirectoryProperty getSolutionDir() {
@@ -56,4 +61,42 @@ public class GatewayExportPluginConfig {
     public Property<String> getFolderPath() {
         return folderPath;
     }
+
+    /**
+     * If set, only the folder path and the export entities are exported from the gateway instead of the whole gateway.
+     *
+     * @return true to export using scoped queries
+     */
+    @Input
+    @Optional
+    public Property<Boolean> getScopedExport() {
+        return scopedExport;
+    }
+
+    /**
+     * Checks and copies the exportEntities configuration, that gradle only knows as a raw map.
+     *
+     * @param exportEntities the configured exportEntities
+     * @return the entity names by entity type
+     */
+    public static Map<String, Collection<String>> toExportEntities(final Map<?, ?> exportEntities) {
+        final Map<String, Collection<String>> entities = new LinkedHashMap<>();
+        exportEntities.forEach((k, v) -> {
+            if (!(k instanceof String)) {
+                throw new IllegalArgumentException("Expected exportEntities map keys to all be Strings. Found type: '" + k.getClass() + "' for key: " + k);
+            }
+            if (!(v instanceof Collection)) {
+                throw new IllegalArgumentException("Expected exportEntities map values to all be Collections of Strings. Found type: '" + v.getClass() + "' for key: " + k);
+            }
+            final Collection<String> names = new ArrayList<>();
+            ((Collection<?>) v).forEach(s -> {
+                if (!(s instanceof String)) {
+                    throw new IllegalArgumentException("Expected exportEntities map values to all be Collections of Strings. Found type: '" + s.getClass() + "' in collection for key: '" + k + "'. It's value is: " + s);
+                }
+                names.add((String) s);
+            });
+            entities.put((String) k, names);
+        });
+        return entities;
+    }
 }
@@ -9,7 +9,9 @@ package com.ca.apim.gateway.cagatewayexport.tasks.explode;
 import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleLoadException;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
 import com.ca.apim.gateway.cagatewayconfig.util.paths.PathUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.ca.apim.gateway.cagatewayconfig.util.string.CharacterBlacklistUtil;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
@@ -18,6 +20,7 @@ import com.ca.apim.gateway.cagatewayexport.tasks.explode.filter.BundleFilter;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.filter.FilterConfiguration;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.linker.EntitiesLinker;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.linker.EntityLinkerRegistry;
+import com.ca.apim.gateway.cagatewayexport.tasks.explode.store.EntityStore;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.writer.EntityWriter;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.writer.EntityWriterRegistry;
 import org.w3c.dom.Document;
@@ -28,17 +31,26 @@ import java.util.Collection;
 import java.util.logging.Logger;
 
 public class ExplodeBundle {
+    /**
+     * Explodes bundles through an on-disk entity store instead of parsing them in memory, for exports too large for
+     * the heap.
+     */
+    public static final String SPILL_TO_DISK = "com.ca.apim.build.explodeSpillToDisk";
+
     private final DocumentTools documentTools;
     private final EntityWriterRegistry entityWriterRegistry;
     private final EntityLinkerRegistry entityLinkerRegistry;
+    private final JsonTools jsonTools;
 
     @Inject
     ExplodeBundle(final DocumentTools documentTools,
                   final EntityWriterRegistry entityWriterRegistry,
-                  final EntityLinkerRegistry entityLinkerRegistry) {
+                  final EntityLinkerRegistry entityLinkerRegistry,
+                  final JsonTools jsonTools) {
         this.documentTools = documentTools;
         this.entityWriterRegistry = entityWriterRegistry;
         this.entityLinkerRegistry = entityLinkerRegistry;
+        this.jsonTools = jsonTools;
     }
 
     @SuppressWarnings("squid:S1075")
@@ -50,15 +62,45 @@ public class ExplodeBundle {
     }
 
     void explodeBundle(String folderPath, FilterConfiguration filterConfiguration, File bundleFile, File explodeDirectory) throws DocumentParseException {
-        final Document bundleDocument = documentTools.parse(bundleFile);
-        documentTools.cleanup(bundleDocument);
+        explodeBundle(folderPath, filterConfiguration, bundleFile, explodeDirectory, JsonTools.YAML);
+    }
 
-        //loads the bundle
+    /**
+     * Explodes the bundle, writing the configuration files in the given output type. The output type only applies to
+     * this export, other exports running in the same JVM keep their own.
+     */
+    void explodeBundle(String folderPath, FilterConfiguration filterConfiguration, File bundleFile, File explodeDirectory, String outputType) throws DocumentParseException {
+        final JsonTools outputJsonTools = jsonTools.withOutputType(outputType);
         final BundleBuilder bundleBuilder = InjectionRegistry.getInstance(BundleBuilder.class);
-        Bundle bundle = bundleBuilder.buildBundle(bundleDocument.getDocumentElement());
+        if (Boolean.getBoolean(SPILL_TO_DISK)) {
+            //streams the bundle into the store and loads it one item at a time
+            try (EntityStore entityStore = new EntityStore(documentTools)) {
+                final Bundle bundle = BuildProfiler.phase("load-bundle", () -> {
+                    entityStore.load(bundleFile);
+                    return bundleBuilder.buildBundle(entityStore);
+                });
+                explodeBundle(folderPath, filterConfiguration, bundle, explodeDirectory, outputJsonTools);
+            }
+            return;
+        }
+
+        final Bundle bundle;
+        final BuildProfiler.Scope loadBundle = BuildProfiler.phase("load-bundle");
+        try {
+            final Document bundleDocument = documentTools.parse(bundleFile);
+            documentTools.cleanup(bundleDocument);
+
+            //loads the bundle
+            bundle = bundleBuilder.buildBundle(bundleDocument.getDocumentElement());
+        } finally {
+            loadBundle.close();
+        }
+        explodeBundle(folderPath, filterConfiguration, bundle, explodeDirectory, outputJsonTools);
+    }
 
-        String encodedFolderPath = folderPath;
-        encodedFolderPath = CharacterBlacklistUtil.encodePath(folderPath);
+    private void explodeBundle(String folderPath, FilterConfiguration filterConfiguration, Bundle bundle, File explodeDirectory, JsonTools outputJsonTools) {
+        BuildProfiler.countEntities(bundle);
+        final String encodedFolderPath = CharacterBlacklistUtil.encodePath(folderPath);
         //checks if bundle has specified folderpath
         if (!bundleContainsFolderPath(bundle, encodedFolderPath)) {
             throw new BundleLoadException("Specified folder " + folderPath + " does not exist in the target gateway.");
@@ -66,14 +108,18 @@ public class ExplodeBundle {
 
         //filter out unwanted entities
         BundleFilter bundleFilter = InjectionRegistry.getInstance(BundleFilter.class);
-        Bundle filteredBundle = bundleFilter.filter(encodedFolderPath, filterConfiguration, bundle);
+        final Bundle filteredBundle = BuildProfiler.phase("filter-bundle", () -> bundleFilter.filter(encodedFolderPath, filterConfiguration, bundle));
         //Link, simplify and process entities
-        final Collection<EntitiesLinker> entityLinkers = entityLinkerRegistry.getEntityLinkers();
-        entityLinkers.forEach(e -> e.link(filteredBundle, bundle, explodeDirectory));
+        BuildProfiler.phase("link-entities", () -> {
+            final Collection<EntitiesLinker> entityLinkers = entityLinkerRegistry.getEntityLinkers();
+            entityLinkers.forEach(e -> e.link(filteredBundle, bundle, explodeDirectory));
+        });
 
         //write the bundle in the exploded format
-        final Collection<EntityWriter> entityBuilders = entityWriterRegistry.getEntityWriters();
-        entityBuilders.parallelStream().forEach(e -> e.write(filteredBundle, explodeDirectory, bundle));
+        BuildProfiler.phase("write-entities", () -> {
+            final Collection<EntityWriter> entityBuilders = entityWriterRegistry.getEntityWriters(outputJsonTools);
+            entityBuilders.parallelStream().forEach(e -> e.write(filteredBundle, explodeDirectory, bundle));
+        });
     }
 
 }
@@ -8,6 +8,7 @@ package com.ca.apim.gateway.cagatewayexport.tasks.explode;
 
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
+import com.ca.apim.gateway.cagatewayconfig.util.profile.BuildProfiler;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import com.ca.apim.gateway.cagatewayexport.tasks.explode.filter.FilterConfiguration;
 import org.gradle.api.DefaultTask;
@@ -22,12 +23,15 @@ import java.util.Collection;
 import java.util.Collections;
 import java.util.Map;
 
+import static com.ca.apim.gateway.cagatewayexport.config.GatewayExportPluginConfig.toExportEntities;
+
 public class ExplodeBundleTask extends DefaultTask {
 
     private Property<String> folderPath;
     private RegularFileProperty inputBundleFile;
     private DirectoryProperty exportDir;
     private final Property<Map> exportEntities;
+    private final Property<String> outputType;
 
     @Inject
     public ExplodeBundleTask() {
@@ -35,7 +39,8 @@ public class ExplodeBundleTask extends DefaultTask {
         inputBundleFile = newInputFile();
         exportDir = newOutputDirectory();
         exportEntities = getProject().getObjects().property(Map.class);
-        JsonTools.INSTANCE.setOutputType(JsonTools.YAML);
+        outputType = getProject().getObjects().property(String.class);
+        outputType.set(JsonTools.YAML);
         getOutputs().upToDateWhen(t -> false);
     }
 
@@ -62,7 +67,12 @@ public class ExplodeBundleTask extends DefaultTask {
 
     @Option(option = "outputType", description = "The output type of the configuration files. Either 'yaml' or 'json'.")
     public void setOutputType(String format) {
-        JsonTools.INSTANCE.setOutputType(format);
+        outputType.set(format);
+    }
+
+    @Input
+    public Property<String> getOutputType() {
+        return outputType;
     }
 
     @Input
@@ -74,28 +84,13 @@ public class ExplodeBundleTask extends DefaultTask {
     @TaskAction
     public void perform() throws DocumentParseException {
         ExplodeBundle explodeBundle = InjectionRegistry.getInstance(ExplodeBundle.class);
-        checkExportEntities();
-        explodeBundle.explodeBundle(folderPath.getOrElse("/"), toFilterConfiguration(exportEntities.getOrElse(Collections.emptyMap())), inputBundleFile.getAsFile().get(), exportDir.getAsFile().get());
-    }
-
-    /**
-     * Checks that the export entities map is of the correct type. Should be {@code Map<String,Collection<String>> }
-     */
-    private void checkExportEntities() {
-        if (exportEntities.isPresent()) {
-            exportEntities.get().forEach((k, v) -> {
-                if (!String.class.isAssignableFrom(k.getClass())) {
-                    throw new IllegalArgumentException("Expected exportEntities map keys to all be Strings. Found type: '" + k.getClass() + "' for key: " + k);
-                }
-                if (!Collection.class.isAssignableFrom(v.getClass())) {
-                    throw new IllegalArgumentException("Expected exportEntities map values to all be Collections of Strings. Found type: '" + v.getClass() + "' for key: " + k);
-                }
-                ((Collection) v).forEach(s -> {
-                    if (!String.class.isAssignableFrom(s.getClass())) {
-                        throw new IllegalArgumentException("Expected exportEntities map values to all be Collections of Strings. Found type: '" + s.getClass() + "' in collection for key: '" + k + "'. It's value is: " + s);
-                    }
-                });
-            });
+        // checked before anything is exploded
+        final Map<String, Collection<String>> entities = exportEntities.isPresent() ? toExportEntities(exportEntities.get()) : Collections.emptyMap();
+        final BuildProfiler.Scope profile = BuildProfiler.start(getName(), getProject().getBuildDir(), getProject().getProjectDir());
+        try {
+            explodeBundle.explodeBundle(folderPath.getOrElse("/"), toFilterConfiguration(entities), inputBundleFile.getAsFile().get(), exportDir.getAsFile().get(), outputType.get());
+        } finally {
+            profile.close();
         }
     }
 
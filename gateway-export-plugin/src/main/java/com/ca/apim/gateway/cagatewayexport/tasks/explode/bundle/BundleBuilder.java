@@ -14,6 +14,7 @@ import com.ca.apim.gateway.cagatewayconfig.beans.UnsupportedGatewayEntity;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleEntityLoader;
 import com.ca.apim.gateway.cagatewayconfig.bundle.loader.BundleEntityLoaderRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayexport.tasks.explode.store.EntityStore;
 import org.w3c.dom.Element;
 import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
@@ -52,12 +53,36 @@ public class BundleBuilder {
         }
 
         bundle.buildFolderTree();
-        bundle.setDependencyMap(buildDependencies(getSingleChildElement(getSingleChildElement(bundleElement, DEPENDENCY_GRAPH), DEPENDENCIES)));
+        bundle.setDependencyMap(buildDependencies(getSingleChildElement(bundleElement, DEPENDENCY_GRAPH)));
 
         return bundle;
     }
 
-    private Map<Dependency, List<Dependency>> buildDependencies(Element dependenciesElement) {
+    /**
+     * Builds the bundle from the items in the store, loading one item at a time. Elements kept by the loaded entities
+     * are written back to the store, only the entities and the dependency graph are held in memory.
+     *
+     * @param entityStore store the exported bundle was loaded into
+     * @return the bundle
+     */
+    public Bundle buildBundle(final EntityStore entityStore) {
+        Bundle bundle = new Bundle();
+        bundle.setElementStore(entityStore);
+
+        entityStore.forEachItem(item -> handleItem(item, bundle));
+
+        final Element dependencyGraph = entityStore.getDependencyGraph();
+        if (dependencyGraph == null) {
+            throw new BundleBuilderException("Exported bundle has no dependency graph");
+        }
+        bundle.buildFolderTree();
+        bundle.setDependencyMap(buildDependencies(dependencyGraph));
+
+        return bundle;
+    }
+
+    private Map<Dependency, List<Dependency>> buildDependencies(Element dependencyGraphElement) {
+        final Element dependenciesElement = getSingleChildElement(dependencyGraphElement, DEPENDENCIES);
         Map<Dependency, List<Dependency>> dependencyMap = new HashMap<>();
         NodeList bundleDependencies = dependenciesElement.getChildNodes();
         for (int i = 0; i < bundleDependencies.getLength(); i++) {
@@ -126,7 +151,7 @@ public class BundleBuilder {
         entity.setType(getSingleChildElement(element, TYPE).getTextContent());
         entity.setId(getSingleChildElement(element, ID).getTextContent());
         entity.setName(getSingleChildElement(element, NAME).getTextContent());
-        entity.setElement(element);
+        entity.setElementSource(bundle.getElementStore().keep(element));
 
         bundle.addEntity(entity);
     }
@@ -33,6 +33,7 @@ public class BundleFilter {
         });
 
         Bundle filteredBundle = new Bundle();
+        filteredBundle.setElementStore(bundle.getElementStore());
         //for each entity filter, filter and then add the results to the filtered bundle
         filterRegistry.getEntityFilters()
                 .forEach(ef ->
@@ -54,7 +54,7 @@ public class PolicyLinker implements EntityLinker<Policy> {
         try {
             Element policyElement = DocumentUtils.stringToXML(documentTools, policy.getPolicyXML());
             policyXMLSimplifier.simplifyPolicyXML(policyElement, policy.getName(), bundle, targetBundle);
-            policy.setPolicyDocument(policyElement);
+            policy.setPolicyDocumentSource(bundle.getElementStore().keep(policyElement));
         } catch (DocumentParseException e) {
             throw new WriteException("Exception linking and simplifying policy: " + policy.getName() + " Message: " + e.getMessage(), e);
         }
@@ -47,7 +47,7 @@ public class ServiceLinker implements EntityLinker<Service> {
         try {
             Element policyElement = DocumentUtils.stringToXML(documentTools, service.getPolicy());
             policyXMLSimplifier.simplifyPolicyXML(policyElement, service.getName(), bundle, targetBundle);
-            service.setPolicyXML(policyElement);
+            service.setPolicyXMLSource(bundle.getElementStore().keep(policyElement));
         } catch (DocumentParseException e) {
             throw new WriteException("Exception linking and simplifying service: " + service.getName() + " Message: " + e.getMessage(), e);
         }
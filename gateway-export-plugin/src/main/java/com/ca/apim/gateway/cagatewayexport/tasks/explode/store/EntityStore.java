@@ -0,0 +1,244 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.explode.store;
+
+import com.ca.apim.gateway.cagatewayconfig.beans.ElementStore;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.jetbrains.annotations.Nullable;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import javax.xml.stream.*;
+import javax.xml.stream.events.StartElement;
+import javax.xml.stream.events.XMLEvent;
+import javax.xml.transform.OutputKeys;
+import javax.xml.transform.Transformer;
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.dom.DOMSource;
+import javax.xml.transform.stream.StreamResult;
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.nio.file.StandardOpenOption.*;
+
+/**
+ * Keeps the items of an exported bundle in a file instead of in memory, for bundles too large to be parsed as one
+ * document. The bundle is streamed into the store item by item, and each item is parsed only when it is loaded.
+ * Elements that entities keep are written to the same file and read back each time they are needed, so the heap only
+ * holds the entities themselves and the dependency graph.
+ */
+public class EntityStore implements ElementStore, Closeable {
+
+    private final DocumentTools documentTools;
+    private final Path file;
+    private final FileChannel channel;
+    private final List<Record> items = new ArrayList<>();
+    private Record dependencyGraph;
+    private long size;
+
+    /**
+     * Creates an empty store in the temporary directory. The file is deleted once the store is closed.
+     */
+    public EntityStore(DocumentTools documentTools) {
+        this(documentTools, new File(System.getProperty("java.io.tmpdir")));
+    }
+
+    public EntityStore(DocumentTools documentTools, File directory) {
+        this.documentTools = documentTools;
+        try {
+            this.file = Files.createTempFile(directory.toPath(), "explode", ".store");
+            this.channel = FileChannel.open(file, READ, WRITE, DELETE_ON_CLOSE);
+        } catch (IOException e) {
+            throw new EntityStoreException("Could not create entity store in " + directory, e);
+        }
+    }
+
+    /**
+     * Streams the items and the dependency graph of the bundle into the store, without parsing the bundle document.
+     *
+     * @param bundleFile the exported bundle
+     */
+    public void load(File bundleFile) {
+        final XMLInputFactory inputFactory = XMLInputFactory.newInstance();
+        inputFactory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        final XMLOutputFactory outputFactory = XMLOutputFactory.newInstance();
+        // items are written without the bundle element declaring their namespace
+        outputFactory.setProperty(XMLOutputFactory.IS_REPAIRING_NAMESPACES, true);
+
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(bundleFile))) {
+            final XMLEventReader reader = inputFactory.createXMLEventReader(inputStream);
+            boolean documentElement = true;
+            while (reader.hasNext()) {
+                final XMLEvent event = reader.nextEvent();
+                if (event.isStartElement()) {
+                    final String name = qualifiedName(event.asStartElement());
+                    // as with the parsed bundle, the document element is not an item even if it is named like one
+                    if (documentElement) {
+                        documentElement = false;
+                    } else if (ITEM.equals(name)) {
+                        items.add(write(copyElement(reader, outputFactory, event.asStartElement())));
+                    } else if (DEPENDENCY_GRAPH.equals(name)) {
+                        dependencyGraph = write(copyElement(reader, outputFactory, event.asStartElement()));
+                    }
+                }
+            }
+            reader.close();
+        } catch (IOException | XMLStreamException e) {
+            throw new EntityStoreException("Could not read bundle " + bundleFile, e);
+        }
+    }
+
+    /**
+     * Loads the items of the bundle one at a time, in the order they were exported.
+     *
+     * @param itemConsumer consumer of each item element, the element is not held by the store
+     */
+    public void forEachItem(Consumer<Element> itemConsumer) {
+        items.forEach(item -> {
+            final Document itemDocument = item.parse();
+            documentTools.cleanup(itemDocument);
+            itemConsumer.accept(itemDocument.getDocumentElement());
+        });
+    }
+
+    public int getItemCount() {
+        return items.size();
+    }
+
+    /**
+     * @return the dependency graph of the bundle, null if the bundle has none
+     */
+    @Nullable
+    public Element getDependencyGraph() {
+        if (dependencyGraph == null) {
+            return null;
+        }
+        final Document dependencyGraphDocument = dependencyGraph.parse();
+        documentTools.cleanup(dependencyGraphDocument);
+        return dependencyGraphDocument.getDocumentElement();
+    }
+
+    @Override
+    public Supplier<Element> keep(Element element) {
+        final Transformer transformer = documentTools.getTransformer();
+        transformer.setOutputProperty(OutputKeys.INDENT, "no");
+        transformer.setOutputProperty(OutputKeys.OMIT_XML_DECLARATION, "yes");
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        try {
+            transformer.transform(new DOMSource(element), new StreamResult(outputStream));
+        } catch (TransformerException e) {
+            throw new EntityStoreException("Could not write element " + element.getTagName() + " to the entity store", e);
+        }
+        final Record record = write(outputStream.toByteArray());
+        return () -> record.parse().getDocumentElement();
+    }
+
+    @Override
+    public boolean keepsInMemory() {
+        return false;
+    }
+
+    /**
+     * @return the bytes written to the store so far
+     */
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            throw new EntityStoreException("Could not delete entity store " + file, e);
+        }
+    }
+
+    private static byte[] copyElement(XMLEventReader reader, XMLOutputFactory outputFactory, StartElement startElement) throws XMLStreamException {
+        final ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        final XMLEventWriter writer = outputFactory.createXMLEventWriter(outputStream, UTF_8.name());
+        writer.add(startElement);
+        int depth = 1;
+        while (depth > 0) {
+            final XMLEvent event = reader.nextEvent();
+            if (event.isStartElement()) {
+                depth++;
+            } else if (event.isEndElement()) {
+                depth--;
+            }
+            writer.add(event);
+        }
+        writer.close();
+        return outputStream.toByteArray();
+    }
+
+    private static String qualifiedName(StartElement startElement) {
+        final String prefix = startElement.getName().getPrefix();
+        return prefix.isEmpty() ? startElement.getName().getLocalPart() : prefix + ":" + startElement.getName().getLocalPart();
+    }
+
+    private synchronized Record write(byte[] bytes) {
+        final Record record = new Record(size, bytes.length);
+        final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer, size + buffer.position());
+            }
+        } catch (IOException e) {
+            throw new EntityStoreException("Could not write to entity store " + file, e);
+        }
+        size += bytes.length;
+        return record;
+    }
+
+    private byte[] read(Record record) {
+        final ByteBuffer buffer = ByteBuffer.allocate(record.length);
+        try {
+            // positional reads do not move the channel, so writers can read records concurrently
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, record.offset + buffer.position()) < 0) {
+                    throw new EntityStoreException("Entity store " + file + " ended before the record at " + record.offset);
+                }
+            }
+        } catch (IOException e) {
+            throw new EntityStoreException("Could not read from entity store " + file, e);
+        }
+        return buffer.array();
+    }
+
+    /**
+     * Position of a serialized element in the store file.
+     */
+    private class Record {
+        private final long offset;
+        private final int length;
+
+        private Record(long offset, int length) {
+            this.offset = offset;
+            this.length = length;
+        }
+
+        private Document parse() {
+            try {
+                return documentTools.parse(new ByteArrayInputStream(read(this)));
+            } catch (DocumentParseException e) {
+                throw new EntityStoreException("Could not parse the record at " + offset + " of entity store " + file, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,18 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.explode.store;
+
+public class EntityStoreException extends RuntimeException {
+
+    public EntityStoreException(String message) {
+        super(message);
+    }
+
+    public EntityStoreException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
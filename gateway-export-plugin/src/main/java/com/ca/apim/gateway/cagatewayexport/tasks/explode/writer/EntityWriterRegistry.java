@@ -7,6 +7,7 @@
 package com.ca.apim.gateway.cagatewayexport.tasks.explode.writer;
 
 import com.ca.apim.gateway.cagatewayconfig.beans.EntityTypeRegistry;
+import com.ca.apim.gateway.cagatewayconfig.beans.EntityUtils.GatewayEntityInfo;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
 import com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools;
@@ -19,29 +20,51 @@ import java.util.Set;
 
 import static com.ca.apim.gateway.cagatewayexport.tasks.explode.writer.WriterHelper.write;
 import static java.util.Collections.unmodifiableCollection;
+import static java.util.stream.Collectors.toList;
 
 @Singleton
 public class EntityWriterRegistry {
 
+    private final Set<EntityWriter> writers;
+    private final DocumentFileUtils documentFileUtils;
+    private final JsonTools jsonTools;
+    private final Collection<GatewayEntityInfo> genericEntityInfos;
     private final Collection<EntityWriter> entityWriters;
 
     @Inject
     public EntityWriterRegistry(final Set<EntityWriter> writers, final DocumentFileUtils documentFileUtils, final JsonTools jsonTools) {
-        // add the implemented writers
-        Set<EntityWriter> allWriters = new HashSet<>(writers);
+        this.writers = writers;
+        this.documentFileUtils = documentFileUtils;
+        this.jsonTools = jsonTools;
 
-        // create generic writers for the entities configured to not have a specific implementation
+        // the entities configured to not have a specific implementation get generic writers
         EntityTypeRegistry entityTypeRegistry = InjectionRegistry.getInstance(EntityTypeRegistry.class);
-        entityTypeRegistry.getEntityTypeMap().values().forEach(info -> {
-            if (info.getFileName() != null && info.getFileType() != null) {
-                allWriters.add((bundle, rootFolder, rawBundle) -> write(bundle, rootFolder, info, documentFileUtils, jsonTools));
-            }
-        });
+        this.genericEntityInfos = entityTypeRegistry.getEntityTypeMap().values().stream()
+                .filter(info -> info.getFileName() != null && info.getFileType() != null)
+                .collect(toList());
 
-        this.entityWriters = unmodifiableCollection(allWriters);
+        this.entityWriters = createEntityWriters(jsonTools);
     }
 
     public Collection<EntityWriter> getEntityWriters() {
         return entityWriters;
     }
+
+    /**
+     * @param jsonTools the tools the generic writers write entities with, for the output type of an export
+     * @return the writers of every entity
+     */
+    public Collection<EntityWriter> getEntityWriters(final JsonTools jsonTools) {
+        return jsonTools == this.jsonTools ? entityWriters : createEntityWriters(jsonTools);
+    }
+
+    private Collection<EntityWriter> createEntityWriters(final JsonTools jsonTools) {
+        // add the implemented writers
+        Set<EntityWriter> allWriters = new HashSet<>(writers);
+
+        // create generic writers for the entities configured to not have a specific implementation
+        genericEntityInfos.forEach(info -> allWriters.add((bundle, rootFolder, rawBundle) -> write(bundle, rootFolder, info, documentFileUtils, jsonTools)));
+
+        return unmodifiableCollection(allWriters);
+    }
 }
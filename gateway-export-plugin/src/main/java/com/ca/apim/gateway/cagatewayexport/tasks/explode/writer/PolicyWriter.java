@@ -186,8 +186,8 @@ public class PolicyWriter implements EntityWriter {
         documentFileUtils.createFolders(folderPath);
         PolicyConverter policyConverter = policyConverterRegistry.getFromPolicyElement(folderableEntity.getName(), policy);
         Path policyPath = folderPath.resolve(folderableEntity.getName() + policyConverter.getPolicyTypeExtension());
-        try (InputStream policyStream = policyConverter.convertFromPolicyElement(policy)) {
-            FileUtils.copyInputStreamToFile(policyStream, policyPath.toFile());
+        try (OutputStream policyStream = new BufferedOutputStream(FileUtils.openOutputStream(policyPath.toFile()))) {
+            policyConverter.writeFromPolicyElement(policy, policyStream);
         } catch (IOException e) {
             throw new WriteException("Unable to write assertion js policy", e);
         }
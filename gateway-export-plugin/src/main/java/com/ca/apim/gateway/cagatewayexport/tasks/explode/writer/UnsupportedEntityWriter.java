@@ -4,25 +4,38 @@ import com.ca.apim.gateway.cagatewayconfig.beans.Bundle;
 import com.ca.apim.gateway.cagatewayconfig.beans.UnsupportedGatewayEntity;
 import com.ca.apim.gateway.cagatewayconfig.util.file.DocumentFileUtils;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
-import org.apache.commons.io.FileUtils;
-import org.w3c.dom.Document;
 import org.w3c.dom.Element;
-import org.w3c.dom.Node;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
 
 import javax.inject.Inject;
 import javax.inject.Singleton;
-import javax.xml.parsers.DocumentBuilder;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 import java.nio.file.Path;
-import java.util.Map;
+import java.util.Comparator;
+import java.util.List;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-import static org.apache.commons.io.IOUtils.toInputStream;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.writeNode;
+import static java.util.Comparator.comparing;
+import static java.util.Comparator.naturalOrder;
+import static java.util.Comparator.nullsFirst;
+import static java.util.stream.Collectors.toList;
 
 @Singleton
 public class UnsupportedEntityWriter implements EntityWriter {
+    private static final String L7 = "l7";
+    private static final String L7_NAMESPACE = "http://ns.l7tech.com/2010/04/gateway-management";
+    private static final String ITEMS = "Items";
+    private static final Comparator<UnsupportedGatewayEntity> ENTITY_ORDER =
+            comparing(UnsupportedGatewayEntity::getType, nullsFirst(naturalOrder()))
+                    .thenComparing(UnsupportedGatewayEntity::getId, nullsFirst(naturalOrder()));
+
     private final DocumentFileUtils documentFileUtils;
     private final DocumentTools documentTools;
 
@@ -37,26 +50,39 @@ public class UnsupportedEntityWriter implements EntityWriter {
         File configFolder = new File(rootFolder, "config");
         documentFileUtils.createFolder(configFolder.toPath());
 
-        Map<String, UnsupportedGatewayEntity> unsupportedGatewayEntityMap = bundle.getUnsupportedEntities();
-        if(!unsupportedGatewayEntityMap.isEmpty()){
-            DocumentBuilder builder = documentTools.getDocumentBuilder();
-            Document document = builder.newDocument();
-            Element items = document.createElement("l7:Items");
-            unsupportedGatewayEntityMap.values().parallelStream().forEach(unsupportedGatewayEntity -> {
-                Node item = unsupportedGatewayEntity.getElement().cloneNode(true);
-                document.adoptNode(item);
-                items.appendChild(item);
-            });
-            items.setAttribute("xmlns:l7", "http://ns.l7tech.com/2010/04/gateway-management");
-            writeElement(configFolder, items);
+        if (!bundle.getUnsupportedEntities().isEmpty()) {
+            // sorted by type and id, so that the file is the same for every export of the same entities
+            List<UnsupportedGatewayEntity> unsupportedEntities = bundle.getUnsupportedEntities().values().stream()
+                    .sorted(ENTITY_ORDER)
+                    .collect(toList());
+            writeItems(configFolder, unsupportedEntities);
         }
     }
 
-    private void writeElement(File configFolder, Element items) {
+    /**
+     * Streams the elements of the entities into the file as items, one at a time, without building a document
+     * or a string of the whole file.
+     */
+    private void writeItems(File configFolder, List<UnsupportedGatewayEntity> unsupportedEntities) {
         Path unsupportedEntitiesFilePath = configFolder.toPath().resolve("unsupported-entities.xml");
-        try (InputStream itemStream = toInputStream(documentTools.elementToString(items), UTF_8)) {
-            FileUtils.copyInputStreamToFile(itemStream, unsupportedEntitiesFilePath.toFile());
-        } catch (IOException e) {
+        try (OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(unsupportedEntitiesFilePath))) {
+            TransformerHandler handler = documentTools.getTransformerHandler();
+            handler.setResult(new StreamResult(outputStream));
+            handler.startDocument();
+            handler.startPrefixMapping(L7, L7_NAMESPACE);
+            handler.startElement(L7_NAMESPACE, ITEMS, L7 + ":" + ITEMS, new AttributesImpl());
+
+            for (UnsupportedGatewayEntity unsupportedEntity : unsupportedEntities) {
+                Element element = unsupportedEntity.getElement();
+                if (element != null) {
+                    writeNode(element, handler);
+                }
+            }
+
+            handler.endElement(L7_NAMESPACE, ITEMS, L7 + ":" + ITEMS);
+            handler.endPrefixMapping(L7);
+            handler.endDocument();
+        } catch (IOException | SAXException e) {
             throw new WriteException("Unable to write unsupported entities to xml file", e);
         }
     }
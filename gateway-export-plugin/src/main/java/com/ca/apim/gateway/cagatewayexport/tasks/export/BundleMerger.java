@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.export;
+
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
+
+/**
+ * Merges partial bundles exported from the gateway into a single bundle. References, mappings and dependencies of
+ * every partial bundle are appended to the first one, skipping the ones already there by id and type. Relative order
+ * is kept, so dependencies keep being mapped before the entities depending on them.
+ */
+public class BundleMerger {
+
+    /**
+     * Merges the given bundles into the first one.
+     *
+     * @param bundles the bundle documents to merge, either plain bundles or bundles wrapped in an export item
+     * @return the first document, with the contents of the other ones merged into it
+     */
+    public Document merge(final List<Document> bundles) {
+        if (bundles.isEmpty()) {
+            throw new ScopedExportException("There are no bundles to merge");
+        }
+        final Document merged = bundles.get(0);
+        final Element mergedBundle = getBundleElement(merged);
+        final Set<String> references = keys(getChildElements(getOptionalChild(mergedBundle, REFERENCES), ITEM), BundleMerger::entityKey);
+        final Set<String> mappings = keys(getChildElements(getOptionalChild(mergedBundle, MAPPINGS), MAPPING), BundleMerger::mappingKey);
+        final Set<String> dependencies = keys(getChildElements(getDependencies(mergedBundle), DEPENDENCY), BundleMerger::entityKey);
+
+        for (Document bundle : bundles.subList(1, bundles.size())) {
+            final Element bundleElement = getBundleElement(bundle);
+            for (Element item : getChildElements(getOptionalChild(bundleElement, REFERENCES), ITEM)) {
+                appendIfNew(item, entityKey(item), references, () -> getOrCreateChild(mergedBundle, REFERENCES));
+            }
+            for (Element mapping : getChildElements(getOptionalChild(bundleElement, MAPPINGS), MAPPING)) {
+                appendIfNew(mapping, mappingKey(mapping), mappings, () -> getOrCreateChild(mergedBundle, MAPPINGS));
+            }
+            for (Element dependency : getChildElements(getDependencies(bundleElement), DEPENDENCY)) {
+                appendIfNew(dependency, entityKey(dependency), dependencies, () -> getOrCreateChild(getOrCreateChild(mergedBundle, DEPENDENCY_GRAPH), DEPENDENCIES));
+            }
+        }
+        return merged;
+    }
+
+    private static void appendIfNew(final Element element, final String key, final Set<String> keys, final Supplier<Element> parent) {
+        if (keys.add(key)) {
+            final Element parentElement = parent.get();
+            parentElement.appendChild(parentElement.getOwnerDocument().importNode(element, true));
+        }
+    }
+
+    private static Element getBundleElement(final Document document) {
+        final Element documentElement = document.getDocumentElement();
+        if (BUNDLE.equals(documentElement.getNodeName())) {
+            return documentElement;
+        }
+        // restman wraps the exported bundle into an item
+        final Node bundle = documentElement.getElementsByTagName(BUNDLE).item(0);
+        if (bundle == null) {
+            throw new ScopedExportException("Expected a bundle but found: " + documentElement.getNodeName());
+        }
+        return (Element) bundle;
+    }
+
+    private static Element getDependencies(final Element bundleElement) {
+        return getOptionalChild(getOptionalChild(bundleElement, DEPENDENCY_GRAPH), DEPENDENCIES);
+    }
+
+    private static Element getOptionalChild(final Element parent, final String elementName) {
+        return parent == null ? null : getSingleChildElement(parent, elementName, true);
+    }
+
+    private static Element getOrCreateChild(final Element parent, final String elementName) {
+        final Element child = getOptionalChild(parent, elementName);
+        if (child != null) {
+            return child;
+        }
+        return (Element) parent.appendChild(parent.getOwnerDocument().createElement(elementName));
+    }
+
+    private static Set<String> keys(final List<Element> elements, final Function<Element, String> key) {
+        final Set<String> keys = new HashSet<>();
+        elements.forEach(e -> keys.add(key.apply(e)));
+        return keys;
+    }
+
+    private static String entityKey(final Element element) {
+        return getSingleChildElementTextContent(element, TYPE) + ":" + getSingleChildElementTextContent(element, ID);
+    }
+
+    private static String mappingKey(final Element mapping) {
+        return mapping.getAttribute(ATTRIBUTE_TYPE) + ":" + mapping.getAttribute(ATTRIBUTE_SRCID);
+    }
+}
@@ -9,22 +9,30 @@ package com.ca.apim.gateway.cagatewayexport.tasks.export;
 import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
 import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClientException;
 import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
 import com.ca.apim.gateway.cagatewayexport.config.GatewayExportConnectionProperties;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.RegularFileProperty;
 import org.gradle.api.provider.Property;
 import org.gradle.api.tasks.Input;
 import org.gradle.api.tasks.Nested;
+import org.gradle.api.tasks.Optional;
 import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
+import org.w3c.dom.Document;
 
 import java.io.File;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanBundleEndpoint;
 import static org.apache.commons.io.FileUtils.copyInputStreamToFile;
+import static org.apache.commons.io.FileUtils.openOutputStream;
 import static org.apache.http.client.methods.HttpGet.METHOD_NAME;
 import static org.apache.http.client.methods.RequestBuilder.create;
 
@@ -39,6 +47,9 @@ public class ExportTask extends DefaultTask {
     //Inputs
     private GatewayExportConnectionProperties gatewayConnectionProperties;
     private Property<String> exportQuery;
+    private Property<Boolean> scopedExport;
+    private Property<String> folderPath;
+    private Property<Map<String, Collection<String>>> exportEntities;
 
     //Outputs
     private RegularFileProperty exportFile;
@@ -47,6 +58,9 @@ public class ExportTask extends DefaultTask {
         this.gatewayClient = InjectionRegistry.getInstance(GatewayClient.class);
         gatewayConnectionProperties = new GatewayExportConnectionProperties(getProject());
         exportQuery = getProject().getObjects().property(String.class);
+        scopedExport = getProject().getObjects().property(Boolean.class);
+        folderPath = getProject().getObjects().property(String.class);
+        exportEntities = mapProperty(getProject().getObjects().property(Map.class));
         exportFile = newOutputFile();
 
         // makes it so that the export is always run
@@ -72,6 +86,40 @@ public class ExportTask extends DefaultTask {
         return exportQuery;
     }
 
+    /**
+     * If set, only the folder to export and the required entities are exported from the gateway, using scoped queries
+     * instead of the export query.
+     *
+     * @return true to export only what is going to be exploded
+     */
+    @Input
+    @Optional
+    public Property<Boolean> getScopedExport() {
+        return scopedExport;
+    }
+
+    /**
+     * The path of the folder to export, used by the scoped export.
+     *
+     * @return the folder to export from the gateway
+     */
+    @Input
+    @Optional
+    public Property<String> getFolderPath() {
+        return folderPath;
+    }
+
+    /**
+     * The entities to export by name, used by the scoped export.
+     *
+     * @return the entities to export from the gateway
+     */
+    @Input
+    @Optional
+    public Property<Map<String, Collection<String>>> getExportEntities() {
+        return exportEntities;
+    }
+
     /**
      * The file to save the exported bundle to.
      *
@@ -89,8 +137,22 @@ public class ExportTask extends DefaultTask {
         this.gatewayClient = gatewayClient;
     }
 
+    @SuppressWarnings("unchecked")
+    private static Property<Map<String, Collection<String>>> mapProperty(final Property<Map> property) {
+        return (Property<Map<String, Collection<String>>>) (Property<?>) property;
+    }
+
     @TaskAction
     public void perform() {
+        final Map<String, Collection<String>> entities = exportEntities.getOrElse(Collections.emptyMap());
+        if (scopedExport.getOrElse(false)) {
+            if (ScopedBundleExporter.canScope(folderPath.getOrNull(), entities)) {
+                exportScoped(entities);
+                return;
+            }
+            LOGGER.log(Level.INFO, "Folder {0} and entities {1} cannot be exported with scoped queries, exporting with the export query", new Object[]{folderPath.getOrNull(), entities.keySet()});
+        }
+
         LOGGER.log(Level.INFO, "Exporting with query: {0}", exportQuery.get());
         File destFile = exportFile.getAsFile().get();
         try {
@@ -107,4 +169,25 @@ public class ExportTask extends DefaultTask {
         }
     }
 
+    private void exportScoped(Map<String, Collection<String>> entities) {
+        final DocumentTools documentTools = InjectionRegistry.getInstance(DocumentTools.class);
+        final ScopedBundleExporter exporter = new ScopedBundleExporter(gatewayClient, documentTools, new BundleMerger());
+        final Document bundle = exporter.export(
+                new ScopedBundleExporter.Connection(
+                        gatewayConnectionProperties.getUrl().get(),
+                        gatewayConnectionProperties.getUserName().get(),
+                        gatewayConnectionProperties.getUserPass().get()
+                ),
+                folderPath.get(),
+                entities
+        );
+
+        File destFile = exportFile.getAsFile().get();
+        try (OutputStream outputStream = openOutputStream(destFile)) {
+            documentTools.printXML(bundle.getDocumentElement(), outputStream, false);
+        } catch (IOException e) {
+            throw new GatewayClientException("Could not save scoped bundle from gateway into file " + destFile.getName(), e);
+        }
+    }
+
 }
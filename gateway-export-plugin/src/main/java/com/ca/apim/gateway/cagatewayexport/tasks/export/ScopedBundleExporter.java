@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.export;
+
+import com.ca.apim.gateway.cagatewayconfig.util.concurrent.FutureUtils;
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.collect.ImmutableMap;
+import org.apache.http.client.methods.RequestBuilder;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanBundleEndpoint;
+import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanEndpoint;
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.*;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.singletonList;
+import static java.util.Collections.singletonMap;
+import static java.util.concurrent.CompletableFuture.supplyAsync;
+import static java.util.stream.Collectors.joining;
+import static java.util.stream.Collectors.toList;
+import static org.apache.http.client.methods.RequestBuilder.get;
+
+/**
+ * Exports only the part of the gateway described by the explode filter configuration. Instead of exporting everything
+ * and filtering it afterwards, the folder to export and the entities required by name are translated into scoped
+ * restman bundle queries. The queries are run concurrently and the partial bundles are merged into a single one.
+ */
+public class ScopedBundleExporter {
+
+    private static final Logger LOGGER = Logger.getLogger(ScopedBundleExporter.class.getName());
+    static final String EXPORT_OPTIONS = "encassAsPolicyDependency=true&includeDependencies=true&encryptSecrets=true";
+    private static final int MAX_CONCURRENT_QUERIES = 4;
+    private static final String NAME_FILTER = "name";
+
+    /**
+     * Restman entities by the entity name used in the exportEntities configuration.
+     */
+    private static final Map<String, RestmanEntity> RESTMAN_ENTITIES = ImmutableMap.<String, RestmanEntity>builder()
+            .put("cassandraConnections", new RestmanEntity("cassandraConnections", "cassandraConnection", NAME_FILTER))
+            .put("clusterProperties", new RestmanEntity("clusterProperties", "clusterProperty", NAME_FILTER))
+            .put("genericEntities", new RestmanEntity("genericEntities", "genericEntity", NAME_FILTER))
+            .put("identityProviders", new RestmanEntity("identityProviders", "identityProvider", NAME_FILTER))
+            .put("jdbcConnections", new RestmanEntity("jdbcConnections", "jdbcConnection", NAME_FILTER))
+            .put("jmsDestinations", new RestmanEntity("jmsDestinations", "jmsDestination", NAME_FILTER))
+            .put("listenPorts", new RestmanEntity("listenPorts", "listenPort", NAME_FILTER))
+            .put("privateKeys", new RestmanEntity("privateKeys", "privateKey", "alias"))
+            .put("activeConnectors", new RestmanEntity("activeConnectors", "activeConnector", NAME_FILTER))
+            .put("passwords", new RestmanEntity("passwords", "securePassword", NAME_FILTER))
+            .put("certificates", new RestmanEntity("trustedCertificates", "trustedCertificate", NAME_FILTER))
+            .build();
+
+    private final GatewayClient gatewayClient;
+    private final DocumentTools documentTools;
+    private final BundleMerger bundleMerger;
+
+    public ScopedBundleExporter(final GatewayClient gatewayClient, final DocumentTools documentTools, final BundleMerger bundleMerger) {
+        this.gatewayClient = gatewayClient;
+        this.documentTools = documentTools;
+        this.bundleMerger = bundleMerger;
+    }
+
+    /**
+     * Checks if the given configuration can be exported with scoped queries. Exporting the root folder means exporting
+     * the whole gateway, and entity types unknown here can't be exported by name.
+     *
+     * @param folderPath     the path of the folder to export
+     * @param exportEntities the entities to export by name, keyed by entity type
+     * @return true if the export can be scoped
+     */
+    public static boolean canScope(final String folderPath, final Map<String, ? extends Collection<String>> exportEntities) {
+        return !folderNames(folderPath).isEmpty() && RESTMAN_ENTITIES.keySet().containsAll(exportEntities.keySet());
+    }
+
+    /**
+     * Exports the given folder and entities from the gateway.
+     *
+     * @param connection     the gateway connection
+     * @param folderPath     the path of the folder to export, its contents are exported with their dependencies
+     * @param exportEntities the entities to export by name, keyed by entity type
+     * @return the merged bundle
+     */
+    public Document export(final Connection connection, final String folderPath, final Map<String, ? extends Collection<String>> exportEntities) {
+        if (!canScope(folderPath, exportEntities)) {
+            throw new ScopedExportException("Cannot export folder '" + folderPath + "' and entities " + exportEntities.keySet() + " with scoped queries");
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(Math.min(MAX_CONCURRENT_QUERIES, 1 + exportEntities.size()));
+        try {
+            final CompletableFuture<List<Element>> folderPathItems = supplyAsync(() -> resolveFolderPath(connection, folderPath), executor);
+            final List<CompletableFuture<Document>> partialBundles = new ArrayList<>();
+            // the parents of the exported folder are not part of the folder export, they go first so they are mapped first
+            partialBundles.add(folderPathItems.thenApply(items -> buildFoldersBundle(items.subList(0, items.size() - 1))));
+            partialBundles.add(folderPathItems.thenApplyAsync(items -> exportBundle(connection, singletonMap("folder", singletonList(id(items.get(items.size() - 1)))), EXPORT_OPTIONS + "&includeRequestFolder=true"), executor));
+            new TreeMap<String, Collection<String>>(exportEntities).forEach((entityType, names) -> {
+                final RestmanEntity entity = RESTMAN_ENTITIES.get(entityType);
+                partialBundles.add(supplyAsync(() -> findIds(connection, entity, names), executor)
+                        .thenApply(ids -> ids.isEmpty() ? null : exportBundle(connection, singletonMap(entity.bundleParameter, ids), EXPORT_OPTIONS)));
+            });
+
+            final List<Document> bundles = partialBundles.stream().map(FutureUtils::join).filter(Objects::nonNull).collect(toList());
+            return bundleMerger.merge(bundles);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private Document exportBundle(final Connection connection, final Map<String, List<String>> parameters, final String options) {
+        final String query = "?" + queryParameters(parameters) + "&" + options;
+        LOGGER.log(Level.INFO, "Exporting with query: {0}", query);
+        return call(connection, getRestmanBundleEndpoint(connection.url) + query);
+    }
+
+    private List<String> findIds(final Connection connection, final RestmanEntity entity, final Collection<String> names) {
+        if (names.isEmpty()) {
+            return Collections.emptyList();
+        }
+        final Document list = call(connection, getRestmanEndpoint(connection.url, entity.collection) + "?" + queryParameters(singletonMap(entity.nameFilter, new ArrayList<>(names))));
+        // missing entities are reported when the bundle is exploded
+        return getChildElements(list.getDocumentElement(), ITEM).stream().map(item -> getSingleChildElementTextContent(item, ID)).collect(toList());
+    }
+
+    private List<Element> resolveFolderPath(final Connection connection, final String folderPath) {
+        final List<Element> folderItems = getChildElements(call(connection, getRestmanEndpoint(connection.url, "folders")).getDocumentElement(), ITEM);
+        final List<Element> path = new ArrayList<>();
+        Element current = folderItems.stream().filter(item -> parentId(item).isEmpty()).findFirst()
+                .orElseThrow(() -> new ScopedExportException("Could not find the root folder in the gateway"));
+        path.add(current);
+        for (String name : folderNames(folderPath)) {
+            final String parentId = id(current);
+            current = folderItems.stream().filter(item -> parentId.equals(parentId(item)) && name.equals(getSingleChildElementTextContent(folder(item), NAME))).findFirst()
+                    .orElseThrow(() -> new ScopedExportException("Could not find folder '" + folderPath + "' in the gateway"));
+            path.add(current);
+        }
+        return path;
+    }
+
+    private Document buildFoldersBundle(final List<Element> folderItems) {
+        final Document document = documentTools.getDocumentBuilder().newDocument();
+        final Element references = document.createElement(REFERENCES);
+        final Element mappings = document.createElement(MAPPINGS);
+        for (Element folderItem : folderItems) {
+            final Element item = (Element) document.importNode(folderItem, true);
+            getChildElements(item, LINK).forEach(item::removeChild);
+            references.appendChild(item);
+            mappings.appendChild(createElementWithAttributes(document, MAPPING, ImmutableMap.of(
+                    ATTRIBUTE_ACTION, "NewOrExisting",
+                    ATTRIBUTE_SRCID, id(folderItem),
+                    ATTRIBUTE_TYPE, "FOLDER")));
+        }
+        final Element bundle = createElementWithChildren(document, BUNDLE, references, mappings);
+        bundle.setAttribute("xmlns:l7", "http://ns.l7tech.com/2010/04/gateway-management");
+        document.appendChild(bundle);
+        return document;
+    }
+
+    private Document call(final Connection connection, final String uri) {
+        final RequestBuilder request = get().setUri(uri);
+        try (InputStream response = gatewayClient.makeGatewayAPICall(request, connection.userName, connection.password)) {
+            return documentTools.parse(response);
+        } catch (DocumentParseException | IOException e) {
+            throw new ScopedExportException("Could not read response from " + uri, e);
+        }
+    }
+
+    private static List<String> folderNames(final String folderPath) {
+        return Arrays.stream(folderPath == null ? new String[0] : folderPath.split("/")).filter(s -> !s.isEmpty()).collect(toList());
+    }
+
+    private static String queryParameters(final Map<String, List<String>> parameters) {
+        return parameters.entrySet().stream()
+                .flatMap(e -> e.getValue().stream().map(value -> e.getKey() + "=" + encode(value)))
+                .collect(joining("&"));
+    }
+
+    private static String encode(final String value) {
+        try {
+            return URLEncoder.encode(value, UTF_8.name());
+        } catch (UnsupportedEncodingException e) {
+            throw new ScopedExportException("Could not encode query parameter: " + value, e);
+        }
+    }
+
+    private static Element folder(final Element folderItem) {
+        return getSingleChildElement(getSingleChildElement(folderItem, RESOURCE), FOLDER);
+    }
+
+    private static String id(final Element folderItem) {
+        return getSingleChildElementTextContent(folderItem, ID);
+    }
+
+    private static String parentId(final Element folderItem) {
+        return folder(folderItem).getAttribute(ATTRIBUTE_FOLDER_ID);
+    }
+
+    /**
+     * Gateway connection details used for the scoped queries.
+     */
+    public static class Connection {
+        private final String url;
+        private final String userName;
+        private final String password;
+
+        public Connection(final String url, final String userName, final String password) {
+            this.url = url;
+            this.userName = userName;
+            this.password = password;
+        }
+    }
+
+    private static class RestmanEntity {
+        private final String collection;
+        private final String bundleParameter;
+        private final String nameFilter;
+
+        RestmanEntity(final String collection, final String bundleParameter, final String nameFilter) {
+            this.collection = collection;
+            this.bundleParameter = bundleParameter;
+            this.nameFilter = nameFilter;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.sanitize;
+
+public class BundleSanitizeException extends RuntimeException {
+    public BundleSanitizeException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
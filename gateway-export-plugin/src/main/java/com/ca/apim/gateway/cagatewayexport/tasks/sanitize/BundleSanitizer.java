@@ -0,0 +1,282 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.sanitize;
+
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.AttributesImpl;
+
+import javax.inject.Inject;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import javax.xml.transform.sax.TransformerHandler;
+import javax.xml.transform.stream.StreamResult;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static javax.xml.stream.XMLStreamConstants.*;
+import static org.apache.commons.lang3.StringUtils.EMPTY;
+import static org.apache.commons.lang3.StringUtils.defaultString;
+
+/**
+ * Streaming equivalent of the sanitize-bundle stylesheet. The exported bundle is pulled item by item with StAX and the
+ * sanitized events are pushed straight into the serializer, so memory use does not depend on the size of the bundle.
+ * The produced output is byte for byte the same as the one produced by the stylesheet.
+ */
+public class BundleSanitizer {
+
+    private static final String L7_NAMESPACE = "http://ns.l7tech.com/2010/04/gateway-management";
+    private static final String[] REFERENCED_RESOURCE_PATH = {"Bundle", "References", "Item", "Resource"};
+    private static final String[] SERVICE_DETAIL_PATH = {"Bundle", "References", "Item", "Resource", "Service", "ServiceDetail"};
+    private static final String[] SERVICE_RESOURCE_PATH = {"Bundle", "References", "Item", "Resource", "Service", "Resources", "ResourceSet", "Resource"};
+    private static final String[] MAPPING_PATH = {"Bundle", "Mappings", "Mapping"};
+    private static final String[] ROOT_ITEM_REMOVED_ELEMENTS = {"Name", "Type", "TimeStamp", "Link"};
+
+    private final DocumentTools documentTools;
+    private final XMLInputFactory inputFactory;
+
+    @Inject
+    public BundleSanitizer(final DocumentTools documentTools) {
+        this.documentTools = documentTools;
+        this.inputFactory = XMLInputFactory.newInstance();
+        // text nodes have to be reported in one piece, the same way the stylesheet sees them
+        this.inputFactory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        this.inputFactory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+    }
+
+    /**
+     * Sanitizes the bundle read from the input stream, writing the result into the output stream. Removes timestamps,
+     * versions, revisions and source uris from the exported bundle, unwrapping it from the export item if needed.
+     *
+     * @param inputStream  the exported bundle
+     * @param outputStream where to write the sanitized bundle
+     */
+    public void sanitize(final InputStream inputStream, final OutputStream outputStream) {
+        XMLStreamReader reader = null;
+        try {
+            reader = inputFactory.createXMLStreamReader(inputStream);
+            final TransformerHandler transformerHandler = documentTools.getTransformerHandler();
+            transformerHandler.setResult(new StreamResult(outputStream));
+            new Sanitization(reader, transformerHandler).run();
+        } catch (XMLStreamException | SAXException e) {
+            throw new BundleSanitizeException("Exception sanitizing bundle: " + e.getMessage(), e);
+        } finally {
+            closeQuietly(reader);
+        }
+    }
+
+    private static void closeQuietly(XMLStreamReader reader) {
+        if (reader != null) {
+            try {
+                reader.close();
+            } catch (XMLStreamException e) {
+                // nothing to be done, the stream itself is closed by the caller
+            }
+        }
+    }
+
+    private enum ElementAction {
+        COPY, UNWRAP, REMOVE
+    }
+
+    /**
+     * State of a single sanitization run.
+     */
+    private static class Sanitization {
+        private final XMLStreamReader reader;
+        private final TransformerHandler handler;
+        // names of the open source elements, l7 elements by local name and any other one as null
+        private final List<String> path = new ArrayList<>();
+        private final Deque<ElementAction> actions = new ArrayDeque<>();
+        private final Deque<List<String>> startedPrefixes = new ArrayDeque<>();
+        // namespaces declared on unwrapped elements, to be declared in the first copied elements below them
+        private final List<String[]> unwrappedNamespaces = new ArrayList<>();
+        private int removedDepth;
+
+        Sanitization(final XMLStreamReader reader, final TransformerHandler handler) {
+            this.reader = reader;
+            this.handler = handler;
+        }
+
+        void run() throws XMLStreamException, SAXException {
+            handler.startDocument();
+            while (reader.hasNext()) {
+                final int event = reader.next();
+                if (removedDepth > 0) {
+                    skip(event);
+                    continue;
+                }
+                switch (event) {
+                    case START_ELEMENT:
+                        startElement();
+                        break;
+                    case END_ELEMENT:
+                        endElement();
+                        break;
+                    case CHARACTERS:
+                    case CDATA:
+                    case SPACE:
+                        // text outside of the document element is not part of the document
+                        if (!path.isEmpty()) {
+                            handler.characters(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                        break;
+                    case COMMENT:
+                        handler.comment(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        break;
+                    case PROCESSING_INSTRUCTION:
+                        handler.processingInstruction(reader.getPITarget(), defaultString(reader.getPIData()));
+                        break;
+                    default:
+                        break;
+                }
+            }
+            handler.endDocument();
+        }
+
+        private void skip(int event) {
+            if (event == START_ELEMENT) {
+                removedDepth++;
+            } else if (event == END_ELEMENT) {
+                removedDepth--;
+            }
+        }
+
+        private void startElement() throws SAXException {
+            path.add(L7_NAMESPACE.equals(reader.getNamespaceURI()) ? reader.getLocalName() : null);
+            final ElementAction action = elementAction();
+            if (action == ElementAction.REMOVE) {
+                path.remove(path.size() - 1);
+                removedDepth = 1;
+                return;
+            }
+
+            actions.push(action);
+            if (action == ElementAction.UNWRAP) {
+                for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                    unwrappedNamespaces.add(new String[]{defaultString(reader.getNamespacePrefix(i)), defaultString(reader.getNamespaceURI(i))});
+                }
+                return;
+            }
+
+            final List<String> prefixes = new ArrayList<>();
+            if (isParentUnwrapped()) {
+                for (String[] namespace : unwrappedNamespaces) {
+                    startPrefixMapping(namespace[0], namespace[1], prefixes);
+                }
+            }
+            for (int i = 0; i < reader.getNamespaceCount(); i++) {
+                startPrefixMapping(defaultString(reader.getNamespacePrefix(i)), defaultString(reader.getNamespaceURI(i)), prefixes);
+            }
+            startedPrefixes.push(prefixes);
+
+            final AttributesImpl attributes = new AttributesImpl();
+            for (int i = 0; i < reader.getAttributeCount(); i++) {
+                final String namespace = defaultString(reader.getAttributeNamespace(i));
+                final String localName = reader.getAttributeLocalName(i);
+                if (namespace.isEmpty() && isRemovedAttribute(localName)) {
+                    continue;
+                }
+                attributes.addAttribute(namespace, localName, qualifiedName(reader.getAttributePrefix(i), localName), "CDATA", reader.getAttributeValue(i));
+            }
+            handler.startElement(defaultString(reader.getNamespaceURI()), reader.getLocalName(), qualifiedName(reader.getPrefix(), reader.getLocalName()), attributes);
+        }
+
+        private void endElement() throws SAXException {
+            path.remove(path.size() - 1);
+            final ElementAction action = actions.pop();
+            if (action == ElementAction.UNWRAP) {
+                return;
+            }
+            handler.endElement(defaultString(reader.getNamespaceURI()), reader.getLocalName(), qualifiedName(reader.getPrefix(), reader.getLocalName()));
+            for (String prefix : startedPrefixes.pop()) {
+                handler.endPrefixMapping(prefix);
+            }
+        }
+
+        private void startPrefixMapping(String prefix, String uri, List<String> prefixes) throws SAXException {
+            handler.startPrefixMapping(prefix, uri);
+            prefixes.add(prefix);
+        }
+
+        private boolean isParentUnwrapped() {
+            // actions has the current element on top, the parent is the next one
+            return actions.stream().skip(1).findFirst().orElse(ElementAction.COPY) == ElementAction.UNWRAP;
+        }
+
+        private ElementAction elementAction() {
+            final int depth = path.size() - 1;
+            final String name = path.get(depth);
+            final boolean rootItem = "Item".equals(path.get(0));
+            if (depth == 0 && rootItem || depth == 1 && rootItem && "Resource".equals(name)) {
+                return ElementAction.UNWRAP;
+            }
+            if (depth == 1 && rootItem && isOneOf(name, ROOT_ITEM_REMOVED_ELEMENTS) || "TimeStamp".equals(name)) {
+                return ElementAction.REMOVE;
+            }
+            if ("Property".equals(name) && isRevisionProperty() && isBelowReferencedResource()) {
+                return ElementAction.REMOVE;
+            }
+            return ElementAction.COPY;
+        }
+
+        private boolean isRevisionProperty() {
+            final String key = reader.getAttributeValue(EMPTY, "key");
+            return "revision".equals(key) || "policyRevision".equals(key);
+        }
+
+        private boolean isBelowReferencedResource() {
+            // the property has to be a descendant of a referenced item resource, at any level
+            for (int i = 0; i + REFERENCED_RESOURCE_PATH.length < path.size(); i++) {
+                if (pathMatches(i, REFERENCED_RESOURCE_PATH)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private boolean isRemovedAttribute(String attributeName) {
+            final int depth = path.size() - 1;
+            if ("version".equals(attributeName)) {
+                return pathMatches(depth - REFERENCED_RESOURCE_PATH.length, REFERENCED_RESOURCE_PATH)
+                        || pathMatches(depth + 1 - SERVICE_DETAIL_PATH.length, SERVICE_DETAIL_PATH)
+                        || pathMatches(depth + 1 - SERVICE_RESOURCE_PATH.length, SERVICE_RESOURCE_PATH);
+            }
+            return "srcUri".equals(attributeName) && pathMatches(depth + 1 - MAPPING_PATH.length, MAPPING_PATH);
+        }
+
+        private boolean pathMatches(int start, String[] expected) {
+            if (start < 0 || start + expected.length > path.size()) {
+                return false;
+            }
+            for (int i = 0; i < expected.length; i++) {
+                if (!expected[i].equals(path.get(start + i))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isOneOf(String name, String[] names) {
+            for (String candidate : names) {
+                if (candidate.equals(name)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private static String qualifiedName(String prefix, String localName) {
+            return prefix == null || prefix.isEmpty() ? localName : prefix + ":" + localName;
+        }
+    }
+}
@@ -14,30 +14,31 @@ import org.gradle.api.tasks.OutputFile;
 import org.gradle.api.tasks.TaskAction;
 
 import javax.inject.Inject;
-import javax.xml.transform.Transformer;
-import javax.xml.transform.TransformerException;
-import javax.xml.transform.stream.StreamResult;
-import javax.xml.transform.stream.StreamSource;
-import java.io.FileNotFoundException;
-import java.io.FileOutputStream;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
 
 public class SanitizeBundleTask extends DefaultTask {
-    private final Transformer transformer;
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final BundleSanitizer bundleSanitizer;
 
     private RegularFileProperty inputBundleFile;
     private RegularFileProperty outputBundleFile;
 
     @Inject
     public SanitizeBundleTask() {
-        this(DocumentTools.INSTANCE);
+        this(new BundleSanitizer(DocumentTools.INSTANCE));
     }
 
-    private SanitizeBundleTask(final DocumentTools documentTools) {
+    private SanitizeBundleTask(final BundleSanitizer bundleSanitizer) {
         inputBundleFile = newInputFile();
         outputBundleFile = newOutputFile();
 
-        final StreamSource stylesheet = new StreamSource(this.getClass().getResourceAsStream("/sanitize-bundle.xsl"));
-        transformer = documentTools.getTransformer(stylesheet);
+        this.bundleSanitizer = bundleSanitizer;
     }
 
     @InputFile
@@ -51,9 +52,10 @@ public class SanitizeBundleTask extends DefaultTask {
     }
 
     @TaskAction
-    public void perform() throws TransformerException, FileNotFoundException {
-        final StreamSource source = new StreamSource(inputBundleFile.getAsFile().get());
-        final StreamResult streamResult = new StreamResult(new FileOutputStream(outputBundleFile.getAsFile().get()));
-        transformer.transform(source, streamResult);
+    public void perform() throws IOException {
+        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(inputBundleFile.getAsFile().get().toPath()), BUFFER_SIZE);
+             OutputStream outputStream = new BufferedOutputStream(Files.newOutputStream(outputBundleFile.getAsFile().get().toPath()), BUFFER_SIZE)) {
+            bundleSanitizer.sanitize(inputStream, outputStream);
+        }
     }
 }
@@ -6,6 +6,7 @@
 
 package com.ca.apim.gateway.cagatewayexport.util.policy;
 
+import com.ca.apim.gateway.cagatewayconfig.beans.ElementStore;
 import com.ca.apim.gateway.cagatewayconfig.beans.Policy;
 import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
 import org.w3c.dom.Element;
@@ -28,13 +29,15 @@ public class EncassPolicyXMLSimplifier {
     /**
      *
      * @param policy encass policy.
+     * @param elementStore where the policy document is kept
      * @return true if ApiPortalEncassIntegration assertion is present and enabled else false.
      */
-    public String simplifyEncassPolicyXML(Policy policy) {
+    public String simplifyEncassPolicyXML(Policy policy, ElementStore elementStore) {
+        final Element policyDocument = policy.getPolicyDocument();
         Element encassPortalIntegrationElement = null;
         Element encassPortalIntegrationEnabledElement = null;
         try {
-            encassPortalIntegrationElement = getSingleElement(policy.getPolicyDocument(), API_PORTAL_ENCASS_INTEGRATION);
+            encassPortalIntegrationElement = getSingleElement(policyDocument, API_PORTAL_ENCASS_INTEGRATION);
         } catch (DocumentParseException e) {
             LOGGER.log(Level.INFO, "ApiPortalEncassIntegration assertion is not found in encass policy : {0}, setting portalTemplate as false : ", policy.getName());
         }
@@ -43,6 +46,8 @@ public class EncassPolicyXMLSimplifier {
             Element encassPortalIntegrationParentElement = (Element) encassPortalIntegrationElement.getParentNode();
             encassPortalIntegrationEnabledElement = getSingleChildElement(encassPortalIntegrationElement, ENABLED, true);
             encassPortalIntegrationParentElement.removeChild(encassPortalIntegrationElement);
+            // kept again, the store may not hold the document that was changed
+            policy.setPolicyDocumentSource(elementStore.keep(policyDocument));
         }
         return encassPortalIntegrationElement != null && encassPortalIntegrationEnabledElement == null ? "true" : "false";
     }
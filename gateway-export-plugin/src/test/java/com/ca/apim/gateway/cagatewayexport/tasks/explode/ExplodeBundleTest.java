@@ -0,0 +1,62 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.explode;
+
+import com.ca.apim.gateway.cagatewayconfig.util.injection.InjectionRegistry;
+import com.ca.apim.gateway.cagatewayexport.tasks.explode.filter.FilterConfiguration;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static com.ca.apim.gateway.cagatewayexport.tasks.explode.ExplodeBundle.SPILL_TO_DISK;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ExplodeBundleTest {
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void explodeWithEntityStore(TemporaryFolder temporaryFolder) throws Exception {
+        final File bundleFile = new File(Objects.requireNonNull(getClass().getClassLoader().getResource("bundles/environment-properties-test.bundle")).toURI());
+        final File explodeDir = temporaryFolder.createDirectory("explode");
+        final File spillExplodeDir = temporaryFolder.createDirectory("spill");
+
+        final ExplodeBundle explodeBundle = InjectionRegistry.getInstance(ExplodeBundle.class);
+        explodeBundle.explodeBundle("/environment-variable", new FilterConfiguration(), bundleFile, explodeDir);
+        System.setProperty(SPILL_TO_DISK, "true");
+        try {
+            explodeBundle.explodeBundle("/environment-variable", new FilterConfiguration(), bundleFile, spillExplodeDir);
+        } finally {
+            System.clearProperty(SPILL_TO_DISK);
+        }
+
+        final List<Path> files = listFiles(explodeDir.toPath());
+        assertFalse(files.isEmpty());
+        assertEquals(files, listFiles(spillExplodeDir.toPath()));
+        for (Path file : files) {
+            // unsupported entities are written in no particular order
+            if (!file.endsWith("unsupported-entities.xml")) {
+                assertArrayEquals(Files.readAllBytes(explodeDir.toPath().resolve(file)), Files.readAllBytes(spillExplodeDir.toPath().resolve(file)), file.toString());
+            }
+        }
+    }
+
+    private static List<Path> listFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.walk(directory)) {
+            return files.filter(Files::isRegularFile).map(directory::relativize).sorted().collect(Collectors.toList());
+        }
+    }
+}
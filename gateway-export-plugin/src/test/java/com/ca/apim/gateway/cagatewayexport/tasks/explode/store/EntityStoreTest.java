@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.explode.store;
+
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentParseException;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import io.github.glytching.junit.extension.folder.TemporaryFolder;
+import io.github.glytching.junit.extension.folder.TemporaryFolderExtension;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import java.io.File;
+import java.net.URISyntaxException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static org.junit.jupiter.api.Assertions.*;
+
+class EntityStoreTest {
+
+    private final DocumentTools documentTools = DocumentTools.INSTANCE;
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void loadItems(TemporaryFolder temporaryFolder) throws URISyntaxException, DocumentParseException {
+        final File bundleFile = new File(Objects.requireNonNull(getClass().getClassLoader().getResource("bundles/export-test.bundle")).toURI());
+        final Document bundleDocument = documentTools.parse(bundleFile);
+        documentTools.cleanup(bundleDocument);
+        final NodeList bundleItems = bundleDocument.getDocumentElement().getElementsByTagName(ITEM);
+
+        try (EntityStore entityStore = new EntityStore(documentTools, temporaryFolder.getRoot())) {
+            entityStore.load(bundleFile);
+
+            assertEquals(bundleItems.getLength(), entityStore.getItemCount());
+            final List<Element> items = new ArrayList<>();
+            entityStore.forEachItem(items::add);
+            for (int i = 0; i < bundleItems.getLength(); i++) {
+                final Element bundleItem = (Element) bundleItems.item(i);
+                assertEquals(ITEM, items.get(i).getTagName());
+                assertEquals(getSingleChildElement(bundleItem, TYPE).getTextContent(), getSingleChildElement(items.get(i), TYPE).getTextContent());
+                assertEquals(getSingleChildElement(bundleItem, ID).getTextContent(), getSingleChildElement(items.get(i), ID).getTextContent());
+                assertEquals(bundleItem.getTextContent(), items.get(i).getTextContent());
+            }
+
+            final Element dependencyGraph = entityStore.getDependencyGraph();
+            assertNotNull(dependencyGraph);
+            assertEquals(getSingleChildElement(bundleDocument.getDocumentElement(), DEPENDENCY_GRAPH).getTextContent(), dependencyGraph.getTextContent());
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void keepElement(TemporaryFolder temporaryFolder) throws DocumentParseException {
+        final Element element = documentTools.parse("<l7:Service id=\"1\"><l7:Name>my-service</l7:Name></l7:Service>").getDocumentElement();
+
+        try (EntityStore entityStore = new EntityStore(documentTools, temporaryFolder.getRoot())) {
+            final Supplier<Element> kept = entityStore.keep(element);
+            assertFalse(entityStore.keepsInMemory());
+            assertTrue(entityStore.size() > 0);
+
+            final Element read = kept.get();
+            assertNotSame(element, read);
+            assertEquals("1", read.getAttribute("id"));
+            assertEquals("my-service", getSingleChildElement(read, NAME).getTextContent());
+
+            // changes are not kept until the element is kept again
+            read.setAttribute("id", "2");
+            assertEquals("1", kept.get().getAttribute("id"));
+            assertEquals("2", entityStore.keep(read).get().getAttribute("id"));
+        }
+    }
+
+    @Test
+    @ExtendWith(TemporaryFolderExtension.class)
+    void closeDeletesStore(TemporaryFolder temporaryFolder) throws DocumentParseException {
+        final EntityStore entityStore = new EntityStore(documentTools, temporaryFolder.getRoot());
+        entityStore.keep(documentTools.parse("<l7:Name>name</l7:Name>").getDocumentElement());
+
+        entityStore.close();
+        assertEquals(0, Objects.requireNonNull(temporaryFolder.getRoot().list()).length);
+    }
+}
@@ -15,7 +15,11 @@ import org.w3c.dom.Node;
 import org.w3c.dom.NodeList;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @ExtendWith(TemporaryFolderExtension.class)
@@ -107,4 +111,40 @@ public class UnsupportedEntityWriterTest {
         File unsupportedEntitiesXml = new File(configFolder, "unsupported-entities.xml");
         assertTrue(unsupportedEntitiesXml.exists());
     }
+
+    @Test
+    void testWriteSortedByTypeAndId(final TemporaryFolder temporaryFolder) throws DocumentParseException {
+        UnsupportedEntityWriter writer = new UnsupportedEntityWriter(DocumentFileUtils.INSTANCE, DocumentTools.INSTANCE);
+        Document document = DocumentTools.INSTANCE.parse("<l7:Items xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">" +
+                "<l7:CustomAssertion id=\"c2\"/><l7:ActiveConnector id=\"a1\"/><l7:CustomAssertion id=\"c1\"/></l7:Items>");
+        NodeList elements = document.getDocumentElement().getChildNodes();
+        Bundle bundle = new Bundle();
+        bundle.getUnsupportedEntities().put("c2", unsupportedEntity("CUSTOM_ASSERTION", "c2", (Element) elements.item(0)));
+        bundle.getUnsupportedEntities().put("a1", unsupportedEntity("SSG_ACTIVE", "a1", (Element) elements.item(1)));
+        bundle.getUnsupportedEntities().put("c1", unsupportedEntity("CUSTOM_ASSERTION", "c1", (Element) elements.item(2)));
+
+        writer.write(bundle, temporaryFolder.getRoot(), bundle);
+
+        Document written = DocumentTools.INSTANCE.parse(new File(new File(temporaryFolder.getRoot(), "config"), "unsupported-entities.xml"));
+        Element items = written.getDocumentElement();
+        assertEquals("l7:Items", items.getTagName());
+        assertEquals("http://ns.l7tech.com/2010/04/gateway-management", items.getAttribute("xmlns:l7"));
+        List<String> ids = new ArrayList<>();
+        NodeList writtenElements = items.getChildNodes();
+        for (int i = 0; i < writtenElements.getLength(); i++) {
+            if (writtenElements.item(i) instanceof Element) {
+                ids.add(((Element) writtenElements.item(i)).getAttribute("id"));
+            }
+        }
+        assertEquals(Arrays.asList("c1", "c2", "a1"), ids);
+    }
+
+    private static UnsupportedGatewayEntity unsupportedEntity(String type, String id, Element element) {
+        UnsupportedGatewayEntity unsupportedGatewayEntity = new UnsupportedGatewayEntity();
+        unsupportedGatewayEntity.setName(id);
+        unsupportedGatewayEntity.setId(id);
+        unsupportedGatewayEntity.setType(type);
+        unsupportedGatewayEntity.setElement(element);
+        return unsupportedGatewayEntity;
+    }
 }
@@ -0,0 +1,201 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.export;
+
+import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import com.google.common.collect.ImmutableMap;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.ca.apim.gateway.cagatewayconfig.util.gateway.BundleElementNames.*;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getChildElements;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElement;
+import static com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentUtils.getSingleChildElementTextContent;
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static java.util.Collections.emptyMap;
+import static java.util.Collections.singletonList;
+import static java.util.stream.Collectors.toList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ScopedBundleExporterTest {
+
+    private static final String ROOT_ID = "0000000000000000ffffffffffffec76";
+    private static final String TEAM_ID = "team-folder";
+    private static final String API_ID = "api-folder";
+    private static final String OTHER_ID = "other-folder";
+
+    private static final String FOLDERS = "<l7:List xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">" +
+            "<l7:Name>FOLDER List</l7:Name><l7:Type>List</l7:Type>" +
+            folder(ROOT_ID, null, "Root Node") +
+            folder(OTHER_ID, ROOT_ID, "other") +
+            folder(TEAM_ID, ROOT_ID, "team") +
+            folder(API_ID, TEAM_ID, "api") +
+            folder("api-elsewhere", OTHER_ID, "api") +
+            "</l7:List>";
+
+    private static final String FOLDER_BUNDLE = "<l7:Item xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">" +
+            "<l7:Name>Bundle exported</l7:Name><l7:Type>BUNDLE</l7:Type>" +
+            "<l7:Resource><l7:Bundle>" +
+            "<l7:References>" +
+            item(API_ID, "FOLDER", "api") +
+            item("shared-property", "CLUSTER_PROPERTY", "shared") +
+            item("api-policy", "POLICY", "api-policy") +
+            "</l7:References>" +
+            "<l7:Mappings>" +
+            mapping(API_ID, "FOLDER") +
+            mapping("shared-property", "CLUSTER_PROPERTY") +
+            mapping("api-policy", "POLICY") +
+            "</l7:Mappings>" +
+            "<l7:DependencyGraph><l7:Dependencies>" +
+            dependency("api-policy", "POLICY", "api-policy") +
+            dependency("shared-property", "CLUSTER_PROPERTY", "shared") +
+            "</l7:Dependencies></l7:DependencyGraph>" +
+            "</l7:Bundle></l7:Resource></l7:Item>";
+
+    private static final String PROPERTIES = "<l7:List xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">" +
+            item("shared-property", "CLUSTER_PROPERTY", "shared") +
+            item("team-property", "CLUSTER_PROPERTY", "team property") +
+            "</l7:List>";
+
+    private static final String PROPERTIES_BUNDLE = "<l7:Item xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">" +
+            "<l7:Resource><l7:Bundle>" +
+            "<l7:References>" +
+            item("shared-property", "CLUSTER_PROPERTY", "shared") +
+            item("team-property", "CLUSTER_PROPERTY", "team property") +
+            "</l7:References>" +
+            "<l7:Mappings>" +
+            mapping("shared-property", "CLUSTER_PROPERTY") +
+            mapping("team-property", "CLUSTER_PROPERTY") +
+            "</l7:Mappings>" +
+            "<l7:DependencyGraph><l7:Dependencies>" +
+            dependency("shared-property", "CLUSTER_PROPERTY", "shared") +
+            dependency("team-property", "CLUSTER_PROPERTY", "team property") +
+            "</l7:Dependencies></l7:DependencyGraph>" +
+            "</l7:Bundle></l7:Resource></l7:Item>";
+
+    private final Queue<String> requests = new ConcurrentLinkedQueue<>();
+    private final Map<String, String> responses = new HashMap<>();
+    private HttpServer server;
+    private ScopedBundleExporter.Connection connection;
+    private ScopedBundleExporter exporter;
+
+    @BeforeEach
+    void before() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/restman/1.0/", this::respond);
+        server.start();
+        connection = new ScopedBundleExporter.Connection("http://localhost:" + server.getAddress().getPort() + "/restman", "admin", "password");
+        exporter = new ScopedBundleExporter(GatewayClient.INSTANCE, DocumentTools.INSTANCE, new BundleMerger());
+
+        responses.put("/restman/1.0/folders", FOLDERS);
+        responses.put("/restman/1.0/bundle?folder=" + API_ID + "&" + ScopedBundleExporter.EXPORT_OPTIONS + "&includeRequestFolder=true", FOLDER_BUNDLE);
+        responses.put("/restman/1.0/clusterProperties?name=shared&name=team+property", PROPERTIES);
+        responses.put("/restman/1.0/bundle?clusterProperty=shared-property&clusterProperty=team-property&" + ScopedBundleExporter.EXPORT_OPTIONS, PROPERTIES_BUNDLE);
+    }
+
+    @AfterEach
+    void after() {
+        server.stop(0);
+    }
+
+    @Test
+    void exportFolderAndEntities() {
+        Document bundle = exporter.export(connection, "/team/api", ImmutableMap.of("clusterProperties", Arrays.asList("shared", "team property")));
+
+        assertFalse(requests.stream().anyMatch(r -> r.contains("all=true")), "The whole gateway should not be exported");
+        assertEquals(4, requests.size());
+
+        Element bundleElement = bundle.getDocumentElement();
+        assertEquals(BUNDLE, bundleElement.getNodeName());
+        List<String> references = getChildElements(getSingleChildElement(bundleElement, REFERENCES), ITEM).stream().map(e -> getSingleChildElementTextContent(e, ID)).collect(toList());
+        assertEquals(Arrays.asList(ROOT_ID, TEAM_ID, API_ID, "shared-property", "api-policy", "team-property"), references);
+
+        List<String> mappings = getChildElements(getSingleChildElement(bundleElement, MAPPINGS), MAPPING).stream().map(e -> e.getAttribute(ATTRIBUTE_SRCID)).collect(toList());
+        assertEquals(references, mappings);
+
+        Element dependencies = getSingleChildElement(getSingleChildElement(bundleElement, DEPENDENCY_GRAPH), DEPENDENCIES);
+        assertEquals(3, getChildElements(dependencies, DEPENDENCY).size());
+
+        Element teamFolder = getSingleChildElement(getSingleChildElement((Element) bundleElement.getElementsByTagName(ITEM).item(1), RESOURCE), FOLDER);
+        assertEquals(ROOT_ID, teamFolder.getAttribute(ATTRIBUTE_FOLDER_ID));
+        assertEquals(0, bundleElement.getElementsByTagName(LINK).getLength());
+    }
+
+    @Test
+    void exportFolderWithoutEntities() {
+        Document bundle = exporter.export(connection, "team/api/", emptyMap());
+
+        assertEquals(2, requests.size());
+        List<String> references = getChildElements(getSingleChildElement(bundle.getDocumentElement(), REFERENCES), ITEM).stream().map(e -> getSingleChildElementTextContent(e, ID)).collect(toList());
+        assertEquals(Arrays.asList(ROOT_ID, TEAM_ID, API_ID, "shared-property", "api-policy"), references);
+    }
+
+    @Test
+    void exportMissingEntities() {
+        responses.put("/restman/1.0/clusterProperties?name=missing", "<l7:List xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\"/>");
+        Document bundle = exporter.export(connection, "/team/api", ImmutableMap.of("clusterProperties", singletonList("missing")));
+
+        assertFalse(requests.stream().anyMatch(r -> r.contains("clusterProperty=")));
+        assertEquals(5, getChildElements(getSingleChildElement(bundle.getDocumentElement(), REFERENCES), ITEM).size());
+    }
+
+    @Test
+    void exportMissingFolder() {
+        ScopedExportException exception = assertThrows(ScopedExportException.class, () -> exporter.export(connection, "/team/missing", emptyMap()));
+        assertTrue(exception.getMessage().contains("/team/missing"));
+    }
+
+    @Test
+    void canScope() {
+        assertTrue(ScopedBundleExporter.canScope("/team", ImmutableMap.of("passwords", singletonList("password"))));
+        assertFalse(ScopedBundleExporter.canScope("/", emptyMap()));
+        assertFalse(ScopedBundleExporter.canScope(null, emptyMap()));
+        assertFalse(ScopedBundleExporter.canScope("/team", ImmutableMap.of("unknownEntities", singletonList("entity"))));
+    }
+
+    private void respond(HttpExchange exchange) throws IOException {
+        String request = exchange.getRequestURI().toString();
+        requests.add(request);
+        String response = responses.get(request);
+        byte[] body = (response == null ? "Not found: " + request : response).getBytes(UTF_8);
+        exchange.sendResponseHeaders(response == null ? 404 : 200, body.length);
+        try (OutputStream outputStream = exchange.getResponseBody()) {
+            outputStream.write(body);
+        }
+    }
+
+    private static String folder(String id, String parentId, String name) {
+        return "<l7:Item><l7:Name>" + name + "</l7:Name><l7:Id>" + id + "</l7:Id><l7:Type>FOLDER</l7:Type>" +
+                "<l7:Link rel=\"self\" uri=\"/1.0/folders/" + id + "\"/>" +
+                "<l7:Resource><l7:Folder " + (parentId == null ? "" : "folderId=\"" + parentId + "\" ") + "id=\"" + id + "\"><l7:Name>" + name + "</l7:Name></l7:Folder></l7:Resource>" +
+                "</l7:Item>";
+    }
+
+    private static String item(String id, String type, String name) {
+        return "<l7:Item><l7:Name>" + name + "</l7:Name><l7:Id>" + id + "</l7:Id><l7:Type>" + type + "</l7:Type><l7:Resource/></l7:Item>";
+    }
+
+    private static String mapping(String id, String type) {
+        return "<l7:Mapping action=\"NewOrExisting\" srcId=\"" + id + "\" type=\"" + type + "\"/>";
+    }
+
+    private static String dependency(String id, String type, String name) {
+        return "<l7:Dependency><l7:Name>" + name + "</l7:Name><l7:Id>" + id + "</l7:Id><l7:Type>" + type + "</l7:Type></l7:Dependency>";
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2018 CA. All rights reserved.
+ * This software may be modified and distributed under the terms
+ * of the MIT license.  See the LICENSE file for details.
+ */
+
+package com.ca.apim.gateway.cagatewayexport.tasks.sanitize;
+
+import com.ca.apim.gateway.cagatewayconfig.util.xml.DocumentTools;
+import org.junit.jupiter.api.Test;
+
+import javax.xml.transform.TransformerException;
+import javax.xml.transform.stream.StreamResult;
+import javax.xml.transform.stream.StreamSource;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.apache.commons.io.IOUtils.toByteArray;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BundleSanitizerTest {
+
+    private static final String EXPORTED_ITEM = "<l7:Item xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">\n" +
+            "    <l7:Name>Bundle exported</l7:Name>\n" +
+            "    <l7:Type>BUNDLE</l7:Type>\n" +
+            "    <l7:TimeStamp>2018-09-04T23:29:19.370Z</l7:TimeStamp>\n" +
+            "    <l7:Link rel=\"self\" uri=\"/1.0/bundle\"/>\n" +
+            "    <l7:Resource>\n" +
+            "        <l7:Bundle>\n" +
+            "            <l7:References>\n" +
+            "                <l7:Item>\n" +
+            "                    <l7:Name>my-service</l7:Name>\n" +
+            "                    <l7:Id>b24e8f6047856b780f8237ff36fc3715</l7:Id>\n" +
+            "                    <l7:Type>SERVICE</l7:Type>\n" +
+            "                    <l7:TimeStamp>2018-09-04T23:29:19.370Z</l7:TimeStamp>\n" +
+            "                    <l7:Resource>\n" +
+            "                        <l7:Service id=\"b24e8f6047856b780f8237ff36fc3715\" version=\"3\">\n" +
+            "                            <l7:ServiceDetail folderId=\"0000000000000000ffffffffffffec76\" id=\"b24e8f6047856b780f8237ff36fc3715\" version=\"3\">\n" +
+            "                                <l7:Name>my-service</l7:Name>\n" +
+            "                                <l7:Properties>\n" +
+            "                                    <l7:Property key=\"policyRevision\">\n" +
+            "                                        <l7:LongValue>4</l7:LongValue>\n" +
+            "                                    </l7:Property>\n" +
+            "                                    <l7:Property key=\"soap\">\n" +
+            "                                        <l7:BooleanValue>false</l7:BooleanValue>\n" +
+            "                                    </l7:Property>\n" +
+            "                                </l7:Properties>\n" +
+            "                            </l7:ServiceDetail>\n" +
+            "                            <l7:Resources>\n" +
+            "                                <l7:ResourceSet tag=\"policy\">\n" +
+            "                                    <l7:Resource type=\"policy\" version=\"2\">&lt;wsp:Policy xmlns:wsp=\"http://schemas.xmlsoap.org/ws/2002/12/policy\"&gt;&lt;wsp:All/&gt;&lt;/wsp:Policy&gt;</l7:Resource>\n" +
+            "                                </l7:ResourceSet>\n" +
+            "                            </l7:Resources>\n" +
+            "                        </l7:Service>\n" +
+            "                    </l7:Resource>\n" +
+            "                </l7:Item>\n" +
+            "            </l7:References>\n" +
+            "            <l7:Mappings>\n" +
+            "                <!-- service mapping -->\n" +
+            "                <l7:Mapping action=\"NewOrExisting\" srcId=\"b24e8f6047856b780f8237ff36fc3715\" srcUri=\"https://localhost:8443/restman/1.0/services/b24e8f6047856b780f8237ff36fc3715\" type=\"SERVICE\"/>\n" +
+            "            </l7:Mappings>\n" +
+            "        </l7:Bundle>\n" +
+            "    </l7:Resource>\n" +
+            "</l7:Item>\n";
+
+    private final BundleSanitizer bundleSanitizer = new BundleSanitizer(DocumentTools.INSTANCE);
+
+    @Test
+    void sanitizeExportedItem() throws TransformerException {
+        byte[] bundle = EXPORTED_ITEM.getBytes(UTF_8);
+        byte[] sanitized = sanitize(bundle);
+
+        assertArrayEquals(sanitizeWithStylesheet(bundle), sanitized);
+
+        String sanitizedBundle = new String(sanitized, UTF_8);
+        assertTrue(sanitizedBundle.contains("<l7:Bundle xmlns:l7=\"http://ns.l7tech.com/2010/04/gateway-management\">"));
+        assertFalse(sanitizedBundle.contains("TimeStamp"));
+        assertFalse(sanitizedBundle.contains("version="));
+        assertFalse(sanitizedBundle.contains("policyRevision"));
+        assertFalse(sanitizedBundle.contains("srcUri"));
+        assertFalse(sanitizedBundle.contains("Bundle exported"));
+        assertTrue(sanitizedBundle.contains("<l7:Property key=\"soap\">"));
+        assertTrue(sanitizedBundle.contains("<!-- service mapping -->"));
+    }
+
+    @Test
+    void sanitizeExportedBundles() throws IOException, TransformerException {
+        for (String bundleName : new String[]{"export-test.bundle", "environment-properties-test.bundle", "missing-entities-test.bundle"}) {
+            byte[] bundle = readResource("/bundles/" + bundleName);
+            assertArrayEquals(sanitizeWithStylesheet(bundle), sanitize(bundle), bundleName + " is not sanitized as the stylesheet does");
+        }
+    }
+
+    @Test
+    void sanitizeInvalidBundle() {
+        assertThrows(BundleSanitizeException.class, () -> sanitize("<l7:Bundle xmlns:l7=\"urn:test\"><l7:References>".getBytes(UTF_8)));
+    }
+
+    private byte[] sanitize(byte[] bundle) {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        bundleSanitizer.sanitize(new ByteArrayInputStream(bundle), outputStream);
+        return outputStream.toByteArray();
+    }
+
+    private byte[] sanitizeWithStylesheet(byte[] bundle) throws TransformerException {
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        StreamSource stylesheet = new StreamSource(getClass().getResourceAsStream("/sanitize-bundle.xsl"));
+        DocumentTools.INSTANCE.getTransformer(stylesheet).transform(new StreamSource(new ByteArrayInputStream(bundle)), new StreamResult(outputStream));
+        return outputStream.toByteArray();
+    }
+
+    private byte[] readResource(String name) throws IOException {
+        try (InputStream inputStream = getClass().getResourceAsStream(name)) {
+            return toByteArray(inputStream);
+        }
+    }
+}
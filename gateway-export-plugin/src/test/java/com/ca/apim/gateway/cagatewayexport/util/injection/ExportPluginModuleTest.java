@@ -24,8 +24,10 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.reflections.Reflections;
 
+import java.util.Collection;
 import java.util.List;
 
+import static com.ca.apim.gateway.cagatewayconfig.util.json.JsonTools.JSON;
 import static java.util.stream.Collectors.toList;
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -81,6 +83,11 @@ class ExportPluginModuleTest {
         assertNotNull(registry.getEntityWriters());
         assertFalse(registry.getEntityWriters().isEmpty());
         assertTrue(registry.getEntityWriters().containsAll(writers));
+
+        assertSame(registry.getEntityWriters(), registry.getEntityWriters(JsonTools.INSTANCE));
+        final Collection<EntityWriter> jsonWriters = registry.getEntityWriters(JsonTools.INSTANCE.withOutputType(JSON));
+        assertEquals(registry.getEntityWriters().size(), jsonWriters.size());
+        assertTrue(jsonWriters.containsAll(writers));
     }
 
     @Test
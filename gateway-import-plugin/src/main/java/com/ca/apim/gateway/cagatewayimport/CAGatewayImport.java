@@ -14,9 +14,13 @@ import org.gradle.api.Project;
 import org.gradle.api.provider.Property;
 import org.jetbrains.annotations.NotNull;
 
+import java.io.File;
 import java.util.function.Supplier;
 
 public class CAGatewayImport implements Plugin<Project> {
+
+    private static final String IMPORT_MANIFEST = ".gradle/gateway-import-manifest.json";
+
     @Override
     public void apply(@NotNull final Project project) {
         // This plugin builds on the CAGatewayExportBase plugin to define conventions
@@ -32,6 +36,8 @@ public class CAGatewayImport implements Plugin<Project> {
         project.getTasks().create("import-bundle", ImportBundleTask.class, t -> {
             t.setGatewayConnectionProperties(gatewayConnectionProperties);
             t.setGatewayImportConfig(gatewayImportConfig);
+            // kept out of the build directory, so it survives clean builds
+            t.getManifest().set(new File(project.getProjectDir(), IMPORT_MANIFEST));
         });
     }
 
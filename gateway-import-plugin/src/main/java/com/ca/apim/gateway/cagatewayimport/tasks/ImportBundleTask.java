@@ -6,25 +6,29 @@
 
 package com.ca.apim.gateway.cagatewayimport.tasks;
 
+import com.ca.apim.gateway.cagatewayconfig.bundle.deploy.BundleImporter;
 import com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient;
 import com.ca.apim.gateway.cagatewayimport.config.GatewayImportConfig;
 import com.ca.apim.gateway.cagatewayimport.config.GatewayImportConnectionProperties;
-import org.apache.http.entity.FileEntity;
 import org.gradle.api.DefaultTask;
 import org.gradle.api.file.ConfigurableFileCollection;
+import org.gradle.api.file.RegularFileProperty;
+import org.gradle.api.provider.Property;
+import org.gradle.api.tasks.Input;
+import org.gradle.api.tasks.Internal;
 import org.gradle.api.tasks.Nested;
 import org.gradle.api.tasks.TaskAction;
+import org.gradle.api.tasks.options.Option;
 
 import java.io.File;
+import java.util.List;
 import java.util.Set;
 
-import static com.ca.apim.gateway.cagatewayconfig.util.connection.GatewayClient.getRestmanBundleEndpoint;
-import static org.apache.http.HttpHeaders.CONTENT_TYPE;
-import static org.apache.http.client.methods.HttpPut.METHOD_NAME;
-import static org.apache.http.client.methods.RequestBuilder.create;
-
 /**
- * Task to import a bundle into an existing running gateway.
+ * Task to import a bundle into an existing running gateway. Bundles already imported into the gateway with the same
+ * content are skipped, unless the import is forced. The ids of the deployment bundles are derived from their sources,
+ * so a bundle rebuilt from the same sources is skipped as well, and only the bundles whose sources changed are
+ * imported again.
  */
 public class ImportBundleTask extends DefaultTask {
 
@@ -33,11 +37,16 @@ public class ImportBundleTask extends DefaultTask {
     //Inputs
     private GatewayImportConnectionProperties gatewayConnectionProperties;
     private GatewayImportConfig gatewayImportConfig;
+    private final Property<Boolean> force;
+    private final RegularFileProperty manifest;
 
     public ImportBundleTask() {
         this.gatewayClient = GatewayClient.INSTANCE;
         gatewayConnectionProperties = new GatewayImportConnectionProperties(getProject());
         gatewayImportConfig = new GatewayImportConfig(getProject());
+        force = getProject().getObjects().property(Boolean.class);
+        force.set(false);
+        manifest = getProject().getLayout().fileProperty();
 
         // makes it so that the export is always run
         getOutputs().upToDateWhen(t -> false);
@@ -62,19 +71,40 @@ public class ImportBundleTask extends DefaultTask {
     }
 
 
+    @Option(option = "force", description = "Imports every bundle, including the ones already imported into the gateway.")
+    public void setForce(boolean force) {
+        this.force.set(force);
+    }
+
+    @Input
+    public Property<Boolean> getForce() {
+        return force;
+    }
+
+    /**
+     * The file keeping the digests of the bundles imported into each gateway. It has to outlive the build directory,
+     * or every bundle is imported again after a clean build.
+     *
+     * @return the import manifest file
+     */
+    @Internal
+    public RegularFileProperty getManifest() {
+        return manifest;
+    }
+
     @TaskAction
     public void perform() {
         ConfigurableFileCollection bundleFileCollection = gatewayImportConfig.getBundles();
         Set<File> bundleFiles = bundleFileCollection.getFiles();
-        bundleFiles.forEach(bundleFile -> {
-            gatewayClient.makeGatewayAPICall(
-                    create(METHOD_NAME)
-                            .setUri(getRestmanBundleEndpoint(gatewayConnectionProperties.getUrl().get()))
-                            .setEntity(new FileEntity(bundleFile))
-                            .setHeader(CONTENT_TYPE, "application/xml"),
-                    gatewayConnectionProperties.getUserName().get(),
-                    gatewayConnectionProperties.getUserPass().get()
-            );
-        });
+        BundleImporter bundleImporter = new BundleImporter(
+                gatewayClient,
+                gatewayConnectionProperties.getUrl().get(),
+                gatewayConnectionProperties.getUserName().get(),
+                gatewayConnectionProperties.getUserPass().get(),
+                getProject().getProjectDir(),
+                manifest.getAsFile().get()
+        );
+        List<File> importedBundles = bundleImporter.importBundles(bundleFiles, force.get());
+        getLogger().lifecycle("Imported {} bundle(s), skipped {} already imported", importedBundles.size(), bundleFiles.size() - importedBundles.size());
     }
 }